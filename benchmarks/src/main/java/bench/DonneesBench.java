@@ -0,0 +1,33 @@
+package bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+
+/**
+ * Cache des fichiers générés pour les benchmarks
+ * Un fichier par taille, créé une fois dans target/bench-data puis réutilisé
+ * (le générateur est déterministe, le contenu est donc toujours le même)
+ */
+final class DonneesBench {
+    
+    private static final Path DOSSIER = Paths.get(
+        System.getProperty("bench.data", "target/bench-data"));
+    
+    private DonneesBench() {
+    }
+    
+    /**
+     * Retourne le fichier de la taille demandée (ex. "1MB", "5GB"), en le générant si besoin
+     */
+    static synchronized File fichier(String taille) throws IOException {
+        Path fichier = DOSSIER.resolve("bibliotheque_" + taille + ".xml");
+        if (!Files.exists(fichier)) {
+            Path temporaire = DOSSIER.resolve(fichier.getFileName() + ".tmp");
+            new GenerateurBibliotheque()
+                .generer(temporaire, GenerateurBibliotheque.parserTaille(taille), 0);
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return fichier.toFile();
+    }
+}
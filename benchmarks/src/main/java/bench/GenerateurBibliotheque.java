@@ -0,0 +1,227 @@
+package bench;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Générateur déterministe de documents <bibliotheque> synthétiques
+ * Même graine + mêmes paramètres = même fichier, octet pour octet
+ * La structure suit data/livres.xml (livre > titre, auteurs, section > chapitre > paragraphe)
+ *
+ * Usage : java -cp target/benchmarks.jar bench.GenerateurBibliotheque fichier.xml taille
+ *         [--livres N] [--sections N] [--chapitres N] [--paragraphes N] [--mots N] [--graine N]
+ * La taille accepte les suffixes KB, MB et GB (ex. 1MB, 500MB, 5GB)
+ */
+public class GenerateurBibliotheque {
+    
+    private static final String[] NOMS = {
+        "Dupont", "Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard",
+        "Petit", "Durand", "Leroy", "Moreau", "Simon", "Laurent", "Lefèvre", "Michel"
+    };
+    private static final String[] PRENOMS = {
+        "Marie", "Jean", "Sophie", "Pierre", "Claire", "Luc", "Élodie", "François",
+        "Hélène", "Jérôme", "Camille", "Noémie", "Gaël", "Anaïs", "Benoît"
+    };
+    private static final String[] MOTS = {
+        "XML", "document", "élément", "balise", "attribut", "schéma", "validation",
+        "parseur", "arbre", "nœud", "données", "structure", "hiérarchique", "échange",
+        "système", "déclaration", "entité", "espace", "noms", "transformation",
+        "requête", "chemin", "flux", "événement", "mémoire", "lecture", "écriture",
+        "fichier", "caractère", "encodage", "le", "la", "les", "un", "une", "des",
+        "de", "du", "et", "ou", "avec", "pour", "dans", "sur", "qui", "permet", "est",
+        "sont", "très", "plus", "être", "peut", "l'analyse", "d'un", "qu'il", "c'est"
+    };
+    
+    // Paramètres de génération
+    private int sections = 3;
+    private int chapitres = 3;
+    private int paragraphes = 3;
+    private int motsParParagraphe = 60;
+    private int auteursMax = 3;
+    private long graine = 42L;
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage : GenerateurBibliotheque <fichier.xml> <taille|0> " +
+                               "[--livres N] [--sections N] [--chapitres N] " +
+                               "[--paragraphes N] [--mots N] [--graine N]");
+            System.exit(1);
+        }
+        
+        GenerateurBibliotheque generateur = new GenerateurBibliotheque();
+        long tailleCible = parserTaille(args[1]);
+        long livres = 0;
+        
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            long valeur = Long.parseLong(args[i + 1]);
+            switch (args[i]) {
+                case "--livres":      livres = valeur; break;
+                case "--sections":    generateur.sections((int) valeur); break;
+                case "--chapitres":   generateur.chapitres((int) valeur); break;
+                case "--paragraphes": generateur.paragraphes((int) valeur); break;
+                case "--mots":        generateur.motsParParagraphe((int) valeur); break;
+                case "--graine":      generateur.graine(valeur); break;
+                default:
+                    throw new IllegalArgumentException("Option inconnue : " + args[i]);
+            }
+        }
+        
+        Path fichier = Paths.get(args[0]);
+        long debut = System.nanoTime();
+        long octets = generateur.generer(fichier, tailleCible, livres);
+        long duree = (System.nanoTime() - debut) / 1_000_000;
+        
+        System.out.println("✅ Fichier généré : " + fichier + " (" + octets + " octets, " + duree + " ms)");
+    }
+    
+    public GenerateurBibliotheque sections(int n) { this.sections = n; return this; }
+    public GenerateurBibliotheque chapitres(int n) { this.chapitres = n; return this; }
+    public GenerateurBibliotheque paragraphes(int n) { this.paragraphes = n; return this; }
+    public GenerateurBibliotheque motsParParagraphe(int n) { this.motsParParagraphe = n; return this; }
+    public GenerateurBibliotheque graine(long g) { this.graine = g; return this; }
+    
+    /**
+     * Génère le fichier et retourne le nombre d'octets écrits
+     * On s'arrête dès que tailleCible est atteinte, ou après nbLivres livres
+     * (le premier des deux ; 0 désactive le critère correspondant)
+     */
+    public long generer(Path fichier, long tailleCible, long nbLivres) throws IOException {
+        if (tailleCible <= 0 && nbLivres <= 0) {
+            throw new IllegalArgumentException("Il faut une taille cible ou un nombre de livres");
+        }
+        if (fichier.getParent() != null) {
+            Files.createDirectories(fichier.getParent());
+        }
+        
+        try (CompteurOutputStream compteur = new CompteurOutputStream(
+                 new BufferedOutputStream(Files.newOutputStream(fichier), 1 << 16));
+             Writer out = new OutputStreamWriter(compteur, StandardCharsets.UTF_8)) {
+            
+            SplittableRandom random = new SplittableRandom(graine);
+            StringBuilder sb = new StringBuilder(8192);
+            
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<bibliotheque>\n");
+            
+            long numero = 0;
+            while ((nbLivres <= 0 || numero < nbLivres)
+                   && (tailleCible <= 0 || compteur.octets < tailleCible)) {
+                numero++;
+                sb.setLength(0);
+                ecrireLivre(sb, numero, random);
+                out.write(sb.toString());
+                // Vider l'encodeur pour que le compteur d'octets soit à jour
+                out.flush();
+            }
+            
+            out.write("</bibliotheque>\n");
+            out.flush();
+            return compteur.octets;
+        }
+    }
+    
+    /**
+     * Écrit un livre complet dans le tampon
+     */
+    private void ecrireLivre(StringBuilder sb, long numero, SplittableRandom random) {
+        sb.append("    <livre>\n");
+        sb.append("        <titre>Livre ").append(numero).append(" : ");
+        ajouterPhrase(sb, random, 4);
+        sb.append("</titre>\n");
+        
+        sb.append("        <auteurs>\n");
+        int nbAuteurs = 1 + random.nextInt(auteursMax);
+        for (int a = 0; a < nbAuteurs; a++) {
+            sb.append("            <auteur>\n");
+            sb.append("                <nom>").append(NOMS[random.nextInt(NOMS.length)]).append("</nom>\n");
+            sb.append("                <prenom>").append(PRENOMS[random.nextInt(PRENOMS.length)]).append("</prenom>\n");
+            sb.append("            </auteur>\n");
+        }
+        sb.append("        </auteurs>\n");
+        
+        for (int s = 1; s <= sections; s++) {
+            sb.append("        <section>\n");
+            sb.append("            <titre>Section ").append(s).append(" : ");
+            ajouterPhrase(sb, random, 3);
+            sb.append("</titre>\n");
+            
+            for (int c = 1; c <= chapitres; c++) {
+                sb.append("            <chapitre>\n");
+                sb.append("                <titre>");
+                // Un titre sur dix contient des guillemets pour exercer l'échappement CSV
+                if (random.nextInt(10) == 0) {
+                    sb.append("Le &quot;");
+                    ajouterPhrase(sb, random, 2);
+                    sb.append("&quot; ");
+                }
+                ajouterPhrase(sb, random, 4);
+                sb.append("</titre>\n");
+                
+                for (int p = 0; p < paragraphes; p++) {
+                    sb.append("                <paragraphe>\n                    ");
+                    ajouterPhrase(sb, random, motsParParagraphe);
+                    sb.append(".\n                </paragraphe>\n");
+                }
+                sb.append("            </chapitre>\n");
+            }
+            sb.append("        </section>\n");
+        }
+        sb.append("    </livre>\n");
+    }
+    
+    /**
+     * Ajoute une suite de mots tirés du vocabulaire
+     */
+    private static void ajouterPhrase(StringBuilder sb, SplittableRandom random, int nbMots) {
+        for (int m = 0; m < nbMots; m++) {
+            if (m > 0) {
+                // Retour à la ligne régulier, comme dans data/livres.xml
+                sb.append(m % 12 == 0 ? "\n                    " : " ");
+            }
+            sb.append(MOTS[random.nextInt(MOTS.length)]);
+        }
+    }
+    
+    /**
+     * Convertit "512KB", "1MB", "5GB" ou un nombre d'octets en long
+     */
+    public static long parserTaille(String taille) {
+        String t = taille.trim().toUpperCase(Locale.ROOT);
+        long multiplicateur = 1;
+        if (t.endsWith("KB")) {
+            multiplicateur = 1L << 10;
+        } else if (t.endsWith("MB")) {
+            multiplicateur = 1L << 20;
+        } else if (t.endsWith("GB")) {
+            multiplicateur = 1L << 30;
+        }
+        if (multiplicateur > 1) {
+            t = t.substring(0, t.length() - 2);
+        }
+        return Long.parseLong(t.trim()) * multiplicateur;
+    }
+    
+    /**
+     * Flux qui compte les octets réellement écrits
+     */
+    private static class CompteurOutputStream extends FilterOutputStream {
+        long octets = 0;
+        
+        CompteurOutputStream(OutputStream out) {
+            super(out);
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            octets++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            octets += len;
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package bench;
+
+import java.io.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Accès aux moteurs de ../src depuis le paquet bench
+ * Les parseurs sont dans le paquet par défaut (non importable) et leurs étapes
+ * sont privées : on passe par la réflexion, résolue une seule fois au chargement
+ * Chaque méthode reproduit une étape du main() correspondant, sans chemins codés en dur
+ */
+final class Moteurs {
+    
+    private static final MethodHandle DOM_VISITEUR;
+    private static final MethodHandle DOM_PARCOURIR;
+    private static final MethodHandle RAPPORT_SYNCHRONE;
+    private static final MethodHandle DOM_STATISTIQUES;
+    private static final MethodHandle PROJECTION_TOUT;
+    private static final MethodHandle PROJECTION_LIGNE_CSV;
+    private static final MethodHandle PROJECTION_ECRIRE_CSV;
+    private static final MethodHandle SORTIE_CANAL_OUVRIR;
+    private static final MethodHandle SAX_HANDLER;
+    private static final MethodHandle SAX_STATISTIQUES;
+    private static final MethodHandle SAX_HANDLER_RAPIDE;
+    private static final MethodHandle SAX_STATISTIQUES_RAPIDE;
+    private static final MethodHandle STAX_READER;
+    private static final MethodHandle STAX_LIRE_DOCUMENT;
+    private static final MethodHandle MMAP_SCANNEUR;
+    private static final MethodHandle MMAP_LIRE_DOCUMENT;
+    private static final MethodHandle MODELE_CHARGER;
+    private static final MethodHandle REQUETE_COMPILER;
+    private static final MethodHandle REQUETE_EVALUER;
+    private static final MethodHandle REQUETES_RESULTATS;
+    private static final MethodHandle REQUETES_FLUX;
+    private static final MethodHandle INDEX_CONSTRUIRE;
+    private static final MethodHandle INSTANTANE_OUVRIR;
+    private static final MethodHandle MODELE_REJOUER;
+    private static final MethodHandle INDEX_RECHERCHER;
+    
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            ClassLoader cl = Moteurs.class.getClassLoader();
+            
+            Class<?> sortieRapport = Class.forName("SortieRapport", true, cl);
+            RAPPORT_SYNCHRONE = lookup.unreflect(accessible(sortieRapport.getDeclaredMethod(
+                "synchrone", PrintWriter.class, boolean.class)));
+            
+            Class<?> parserDom = Class.forName("ParserDOM", true, cl);
+            Class<?> visiteurDom = Class.forName("VisiteurDOM", true, cl);
+            Class<?> rapportDom = Class.forName("RapportDOM", true, cl);
+            Constructor<?> ctorVisiteur = rapportDom.getDeclaredConstructor(
+                sortieRapport, PrintWriter.class);
+            ctorVisiteur.setAccessible(true);
+            DOM_VISITEUR = lookup.unreflectConstructor(ctorVisiteur);
+            DOM_PARCOURIR = lookup.unreflect(accessible(visiteurDom.getDeclaredMethod(
+                "parcourir", Element.class, visiteurDom)));
+            DOM_STATISTIQUES = lookup.unreflect(accessible(parserDom.getDeclaredMethod(
+                "afficherStatistiques", rapportDom)));
+            
+            Class<?> projection = Class.forName("Projection", true, cl);
+            Class<?> sortieCanal = Class.forName("SortieCanal", true, cl);
+            Field tout = projection.getDeclaredField("TOUT");
+            tout.setAccessible(true);
+            PROJECTION_TOUT = lookup.unreflectGetter(tout);
+            PROJECTION_LIGNE_CSV = lookup.unreflect(accessible(projection.getDeclaredMethod(
+                "ligneCsv", int.class, String.class, String.class, int.class,
+                String.class, int.class, String.class, int.class)));
+            PROJECTION_ECRIRE_CSV = lookup.unreflect(accessible(projection.getDeclaredMethod(
+                "ecrireCsv", sortieCanal, int.class, CharSequence.class, CharSequence.class, int.class,
+                CharSequence.class, int.class, CharSequence.class, int.class)));
+            SORTIE_CANAL_OUVRIR = lookup.unreflect(accessible(sortieCanal.getDeclaredMethod(
+                "ouvrir", Path.class)));
+            
+            Class<?> livreHandler = Class.forName("LivreHandler", true, cl);
+            Constructor<?> ctorHandler = livreHandler.getDeclaredConstructor(
+                PrintWriter.class, PrintWriter.class);
+            ctorHandler.setAccessible(true);
+            SAX_HANDLER = lookup.unreflectConstructor(ctorHandler);
+            SAX_STATISTIQUES = lookup.unreflect(accessible(livreHandler.getDeclaredMethod(
+                "getStatistiques")));
+            
+            Class<?> handlerRapide = Class.forName("LivreHandlerRapide", true, cl);
+            Constructor<?> ctorRapide = handlerRapide.getDeclaredConstructor(
+                sortieRapport, Writer.class);
+            ctorRapide.setAccessible(true);
+            SAX_HANDLER_RAPIDE = lookup.unreflectConstructor(ctorRapide);
+            SAX_STATISTIQUES_RAPIDE = lookup.unreflect(accessible(handlerRapide.getDeclaredMethod(
+                "getStatistiques")));
+            
+            Class<?> livreReader = Class.forName("LivreReader", true, cl);
+            Constructor<?> ctorReader = livreReader.getDeclaredConstructor(
+                XMLStreamReader.class, PrintWriter.class, PrintWriter.class);
+            ctorReader.setAccessible(true);
+            STAX_READER = lookup.unreflectConstructor(ctorReader);
+            STAX_LIRE_DOCUMENT = lookup.unreflect(accessible(livreReader.getDeclaredMethod(
+                "lireDocument")));
+            
+            Class<?> scanneur = Class.forName("ScanneurLivres", true, cl);
+            Constructor<?> ctorScanneur = scanneur.getDeclaredConstructor(
+                FileChannel.class, PrintWriter.class, PrintWriter.class);
+            ctorScanneur.setAccessible(true);
+            MMAP_SCANNEUR = lookup.unreflectConstructor(ctorScanneur);
+            MMAP_LIRE_DOCUMENT = lookup.unreflect(accessible(scanneur.getDeclaredMethod(
+                "lireDocument")));
+            
+            Class<?> modele = Class.forName("ModeleBibliotheque", true, cl);
+            MODELE_CHARGER = lookup.unreflect(accessible(modele.getDeclaredMethod(
+                "charger", File.class)));
+            MODELE_REJOUER = lookup.unreflect(accessible(modele.getDeclaredMethod(
+                "rejouer", ContentHandler.class)));
+            INSTANTANE_OUVRIR = lookup.unreflect(accessible(Class.forName("InstantaneBibliotheque", true, cl)
+                .getDeclaredMethod("ouvrir", File.class)));
+            Class<?> requete = Class.forName("Requete", true, cl);
+            REQUETE_COMPILER = lookup.unreflect(accessible(requete.getDeclaredMethod(
+                "compiler", String.class)));
+            REQUETE_EVALUER = lookup.unreflect(accessible(requete.getDeclaredMethod(
+                "evaluer", modele)));
+            Class<?> resultats = Class.forName("ResultatsRequetes", true, cl);
+            Constructor<?> ctorResultats = resultats.getDeclaredConstructor(
+                int.class, PrintWriter.class);
+            ctorResultats.setAccessible(true);
+            REQUETES_RESULTATS = lookup.unreflectConstructor(ctorResultats);
+            Constructor<?> ctorFlux = Class.forName("EvaluateurFlux", true, cl)
+                .getDeclaredConstructor(List.class, resultats);
+            ctorFlux.setAccessible(true);
+            REQUETES_FLUX = lookup.unreflectConstructor(ctorFlux);
+            
+            Class<?> index = Class.forName("IndexTexte", true, cl);
+            INDEX_CONSTRUIRE = lookup.unreflect(accessible(index.getDeclaredMethod(
+                "construire", File.class)));
+            INDEX_RECHERCHER = lookup.unreflect(accessible(index.getDeclaredMethod(
+                "rechercher", String.class, int.class)));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    private Moteurs() {
+    }
+    
+    private static Method accessible(Method m) {
+        m.setAccessible(true);
+        return m;
+    }
+    
+    // ───────────────────────────── DOM ─────────────────────────────
+    
+    /**
+     * Même configuration que ParserDOM.main
+     */
+    static DocumentBuilder nouveauDocumentBuilder() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setIgnoringElementContentWhitespace(true);
+        factory.setIgnoringComments(true);
+        return factory.newDocumentBuilder();
+    }
+    
+    /**
+     * Phase "parse" du DOM : construction et normalisation de l'arbre
+     */
+    static Document domParse(DocumentBuilder builder, File fichier) throws Exception {
+        Document doc = builder.parse(fichier);
+        doc.getDocumentElement().normalize();
+        return doc;
+    }
+    
+    /**
+     * Phase "parcours" du DOM : un seul parcours de l'arbre (TXT + CSV + comptages)
+     * Retourne le visiteur, qui porte les statistiques
+     */
+    static Object domTraitement(Document doc, PrintWriter txt, PrintWriter csv) throws Throwable {
+        Object rapport = RAPPORT_SYNCHRONE.invoke(txt, false);
+        Object visiteur = DOM_VISITEUR.invoke(rapport, csv);
+        DOM_PARCOURIR.invoke(doc.getDocumentElement(), visiteur);
+        return visiteur;
+    }
+    
+    /**
+     * Phase "statistiques" du DOM : mise en forme des comptages du parcours
+     */
+    static String domStatistiques(Object visiteur) throws Throwable {
+        return (String) DOM_STATISTIQUES.invoke(visiteur);
+    }
+    
+    // ───────────────────────────── CSV ─────────────────────────────
+    
+    /**
+     * Projection de tous les champs (celle des moteurs sans --champs)
+     */
+    static Object projectionComplete() throws Throwable {
+        return PROJECTION_TOUT.invoke();
+    }
+    
+    /**
+     * Formate une ligne CSV comme traiterChapitre (DOM) et LivreHandler : Projection.ligneCsv
+     */
+    static void formaterLigneCSV(Object projection, PrintWriter csv, LigneChapitre l) throws Throwable {
+        csv.print((String) PROJECTION_LIGNE_CSV.invoke(projection, l.numeroLivre, l.titreLivre, l.auteurs,
+            l.numeroSection, l.titreSection, l.numeroChapitre, l.titreChapitre, l.nombreParagraphes));
+    }
+    
+    /**
+     * Sortie CSV de LivreHandler et LivreHandlerRapide (SortieCanal sur le fichier)
+     */
+    static Writer ouvrirSortieCanal(Path fichier) throws Throwable {
+        return (Writer) SORTIE_CANAL_OUVRIR.invoke(fichier);
+    }
+    
+    /**
+     * Écrit une ligne CSV champ par champ dans la SortieCanal : Projection.ecrireCsv
+     */
+    static void ecrireLigneCSV(Object projection, Writer sortie, LigneChapitre l) throws Throwable {
+        PROJECTION_ECRIRE_CSV.invoke(projection, sortie, l.numeroLivre, (CharSequence) l.titreLivre,
+            (CharSequence) l.auteurs, l.numeroSection, (CharSequence) l.titreSection, l.numeroChapitre,
+            (CharSequence) l.titreChapitre, l.nombreParagraphes);
+    }
+    
+    // ───────────────────────────── SAX ─────────────────────────────
+    
+    static SAXParser nouveauSAXParser() throws Exception {
+        return SAXParserFactory.newInstance().newSAXParser();
+    }
+    
+    /**
+     * Parse complet avec LivreHandler ; retourne les statistiques
+     */
+    static String saxLivreHandler(SAXParser parser, File fichier,
+                                  PrintWriter txt, PrintWriter csv) throws Throwable {
+        DefaultHandler handler = (DefaultHandler) SAX_HANDLER.invoke(txt, csv);
+        parser.parse(fichier, handler);
+        return (String) SAX_STATISTIQUES.invoke(handler);
+    }
+    
+    /**
+     * Parse complet avec LivreHandlerRapide (option --rapide) ; retourne les statistiques
+     */
+    static String saxLivreHandlerRapide(SAXParser parser, File fichier,
+                                        PrintWriter txt, PrintWriter csv) throws Throwable {
+        Object rapport = RAPPORT_SYNCHRONE.invoke(txt, true);
+        DefaultHandler handler = (DefaultHandler) SAX_HANDLER_RAPIDE.invoke(rapport, (Writer) csv);
+        parser.parse(fichier, handler);
+        return (String) SAX_STATISTIQUES_RAPIDE.invoke(handler);
+    }
+    
+    /**
+     * LivreHandlerRapide alimenté par l'instantané binaire (option --instantane) ;
+     * l'instantané est écrit au premier appel puis projeté en mémoire
+     */
+    static String saxInstantaneRapide(File fichier, PrintWriter txt, PrintWriter csv) throws Throwable {
+        Object rapport = RAPPORT_SYNCHRONE.invoke(txt, true);
+        DefaultHandler handler = (DefaultHandler) SAX_HANDLER_RAPIDE.invoke(rapport, (Writer) csv);
+        Object modele = INSTANTANE_OUVRIR.invoke(fichier);
+        MODELE_REJOUER.invoke(modele, (ContentHandler) handler);
+        return (String) SAX_STATISTIQUES_RAPIDE.invoke(handler);
+    }
+    
+    /**
+     * Phase "parse" seule : le parseur SAX avec un handler vide
+     */
+    static void saxParseSeul(SAXParser parser, File fichier) throws Exception {
+        parser.parse(fichier, new DefaultHandler());
+    }
+    
+    // ───────────────────────────── StAX ────────────────────────────
+    
+    static XMLInputFactory nouvelleXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        return factory;
+    }
+    
+    /**
+     * Parse complet avec LivreReader
+     */
+    static void staxLivreReader(XMLInputFactory factory, File fichier,
+                                PrintWriter txt, PrintWriter csv) throws Throwable {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(fichier))) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in, "UTF-8");
+            Object livreReader = STAX_READER.invoke(reader, txt, csv);
+            STAX_LIRE_DOCUMENT.invoke(livreReader);
+            reader.close();
+        }
+    }
+    
+    // ───────────────────────────── MMAP ────────────────────────────
+    
+    /**
+     * Parse complet avec le scanner d'octets ScanneurLivres
+     */
+    static void mmapScanneur(File fichier, PrintWriter txt, PrintWriter csv) throws Throwable {
+        try (FileChannel canal = FileChannel.open(fichier.toPath(), StandardOpenOption.READ)) {
+            Object scanneur = MMAP_SCANNEUR.invoke(canal, txt, csv);
+            MMAP_LIRE_DOCUMENT.invoke(scanneur);
+        }
+    }
+    
+    // ─────────────────────────── Requêtes ──────────────────────────
+    
+    /**
+     * Modèle compact du document entier (ModeleBibliotheque)
+     */
+    static Object chargerModele(File fichier) throws Throwable {
+        return MODELE_CHARGER.invoke(fichier);
+    }
+    
+    static Object compilerRequete(String expression) throws Throwable {
+        return REQUETE_COMPILER.invoke(expression);
+    }
+    
+    /**
+     * Nombre de nœuds trouvés par la requête dans le modèle
+     */
+    static int evaluerRequete(Object requete, Object modele) throws Throwable {
+        return ((int[]) REQUETE_EVALUER.invoke(requete, modele)).length;
+    }
+    
+    /**
+     * Toutes les requêtes en une lecture SAX (EvaluateurFlux), résultats en CSV
+     */
+    static void requetesFlux(SAXParser parser, File fichier, List<Object> requetes,
+                             PrintWriter csv) throws Throwable {
+        Object resultats = REQUETES_RESULTATS.invoke(requetes.size(), csv);
+        DefaultHandler evaluateur = (DefaultHandler) REQUETES_FLUX.invoke(requetes, resultats);
+        parser.parse(fichier, evaluateur);
+    }
+    
+    // ─────────────────────────── Recherche ─────────────────────────
+    
+    /**
+     * Index inversé des paragraphes (IndexTexte), construit en une lecture SAX
+     */
+    static Object construireIndex(File fichier) throws Throwable {
+        return INDEX_CONSTRUIRE.invoke(fichier);
+    }
+    
+    /**
+     * Nombre de chapitres retournés (au plus k)
+     */
+    static int rechercher(Object index, String requete, int k) throws Throwable {
+        return ((List<?>) INDEX_RECHERCHER.invoke(index, requete, k)).size();
+    }
+    
+    // ─────────────────────────── Utilitaires ───────────────────────
+    
+    /**
+     * Writer qui jette tout (le coût de formatage reste mesuré)
+     */
+    static PrintWriter writerNul() {
+        return new PrintWriter(Writer.nullWriter());
+    }
+    
+    /**
+     * Redirige System.out : les moteurs affichent tout sur la console
+     */
+    static PrintStream couperConsole() {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return original;
+    }
+    
+    /**
+     * Ligne du CSV (mêmes colonnes que Numero_Livre,...,Nombre_Paragraphes)
+     */
+    static final class LigneChapitre {
+        final int numeroLivre;
+        final String titreLivre;
+        final String auteurs;
+        final int numeroSection;
+        final String titreSection;
+        final int numeroChapitre;
+        final String titreChapitre;
+        final int nombreParagraphes;
+        
+        LigneChapitre(int numeroLivre, String titreLivre, String auteurs, int numeroSection,
+                      String titreSection, int numeroChapitre, String titreChapitre,
+                      int nombreParagraphes) {
+            this.numeroLivre = numeroLivre;
+            this.titreLivre = titreLivre;
+            this.auteurs = auteurs;
+            this.numeroSection = numeroSection;
+            this.titreSection = titreSection;
+            this.numeroChapitre = numeroChapitre;
+            this.titreChapitre = titreChapitre;
+            this.nombreParagraphes = nombreParagraphes;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package bench;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.SAXParser;
+import javax.xml.stream.XMLInputFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks de bout en bout : fichier XML → TXT + CSV + statistiques
+ * Chaque moteur refait exactement le travail de son main() (sorties vers un writer nul)
+ *
+ * Exemple : java -jar target/benchmarks.jar ParseursBenchmark -p taille=1MB,64MB,1GB
+ * Allocation par opération : ajouter -prof gc (comparer sax et saxRapide)
+ * saxRapideInstantane lit l'instantané binaire écrit à côté du fichier généré (voir InstantaneBibliotheque)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ParseursBenchmark {
+    
+    @Param({"1MB", "16MB"})
+    public String taille;
+    
+    private File fichier;
+    private PrintStream consoleOriginale;
+    private PrintWriter txt;
+    private PrintWriter csv;
+    
+    private DocumentBuilder builder;
+    private SAXParser saxParser;
+    private XMLInputFactory staxFactory;
+    
+    @Setup(Level.Trial)
+    public void preparer() throws Exception {
+        fichier = DonneesBench.fichier(taille);
+        consoleOriginale = Moteurs.couperConsole();
+        txt = Moteurs.writerNul();
+        csv = Moteurs.writerNul();
+        
+        builder = Moteurs.nouveauDocumentBuilder();
+        saxParser = Moteurs.nouveauSAXParser();
+        staxFactory = Moteurs.nouvelleXMLInputFactory();
+    }
+    
+    @TearDown(Level.Trial)
+    public void terminer() {
+        System.setOut(consoleOriginale);
+    }
+    
+    @Benchmark
+    public void dom(Blackhole bh) throws Throwable {
+        builder.reset();
+        var doc = Moteurs.domParse(builder, fichier);
+        Object visiteur = Moteurs.domTraitement(doc, txt, csv);
+        bh.consume(Moteurs.domStatistiques(visiteur));
+    }
+    
+    @Benchmark
+    public void sax(Blackhole bh) throws Throwable {
+        saxParser.reset();
+        bh.consume(Moteurs.saxLivreHandler(saxParser, fichier, txt, csv));
+    }
+    
+    @Benchmark
+    public void saxRapide(Blackhole bh) throws Throwable {
+        saxParser.reset();
+        bh.consume(Moteurs.saxLivreHandlerRapide(saxParser, fichier, txt, csv));
+    }
+    
+    @Benchmark
+    public void saxRapideInstantane(Blackhole bh) throws Throwable {
+        bh.consume(Moteurs.saxInstantaneRapide(fichier, txt, csv));
+    }
+    
+    @Benchmark
+    public void stax() throws Throwable {
+        Moteurs.staxLivreReader(staxFactory, fichier, txt, csv);
+    }
+    
+    @Benchmark
+    public void mmap() throws Throwable {
+        Moteurs.mmapScanneur(fichier, txt, csv);
+    }
+}
@@ -0,0 +1,164 @@
+package bench;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.SAXParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Benchmarks phase par phase : parse, parcours, formatage CSV, statistiques
+ * Le document DOM et les lignes CSV sont préparés une fois par essai,
+ * afin que chaque phase soit mesurée isolément
+ * Le formatage CSV passe par le code des moteurs (Projection.ligneCsv et Projection.ecrireCsv)
+ *
+ * Exemple : java -jar target/benchmarks.jar PhasesBenchmark -p taille=64MB -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class PhasesBenchmark {
+    
+    @Param({"1MB", "16MB"})
+    public String taille;
+    
+    private File fichier;
+    private PrintStream consoleOriginale;
+    private PrintWriter txt;
+    private PrintWriter csv;
+    
+    private DocumentBuilder builder;
+    private SAXParser saxParser;
+    private Document doc;
+    private Object visiteur;
+    private List<Moteurs.LigneChapitre> lignes;
+    private Object projection;
+    private Path csvCanal;
+    
+    @Setup(Level.Trial)
+    public void preparer() throws Throwable {
+        fichier = DonneesBench.fichier(taille);
+        consoleOriginale = Moteurs.couperConsole();
+        txt = Moteurs.writerNul();
+        csv = Moteurs.writerNul();
+        
+        builder = Moteurs.nouveauDocumentBuilder();
+        saxParser = Moteurs.nouveauSAXParser();
+        doc = Moteurs.domParse(builder, fichier);
+        lignes = extraireLignes(doc);
+        projection = Moteurs.projectionComplete();
+        csvCanal = Files.createTempFile("bench_csv", ".csv");
+        visiteur = Moteurs.domTraitement(doc, txt, csv);
+    }
+    
+    @TearDown(Level.Trial)
+    public void terminer() throws Exception {
+        System.setOut(consoleOriginale);
+        Files.deleteIfExists(csvCanal);
+    }
+    
+    /** Phase parse : construction de l'arbre DOM */
+    @Benchmark
+    public Document domParse() throws Exception {
+        builder.reset();
+        return Moteurs.domParse(builder, fichier);
+    }
+    
+    /** Phase parse : lecture SAX avec un handler vide */
+    @Benchmark
+    public void saxParse() throws Exception {
+        saxParser.reset();
+        Moteurs.saxParseSeul(saxParser, fichier);
+    }
+    
+    /** Phase parcours : visite unique de l'arbre déjà construit */
+    @Benchmark
+    public Object domParcours() throws Throwable {
+        return Moteurs.domTraitement(doc, txt, csv);
+    }
+    
+    /** Phase formatage CSV : Projection.ligneCsv de chaque ligne (DOM, SAX avec --tri) */
+    @Benchmark
+    public void formatageCSV() throws Throwable {
+        for (Moteurs.LigneChapitre l : lignes) {
+            Moteurs.formaterLigneCSV(projection, csv, l);
+        }
+    }
+    
+    /** Phase formatage CSV : Projection.ecrireCsv dans la SortieCanal (SAX), fichier réécrit à chaque appel */
+    @Benchmark
+    public void formatageCSVCanal() throws Throwable {
+        try (Writer sortie = Moteurs.ouvrirSortieCanal(csvCanal)) {
+            for (Moteurs.LigneChapitre l : lignes) {
+                Moteurs.ecrireLigneCSV(projection, sortie, l);
+            }
+        }
+    }
+    
+    /** Phase statistiques : afficherStatistiques sur les comptages du parcours */
+    @Benchmark
+    public void domStatistiques(Blackhole bh) throws Throwable {
+        bh.consume(Moteurs.domStatistiques(visiteur));
+    }
+    
+    /**
+     * Extrait une fois les lignes CSV du document (hors mesure)
+     */
+    private static List<Moteurs.LigneChapitre> extraireLignes(Document doc) {
+        List<Moteurs.LigneChapitre> resultat = new ArrayList<>();
+        NodeList livres = doc.getElementsByTagName("livre");
+        for (int i = 0; i < livres.getLength(); i++) {
+            Element livre = (Element) livres.item(i);
+            StringBuilder auteurs = new StringBuilder();
+            NodeList auteursNodes = livre.getElementsByTagName("auteur");
+            for (int j = 0; j < auteursNodes.getLength(); j++) {
+                Element auteur = (Element) auteursNodes.item(j);
+                if (j > 0) auteurs.append("; ");
+                auteurs.append(texte(auteur, "prenom")).append(" ").append(texte(auteur, "nom"));
+            }
+            int numeroSection = 0;
+            for (Element section : enfants(livre, "section")) {
+                numeroSection++;
+                int numeroChapitre = 0;
+                for (Element chapitre : enfants(section, "chapitre")) {
+                    numeroChapitre++;
+                    resultat.add(new Moteurs.LigneChapitre(i + 1, texte(livre, "titre"),
+                        auteurs.toString(), numeroSection, texte(section, "titre"),
+                        numeroChapitre, texte(chapitre, "titre"),
+                        enfants(chapitre, "paragraphe").size()));
+                }
+            }
+        }
+        return resultat;
+    }
+    
+    private static List<Element> enfants(Element parent, String nom) {
+        List<Element> resultat = new ArrayList<>();
+        for (Node n = parent.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n.getNodeType() == Node.ELEMENT_NODE && n.getNodeName().equals(nom)) {
+                resultat.add((Element) n);
+            }
+        }
+        return resultat;
+    }
+    
+    private static String texte(Element parent, String nom) {
+        List<Element> e = enfants(parent, nom);
+        return e.isEmpty() ? "" : e.get(0).getTextContent().trim();
+    }
+}
@@ -0,0 +1,85 @@
+package bench;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Recherche plein texte : parcours du XML brut à la manière de grep
+ * contre l'index inversé (IndexTexte) construit une fois
+ * Comme l'index, grepXml ignore la casse : le texte (lu une fois) et les requêtes sont mis
+ * en minuscules pendant la préparation, seul le parcours est mesuré
+ *
+ * Exemple : java -jar target/benchmarks.jar RechercheBenchmark -p taille=16MB
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class RechercheBenchmark {
+    
+    private static final String[] REQUETES = {
+        "schéma", "nœud hiérarchique", "encodage caractère", "transformation flux", "validation"
+    };
+    private static final int K = 10;
+    
+    @Param({"1MB", "16MB"})
+    public String taille;
+    
+    private File fichier;
+    private PrintStream consoleOriginale;
+    private Object index;
+    private String contenu;
+    private String[] requetesMinuscules;
+    
+    @Setup(Level.Trial)
+    public void preparer() throws Throwable {
+        fichier = DonneesBench.fichier(taille);
+        consoleOriginale = Moteurs.couperConsole();
+        index = Moteurs.construireIndex(fichier);
+        contenu = new String(Files.readAllBytes(fichier.toPath()), StandardCharsets.UTF_8)
+            .toLowerCase(Locale.ROOT);
+        requetesMinuscules = new String[REQUETES.length];
+        for (int q = 0; q < REQUETES.length; q++) {
+            requetesMinuscules[q] = REQUETES[q].toLowerCase(Locale.ROOT);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void terminer() {
+        System.setOut(consoleOriginale);
+    }
+    
+    /** Parcours du texte en minuscules et comptage des occurrences de chaque requête */
+    @Benchmark
+    public void grepXml(Blackhole bh) {
+        for (String requete : requetesMinuscules) {
+            int n = 0;
+            for (int i = contenu.indexOf(requete); i >= 0; i = contenu.indexOf(requete, i + 1)) {
+                n++;
+            }
+            bh.consume(n);
+        }
+    }
+    
+    /** Construction de l'index (lecture SAX comprise) */
+    @Benchmark
+    public Object indexConstruire() throws Throwable {
+        return Moteurs.construireIndex(fichier);
+    }
+    
+    /** Les mêmes requêtes sur l'index déjà construit (k meilleurs chapitres, BM25) */
+    @Benchmark
+    public void indexRechercher(Blackhole bh) throws Throwable {
+        for (String requete : REQUETES) {
+            bh.consume(Moteurs.rechercher(index, requete, K));
+        }
+    }
+}
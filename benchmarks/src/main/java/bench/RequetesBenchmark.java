@@ -0,0 +1,130 @@
+package bench;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.SAXParser;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+/**
+ * Lot de requêtes de rapport : javax.xml.xpath sur le DOM contre les requêtes
+ * compilées (Requete) sur le modèle compact, et en une seule lecture SAX
+ * Les deux lots sont équivalents (mêmes nœuds trouvés) ; XPath passe par auteurs/auteur
+ * car l'élément intermédiaire n'existe pas dans le modèle
+ *
+ * Exemple : java -jar target/benchmarks.jar RequetesBenchmark -p taille=16MB
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class RequetesBenchmark {
+    
+    private static final String[] NOMS = {
+        "Dupont", "Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard",
+        "Petit", "Durand", "Leroy", "Moreau", "Simon", "Laurent", "Lefèvre", "Michel"
+    };
+    private static final String[] MOTS = {
+        "XML", "document", "élément", "balise", "arbre", "flux", "mémoire", "schéma"
+    };
+    
+    @Param({"1MB", "16MB"})
+    public String taille;
+    
+    private File fichier;
+    private PrintStream consoleOriginale;
+    private PrintWriter csv;
+    
+    private Document doc;
+    private List<XPathExpression> xpaths;
+    private Object modele;
+    private List<Object> requetes;
+    private SAXParser saxParser;
+    
+    @Setup(Level.Trial)
+    public void preparer() throws Throwable {
+        fichier = DonneesBench.fichier(taille);
+        consoleOriginale = Moteurs.couperConsole();
+        csv = Moteurs.writerNul();
+        
+        doc = Moteurs.domParse(Moteurs.nouveauDocumentBuilder(), fichier);
+        modele = Moteurs.chargerModele(fichier);
+        saxParser = Moteurs.nouveauSAXParser();
+        
+        // Les deux lots sont compilés une fois, hors mesure
+        xpaths = new ArrayList<>();
+        requetes = new ArrayList<>();
+        XPathFactory factory = XPathFactory.newInstance();
+        for (String[] paire : lot()) {
+            requetes.add(Moteurs.compilerRequete(paire[0]));
+            xpaths.add(factory.newXPath().compile(paire[1]));
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void terminer() {
+        System.setOut(consoleOriginale);
+    }
+    
+    /** XPath (JAXP) sur l'arbre DOM déjà construit */
+    @Benchmark
+    public void xpathDom(Blackhole bh) throws Exception {
+        for (XPathExpression x : xpaths) {
+            bh.consume(((NodeList) x.evaluate(doc, XPathConstants.NODESET)).getLength());
+        }
+    }
+    
+    /** Requêtes compilées sur le modèle compact déjà construit */
+    @Benchmark
+    public void requetesModele(Blackhole bh) throws Throwable {
+        for (Object r : requetes) {
+            bh.consume(Moteurs.evaluerRequete(r, modele));
+        }
+    }
+    
+    /** Requêtes compilées en une lecture SAX (parse compris) */
+    @Benchmark
+    public void requetesFlux() throws Throwable {
+        saxParser.reset();
+        Moteurs.requetesFlux(saxParser, fichier, requetes, csv);
+    }
+    
+    /**
+     * Paires (requête, équivalent XPath)
+     */
+    private static List<String[]> lot() {
+        List<String[]> lot = new ArrayList<>();
+        for (int k = 0; k < 8; k++) {
+            lot.add(new String[] {"//section[count(chapitre) > " + k + "]",
+                                  "//section[count(chapitre) > " + k + "]"});
+            lot.add(new String[] {"//chapitre[count(paragraphe) >= " + k + "]",
+                                  "//chapitre[count(paragraphe) >= " + k + "]"});
+        }
+        for (String nom : NOMS) {
+            lot.add(new String[] {"/livre[auteur/nom = '" + nom + "']/section/chapitre",
+                                  "/bibliotheque/livre[auteurs/auteur/nom = '" + nom + "']/section/chapitre"});
+            lot.add(new String[] {"//auteur[nom = '" + nom + "']",
+                                  "//auteur[nom = '" + nom + "']"});
+            lot.add(new String[] {"/livre[count(auteur) > 1][auteur/nom = '" + nom + "']",
+                                  "/bibliotheque/livre[count(auteurs/auteur) > 1][auteurs/auteur/nom = '" + nom + "']"});
+        }
+        for (String mot : MOTS) {
+            lot.add(new String[] {"//chapitre[contains(titre, '" + mot + "')]",
+                                  "//chapitre[contains(titre, '" + mot + "')]"});
+            lot.add(new String[] {"//section[contains(titre, '" + mot + "')]/chapitre",
+                                  "//section[contains(titre, '" + mot + "')]/chapitre"});
+        }
+        return lot;
+    }
+}
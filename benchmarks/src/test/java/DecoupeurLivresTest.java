@@ -0,0 +1,71 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+import javax.xml.parsers.SAXParserFactory;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Découpage aux frontières des <livre> (DecoupeurLivres) : mêmes livres et même numérotation que ParserSAX
+ */
+class DecoupeurLivresTest {
+    
+    static Path fixture(String nom) throws Exception {
+        return Paths.get(DecoupeurLivresTest.class.getResource("/" + nom).toURI());
+    }
+    
+    /**
+     * CSV de ParserSAX (LivreHandler sur tout le document), sans l'en-tête
+     */
+    static String csvParserSAX(Path fichier) throws Exception {
+        StringWriter csv = new StringWriter();
+        LivreHandler handler = new LivreHandler(SortieRapport.aucune(), new PrintWriter(csv));
+        SAXParserFactory.newInstance().newSAXParser().parse(fichier.toFile(), handler);
+        String texte = csv.toString();
+        return texte.substring(texte.indexOf('\n') + 1);
+    }
+    
+    @Test
+    void livreVideCompteCommeUnLivre() throws Exception {
+        try (FileChannel canal = FileChannel.open(fixture("livre_vide.xml"), StandardOpenOption.READ)) {
+            DecoupeurLivres decoupeur = new DecoupeurLivres(1);
+            decoupeur.enregistrerLivres();
+            List<FragmentLivres> fragments = decoupeur.decouper(canal);
+            
+            assertEquals(3, decoupeur.getNombreLivres());
+            assertEquals(3, fragments.size());
+            assertEquals(List.of(1, 2, 3), fragments.stream().map(f -> f.premierNumero).toList());
+            
+            long debut = decoupeur.getDebutsLivres()[1];
+            long fin = decoupeur.getFinsLivres()[1];
+            ByteBuffer octets = ByteBuffer.allocate((int) (fin - debut));
+            canal.read(octets, debut);
+            assertEquals("<livre/>", new String(octets.array(), StandardCharsets.UTF_8));
+            assertTrue(decoupeur.getFinsLivres()[2] > decoupeur.getDebutsLivres()[2]);
+        }
+    }
+    
+    @Test
+    void fragmentsNumerotesCommeParserSAX() throws Exception {
+        Path fichier = fixture("livre_vide.xml");
+        String attendu = csvParserSAX(fichier);
+        assertTrue(attendu.contains("\"3\",\"Livre B\""));
+        
+        // Un fragment par livre, puis un seul fragment pour tout le document
+        for (long taille : new long[] {1, 1 << 20}) {
+            try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+                DecoupeurLivres decoupeur = new DecoupeurLivres(taille);
+                StringBuilder csv = new StringBuilder();
+                for (FragmentLivres f : decoupeur.decouper(canal)) {
+                    csv.append(ParserSAXParallele.parserFragment(canal, f, decoupeur.getPrologue(),
+                        decoupeur.getEpilogue(), fichier.toUri().toString(), false).csv);
+                }
+                assertEquals(attendu, csv.toString(), "fragments de " + taille + " octet(s)");
+            }
+        }
+    }
+}
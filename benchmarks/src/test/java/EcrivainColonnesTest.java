@@ -0,0 +1,57 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.*;
+import javax.xml.parsers.SAXParserFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Export en colonnes (--colonnes) : LecteurColonnes --csv redonne le CSV de ParserSAX
+ */
+class EcrivainColonnesTest {
+    
+    @TempDir
+    Path dossier;
+    
+    @Test
+    void allerRetourCsv() throws Exception {
+        assertAllerRetour(DecoupeurLivresTest.fixture("livre_vide.xml"));
+    }
+    
+    @Test
+    void allerRetourPlusieursGroupes() throws Exception {
+        // Plus d'un groupe de lignes, titres répétés (dictionnaires) et guillemets à échapper
+        Path source = dossier.resolve("livres.xml");
+        try (PrintWriter xml = new PrintWriter(Files.newBufferedWriter(source))) {
+            xml.println("<bibliotheque>");
+            int chapitres = EcrivainColonnes.LIGNES_PAR_GROUPE + 100;
+            for (int l = 1; chapitres > 0; l++) {
+                xml.println("<livre><titre>Livre " + l + "</titre><auteurs><auteur><nom>Nom " + (l % 7) +
+                            "</nom><prenom>&quot;P&quot;</prenom></auteur></auteurs><section><titre>S</titre>");
+                for (int c = 1; c <= 1000 && chapitres > 0; c++, chapitres--) {
+                    xml.println("<chapitre><titre>Chapitre \"" + (c % 50) + "\"</titre><paragraphe>p</paragraphe></chapitre>");
+                }
+                xml.println("</section></livre>");
+            }
+            xml.println("</bibliotheque>");
+        }
+        assertAllerRetour(source);
+    }
+    
+    private void assertAllerRetour(Path source) throws Exception {
+        Path fichier = dossier.resolve("export.colonnes");
+        StringWriter csv = new StringWriter();
+        try (EcrivainColonnes colonnes = new EcrivainColonnes(fichier)) {
+            LivreHandler handler = new LivreHandler(SortieRapport.aucune(), new PrintWriter(csv));
+            handler.setEcrivainColonnes(colonnes);
+            SAXParserFactory.newInstance().newSAXParser().parse(source.toFile(), handler);
+        }
+        
+        StringWriter relu = new StringWriter();
+        try (LecteurColonnes lecteur = new LecteurColonnes(fichier)) {
+            LecteurColonnes.ecrireCsv(lecteur, new PrintWriter(relu));
+        }
+        assertEquals(csv.toString(), relu.toString().replace(System.lineSeparator(), "\n"));
+    }
+}
@@ -0,0 +1,39 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Element;
+
+/**
+ * Index des livres : livre n de l'index = livre n de ParserSAX, <livre/> vide compris
+ */
+class IndexLivresTest {
+    
+    @TempDir
+    Path dossier;
+    
+    @Test
+    void livreVideIndexe() throws Exception {
+        Path source = dossier.resolve("livres.xml");
+        Files.copy(DecoupeurLivresTest.fixture("livre_vide.xml"), source);
+        String[] lignes = DecoupeurLivresTest.csvParserSAX(source).split("\n");
+        
+        // Index construit par balayage, puis relu depuis livres.xml.index
+        for (int lancement = 0; lancement < 2; lancement++) {
+            try (IndexLivres index = IndexLivres.ouvrir(source.toFile())) {
+                assertEquals(3, index.nombreLivres());
+                
+                Element vide = index.element(2);
+                assertFalse(vide.hasChildNodes());
+                assertEquals("", index.rapport(2, false).csv);
+                
+                assertEquals(lignes[0] + "\n", index.rapport(1, false).csv);
+                assertEquals(lignes[1] + "\n", index.rapport(3, false).csv);
+                assertEquals("Livre B", index.element(3).getElementsByTagName("titre").item(0).getTextContent());
+            }
+            assertTrue(new File(source + IndexLivres.EXTENSION).isFile());
+        }
+    }
+}
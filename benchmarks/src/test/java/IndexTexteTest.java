@@ -0,0 +1,53 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.*;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Index plein texte : un paragraphe imbriqué sous un autre élément du chapitre
+ * est indexé puis fermé, sans déborder sur la suite du document
+ */
+class IndexTexteTest {
+    
+    @TempDir
+    Path dossier;
+    
+    @Test
+    void paragrapheImbrique() throws Exception {
+        Path source = dossier.resolve("livres.xml");
+        Files.writeString(source,
+            "<bibliotheque>\n" +
+            "  <livre><titre>Livre A</titre><section><titre>S</titre>\n" +
+            "    <chapitre><titre>Chapitre A</titre>\n" +
+            "      <note><paragraphe>alpha</paragraphe></note>\n" +
+            "      <paragraphe>beta</paragraphe>\n" +
+            "    </chapitre>\n" +
+            "  </section></livre>\n" +
+            "  <livre><titre>Livre deux</titre><section><titre>S</titre>\n" +
+            "    <chapitre><titre>Chapitre B</titre><paragraphe>gamma</paragraphe></chapitre>\n" +
+            "  </section></livre>\n" +
+            "</bibliotheque>\n");
+        
+        IndexTexte index = IndexTexte.construire(source.toFile());
+        assertEquals(2, index.nbChapitres);
+        
+        List<IndexTexte.Resultat> alpha = index.rechercher("alpha", 10);
+        assertEquals(1, alpha.size());
+        assertEquals(1, alpha.get(0).numeroLivre);
+        assertEquals(1, alpha.get(0).meilleurParagraphe);
+        
+        List<IndexTexte.Resultat> beta = index.rechercher("beta", 10);
+        assertEquals(1, beta.size());
+        assertEquals(2, beta.get(0).meilleurParagraphe);
+        
+        List<IndexTexte.Resultat> gamma = index.rechercher("gamma", 10);
+        assertEquals(1, gamma.size());
+        assertEquals(2, gamma.get(0).numeroLivre);
+        assertEquals("Chapitre B", gamma.get(0).titreChapitre);
+        
+        // Le titre du livre suivant n'est pas pris pour du texte de paragraphe
+        assertTrue(index.rechercher("deux", 10).isEmpty());
+    }
+}
@@ -0,0 +1,46 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Traitement incrémental : le CSV doit rester celui de ParserSAX, livres repris compris
+ */
+class ParserIncrementalTest {
+    
+    @TempDir
+    Path dossier;
+    
+    private static String sansEnTete(String csv) {
+        return csv.substring(csv.indexOf('\n') + 1);
+    }
+    
+    @Test
+    void numerotationDuLivreVide() throws Exception {
+        Path source = dossier.resolve("livres.xml");
+        Files.copy(DecoupeurLivresTest.fixture("livre_vide.xml"), source);
+        File csv = dossier.resolve("export.csv").toFile();
+        File etat = dossier.resolve("livres.etat").toFile();
+        
+        // Premier traitement (tout est parsé), puis second (tout est repris de l'état)
+        EtatIncremental e = ParserIncremental.mettreAJour(source, null, csv, etat);
+        assertEquals(DecoupeurLivresTest.csvParserSAX(source),
+                     sansEnTete(Files.readString(csv.toPath(), StandardCharsets.UTF_8)));
+        e = ParserIncremental.mettreAJour(source, e, csv, etat);
+        assertEquals(DecoupeurLivresTest.csvParserSAX(source),
+                     sansEnTete(Files.readString(csv.toPath(), StandardCharsets.UTF_8)));
+        
+        // Livre A supprimé : le <livre/> et B sont repris et renumérotés
+        String xml = Files.readString(source, StandardCharsets.UTF_8);
+        int debutA = xml.indexOf("<livre>");
+        int finA = xml.indexOf("</livre>") + "</livre>".length();
+        Files.writeString(source, xml.substring(0, debutA) + xml.substring(finA), StandardCharsets.UTF_8);
+        ParserIncremental.mettreAJour(source, e, csv, etat);
+        String attendu = DecoupeurLivresTest.csvParserSAX(source);
+        assertTrue(attendu.startsWith("\"2\",\"Livre B\""));
+        assertEquals(attendu, sansEnTete(Files.readString(csv.toPath(), StandardCharsets.UTF_8)));
+    }
+}
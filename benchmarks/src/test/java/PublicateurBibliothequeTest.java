@@ -0,0 +1,103 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import javax.xml.parsers.SAXParserFactory;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.InputSource;
+
+/**
+ * Flux d'enregistrements : un abonné qui ne demande plus rien suspend le parsing,
+ * et son désabonnement l'arrête
+ */
+class PublicateurBibliothequeTest {
+    
+    @Test
+    void contrePressionPuisAnnulation() throws Exception {
+        // Document d'environ 1 Mo : bien plus que ce que le parseur lit d'avance
+        StringBuilder xml = new StringBuilder("<bibliotheque>\n");
+        for (int l = 1; l <= 100; l++) {
+            xml.append("<livre><titre>Livre ").append(l).append("</titre><section><titre>S</titre>\n");
+            for (int c = 1; c <= 100; c++) {
+                xml.append("<chapitre><titre>Chapitre ").append(c)
+                   .append("</titre><paragraphe>Un paragraphe de texte.</paragraphe></chapitre>\n");
+            }
+            xml.append("</section></livre>\n");
+        }
+        byte[] document = xml.append("</bibliotheque>\n").toString().getBytes(StandardCharsets.UTF_8);
+        
+        AtomicLong lus = new AtomicLong();
+        InputStream compteur = new FilterInputStream(new ByteArrayInputStream(document)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) lus.addAndGet(n);
+                return n;
+            }
+        };
+        
+        ExecutorService executeur = Executors.newSingleThreadExecutor();
+        PublicateurBibliotheque publicateur = new PublicateurBibliotheque(new InputSource(compteur), executeur, 4);
+        
+        // Abonné lent : un seul enregistrement demandé, puis plus rien
+        AtomicInteger recus = new AtomicInteger();
+        CompletableFuture<Flow.Subscription> abonnement = new CompletableFuture<>();
+        publicateur.subscribe(new Flow.Subscriber<Enregistrement>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                abonnement.complete(s);
+                s.request(1);
+            }
+            
+            @Override
+            public void onNext(Enregistrement e) {
+                recus.incrementAndGet();
+            }
+            
+            @Override
+            public void onError(Throwable t) {
+            }
+            
+            @Override
+            public void onComplete() {
+            }
+        });
+        
+        AtomicReference<Exception> erreur = new AtomicReference<>();
+        Thread parsing = new Thread(() -> {
+            try {
+                publicateur.publier(SAXParserFactory.newInstance().newSAXParser());
+            } catch (Exception e) {
+                erreur.set(e);
+            }
+        });
+        parsing.start();
+        
+        try {
+            // Le parsing se bloque dès que le tampon de l'abonné est plein
+            long avant;
+            long apres = -1;
+            do {
+                avant = apres;
+                Thread.sleep(200);
+                apres = lus.get();
+            } while (apres != avant || apres == 0);
+            assertTrue(parsing.isAlive());
+            assertEquals(1, recus.get());
+            assertTrue(apres < document.length / 10, apres + " octets lus sur " + document.length);
+            
+            // Désabonnement : le parsing s'arrête sans lire la suite
+            abonnement.get().cancel();
+            parsing.join(5000);
+            assertFalse(parsing.isAlive());
+            assertNull(erreur.get());
+            assertTrue(lus.get() < document.length / 10, lus.get() + " octets lus sur " + document.length);
+            assertTrue(publicateur.getCompteurs()[0] < 100);
+        } finally {
+            parsing.interrupt();
+            executeur.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import java.net.URI;
+import java.net.http.*;
+import java.nio.file.*;
+import java.util.concurrent.ExecutorService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Service HTTP : un document qui déclare une entité externe est refusé, sans lire le fichier
+ */
+class ServeurParsingTest {
+    
+    @TempDir
+    Path dossier;
+    
+    @Test
+    void entiteExterneRefusee() throws Exception {
+        Path secret = dossier.resolve("secret.txt");
+        Files.writeString(secret, "contenu-secret");
+        String document = "<?xml version=\"1.0\"?>\n" +
+                          "<!DOCTYPE bibliotheque [<!ENTITY x SYSTEM \"" + secret.toUri() + "\">]>\n" +
+                          "<bibliotheque><livre><titre>&x;</titre></livre></bibliotheque>\n";
+        
+        HttpServer serveur = new ServeurParsing(1, 4, 2000).demarrer(0);
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            for (String moteur : new String[] {"sax", "rapide", "dom"}) {
+                HttpRequest requete = HttpRequest.newBuilder(
+                        URI.create("http://127.0.0.1:" + serveur.getAddress().getPort() + "/csv?moteur=" + moteur))
+                    .POST(HttpRequest.BodyPublishers.ofString(document))
+                    .build();
+                HttpResponse<String> reponse = client.send(requete, HttpResponse.BodyHandlers.ofString());
+                assertEquals(400, reponse.statusCode(), moteur);
+                assertFalse(reponse.body().contains("contenu-secret"), moteur);
+            }
+            
+            // Un document ordinaire passe toujours
+            HttpRequest requete = HttpRequest.newBuilder(
+                    URI.create("http://127.0.0.1:" + serveur.getAddress().getPort() + "/csv"))
+                .POST(HttpRequest.BodyPublishers.ofFile(DecoupeurLivresTest.fixture("livre_vide.xml")))
+                .build();
+            HttpResponse<String> reponse = client.send(requete, HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, reponse.statusCode());
+            assertTrue(reponse.body().startsWith(Projection.TOUT.enTeteCsv() + "\n"));
+        } finally {
+            serveur.stop(0);
+            ((ExecutorService) serveur.getExecutor()).shutdownNow();
+        }
+    }
+}
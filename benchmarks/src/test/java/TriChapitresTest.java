@@ -0,0 +1,71 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tri externe : budget minuscule (une séquence par ligne, fusion en plusieurs passes),
+ * même résultat que le tri stable en mémoire, et aucune séquence laissée sur disque
+ */
+class TriChapitresTest {
+    
+    @TempDir
+    Path dossier;
+    
+    @Test
+    void triDeverseStableEtNettoye() throws Exception {
+        for (TriChapitres.Critere critere : TriChapitres.Critere.values()) {
+            // Clés très répétées : l'ordre à clé égale vérifie la stabilité
+            List<String[]> chapitres = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                chapitres.add(new String[] { "Auteur " + (i * 7 % 5), "Chapitre é" + (i * 3 % 4),
+                                             String.valueOf(i % 6), i + ",ligne\n" });
+            }
+            
+            TriChapitres tri = new TriChapitres(critere, 1, dossier);
+            for (String[] c : chapitres) {
+                tri.ajouter(c[0], c[1], Integer.parseInt(c[2]), c[3]);
+            }
+            StringWriter csv = new StringWriter();
+            tri.terminer(csv);
+            // 300 séquences d'une ligne, plus deux fusions intermédiaires de 128 séquences
+            assertEquals(302, tri.getNombreSequences(), critere.name());
+            
+            // List.sort est stable
+            int k = critere == TriChapitres.Critere.AUTEURS ? 0 : critere == TriChapitres.Critere.TITRE_CHAPITRE ? 1 : 2;
+            Comparator<String[]> parCle = k == 2
+                ? Comparator.comparingInt(c -> Integer.parseInt(c[2]))
+                : Comparator.comparing(c -> c[k]);
+            chapitres.sort(parCle);
+            StringBuilder attendu = new StringBuilder();
+            for (String[] c : chapitres) {
+                attendu.append(c[3]);
+            }
+            assertEquals(attendu.toString(), csv.toString(), critere.name());
+            assertEquals(0, fichiers(), critere.name());
+        }
+    }
+    
+    @Test
+    void closeSupprimeLesSequences() throws Exception {
+        TriChapitres tri = new TriChapitres(TriChapitres.Critere.AUTEURS, 1, dossier);
+        for (int i = 0; i < 10; i++) {
+            tri.ajouter("Auteur " + i, "Chapitre", 1, i + "\n");
+        }
+        assertEquals(10, fichiers());
+        
+        // Parsing interrompu avant terminer()
+        tri.close();
+        assertEquals(0, fichiers());
+    }
+    
+    private long fichiers() throws Exception {
+        try (Stream<Path> contenu = Files.list(dossier)) {
+            return contenu.count();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+import java.io.*;
+
+/**
+ * Écrit le CSV de LivreHandler à partir des enregistrements Chapitre
+ */
+class AbonneCsv extends AbonneEnregistrements {
+    
+    private final PrintWriter csvWriter;
+    
+    AbonneCsv(PrintWriter csvWriter) {
+        this.csvWriter = csvWriter;
+    }
+    
+    @Override
+    void commencer() {
+        csvWriter.println(Projection.TOUT.enTeteCsv());
+    }
+    
+    @Override
+    void traiter(Enregistrement e) {
+        if (e instanceof Enregistrement.Chapitre c) {
+            csvWriter.print(Projection.TOUT.ligneCsv(c.numeroLivre(), c.titreLivre(), c.auteurs(),
+                c.numeroSection(), c.titreSection(), c.numero(), c.titre(), c.nbParagraphes()));
+        }
+    }
+}
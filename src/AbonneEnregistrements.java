@@ -0,0 +1,57 @@
+import java.util.concurrent.*;
+
+/**
+ * Abonné qui demande les enregistrements par lots et signale sa fin par un CompletableFuture
+ */
+abstract class AbonneEnregistrements implements Flow.Subscriber<Enregistrement> {
+    
+    private static final int LOT = 256;
+    
+    private final CompletableFuture<Void> fin = new CompletableFuture<>();
+    private Flow.Subscription abonnement;
+    private int restants;
+    
+    @Override
+    public void onSubscribe(Flow.Subscription abonnement) {
+        this.abonnement = abonnement;
+        commencer();
+        restants = LOT;
+        abonnement.request(LOT);
+    }
+    
+    @Override
+    public void onNext(Enregistrement e) {
+        traiter(e);
+        // Nouvelle demande à mi-lot : le producteur n'attend pas entre deux lots
+        if (--restants == LOT / 2) {
+            restants += LOT / 2;
+            abonnement.request(LOT / 2);
+        }
+    }
+    
+    @Override
+    public void onError(Throwable erreur) {
+        fin.completeExceptionally(erreur);
+    }
+    
+    @Override
+    public void onComplete() {
+        terminer();
+        fin.complete(null);
+    }
+    
+    /**
+     * Terminé quand le flux est terminé et que l'abonné a tout traité
+     */
+    CompletableFuture<Void> fin() {
+        return fin;
+    }
+    
+    void commencer() {
+    }
+    
+    abstract void traiter(Enregistrement e);
+    
+    void terminer() {
+    }
+}
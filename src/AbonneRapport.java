@@ -0,0 +1,58 @@
+/**
+ * Écrit le rapport texte de LivreHandler à partir des enregistrements
+ * Identique à celui de LivreHandler quand chaque livre, section et chapitre a son titre
+ */
+class AbonneRapport extends AbonneEnregistrements {
+    
+    private static final String SEPARATEUR = "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n";
+    
+    private final SortieRapport rapport;
+    private boolean livreOuvert = false;
+    
+    AbonneRapport(SortieRapport rapport) {
+        this.rapport = rapport;
+    }
+    
+    @Override
+    void commencer() {
+        rapport.afficher(LivreHandler.MSG_DEBUT);
+    }
+    
+    @Override
+    void traiter(Enregistrement e) {
+        if (!rapport.actif()) return;
+        
+        StringBuilder sb = new StringBuilder();
+        switch (e) {
+            case Enregistrement.Livre l -> {
+                // Fin du livre précédent
+                if (livreOuvert) sb.append('\n').append(System.lineSeparator());
+                livreOuvert = true;
+                sb.append(SEPARATEUR).append("LIVRE #").append(l.numero()).append('\n').append(SEPARATEUR);
+                sb.append("\n📚 Titre : ").append(l.titre()).append('\n');
+                for (Enregistrement.Auteur a : l.auteurs()) {
+                    sb.append("   - ").append(a.prenom()).append(' ').append(a.nom()).append('\n');
+                }
+                if (!l.auteurs().isEmpty()) sb.append("\n✍️  Auteurs :\n");
+            }
+            case Enregistrement.Section s ->
+                sb.append("\n  ▶ Section ").append(s.numero()).append(" : ").append(s.titre()).append('\n');
+            case Enregistrement.Chapitre c -> {
+                sb.append("\n    📖 Chapitre ").append(c.numero()).append(" : ").append(c.titre()).append('\n');
+                if (c.premierParagraphe() != null) {
+                    String texte = c.premierParagraphe();
+                    String extrait = texte.length() > 100 ? texte.substring(0, 100) + "..." : texte;
+                    sb.append("       Premier paragraphe (extrait) :\n       \"").append(extrait).append("\"\n");
+                }
+                sb.append("       Nombre de paragraphes : ").append(c.nbParagraphes()).append('\n');
+            }
+        }
+        rapport.afficher(sb);
+    }
+    
+    @Override
+    void terminer() {
+        if (livreOuvert) rapport.afficher("\n" + System.lineSeparator());
+        rapport.afficher(LivreHandler.MSG_FIN);
+    }
+}
@@ -0,0 +1,153 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Agrégats calculés pendant le parsing (option --agregats), en plus des cinq totaux
+ * - par auteur : nombre de livres et de chapitres
+ * - distribution du nombre de chapitres par section et de paragraphes par chapitre
+ * - longueur des paragraphes : histogramme (puissances de 2) et quantiles approchés
+ *
+ * Tout est fusionnable (fusionner) : chaque fragment ou fichier a ses agrégats,
+ * additionnés ensuite. Les auteurs sont identifiés par un DictionnaireTermes,
+ * les compteurs sont des tableaux de primitifs indexés par identifiant ou par valeur.
+ */
+class AgregatsBibliotheque {
+    
+    private static final int AUTEURS_AFFICHES = 20;
+    private static final int LARGEUR_BARRE = 40;
+    
+    // Auteurs ("Prénom Nom") et leurs compteurs
+    private final DictionnaireTermes auteurs = new DictionnaireTermes();
+    private int[] livresParAuteur = new int[256];
+    private int[] chapitresParAuteur = new int[256];
+    
+    // Auteurs du livre en cours (identifiants)
+    private int[] auteursLivre = new int[8];
+    private int nbAuteursLivre = 0;
+    
+    final DistributionEntiers chapitresParSection = new DistributionEntiers();
+    final DistributionEntiers paragraphesParChapitre = new DistributionEntiers();
+    final EsquisseQuantiles longueurParagraphes = new EsquisseQuantiles();
+    
+    // ──────────────────────────────── Collecte ────────────────────────────────
+    
+    void debutLivre() {
+        nbAuteursLivre = 0;
+    }
+    
+    void auteur(String prenom, String nom) {
+        String complet = prenom + " " + nom;
+        int id = auteurs.ajouter(complet.toCharArray(), complet.length());
+        if (id >= livresParAuteur.length) {
+            livresParAuteur = Arrays.copyOf(livresParAuteur, livresParAuteur.length * 2);
+            chapitresParAuteur = Arrays.copyOf(chapitresParAuteur, chapitresParAuteur.length * 2);
+        }
+        // Un auteur cité deux fois dans un livre ne compte qu'une fois
+        for (int i = 0; i < nbAuteursLivre; i++) {
+            if (auteursLivre[i] == id) return;
+        }
+        if (nbAuteursLivre == auteursLivre.length) {
+            auteursLivre = Arrays.copyOf(auteursLivre, nbAuteursLivre * 2);
+        }
+        auteursLivre[nbAuteursLivre++] = id;
+        livresParAuteur[id]++;
+    }
+    
+    void finSection(int nbChapitres) {
+        chapitresParSection.ajouter(nbChapitres);
+    }
+    
+    void finChapitre(int nbParagraphes) {
+        paragraphesParChapitre.ajouter(nbParagraphes);
+        for (int i = 0; i < nbAuteursLivre; i++) {
+            chapitresParAuteur[auteursLivre[i]]++;
+        }
+    }
+    
+    void paragraphe(int longueur) {
+        longueurParagraphes.ajouter(longueur);
+    }
+    
+    /**
+     * Ajoute les agrégats d'un autre fragment ou fichier
+     */
+    void fusionner(AgregatsBibliotheque autre) {
+        for (int id = 0; id < autre.auteurs.taille(); id++) {
+            char[] nom = autre.auteurs.terme(id).toCharArray();
+            int local = auteurs.ajouter(nom, nom.length);
+            if (local >= livresParAuteur.length) {
+                int taille = Math.max(livresParAuteur.length * 2, local + 1);
+                livresParAuteur = Arrays.copyOf(livresParAuteur, taille);
+                chapitresParAuteur = Arrays.copyOf(chapitresParAuteur, taille);
+            }
+            livresParAuteur[local] += autre.livresParAuteur[id];
+            chapitresParAuteur[local] += autre.chapitresParAuteur[id];
+        }
+        chapitresParSection.fusionner(autre.chapitresParSection);
+        paragraphesParChapitre.fusionner(autre.paragraphesParChapitre);
+        longueurParagraphes.fusionner(autre.longueurParagraphes);
+    }
+    
+    // ──────────────────────────────── Restitution ────────────────────────────────
+    
+    /**
+     * Texte ajouté au rapport, après les statistiques
+     */
+    String getRapport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n📈 AGRÉGATS DU DOCUMENT\n");
+        sb.append("─────────────────────────────────────────────────\n");
+        
+        sb.append("Auteurs distincts : ").append(auteurs.taille()).append("\n");
+        Integer[] ordre = auteursParLivres();
+        int affiches = Math.min(AUTEURS_AFFICHES, ordre.length);
+        if (affiches > 0) {
+            sb.append("\nAuteurs les plus publiés :\n");
+        }
+        for (int i = 0; i < affiches; i++) {
+            int id = ordre[i];
+            sb.append(String.format("  %2d. %-30s %6d livre(s), %7d chapitre(s)%n", i + 1,
+                                    auteurs.terme(id), livresParAuteur[id], chapitresParAuteur[id]));
+        }
+        
+        sb.append("\nChapitres par section : ").append(chapitresParSection.resume()).append("\n");
+        chapitresParSection.histogramme(sb);
+        sb.append("\nParagraphes par chapitre : ").append(paragraphesParChapitre.resume()).append("\n");
+        paragraphesParChapitre.histogramme(sb);
+        sb.append("\nLongueur des paragraphes (caractères) : ").append(longueurParagraphes.resume()).append("\n");
+        longueurParagraphes.histogramme(sb);
+        
+        sb.append("─────────────────────────────────────────────────\n");
+        return sb.toString();
+    }
+    
+    /**
+     * Écrit les compteurs de tous les auteurs, du plus publié au moins publié
+     */
+    void ecrireCsvAuteurs(String chemin) throws IOException {
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                 Files.newOutputStream(Paths.get(chemin)), StandardCharsets.UTF_8), 1 << 16))) {
+            out.println("Auteur,Nombre_Livres,Nombre_Chapitres");
+            for (int id : auteursParLivres()) {
+                out.printf("\"%s\",\"%d\",\"%d\"\n", Projection.echapperCSV(auteurs.terme(id)),
+                           livresParAuteur[id], chapitresParAuteur[id]);
+            }
+        }
+    }
+    
+    private Integer[] auteursParLivres() {
+        Integer[] ordre = new Integer[auteurs.taille()];
+        for (int i = 0; i < ordre.length; i++) ordre[i] = i;
+        Arrays.sort(ordre, (a, b) -> livresParAuteur[a] != livresParAuteur[b]
+            ? Integer.compare(livresParAuteur[b], livresParAuteur[a])
+            : Integer.compare(chapitresParAuteur[b], chapitresParAuteur[a]));
+        return ordre;
+    }
+    
+    static void barre(StringBuilder sb, long n, long max) {
+        int longueur = max == 0 ? 0 : (int) Math.max(n > 0 ? 1 : 0, n * LARGEUR_BARRE / max);
+        for (int i = 0; i < longueur; i++) sb.append('█');
+    }
+}
@@ -0,0 +1,298 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Balayage octet par octet du document pour trouver les <livre> de premier niveau
+ * Reconnaît juste assez de XML pour ne pas se tromper de balise : commentaires,
+ * CDATA, instructions de traitement, DOCTYPE et valeurs d'attributs entre guillemets.
+ * Fonctionne pour tout encodage compatible ASCII (UTF-8, ISO-8859-1...)
+ */
+class DecoupeurLivres {
+    
+    // États de l'automate
+    private static final int TEXTE = 0;
+    private static final int CHEVRON = 1;       // après '<'
+    private static final int NOM = 2;           // nom d'une balise ouvrante
+    private static final int ATTRIBUTS = 3;     // reste d'une balise ouvrante
+    private static final int GUILLEMETS = 4;    // valeur d'attribut
+    private static final int FERMANTE = 5;      // balise </...>
+    private static final int EXCLAMATION = 6;   // après '<!'
+    private static final int COMMENTAIRE = 7;
+    private static final int CDATA = 8;
+    private static final int DECLARATION = 9;   // <!DOCTYPE ...>
+    private static final int INSTRUCTION = 10;  // <? ... ?>
+    
+    private static final byte[] LIVRE = "livre".getBytes(StandardCharsets.US_ASCII);
+    
+    private final long tailleFragment;
+    
+    private byte[] prologue;
+    private byte[] epilogue;
+    private int nombreLivres = 0;
+    
+    // Bornes exactes de chaque <livre> et empreinte du fichier (voir enregistrerLivres)
+    private long[] debutsLivres;
+    private long[] finsLivres;
+    private CRC32C empreinte;
+    
+    DecoupeurLivres(long tailleFragment) {
+        this.tailleFragment = tailleFragment;
+    }
+    
+    /**
+     * Garde aussi, pendant le balayage, la position [début, fin) de chaque <livre>
+     * et l'empreinte CRC32C du fichier (pour IndexLivres)
+     */
+    void enregistrerLivres() {
+        debutsLivres = new long[1024];
+        finsLivres = new long[1024];
+        empreinte = new CRC32C();
+    }
+    
+    /**
+     * Balaye tout le fichier et retourne les fragments, dans l'ordre du document
+     */
+    List<FragmentLivres> decouper(FileChannel canal) throws IOException {
+        List<FragmentLivres> fragments = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        
+        int etat = TEXTE;
+        int profondeur = 0;
+        long debutBalise = -1;
+        byte[] nom = new byte[64];
+        int longueurNom = 0;
+        byte guillemet = 0;
+        byte precedent = 0;
+        byte avantPrecedent = 0;
+        int crochets = 0;
+        
+        long finPrologue = -1;
+        long debutFragment = -1;
+        long debutEpilogue = -1;
+        int premierNumero = 1;
+        int livresFragment = 0;
+        byte[] nomRacine = null;
+        boolean dansLivre = false;
+        
+        long position = 0;
+        while (canal.read(buffer, position) > 0) {
+            buffer.flip();
+            int n = buffer.limit();
+            byte[] octets = buffer.array();
+            // Un UTF-16 (BOM) n'est pas compatible avec ce balayage
+            if (position == 0 && n >= 2 && ((octets[0] == (byte) 0xFE && octets[1] == (byte) 0xFF)
+                                         || (octets[0] == (byte) 0xFF && octets[1] == (byte) 0xFE))) {
+                throw new IOException("Encodage UTF-16 non supporté par le découpage parallèle");
+            }
+            if (empreinte != null) {
+                empreinte.update(octets, 0, n);
+            }
+            
+            for (int i = 0; i < n; i++) {
+                byte b = octets[i];
+                long pos = position + i;
+                
+                switch (etat) {
+                    case TEXTE:
+                        if (b == '<') {
+                            debutBalise = pos;
+                            etat = CHEVRON;
+                        }
+                        break;
+                    
+                    case CHEVRON:
+                        if (b == '/') {
+                            etat = FERMANTE;
+                        } else if (b == '!') {
+                            etat = EXCLAMATION;
+                        } else if (b == '?') {
+                            etat = INSTRUCTION;
+                        } else {
+                            nom[0] = b;
+                            longueurNom = 1;
+                            etat = NOM;
+                        }
+                        break;
+                    
+                    case NOM:
+                        if (b == '>' || b == '/' || b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+                            etat = ATTRIBUTS;
+                            i--; // retraiter ce caractère dans ATTRIBUTS
+                            continue;
+                        }
+                        if (longueurNom < nom.length) {
+                            nom[longueurNom] = b;
+                        }
+                        longueurNom++;
+                        break;
+                    
+                    case ATTRIBUTS:
+                        if (b == '"' || b == '\'') {
+                            guillemet = b;
+                            etat = GUILLEMETS;
+                        } else if (b == '>') {
+                            etat = TEXTE;
+                            // Élément vide <x/> : la profondeur ne change pas, mais un <livre/> compte
+                            boolean vide = precedent == '/';
+                            if (vide && !(profondeur == 1 && estLivre(nom, longueurNom))) {
+                                break;
+                            }
+                            if (profondeur == 0) {
+                                // Racine : tout ce qui précède forme le prologue
+                                finPrologue = pos + 1;
+                                nomRacine = Arrays.copyOf(nom, Math.min(longueurNom, nom.length));
+                                debutFragment = finPrologue;
+                            } else if (profondeur == 1 && estLivre(nom, longueurNom)) {
+                                nombreLivres++;
+                                // Couper avant ce livre si le fragment est assez gros
+                                if (livresFragment > 0 && debutBalise - debutFragment >= tailleFragment) {
+                                    fragments.add(new FragmentLivres(debutFragment, debutBalise,
+                                                                     premierNumero, livresFragment));
+                                    debutFragment = debutBalise;
+                                    premierNumero += livresFragment;
+                                    livresFragment = 0;
+                                }
+                                livresFragment++;
+                                if (debutsLivres != null) {
+                                    if (nombreLivres > debutsLivres.length) {
+                                        debutsLivres = Arrays.copyOf(debutsLivres, debutsLivres.length * 2);
+                                        finsLivres = Arrays.copyOf(finsLivres, finsLivres.length * 2);
+                                    }
+                                    debutsLivres[nombreLivres - 1] = debutBalise;
+                                    if (vide) {
+                                        finsLivres[nombreLivres - 1] = pos + 1;
+                                    } else {
+                                        dansLivre = true;
+                                    }
+                                }
+                            }
+                            if (!vide) profondeur++;
+                        }
+                        break;
+                    
+                    case GUILLEMETS:
+                        if (b == guillemet) {
+                            etat = ATTRIBUTS;
+                        }
+                        break;
+                    
+                    case FERMANTE:
+                        if (b == '>') {
+                            etat = TEXTE;
+                            profondeur--;
+                            if (profondeur == 1 && dansLivre) {
+                                finsLivres[nombreLivres - 1] = pos + 1;
+                                dansLivre = false;
+                            }
+                            if (profondeur == 0 && debutEpilogue < 0) {
+                                debutEpilogue = debutBalise;
+                            }
+                        }
+                        break;
+                    
+                    case EXCLAMATION:
+                        if (b == '-') {
+                            etat = COMMENTAIRE;
+                            b = 0; // le '-' d'ouverture ne compte pas pour la fermeture "-->"
+                        } else if (b == '[') {
+                            etat = CDATA;
+                        } else {
+                            etat = DECLARATION;
+                            crochets = 0;
+                        }
+                        break;
+                    
+                    case COMMENTAIRE:
+                        if (b == '>' && precedent == '-' && avantPrecedent == '-') {
+                            etat = TEXTE;
+                        }
+                        break;
+                    
+                    case CDATA:
+                        if (b == '>' && precedent == ']' && avantPrecedent == ']') {
+                            etat = TEXTE;
+                        }
+                        break;
+                    
+                    case DECLARATION:
+                        if (b == '[') {
+                            crochets++;
+                        } else if (b == ']') {
+                            crochets--;
+                        } else if (b == '>' && crochets == 0) {
+                            etat = TEXTE;
+                        }
+                        break;
+                    
+                    case INSTRUCTION:
+                        if (b == '>' && precedent == '?') {
+                            etat = TEXTE;
+                        }
+                        break;
+                }
+                
+                avantPrecedent = precedent;
+                precedent = (etat == ATTRIBUTS && (b == ' ' || b == '\t' || b == '\n' || b == '\r'))
+                    ? precedent : b;
+            }
+            
+            position += n;
+            buffer.clear();
+        }
+        
+        if (finPrologue < 0 || debutEpilogue < 0) {
+            throw new IOException("Élément racine introuvable ou non fermé");
+        }
+        
+        // Dernier fragment : jusqu'à la balise fermante de la racine
+        fragments.add(new FragmentLivres(debutFragment, debutEpilogue, premierNumero, livresFragment));
+        
+        prologue = new byte[(int) finPrologue];
+        canal.read(ByteBuffer.wrap(prologue), 0);
+        epilogue = ("</" + new String(nomRacine, StandardCharsets.UTF_8) + ">")
+            .getBytes(StandardCharsets.UTF_8);
+        
+        return fragments;
+    }
+    
+    private static boolean estLivre(byte[] nom, int longueur) {
+        if (longueur != LIVRE.length) return false;
+        for (int k = 0; k < longueur; k++) {
+            if (nom[k] != LIVRE[k]) return false;
+        }
+        return true;
+    }
+    
+    /** Octets du début du fichier jusqu'à la balise ouvrante de la racine incluse */
+    byte[] getPrologue() {
+        return prologue;
+    }
+    
+    /** Balise fermante de la racine */
+    byte[] getEpilogue() {
+        return epilogue;
+    }
+    
+    int getNombreLivres() {
+        return nombreLivres;
+    }
+    
+    /** Début de chaque <livre> (position de '<'), si enregistrerLivres() a été appelé */
+    long[] getDebutsLivres() {
+        return Arrays.copyOf(debutsLivres, nombreLivres);
+    }
+    
+    /** Fin de chaque <livre> (après le '>' de la balise fermante) */
+    long[] getFinsLivres() {
+        return Arrays.copyOf(finsLivres, nombreLivres);
+    }
+    
+    /** Empreinte CRC32C de tout le fichier balayé */
+    long getEmpreinte() {
+        return empreinte.getValue();
+    }
+}
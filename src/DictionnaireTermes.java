@@ -0,0 +1,121 @@
+import java.util.*;
+
+/**
+ * Dictionnaire des termes en tableaux de primitifs (adressage ouvert, sans objet par terme)
+ * Les caractères de tous les termes sont mis bout à bout dans un seul char[]
+ */
+class DictionnaireTermes {
+    
+    static final int ABSENT = -1;
+    
+    // Table de hachage : identifiant du terme ou ABSENT
+    private int[] table = new int[1 << 12];
+    
+    // Le terme i occupe caracteres[debut[i] .. debut[i + 1])
+    private char[] caracteres = new char[1 << 14];
+    private int[] debut = new int[1 << 11];
+    private int[] hachages = new int[1 << 11];
+    private int nbTermes = 0;
+    
+    DictionnaireTermes() {
+        Arrays.fill(table, ABSENT);
+    }
+    
+    int taille() {
+        return nbTermes;
+    }
+    
+    String terme(int id) {
+        return new String(caracteres, debut[id], debut[id + 1] - debut[id]);
+    }
+    
+    /**
+     * Identifiant du terme, ABSENT s'il n'est pas dans le dictionnaire
+     */
+    int chercher(String terme) {
+        char[] t = terme.toCharArray();
+        return trouver(t, t.length, hacher(t, t.length));
+    }
+    
+    /**
+     * Identifiant du terme, ajouté s'il est nouveau
+     */
+    int ajouter(char[] t, int longueur) {
+        int h = hacher(t, longueur);
+        int id = trouver(t, longueur, h);
+        if (id != ABSENT) {
+            return id;
+        }
+        
+        if (nbTermes + 2 > debut.length) {
+            debut = Arrays.copyOf(debut, debut.length * 2);
+            hachages = Arrays.copyOf(hachages, hachages.length * 2);
+        }
+        int position = debut[nbTermes];
+        if (position + longueur > caracteres.length) {
+            caracteres = Arrays.copyOf(caracteres, Math.max(position + longueur, caracteres.length * 2));
+        }
+        System.arraycopy(t, 0, caracteres, position, longueur);
+        debut[nbTermes + 1] = position + longueur;
+        hachages[nbTermes] = h;
+        id = nbTermes++;
+        
+        // Table remplie à moitié au plus
+        if (2 * nbTermes > table.length) {
+            agrandir();
+        } else {
+            placer(id, h);
+        }
+        return id;
+    }
+    
+    private int trouver(char[] t, int longueur, int h) {
+        int masque = table.length - 1;
+        for (int i = h & masque; ; i = (i + 1) & masque) {
+            int id = table[i];
+            if (id == ABSENT) {
+                return ABSENT;
+            }
+            if (hachages[id] == h && egal(id, t, longueur)) {
+                return id;
+            }
+        }
+    }
+    
+    private boolean egal(int id, char[] t, int longueur) {
+        int d = debut[id];
+        if (debut[id + 1] - d != longueur) {
+            return false;
+        }
+        for (int i = 0; i < longueur; i++) {
+            if (caracteres[d + i] != t[i]) return false;
+        }
+        return true;
+    }
+    
+    private void placer(int id, int h) {
+        int masque = table.length - 1;
+        int i = h & masque;
+        while (table[i] != ABSENT) {
+            i = (i + 1) & masque;
+        }
+        table[i] = id;
+    }
+    
+    private void agrandir() {
+        table = new int[table.length * 2];
+        Arrays.fill(table, ABSENT);
+        for (int id = 0; id < nbTermes; id++) {
+            placer(id, hachages[id]);
+        }
+    }
+    
+    private static int hacher(char[] t, int longueur) {
+        int h = 0;
+        for (int i = 0; i < longueur; i++) {
+            h = 31 * h + t[i];
+        }
+        // Mélange des bits de poids fort vers le bas (masque de la table)
+        return h ^ (h >>> 16);
+    }
+}
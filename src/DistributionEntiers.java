@@ -0,0 +1,64 @@
+import java.util.*;
+
+/**
+ * Distribution exacte de petits entiers positifs : un compteur par valeur
+ */
+class DistributionEntiers {
+    
+    private long[] comptes = new long[64];
+    private long total = 0;
+    private long somme = 0;
+    private int max = -1;
+    
+    void ajouter(int valeur) {
+        if (valeur >= comptes.length) {
+            comptes = Arrays.copyOf(comptes, Math.max(comptes.length * 2, valeur + 1));
+        }
+        comptes[valeur]++;
+        total++;
+        somme += valeur;
+        max = Math.max(max, valeur);
+    }
+    
+    void fusionner(DistributionEntiers autre) {
+        if (autre.max >= comptes.length) {
+            comptes = Arrays.copyOf(comptes, autre.max + 1);
+        }
+        for (int v = 0; v <= autre.max; v++) {
+            comptes[v] += autre.comptes[v];
+        }
+        total += autre.total;
+        somme += autre.somme;
+        max = Math.max(max, autre.max);
+    }
+    
+    /**
+     * Plus petite valeur v telle qu'une fraction q des valeurs est <= v
+     */
+    int quantile(double q) {
+        long rang = Math.max(1, (long) Math.ceil(q * total));
+        long cumul = 0;
+        for (int v = 0; v <= max; v++) {
+            cumul += comptes[v];
+            if (cumul >= rang) return v;
+        }
+        return max;
+    }
+    
+    String resume() {
+        if (total == 0) return "aucune valeur";
+        return String.format("min %d, médiane %d, p90 %d, max %d, moyenne %.2f (%d valeurs)",
+                             quantile(0), quantile(0.5), quantile(0.9), max, (double) somme / total, total);
+    }
+    
+    void histogramme(StringBuilder sb) {
+        long plusGrand = 0;
+        for (int v = 0; v <= max; v++) plusGrand = Math.max(plusGrand, comptes[v]);
+        for (int v = 0; v <= max; v++) {
+            if (comptes[v] == 0) continue;
+            sb.append(String.format("  %6d : %9d ", v, comptes[v]));
+            AgregatsBibliotheque.barre(sb, comptes[v], plusGrand);
+            sb.append('\n');
+        }
+    }
+}
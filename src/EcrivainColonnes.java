@@ -0,0 +1,176 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Export binaire en colonnes (option --colonnes de ParserSAX), une ligne par chapitre comme le CSV
+ * Colonnes typées : entiers pour les numéros et le nombre de paragraphes, identifiants d'un dictionnaire
+ * pour les textes (titres et auteurs : chaque valeur distincte n'est écrite qu'une fois).
+ *
+ * Format (version 1, gros-boutiste) :
+ * - en-tête de 16 octets : magique, version, nombre de colonnes, lignes par groupe
+ * - groupes de lignes : pour chaque colonne, les valeurs du groupe (int) à la suite
+ * - pied : nombre de groupes, nombre de lignes, puis par groupe son nombre de lignes et, par colonne,
+ *   la position des valeurs, leur min et leur max ; puis le dictionnaire de chaque colonne texte
+ *   (nombre de termes, débuts des termes, octets UTF-8)
+ * - fin : position du pied (long) et magique
+ */
+class EcrivainColonnes implements Closeable {
+    
+    static final int MAGIQUE = 0x434F4C53; // "COLS"
+    static final int VERSION = 1;
+    static final int TAILLE_ENTETE = 16;
+    
+    // Lignes par groupe (le dernier peut être incomplet)
+    static final int LIGNES_PAR_GROUPE = 1 << 16;
+    
+    enum Colonne {
+        NUMERO_LIVRE("Numero_Livre", false),
+        TITRE_LIVRE("Titre_Livre", true),
+        AUTEURS("Auteurs", true),
+        NUMERO_SECTION("Numero_Section", false),
+        TITRE_SECTION("Titre_Section", true),
+        NUMERO_CHAPITRE("Numero_Chapitre", false),
+        TITRE_CHAPITRE("Titre_Chapitre", true),
+        NOMBRE_PARAGRAPHES("Nombre_Paragraphes", false);
+        
+        final String nom;
+        final boolean texte;
+        
+        Colonne(String nom, boolean texte) {
+            this.nom = nom;
+            this.texte = texte;
+        }
+        
+        /**
+         * Colonne d'après son nom dans le CSV, sans tenir compte de la casse
+         */
+        static Colonne lire(String nom) {
+            for (Colonne c : values()) {
+                if (c.nom.equalsIgnoreCase(nom)) return c;
+            }
+            throw new IllegalArgumentException("Colonne inconnue : " + nom);
+        }
+    }
+    
+    private final FileChannel canal;
+    private final InstantaneBibliotheque.Ecrivain out;
+    
+    // Groupe en cours : une valeur par colonne et par ligne
+    private final int[][] valeurs = new int[Colonne.values().length][LIGNES_PAR_GROUPE];
+    private int lignes = 0;
+    private long nbLignes = 0;
+    
+    // Statistiques des groupes écrits : position, min, max par colonne
+    private final List<long[]> groupes = new ArrayList<>();
+    
+    // Un dictionnaire par colonne texte
+    private final DictionnaireTermes[] dictionnaires = new DictionnaireTermes[Colonne.values().length];
+    private char[] caracteres = new char[256];
+    
+    EcrivainColonnes(Path fichier) throws IOException {
+        canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                 StandardOpenOption.WRITE);
+        out = new InstantaneBibliotheque.Ecrivain(canal);
+        for (Colonne c : Colonne.values()) {
+            if (c.texte) dictionnaires[c.ordinal()] = new DictionnaireTermes();
+        }
+        out.ecrireInt(MAGIQUE);
+        out.ecrireInt(VERSION);
+        out.ecrireInt(Colonne.values().length);
+        out.ecrireInt(LIGNES_PAR_GROUPE);
+    }
+    
+    /**
+     * Une ligne (un chapitre), dans l'ordre des colonnes du CSV
+     */
+    void ligne(int numeroLivre, String titreLivre, String auteurs, int numeroSection,
+               String titreSection, int numeroChapitre, String titreChapitre,
+               int nbParagraphes) throws IOException {
+        valeurs[Colonne.NUMERO_LIVRE.ordinal()][lignes] = numeroLivre;
+        valeurs[Colonne.TITRE_LIVRE.ordinal()][lignes] = terme(Colonne.TITRE_LIVRE, titreLivre);
+        valeurs[Colonne.AUTEURS.ordinal()][lignes] = terme(Colonne.AUTEURS, auteurs);
+        valeurs[Colonne.NUMERO_SECTION.ordinal()][lignes] = numeroSection;
+        valeurs[Colonne.TITRE_SECTION.ordinal()][lignes] = terme(Colonne.TITRE_SECTION, titreSection);
+        valeurs[Colonne.NUMERO_CHAPITRE.ordinal()][lignes] = numeroChapitre;
+        valeurs[Colonne.TITRE_CHAPITRE.ordinal()][lignes] = terme(Colonne.TITRE_CHAPITRE, titreChapitre);
+        valeurs[Colonne.NOMBRE_PARAGRAPHES.ordinal()][lignes] = nbParagraphes;
+        if (++lignes == LIGNES_PAR_GROUPE) {
+            ecrireGroupe();
+        }
+    }
+    
+    private int terme(Colonne colonne, String texte) {
+        int n = texte.length();
+        if (n > caracteres.length) {
+            caracteres = new char[Math.max(n, caracteres.length * 2)];
+        }
+        texte.getChars(0, n, caracteres, 0);
+        return dictionnaires[colonne.ordinal()].ajouter(caracteres, n);
+    }
+    
+    private void ecrireGroupe() throws IOException {
+        long[] stats = new long[1 + 3 * valeurs.length];
+        stats[0] = lignes;
+        for (int c = 0; c < valeurs.length; c++) {
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int i = 0; i < lignes; i++) {
+                min = Math.min(min, valeurs[c][i]);
+                max = Math.max(max, valeurs[c][i]);
+            }
+            stats[1 + 3 * c] = out.position();
+            stats[2 + 3 * c] = min;
+            stats[3 + 3 * c] = max;
+            out.ecrireInts(valeurs[c], lignes);
+        }
+        groupes.add(stats);
+        nbLignes += lignes;
+        lignes = 0;
+    }
+    
+    /**
+     * Écrit le dernier groupe et le pied
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (lignes > 0) {
+                ecrireGroupe();
+            }
+            long debutPied = out.position();
+            out.ecrireInt(groupes.size());
+            out.ecrireLong(nbLignes);
+            for (long[] stats : groupes) {
+                out.ecrireInt((int) stats[0]);
+                for (int c = 0; c < valeurs.length; c++) {
+                    out.ecrireLong(stats[1 + 3 * c]);
+                    out.ecrireInt((int) stats[2 + 3 * c]);
+                    out.ecrireInt((int) stats[3 + 3 * c]);
+                }
+            }
+            for (DictionnaireTermes dictionnaire : dictionnaires) {
+                if (dictionnaire == null) continue;
+                byte[][] octets = new byte[dictionnaire.taille()][];
+                int debut = 0;
+                out.ecrireInt(octets.length);
+                for (int id = 0; id < octets.length; id++) {
+                    octets[id] = dictionnaire.terme(id).getBytes(StandardCharsets.UTF_8);
+                    out.ecrireInt(debut);
+                    debut += octets[id].length;
+                }
+                out.ecrireInt(debut);
+                for (byte[] b : octets) {
+                    out.ecrireOctets(b, 0, b.length);
+                }
+            }
+            out.ecrireLong(debutPied);
+            out.ecrireInt(MAGIQUE);
+            out.vider();
+        } finally {
+            canal.close();
+        }
+    }
+}
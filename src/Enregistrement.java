@@ -0,0 +1,24 @@
+import java.util.*;
+
+/**
+ * Enregistrements du flux, dans l'ordre du document
+ * - Livre : dès que son en-tête est connu (à sa première section ou à sa fin)
+ * - Section : dès que son titre est connu (à son premier chapitre ou à sa fin)
+ * - Chapitre : à sa fin, avec les mêmes champs que la ligne CSV
+ * Comme dans LivreHandler, un titre absent reprend la valeur précédente.
+ */
+sealed interface Enregistrement {
+    
+    record Auteur(String prenom, String nom) {}
+    
+    record Livre(int numero, String titre, List<Auteur> auteurs) implements Enregistrement {}
+    
+    record Section(int numeroLivre, int numero, String titre) implements Enregistrement {}
+    
+    /**
+     * Ligne CSV d'un chapitre ; premierParagraphe est null si le chapitre n'a pas de paragraphe
+     */
+    record Chapitre(int numeroLivre, String titreLivre, String auteurs, int numeroSection,
+                    String titreSection, int numero, String titre, int nbParagraphes,
+                    String premierParagraphe) implements Enregistrement {}
+}
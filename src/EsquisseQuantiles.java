@@ -0,0 +1,94 @@
+import java.util.*;
+
+/**
+ * Esquisse de quantiles à erreur relative bornée (1 %), fusionnable par addition
+ * Une valeur x > 0 tombe dans le seau ceil(log(x) / log(gamma)), gamma = (1 + a) / (1 - a) ;
+ * le seau est restitué par 2 gamma^i / (gamma + 1), à moins de a près en relatif.
+ * L'histogramme affiché regroupe les valeurs par puissances de 2.
+ */
+class EsquisseQuantiles {
+    
+    private static final double PRECISION = 0.01;
+    private static final double GAMMA = (1 + PRECISION) / (1 - PRECISION);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    
+    private long[] seaux = new long[512];
+    private final long[] puissances = new long[33];
+    private long zeros = 0;
+    private long total = 0;
+    private long somme = 0;
+    private int min = Integer.MAX_VALUE;
+    private int max = 0;
+    
+    void ajouter(int valeur) {
+        total++;
+        somme += valeur;
+        min = Math.min(min, valeur);
+        max = Math.max(max, valeur);
+        // puissances[k] : valeurs de [2^(k-1), 2^k), puissances[0] : zéro
+        puissances[32 - Integer.numberOfLeadingZeros(valeur)]++;
+        if (valeur == 0) {
+            zeros++;
+            return;
+        }
+        int i = (int) Math.ceil(Math.log(valeur) / LOG_GAMMA);
+        if (i >= seaux.length) {
+            seaux = Arrays.copyOf(seaux, Math.max(seaux.length * 2, i + 1));
+        }
+        seaux[i]++;
+    }
+    
+    void fusionner(EsquisseQuantiles autre) {
+        if (autre.seaux.length > seaux.length) {
+            seaux = Arrays.copyOf(seaux, autre.seaux.length);
+        }
+        for (int i = 0; i < autre.seaux.length; i++) {
+            seaux[i] += autre.seaux[i];
+        }
+        for (int k = 0; k < puissances.length; k++) {
+            puissances[k] += autre.puissances[k];
+        }
+        zeros += autre.zeros;
+        total += autre.total;
+        somme += autre.somme;
+        min = Math.min(min, autre.min);
+        max = Math.max(max, autre.max);
+    }
+    
+    /**
+     * Valeur approchée (à 1 % près) du quantile q
+     */
+    double quantile(double q) {
+        if (total == 0) return 0;
+        long rang = Math.max(1, (long) Math.ceil(q * total));
+        long cumul = zeros;
+        if (cumul >= rang) return 0;
+        for (int i = 0; i < seaux.length; i++) {
+            cumul += seaux[i];
+            if (cumul >= rang) {
+                double estimation = 2 * Math.pow(GAMMA, i) / (GAMMA + 1);
+                return Math.max(min, Math.min(max, estimation));
+            }
+        }
+        return max;
+    }
+    
+    String resume() {
+        if (total == 0) return "aucune valeur";
+        return String.format("min %d, médiane ~%.0f, p90 ~%.0f, p99 ~%.0f, max %d, moyenne %.1f (%d valeurs)",
+                             min, quantile(0.5), quantile(0.9), quantile(0.99), max,
+                             (double) somme / total, total);
+    }
+    
+    void histogramme(StringBuilder sb) {
+        long plusGrand = 0;
+        for (long n : puissances) plusGrand = Math.max(plusGrand, n);
+        for (int k = 0; k < puissances.length; k++) {
+            if (puissances[k] == 0) continue;
+            String classe = k == 0 ? "0" : "[" + (1L << (k - 1)) + ", " + (1L << k) + ")";
+            sb.append(String.format("  %16s : %9d ", classe, puissances[k]));
+            AgregatsBibliotheque.barre(sb, puissances[k], plusGrand);
+            sb.append('\n');
+        }
+    }
+}
@@ -0,0 +1,78 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * État du traitement incrémental : empreinte du prologue et fragments dans l'ordre du document
+ */
+class EtatIncremental {
+    
+    private static final int MAGIQUE = 0x494E4352; // "INCR"
+    private static final int VERSION = 1;
+    
+    long empreintePrologue;
+    final List<LivreEnCache> livres = new ArrayList<>();
+    
+    /**
+     * État enregistré, ou null s'il n'existe pas ou n'est pas lisible (tout sera reparsé)
+     */
+    static EtatIncremental lire(File fichier) {
+        if (!fichier.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                 new FileInputStream(fichier), 1 << 16))) {
+            if (in.readInt() != MAGIQUE || in.readInt() != VERSION) {
+                return null;
+            }
+            EtatIncremental etat = new EtatIncremental();
+            etat.empreintePrologue = in.readLong();
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                LivreEnCache l = new LivreEnCache();
+                l.numero = in.readInt();
+                l.nombreLivres = in.readInt();
+                l.longueur = in.readLong();
+                l.empreinte = in.readLong();
+                l.compteurs = new int[5];
+                for (int k = 0; k < l.compteurs.length; k++) {
+                    l.compteurs[k] = in.readInt();
+                }
+                byte[] csv = new byte[in.readInt()];
+                in.readFully(csv);
+                l.csv = new String(csv, StandardCharsets.UTF_8);
+                etat.livres.add(l);
+            }
+            return etat;
+        } catch (IOException e) {
+            System.err.println("⚠️ État incrémental illisible, tout sera reparsé : " + e.getMessage());
+            return null;
+        }
+    }
+    
+    void ecrire(File fichier) throws IOException {
+        Path temporaire = Paths.get(fichier.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                 Files.newOutputStream(temporaire), 1 << 16))) {
+            out.writeInt(MAGIQUE);
+            out.writeInt(VERSION);
+            out.writeLong(empreintePrologue);
+            out.writeInt(livres.size());
+            for (LivreEnCache l : livres) {
+                out.writeInt(l.numero);
+                out.writeInt(l.nombreLivres);
+                out.writeLong(l.longueur);
+                out.writeLong(l.empreinte);
+                for (int c : l.compteurs) {
+                    out.writeInt(c);
+                }
+                byte[] csv = l.csv.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(csv.length);
+                out.write(csv);
+            }
+        }
+        Files.move(temporaire, fichier.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+}
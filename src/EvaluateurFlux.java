@@ -0,0 +1,31 @@
+import java.util.*;
+
+/**
+ * Évaluation des requêtes en une seule lecture SAX
+ * Le modèle compact ne contient qu'un livre à la fois : à la fin de chaque livre,
+ * toutes les requêtes sont évaluées sur ce livre, puis le modèle est vidé.
+ * Les rangs des nœuds sont les mêmes qu'avec le modèle du document entier.
+ */
+class EvaluateurFlux extends ModeleBibliotheque.Constructeur {
+    
+    private final List<Requete> requetes;
+    private final ResultatsRequetes resultats;
+    
+    EvaluateurFlux(List<Requete> requetes, ResultatsRequetes resultats) {
+        // Le texte des paragraphes n'est gardé que si une requête le lit ou les sélectionne
+        super(requetes.stream().anyMatch(r -> r.utiliseTexte()
+                                        || r.genreResultat() == ModeleBibliotheque.PARAGRAPHE));
+        this.requetes = requetes;
+        this.resultats = resultats;
+    }
+    
+    @Override
+    void racineTerminee(int noeud) {
+        for (int i = 0; i < requetes.size(); i++) {
+            for (int n : requetes.get(i).evaluer(modele)) {
+                resultats.trouve(i, modele, n);
+            }
+        }
+        modele.vider();
+    }
+}
@@ -0,0 +1,156 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * Export normalisé (option --normalise) : une table par entité, reliées par des clés entières,
+ * au lieu du CSV dénormalisé qui répète titre du livre, auteurs et titre de section à chaque chapitre
+ *
+ *   livres.csv        Numero_Livre, Titre_Livre, Nombre_Sections
+ *   auteurs.csv       Id_Auteur, Prenom, Nom                  (chaque auteur une seule fois)
+ *   livre_auteur.csv  Numero_Livre, Id_Auteur, Rang
+ *   sections.csv      Numero_Livre, Numero_Section, Titre_Section, Nombre_Chapitres
+ *   chapitres.csv     Numero_Livre, Numero_Section, Numero_Chapitre, Titre_Chapitre, Nombre_Paragraphes
+ *
+ * Les lignes sont écrites pendant le parsing (appels de LivreHandler), dans les cinq fichiers à la fois ;
+ * les auteurs sont identifiés par un dictionnaire et leur ligne est écrite à la première rencontre.
+ */
+class ExportNormalise implements Closeable {
+    
+    // Séparateur prénom / nom dans le dictionnaire (U+0000 est interdit en XML)
+    private static final char SEPARATEUR = '\u0000';
+    
+    private final Path dossier;
+    private final PrintWriter livres;
+    private final PrintWriter auteurs;
+    private final PrintWriter livreAuteur;
+    private final PrintWriter sections;
+    private final PrintWriter chapitres;
+    
+    private final DictionnaireTermes dictionnaire = new DictionnaireTermes();
+    private char[] cle = new char[64];
+    
+    // Livre des derniers auteurs vus et rang du suivant
+    private int livreAuteurs = 0;
+    private int rang = 0;
+    
+    ExportNormalise(Path dossier) throws IOException {
+        this.dossier = dossier;
+        Files.createDirectories(dossier);
+        livres = ouvrir("livres", "Numero_Livre,Titre_Livre,Nombre_Sections");
+        auteurs = ouvrir("auteurs", "Id_Auteur,Prenom,Nom");
+        livreAuteur = ouvrir("livre_auteur", "Numero_Livre,Id_Auteur,Rang");
+        sections = ouvrir("sections", "Numero_Livre,Numero_Section,Titre_Section,Nombre_Chapitres");
+        chapitres = ouvrir("chapitres", "Numero_Livre,Numero_Section,Numero_Chapitre,Titre_Chapitre,Nombre_Paragraphes");
+    }
+    
+    private PrintWriter ouvrir(String table, String enTete) throws IOException {
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+            Files.newOutputStream(dossier.resolve(table + ".csv")), StandardCharsets.UTF_8), 1 << 16));
+        out.print(enTete);
+        out.print('\n');
+        return out;
+    }
+    
+    /**
+     * Fin d'un livre
+     */
+    void livre(int numeroLivre, String titre, int nbSections) {
+        livres.print('"');
+        livres.print(numeroLivre);
+        livres.print("\",\"");
+        livres.print(Projection.echapperCSV(titre));
+        livres.print("\",\"");
+        livres.print(nbSections);
+        livres.print("\"\n");
+    }
+    
+    /**
+     * Fin d'un auteur du livre ; la ligne de l'auteur est écrite s'il est nouveau
+     */
+    void auteur(int numeroLivre, String prenom, String nom) {
+        int longueur = prenom.length() + 1 + nom.length();
+        if (longueur > cle.length) {
+            cle = new char[Math.max(longueur, cle.length * 2)];
+        }
+        prenom.getChars(0, prenom.length(), cle, 0);
+        cle[prenom.length()] = SEPARATEUR;
+        nom.getChars(0, nom.length(), cle, prenom.length() + 1);
+        
+        int avant = dictionnaire.taille();
+        int id = dictionnaire.ajouter(cle, longueur) + 1;
+        if (dictionnaire.taille() > avant) {
+            auteurs.print('"');
+            auteurs.print(id);
+            auteurs.print("\",\"");
+            auteurs.print(Projection.echapperCSV(prenom));
+            auteurs.print("\",\"");
+            auteurs.print(Projection.echapperCSV(nom));
+            auteurs.print("\"\n");
+        }
+        
+        if (numeroLivre != livreAuteurs) {
+            livreAuteurs = numeroLivre;
+            rang = 0;
+        }
+        livreAuteur.print('"');
+        livreAuteur.print(numeroLivre);
+        livreAuteur.print("\",\"");
+        livreAuteur.print(id);
+        livreAuteur.print("\",\"");
+        livreAuteur.print(++rang);
+        livreAuteur.print("\"\n");
+    }
+    
+    /**
+     * Fin d'une section
+     */
+    void section(int numeroLivre, int numeroSection, String titre, int nbChapitres) {
+        sections.print('"');
+        sections.print(numeroLivre);
+        sections.print("\",\"");
+        sections.print(numeroSection);
+        sections.print("\",\"");
+        sections.print(Projection.echapperCSV(titre));
+        sections.print("\",\"");
+        sections.print(nbChapitres);
+        sections.print("\"\n");
+    }
+    
+    /**
+     * Fin d'un chapitre
+     */
+    void chapitre(int numeroLivre, int numeroSection, int numeroChapitre, String titre, int nbParagraphes) {
+        chapitres.print('"');
+        chapitres.print(numeroLivre);
+        chapitres.print("\",\"");
+        chapitres.print(numeroSection);
+        chapitres.print("\",\"");
+        chapitres.print(numeroChapitre);
+        chapitres.print("\",\"");
+        chapitres.print(Projection.echapperCSV(titre));
+        chapitres.print("\",\"");
+        chapitres.print(nbParagraphes);
+        chapitres.print("\"\n");
+    }
+    
+    int nombreAuteurs() {
+        return dictionnaire.taille();
+    }
+    
+    Path getDossier() {
+        return dossier;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        boolean erreur = false;
+        for (PrintWriter out : new PrintWriter[] { livres, auteurs, livreAuteur, sections, chapitres }) {
+            out.close();
+            erreur |= out.checkError();
+        }
+        if (erreur) {
+            throw new IOException("Écriture incomplète de l'export normalisé : " + dossier);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+/**
+ * Plage d'octets [debut, fin) du fichier contenant un ou plusieurs livres
+ */
+class FragmentLivres {
+    final long debut;
+    final long fin;
+    final int premierNumero;
+    final int nombreLivres;
+    
+    FragmentLivres(long debut, long fin, int premierNumero, int nombreLivres) {
+        this.debut = debut;
+        this.fin = fin;
+        this.premierNumero = premierNumero;
+        this.nombreLivres = nombreLivres;
+    }
+}
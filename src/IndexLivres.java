@@ -0,0 +1,267 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.w3c.dom.*;
+import org.xml.sax.InputSource;
+
+/**
+ * Index des <livre> de premier niveau d'un fichier XML : position et longueur en octets
+ * Écrit à côté du fichier (livres.xml → livres.xml.index) et valable tant que la source
+ * a la même taille et la même date (ou à défaut la même empreinte CRC32C).
+ * Un livre est relu à la demande avec le prologue du document (déclaration XML, DOCTYPE,
+ * racine) et la balise fermante de la racine : l'encodage et les entités restent ceux de la source.
+ * Les livres sont numérotés comme dans ParserSAXParallele (livres de premier niveau, à partir de 1,
+ * un <livre/> vide compris).
+ *
+ * Format (version 2, gros-boutiste) : magique, version, taille / date / empreinte de la source,
+ * prologue et épilogue (longueur + octets), nombre de livres, puis (début long, longueur int) par livre
+ */
+class IndexLivres implements Closeable {
+    
+    static final String EXTENSION = ".index";
+    
+    private static final int MAGIQUE = 0x494E4458; // "INDX"
+    // Version 2 : les <livre/> vides sont indexés (un index de version 1 est reconstruit)
+    private static final int VERSION = 2;
+    private static final int POS_DATE_SOURCE = 16;
+    
+    // Un DocumentBuilder par thread (il n'est pas thread-safe)
+    private static final ThreadLocal<DocumentBuilder> CONSTRUCTEURS = ThreadLocal.withInitial(() -> {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setIgnoringElementContentWhitespace(true);
+            factory.setIgnoringComments(true);
+            return factory.newDocumentBuilder();
+        } catch (Exception e) {
+            throw new IllegalStateException("Impossible de créer le parseur DOM", e);
+        }
+    });
+    
+    private final File source;
+    private final byte[] prologue;
+    private final byte[] epilogue;
+    private final long[] debuts;
+    private final int[] longueurs;
+    
+    // Ouvert à la première lecture d'un livre
+    private FileChannel canal;
+    
+    private IndexLivres(File source, byte[] prologue, byte[] epilogue, long[] debuts, int[] longueurs) {
+        this.source = source;
+        this.prologue = prologue;
+        this.epilogue = epilogue;
+        this.debuts = debuts;
+        this.longueurs = longueurs;
+    }
+    
+    /**
+     * Index du fichier : celui enregistré s'il est à jour, sinon un balayage des octets
+     * puis l'écriture d'un nouvel index (un échec d'écriture n'empêche pas la lecture)
+     */
+    static IndexLivres ouvrir(File source) throws IOException {
+        File fichier = new File(source.getPath() + EXTENSION);
+        IndexLivres index = lire(fichier, source);
+        if (index != null) {
+            return index;
+        }
+        
+        DecoupeurLivres decoupeur = new DecoupeurLivres(Long.MAX_VALUE);
+        decoupeur.enregistrerLivres();
+        try (FileChannel canal = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            decoupeur.decouper(canal);
+        }
+        index = depuis(decoupeur, source);
+        try {
+            index.ecrire(fichier, decoupeur.getEmpreinte());
+        } catch (IOException e) {
+            System.err.println("⚠️ Index des livres non écrit : " + e.getMessage());
+        }
+        return index;
+    }
+    
+    /**
+     * Écrit l'index à partir d'un balayage déjà fait (decoupeur.enregistrerLivres() appelé avant)
+     */
+    static void enregistrer(DecoupeurLivres decoupeur, File source) {
+        try {
+            depuis(decoupeur, source).ecrire(new File(source.getPath() + EXTENSION), decoupeur.getEmpreinte());
+        } catch (IOException e) {
+            System.err.println("⚠️ Index des livres non écrit : " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Écrit l'index dans un fichier temporaire renommé à la fin : un index incomplet n'est jamais lu
+     */
+    private void ecrire(File fichier, long empreinte) throws IOException {
+        Path temporaire = Paths.get(fichier.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                 Files.newOutputStream(temporaire), 1 << 16))) {
+            out.writeInt(MAGIQUE);
+            out.writeInt(VERSION);
+            out.writeLong(source.length());
+            out.writeLong(source.lastModified());
+            out.writeLong(empreinte);
+            out.writeInt(prologue.length);
+            out.write(prologue);
+            out.writeInt(epilogue.length);
+            out.write(epilogue);
+            out.writeInt(debuts.length);
+            for (int i = 0; i < debuts.length; i++) {
+                out.writeLong(debuts[i]);
+                out.writeInt(longueurs[i]);
+            }
+        }
+        Files.move(temporaire, fichier.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private static IndexLivres depuis(DecoupeurLivres decoupeur, File source) throws IOException {
+        long[] debuts = decoupeur.getDebutsLivres();
+        long[] fins = decoupeur.getFinsLivres();
+        int[] longueurs = new int[debuts.length];
+        for (int i = 0; i < debuts.length; i++) {
+            if (fins[i] - debuts[i] > Integer.MAX_VALUE) {
+                throw new IOException("Livre #" + (i + 1) + " trop volumineux pour l'index");
+            }
+            longueurs[i] = (int) (fins[i] - debuts[i]);
+        }
+        return new IndexLivres(source, decoupeur.getPrologue(), decoupeur.getEpilogue(), debuts, longueurs);
+    }
+    
+    /**
+     * Index enregistré s'il correspond à la source, sinon null
+     */
+    static IndexLivres lire(File fichier, File source) throws IOException {
+        if (!fichier.isFile()) {
+            return null;
+        }
+        
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                 new FileInputStream(fichier), 1 << 16))) {
+            if (in.readInt() != MAGIQUE || in.readInt() != VERSION || in.readLong() != source.length()) {
+                return null;
+            }
+            
+            // Date différente (copie, touch...) : le contenu est comparé avant de reconstruire
+            long date = in.readLong();
+            long empreinte = in.readLong();
+            if (date != source.lastModified()) {
+                if (empreinte != InstantaneBibliotheque.empreinte(source)) {
+                    return null;
+                }
+                mettreAJourDate(fichier, source.lastModified());
+            }
+            
+            byte[] prologue = new byte[in.readInt()];
+            in.readFully(prologue);
+            byte[] epilogue = new byte[in.readInt()];
+            in.readFully(epilogue);
+            int n = in.readInt();
+            long[] debuts = new long[n];
+            int[] longueurs = new int[n];
+            for (int i = 0; i < n; i++) {
+                debuts[i] = in.readLong();
+                longueurs[i] = in.readInt();
+            }
+            return new IndexLivres(source, prologue, epilogue, debuts, longueurs);
+        } catch (EOFException e) {
+            System.err.println("⚠️ Index des livres tronqué, il sera reconstruit");
+            return null;
+        }
+    }
+    
+    /**
+     * Enregistre la nouvelle date de la source (sans effet si l'index est en lecture seule)
+     */
+    private static void mettreAJourDate(File fichier, long date) {
+        try (FileChannel canal = FileChannel.open(fichier.toPath(), StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.allocate(8).putLong(0, date), POS_DATE_SOURCE);
+        } catch (IOException e) {
+            // La comparaison du contenu sera refaite au prochain lancement
+        }
+    }
+    
+    int nombreLivres() {
+        return debuts.length;
+    }
+    
+    /** Position du '<' de la balise ouvrante du livre numero (à partir de 1) */
+    long debut(int numero) {
+        return debuts[numero - 1];
+    }
+    
+    /** Longueur en octets du livre, balise fermante comprise */
+    int longueur(int numero) {
+        return longueurs[numero - 1];
+    }
+    
+    /**
+     * Document réduit au livre : prologue + octets du livre + balise fermante de la racine
+     */
+    private byte[] document(int numero) throws IOException {
+        FileChannel canal = canal();
+        byte[] octets = new byte[prologue.length + longueur(numero) + epilogue.length];
+        System.arraycopy(prologue, 0, octets, 0, prologue.length);
+        ByteBuffer livre = ByteBuffer.wrap(octets, prologue.length, longueur(numero));
+        long position = debut(numero);
+        while (livre.hasRemaining()) {
+            int lus = canal.read(livre, position);
+            if (lus < 0) {
+                throw new EOFException("Fichier plus court que l'index : " + source);
+            }
+            position += lus;
+        }
+        System.arraycopy(epilogue, 0, octets, octets.length - epilogue.length, epilogue.length);
+        return octets;
+    }
+    
+    /**
+     * Élément DOM du livre numero, dans un document qui ne contient que lui
+     * Reconstruit à chaque appel : rien n'est gardé en mémoire entre deux lectures
+     */
+    Element element(int numero) throws Exception {
+        InputSource entree = new InputSource(new ByteArrayInputStream(document(numero)));
+        entree.setSystemId(source.toURI().toString());
+        DocumentBuilder builder = CONSTRUCTEURS.get();
+        builder.reset();
+        Document doc = builder.parse(entree);
+        
+        for (Node n = doc.getDocumentElement().getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n.getNodeType() == Node.ELEMENT_NODE && n.getNodeName().equals("livre")) {
+                return (Element) n;
+            }
+        }
+        throw new IOException("Pas de <livre> à la position " + debut(numero) + " : index périmé ?");
+    }
+    
+    /**
+     * Rapport TXT (si texte) et lignes CSV du livre numero, identiques à celles de ParserSAX
+     */
+    ParserSAXParallele.ResultatFragment rapport(int numero, boolean texte) throws Exception {
+        FragmentLivres fragment = new FragmentLivres(debut(numero), debut(numero) + longueur(numero), numero, 1);
+        return ParserSAXParallele.parserFragment(canal(), fragment, prologue, epilogue,
+                                                 source.toURI().toString(), texte);
+    }
+    
+    /**
+     * Canal de la source, partagé par les lectures (positionnelles)
+     */
+    private synchronized FileChannel canal() throws IOException {
+        if (canal == null) {
+            canal = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+        }
+        return canal;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        if (canal != null) {
+            canal.close();
+            canal = null;
+        }
+    }
+}
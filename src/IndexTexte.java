@@ -0,0 +1,438 @@
+import java.io.*;
+import java.util.*;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.*;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Index inversé du texte des paragraphes, construit pendant la lecture SAX
+ * - chaque terme (minuscules, sans accents) a une liste de postings (chapitre, paragraphe, fréquence)
+ *   rangée dans un seul tableau d'int : les postings du terme t occupent
+ *   postings[3 * debutPostings[t] .. 3 * debutPostings[t + 1]), dans l'ordre du document
+ * - les chapitres sont numérotés dans l'ordre du document ; leurs numéros de livre,
+ *   section et chapitre sont ceux du CSV
+ * - rechercher() retourne les k meilleurs chapitres selon BM25
+ */
+class IndexTexte {
+    
+    // Paramètres BM25 habituels
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    
+    // Dictionnaire des termes
+    final DictionnaireTermes termes;
+    
+    // Postings : (chapitre, paragraphe, fréquence) par terme
+    int[] debutPostings;
+    int[] postings;
+    int[] nbChapitresTerme;
+    
+    // Chapitres (documents de BM25)
+    int nbChapitres;
+    int[] livreChapitre;
+    int[] sectionChapitre;
+    int[] numeroChapitre;
+    int[] longueurChapitre;
+    String[] titreChapitre;
+    List<String> titresLivres;
+    double longueurMoyenne;
+    
+    // Scores de la recherche en cours (réutilisés d'une recherche à l'autre)
+    private float[] scores;
+    
+    private IndexTexte(DictionnaireTermes termes) {
+        this.termes = termes;
+    }
+    
+    /**
+     * Lit le fichier avec SAX et construit l'index
+     */
+    static IndexTexte construire(File fichier) throws Exception {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        SAXParser parser = factory.newSAXParser();
+        Constructeur constructeur = new Constructeur();
+        parser.parse(fichier, constructeur);
+        return constructeur.index;
+    }
+    
+    /**
+     * Un chapitre trouvé par la recherche
+     */
+    static final class Resultat {
+        final double score;
+        final int numeroLivre;
+        final String titreLivre;
+        final int numeroSection;
+        final int numeroChapitre;
+        final String titreChapitre;
+        final int meilleurParagraphe;
+        
+        Resultat(double score, int numeroLivre, String titreLivre, int numeroSection,
+                 int numeroChapitre, String titreChapitre, int meilleurParagraphe) {
+            this.score = score;
+            this.numeroLivre = numeroLivre;
+            this.titreLivre = titreLivre;
+            this.numeroSection = numeroSection;
+            this.numeroChapitre = numeroChapitre;
+            this.titreChapitre = titreChapitre;
+            this.meilleurParagraphe = meilleurParagraphe;
+        }
+    }
+    
+    /**
+     * Les k chapitres les plus pertinents pour les termes de la requête (BM25)
+     * Les mots de la requête passent par le même pliage que le texte indexé ;
+     * une expression entre guillemets est traitée comme ses mots, sans ordre
+     */
+    synchronized List<Resultat> rechercher(String requete, int k) {
+        // Termes connus de la requête, sans doublons
+        List<Integer> ids = new ArrayList<>();
+        for (String terme : Tokeniseur.termes(requete)) {
+            int id = termes.chercher(terme);
+            if (id != DictionnaireTermes.ABSENT && !ids.contains(id)) {
+                ids.add(id);
+            }
+        }
+        if (ids.isEmpty() || k <= 0) {
+            return new ArrayList<>();
+        }
+        
+        if (scores == null) {
+            scores = new float[nbChapitres];
+        }
+        int[] touches = new int[16];
+        int nbTouches = 0;
+        
+        // Accumulation des scores, terme par terme
+        for (int id : ids) {
+            double idf = Math.log(1 + (nbChapitres - nbChapitresTerme[id] + 0.5)
+                                      / (nbChapitresTerme[id] + 0.5));
+            int i = 3 * debutPostings[id];
+            int fin = 3 * debutPostings[id + 1];
+            while (i < fin) {
+                // Fréquence du terme dans le chapitre = somme sur ses paragraphes
+                int chapitre = postings[i];
+                int tf = 0;
+                while (i < fin && postings[i] == chapitre) {
+                    tf += postings[i + 2];
+                    i += 3;
+                }
+                double norme = K1 * (1 - B + B * longueurChapitre[chapitre] / longueurMoyenne);
+                if (scores[chapitre] == 0) {
+                    if (nbTouches == touches.length) {
+                        touches = Arrays.copyOf(touches, nbTouches * 2);
+                    }
+                    touches[nbTouches++] = chapitre;
+                }
+                scores[chapitre] += (float) (idf * tf * (K1 + 1) / (tf + norme));
+            }
+        }
+        
+        // Sélection des k meilleurs (tas minimum ; à score égal, l'ordre du document)
+        PriorityQueue<Integer> tas = new PriorityQueue<>(k + 1, (a, b) ->
+            scores[a] != scores[b] ? Float.compare(scores[a], scores[b]) : Integer.compare(b, a));
+        for (int t = 0; t < nbTouches; t++) {
+            tas.add(touches[t]);
+            if (tas.size() > k) {
+                tas.poll();
+            }
+        }
+        
+        List<Resultat> resultats = new ArrayList<>();
+        while (!tas.isEmpty()) {
+            int c = tas.poll();
+            resultats.add(new Resultat(scores[c], livreChapitre[c],
+                                       titresLivres.get(livreChapitre[c] - 1), sectionChapitre[c],
+                                       numeroChapitre[c], titreChapitre[c], meilleurParagraphe(ids, c)));
+        }
+        Collections.reverse(resultats);
+        
+        // Remise à zéro des seuls scores touchés
+        for (int t = 0; t < nbTouches; t++) {
+            scores[touches[t]] = 0;
+        }
+        return resultats;
+    }
+    
+    /**
+     * Paragraphe du chapitre qui contient le plus d'occurrences des termes
+     */
+    private int meilleurParagraphe(List<Integer> ids, int chapitre) {
+        Map<Integer, Integer> occurrences = new TreeMap<>();
+        for (int id : ids) {
+            int i = 3 * premierPosting(id, chapitre);
+            int fin = 3 * debutPostings[id + 1];
+            for (; i < fin && postings[i] == chapitre; i += 3) {
+                occurrences.merge(postings[i + 1], postings[i + 2], Integer::sum);
+            }
+        }
+        int meilleur = 0;
+        int max = 0;
+        for (Map.Entry<Integer, Integer> e : occurrences.entrySet()) {
+            if (e.getValue() > max) {
+                max = e.getValue();
+                meilleur = e.getKey();
+            }
+        }
+        return meilleur;
+    }
+    
+    /**
+     * Rang du premier posting du terme pour ce chapitre (recherche dichotomique)
+     */
+    private int premierPosting(int id, int chapitre) {
+        int bas = debutPostings[id];
+        int haut = debutPostings[id + 1];
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (postings[3 * milieu] < chapitre) bas = milieu + 1;
+            else haut = milieu;
+        }
+        return bas;
+    }
+    
+    /**
+     * Nombre total de postings
+     */
+    int nbPostings() {
+        return debutPostings[termes.taille()];
+    }
+    
+    /**
+     * Handler SAX qui découpe les paragraphes en termes et remplit l'index
+     */
+    static final class Constructeur extends DefaultHandler implements Tokeniseur.Receveur {
+        
+        final IndexTexte index = new IndexTexte(new DictionnaireTermes());
+        private final Tokeniseur tokeniseur = new Tokeniseur(this);
+        
+        // Postings bruts (terme, chapitre, paragraphe, fréquence) dans l'ordre de lecture
+        private int[] bruts = new int[4 * 4096];
+        private int nbBruts = 0;
+        
+        // Fréquences du paragraphe courant, par terme
+        private int[] frequences = new int[4096];
+        private int[] termesParagraphe = new int[256];
+        private int nbTermesParagraphe = 0;
+        
+        // Chapitres
+        private int[] livres = new int[1024];
+        private int[] sections = new int[1024];
+        private int[] numeros = new int[1024];
+        private int[] longueurs = new int[1024];
+        private final List<String> titres = new ArrayList<>();
+        private final List<String> titresLivres = new ArrayList<>();
+        private int nbChapitres = 0;
+        
+        // Contexte courant
+        private int numeroLivre = 0;
+        private int numeroSection = 0;
+        private int numeroChapitre = 0;
+        private int numeroParagraphe = 0;
+        private int chapitreCourant = -1;
+        private boolean dansLivre = false;
+        private boolean dansSection = false;
+        private boolean dansParagraphe = false;
+        // Profondeur de l'élément paragraphe ouvert : il se ferme à la même profondeur
+        private int profondeurParagraphe = 0;
+        private boolean dansTitre = false;
+        private final StringBuilder titre = new StringBuilder();
+        private final Deque<String> pile = new ArrayDeque<>();
+        
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            String parent = pile.peek();
+            pile.push(qName);
+            
+            switch (qName) {
+                case "livre":
+                    numeroLivre++;
+                    numeroSection = 0;
+                    dansLivre = true;
+                    titresLivres.add("");
+                    break;
+                case "section":
+                    numeroSection++;
+                    numeroChapitre = 0;
+                    dansSection = true;
+                    break;
+                case "chapitre":
+                    if (dansSection) {
+                        numeroChapitre++;
+                        numeroParagraphe = 0;
+                        chapitreCourant = nouveauChapitre();
+                    }
+                    break;
+                case "paragraphe":
+                    if (chapitreCourant >= 0 && !dansParagraphe) {
+                        numeroParagraphe++;
+                        dansParagraphe = true;
+                        profondeurParagraphe = pile.size();
+                    }
+                    break;
+                case "titre":
+                    // Titres du livre et du chapitre (enfants directs)
+                    if (("livre".equals(parent) && dansLivre) || ("chapitre".equals(parent) && chapitreCourant >= 0)) {
+                        dansTitre = true;
+                        titre.setLength(0);
+                    }
+                    break;
+            }
+        }
+        
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (dansParagraphe) {
+                tokeniseur.ajouter(ch, start, length);
+            } else if (dansTitre) {
+                titre.append(ch, start, length);
+            }
+        }
+        
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            pile.pop();
+            String parent = pile.peek();
+            
+            switch (qName) {
+                case "livre":
+                    dansLivre = false;
+                    break;
+                case "section":
+                    dansSection = false;
+                    break;
+                case "chapitre":
+                    if ("section".equals(parent)) {
+                        chapitreCourant = -1;
+                    }
+                    break;
+                case "paragraphe":
+                    if (dansParagraphe && pile.size() + 1 == profondeurParagraphe) {
+                        tokeniseur.terminer();
+                        terminerParagraphe();
+                        dansParagraphe = false;
+                    }
+                    break;
+                case "titre":
+                    if (dansTitre) {
+                        String t = titre.toString().trim();
+                        if ("livre".equals(parent)) {
+                            titresLivres.set(numeroLivre - 1, t);
+                        } else if (titres.get(chapitreCourant).isEmpty()) {
+                            titres.set(chapitreCourant, t);
+                        }
+                        dansTitre = false;
+                    }
+                    break;
+            }
+        }
+        
+        private int nouveauChapitre() {
+            if (nbChapitres == livres.length) {
+                int capacite = nbChapitres * 2;
+                livres = Arrays.copyOf(livres, capacite);
+                sections = Arrays.copyOf(sections, capacite);
+                numeros = Arrays.copyOf(numeros, capacite);
+                longueurs = Arrays.copyOf(longueurs, capacite);
+            }
+            livres[nbChapitres] = numeroLivre;
+            sections[nbChapitres] = numeroSection;
+            numeros[nbChapitres] = numeroChapitre;
+            titres.add("");
+            return nbChapitres++;
+        }
+        
+        /**
+         * Un terme du paragraphe courant
+         */
+        @Override
+        public void terme(char[] caracteres, int longueur) {
+            int id = index.termes.ajouter(caracteres, longueur);
+            if (id >= frequences.length) {
+                frequences = Arrays.copyOf(frequences, Math.max(id + 1, frequences.length * 2));
+            }
+            if (frequences[id]++ == 0) {
+                if (nbTermesParagraphe == termesParagraphe.length) {
+                    termesParagraphe = Arrays.copyOf(termesParagraphe, nbTermesParagraphe * 2);
+                }
+                termesParagraphe[nbTermesParagraphe++] = id;
+            }
+            longueurs[chapitreCourant]++;
+        }
+        
+        /**
+         * Un posting par terme distinct du paragraphe
+         */
+        private void terminerParagraphe() {
+            for (int t = 0; t < nbTermesParagraphe; t++) {
+                int id = termesParagraphe[t];
+                if (nbBruts + 4 > bruts.length) {
+                    bruts = Arrays.copyOf(bruts, bruts.length * 2);
+                }
+                bruts[nbBruts++] = id;
+                bruts[nbBruts++] = chapitreCourant;
+                bruts[nbBruts++] = numeroParagraphe;
+                bruts[nbBruts++] = frequences[id];
+                frequences[id] = 0;
+            }
+            nbTermesParagraphe = 0;
+        }
+        
+        /**
+         * Range les postings par terme (tri par dénombrement, stable : l'ordre du document est gardé)
+         */
+        @Override
+        public void endDocument() {
+            IndexTexte ix = index;
+            int nbTermes = ix.termes.taille();
+            int nbPostings = nbBruts / 4;
+            
+            ix.debutPostings = new int[nbTermes + 1];
+            for (int i = 0; i < nbBruts; i += 4) {
+                ix.debutPostings[bruts[i] + 1]++;
+            }
+            for (int t = 0; t < nbTermes; t++) {
+                ix.debutPostings[t + 1] += ix.debutPostings[t];
+            }
+            
+            ix.postings = new int[3 * nbPostings];
+            ix.nbChapitresTerme = new int[nbTermes];
+            int[] prochain = Arrays.copyOf(ix.debutPostings, nbTermes);
+            int[] dernierChapitre = new int[nbTermes];
+            Arrays.fill(dernierChapitre, -1);
+            for (int i = 0; i < nbBruts; i += 4) {
+                int t = bruts[i];
+                int p = 3 * prochain[t]++;
+                ix.postings[p] = bruts[i + 1];
+                ix.postings[p + 1] = bruts[i + 2];
+                ix.postings[p + 2] = bruts[i + 3];
+                if (dernierChapitre[t] != bruts[i + 1]) {
+                    dernierChapitre[t] = bruts[i + 1];
+                    ix.nbChapitresTerme[t]++;
+                }
+            }
+            bruts = null;
+            
+            ix.nbChapitres = nbChapitres;
+            ix.livreChapitre = Arrays.copyOf(livres, nbChapitres);
+            ix.sectionChapitre = Arrays.copyOf(sections, nbChapitres);
+            ix.numeroChapitre = Arrays.copyOf(numeros, nbChapitres);
+            ix.longueurChapitre = Arrays.copyOf(longueurs, nbChapitres);
+            ix.titreChapitre = titres.toArray(new String[0]);
+            ix.titresLivres = titresLivres;
+            
+            long total = 0;
+            for (int c = 0; c < nbChapitres; c++) {
+                total += ix.longueurChapitre[c];
+            }
+            ix.longueurMoyenne = nbChapitres > 0 ? Math.max(1.0, (double) total / nbChapitres) : 1.0;
+        }
+        
+        @Override
+        public void fatalError(SAXParseException e) throws SAXException {
+            System.err.println("💥 Erreur fatale : " + e.getMessage());
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,503 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.zip.CRC32C;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.InputSource;
+
+/**
+ * Instantané binaire du modèle compact, projeté en mémoire (mmap) et lu sur place
+ * Écrit à côté du fichier XML (livres.xml → livres.xml.instantane) après la première lecture ;
+ * les lectures suivantes n'analysent plus le XML tant que la source n'a pas changé
+ * (même taille et même date, ou à défaut même empreinte CRC32C du contenu).
+ *
+ * Format (version 1, gros-boutiste) :
+ * - en-tête de 256 octets : magique, version, taille / date / empreinte de la source,
+ *   nombres de nœuds, de chaînes et de paragraphes, compteurs par genre, position de chaque zone
+ * - zones alignées sur 8 octets : genre (byte), parent, premierEnfant, frereSuivant, valeur, valeur2 (int),
+ *   début des chaînes (int) puis chaînes en UTF-8, début du texte (long) puis texte en UTF-8
+ * Les tableaux ne sont pas recopiés : chaque lecture va chercher la valeur dans le fichier projeté.
+ */
+class InstantaneBibliotheque extends ModeleBibliotheque {
+    
+    static final String EXTENSION = ".instantane";
+    
+    private static final int MAGIQUE = 0x4249424C; // "BIBL"
+    private static final int VERSION = 1;
+    private static final int TAILLE_ENTETE = 256;
+    
+    // Position des champs de l'en-tête
+    private static final int POS_TAILLE_SOURCE = 8;
+    private static final int POS_DATE_SOURCE = 16;
+    private static final int POS_EMPREINTE = 24;
+    private static final int POS_NB_NOEUDS = 32;
+    private static final int POS_NB_CHAINES = 36;
+    private static final int POS_NB_PARAGRAPHES = 40;
+    private static final int POS_PREMIERE_RACINE = 44;
+    private static final int POS_COMPTEURS = 48;
+    private static final int POS_ZONES = 72;
+    private static final int POS_TAILLE_FICHIER = 152;
+    
+    // Zones du fichier, dans l'ordre
+    private static final int Z_GENRE = 0;
+    private static final int Z_PARENT = 1;
+    private static final int Z_PREMIER_ENFANT = 2;
+    private static final int Z_FRERE_SUIVANT = 3;
+    private static final int Z_VALEUR = 4;
+    private static final int Z_VALEUR2 = 5;
+    private static final int Z_DEBUT_CHAINES = 6;
+    private static final int Z_CHAINES = 7;
+    private static final int Z_DEBUT_TEXTE = 8;
+    private static final int Z_TEXTE = 9;
+    private static final int NB_ZONES = 10;
+    
+    // Projection par morceaux de 1 Go (un MappedByteBuffer est limité à 2 Go) ;
+    // les zones étant alignées, un int ou un long n'est jamais à cheval sur deux morceaux
+    private static final int BITS_MORCEAU = 30;
+    private static final long MASQUE_MORCEAU = (1L << BITS_MORCEAU) - 1;
+    
+    private final MappedByteBuffer[] morceaux;
+    private final long[] zones = new long[NB_ZONES];
+    private final long tailleFichier;
+    
+    private InstantaneBibliotheque(FileChannel canal) throws IOException {
+        tailleFichier = canal.size();
+        int nb = (int) ((tailleFichier + MASQUE_MORCEAU) >>> BITS_MORCEAU);
+        morceaux = new MappedByteBuffer[nb];
+        for (int i = 0; i < nb; i++) {
+            long debut = (long) i << BITS_MORCEAU;
+            morceaux[i] = canal.map(FileChannel.MapMode.READ_ONLY, debut,
+                                    Math.min(1L << BITS_MORCEAU, tailleFichier - debut));
+        }
+        
+        nbNoeuds = lireInt(POS_NB_NOEUDS);
+        nbChaines = lireInt(POS_NB_CHAINES);
+        nbParagraphes = lireInt(POS_NB_PARAGRAPHES);
+        premiereRacine = lireInt(POS_PREMIERE_RACINE);
+        for (int g = 0; g < NB_GENRES; g++) {
+            compteurs[g] = lireInt(POS_COMPTEURS + 4 * g);
+        }
+        for (int z = 0; z < NB_ZONES; z++) {
+            zones[z] = lireLong(POS_ZONES + 8 * z);
+        }
+        
+        // Les tableaux du modèle en mémoire ne servent pas
+        genre = null;
+        parent = null;
+        premierEnfant = null;
+        frereSuivant = null;
+        valeur = null;
+        valeur2 = null;
+        chaines = null;
+        pages = null;
+        debutTexte = null;
+    }
+    
+    /**
+     * Modèle du fichier XML : l'instantané s'il est à jour, sinon lecture SAX
+     * puis écriture d'un nouvel instantané (un échec d'écriture n'empêche pas le traitement)
+     */
+    static ModeleBibliotheque ouvrir(File source) throws Exception {
+        File fichier = new File(source.getPath() + EXTENSION);
+        InstantaneBibliotheque instantane = lire(fichier, source);
+        if (instantane != null) {
+            return instantane;
+        }
+        
+        long taille = source.length();
+        long date = source.lastModified();
+        
+        // Lecture SAX ; l'empreinte est calculée sur les octets lus par le parseur
+        CRC32C crc = new CRC32C();
+        ModeleBibliotheque.Constructeur constructeur = new ModeleBibliotheque.Constructeur();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(source), 1 << 16)) {
+            InputStream flux = new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) crc.update(b);
+                    return b;
+                }
+                
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = super.read(b, off, len);
+                    if (n > 0) crc.update(b, off, n);
+                    return n;
+                }
+                
+                @Override
+                public void close() {
+                    // Le parseur ferme le flux : la fin du fichier est encore lue ci-dessous
+                }
+            };
+            InputSource entree = new InputSource(flux);
+            entree.setSystemId(source.toURI().toString());
+            SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
+            parser.parse(entree, constructeur);
+            
+            byte[] reste = new byte[8192];
+            while (flux.read(reste, 0, reste.length) > 0) {
+                // Octets après l'élément racine (blancs, commentaires)
+            }
+        }
+        ModeleBibliotheque modele = constructeur.modele;
+        
+        try {
+            ecrire(modele, fichier, taille, date, crc.getValue());
+        } catch (IOException e) {
+            System.err.println("⚠️ Instantané non écrit : " + e.getMessage());
+        }
+        return modele;
+    }
+    
+    /**
+     * Projette l'instantané s'il correspond à la source, sinon null
+     */
+    static InstantaneBibliotheque lire(File fichier, File source) throws IOException {
+        if (!fichier.isFile() || fichier.length() < TAILLE_ENTETE) {
+            return null;
+        }
+        
+        try (FileChannel canal = FileChannel.open(fichier.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE);
+            while (entete.hasRemaining() && canal.read(entete, entete.position()) > 0) {
+            }
+            if (entete.getInt(0) != MAGIQUE || entete.getInt(4) != VERSION
+                    || entete.getLong(POS_TAILLE_FICHIER) != canal.size()
+                    || entete.getLong(POS_TAILLE_SOURCE) != source.length()) {
+                return null;
+            }
+            
+            // Date différente (copie, touch...) : le contenu est comparé avant de reconstruire
+            if (entete.getLong(POS_DATE_SOURCE) != source.lastModified()) {
+                if (entete.getLong(POS_EMPREINTE) != empreinte(source)) {
+                    return null;
+                }
+                mettreAJourDate(fichier, source.lastModified());
+            }
+            
+            // La projection reste valide après la fermeture du canal
+            return new InstantaneBibliotheque(canal);
+        }
+    }
+    
+    /**
+     * Enregistre la nouvelle date de la source (sans effet si l'instantané est en lecture seule)
+     */
+    private static void mettreAJourDate(File fichier, long date) {
+        try (FileChannel canal = FileChannel.open(fichier.toPath(), StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.allocate(8).putLong(0, date), POS_DATE_SOURCE);
+        } catch (IOException e) {
+            // La comparaison du contenu sera refaite au prochain lancement
+        }
+    }
+    
+    /**
+     * Empreinte CRC32C du contenu d'un fichier
+     */
+    static long empreinte(File fichier) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel canal = FileChannel.open(fichier.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer tampon = ByteBuffer.allocateDirect(1 << 20);
+            while (canal.read(tampon) > 0) {
+                tampon.flip();
+                crc.update(tampon);
+                tampon.clear();
+            }
+        }
+        return crc.getValue();
+    }
+    
+    /**
+     * Écrit le modèle (construit entièrement, sans vider()) dans un fichier temporaire
+     * renommé à la fin : un instantané incomplet n'est jamais lu
+     */
+    static void ecrire(ModeleBibliotheque modele, File fichier, long tailleSource,
+                       long dateSource, long empreinte) throws IOException {
+        int nbNoeuds = modele.nbNoeuds;
+        int nbChaines = modele.nbChaines;
+        int nbParagraphes = modele.nbParagraphes;
+        
+        // Chaînes encodées une fois pour connaître la taille de la zone
+        byte[][] octetsChaines = new byte[nbChaines][];
+        long tailleChaines = 0;
+        for (int i = 0; i < nbChaines; i++) {
+            octetsChaines[i] = modele.chaines[i].getBytes(StandardCharsets.UTF_8);
+            tailleChaines += octetsChaines[i].length;
+        }
+        if (tailleChaines > Integer.MAX_VALUE) {
+            throw new IOException("Chaînes trop volumineuses pour l'instantané");
+        }
+        long tailleTexte = modele.debutTexte[nbParagraphes];
+        
+        long[] zones = new long[NB_ZONES];
+        long[] tailles = {
+            nbNoeuds, 4L * nbNoeuds, 4L * nbNoeuds, 4L * nbNoeuds, 4L * nbNoeuds, 4L * nbNoeuds,
+            4L * (nbChaines + 1), tailleChaines, 8L * (nbParagraphes + 1), tailleTexte
+        };
+        long position = TAILLE_ENTETE;
+        for (int z = 0; z < NB_ZONES; z++) {
+            zones[z] = position;
+            position = aligner(position + tailles[z]);
+        }
+        
+        Path temporaire = Paths.get(fichier.getPath() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                                                  StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Ecrivain out = new Ecrivain(canal);
+            
+            out.ecrireInt(MAGIQUE);
+            out.ecrireInt(VERSION);
+            out.ecrireLong(tailleSource);
+            out.ecrireLong(dateSource);
+            out.ecrireLong(empreinte);
+            out.ecrireInt(nbNoeuds);
+            out.ecrireInt(nbChaines);
+            out.ecrireInt(nbParagraphes);
+            out.ecrireInt(modele.premiereRacine);
+            for (int g = 0; g < NB_GENRES; g++) {
+                out.ecrireInt(modele.compteurs[g]);
+            }
+            out.ecrireInt(0);
+            for (long z : zones) {
+                out.ecrireLong(z);
+            }
+            out.ecrireLong(position);
+            out.completer(TAILLE_ENTETE);
+            
+            out.ecrireOctets(modele.genre, 0, nbNoeuds);
+            out.completer(zones[Z_PARENT]);
+            out.ecrireInts(modele.parent, nbNoeuds);
+            out.completer(zones[Z_PREMIER_ENFANT]);
+            out.ecrireInts(modele.premierEnfant, nbNoeuds);
+            out.completer(zones[Z_FRERE_SUIVANT]);
+            out.ecrireInts(modele.frereSuivant, nbNoeuds);
+            out.completer(zones[Z_VALEUR]);
+            out.ecrireInts(modele.valeur, nbNoeuds);
+            out.completer(zones[Z_VALEUR2]);
+            out.ecrireInts(modele.valeur2, nbNoeuds);
+            out.completer(zones[Z_DEBUT_CHAINES]);
+            
+            int debut = 0;
+            for (int i = 0; i < nbChaines; i++) {
+                out.ecrireInt(debut);
+                debut += octetsChaines[i].length;
+            }
+            out.ecrireInt(debut);
+            out.completer(zones[Z_CHAINES]);
+            for (byte[] b : octetsChaines) {
+                out.ecrireOctets(b, 0, b.length);
+            }
+            out.completer(zones[Z_DEBUT_TEXTE]);
+            
+            for (int i = 0; i <= nbParagraphes; i++) {
+                out.ecrireLong(modele.debutTexte[i]);
+            }
+            out.completer(zones[Z_TEXTE]);
+            long reste = tailleTexte;
+            for (byte[] page : modele.pages) {
+                int n = (int) Math.min(reste, page.length);
+                out.ecrireOctets(page, 0, n);
+                reste -= n;
+            }
+            out.completer(position);
+            out.vider();
+        }
+        Files.move(temporaire, fichier.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private static long aligner(long position) {
+        return (position + 7) & ~7L;
+    }
+    
+    /**
+     * Écriture séquentielle dans le canal à travers un tampon direct
+     */
+    static final class Ecrivain {
+        private final FileChannel canal;
+        private final ByteBuffer tampon = ByteBuffer.allocateDirect(1 << 20);
+        private long position = 0;
+        
+        Ecrivain(FileChannel canal) {
+            this.canal = canal;
+        }
+        
+        long position() {
+            return position;
+        }
+        
+        void ecrireInt(int v) throws IOException {
+            if (tampon.remaining() < 4) vider();
+            tampon.putInt(v);
+            position += 4;
+        }
+        
+        void ecrireLong(long v) throws IOException {
+            if (tampon.remaining() < 8) vider();
+            tampon.putLong(v);
+            position += 8;
+        }
+        
+        void ecrireInts(int[] t, int n) throws IOException {
+            for (int i = 0; i < n; i++) {
+                ecrireInt(t[i]);
+            }
+        }
+        
+        void ecrireOctets(byte[] b, int debut, int n) throws IOException {
+            while (n > 0) {
+                if (!tampon.hasRemaining()) vider();
+                int k = Math.min(n, tampon.remaining());
+                tampon.put(b, debut, k);
+                debut += k;
+                n -= k;
+                position += k;
+            }
+        }
+        
+        /**
+         * Zéros jusqu'à la position (début de la zone suivante)
+         */
+        void completer(long fin) throws IOException {
+            while (position < fin) {
+                if (!tampon.hasRemaining()) vider();
+                tampon.put((byte) 0);
+                position++;
+            }
+        }
+        
+        void vider() throws IOException {
+            tampon.flip();
+            while (tampon.hasRemaining()) {
+                canal.write(tampon);
+            }
+            tampon.clear();
+        }
+    }
+    
+    // ──────────────────────────── Lecture sur place ────────────────────────────
+    
+    private int lireInt(long position) {
+        return morceaux[(int) (position >>> BITS_MORCEAU)].getInt((int) (position & MASQUE_MORCEAU));
+    }
+    
+    private long lireLong(long position) {
+        return morceaux[(int) (position >>> BITS_MORCEAU)].getLong((int) (position & MASQUE_MORCEAU));
+    }
+    
+    /**
+     * Chaîne UTF-8 de longueur octets, éventuellement à cheval sur deux morceaux
+     */
+    private String lireChaine(long position, int longueur) {
+        byte[] octets = new byte[longueur];
+        int copie = 0;
+        while (copie < longueur) {
+            MappedByteBuffer m = morceaux[(int) (position >>> BITS_MORCEAU)];
+            int debut = (int) (position & MASQUE_MORCEAU);
+            int n = Math.min(longueur - copie, m.capacity() - debut);
+            m.get(debut, octets, copie, n);
+            copie += n;
+            position += n;
+        }
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    int genre(int noeud) {
+        long position = zones[Z_GENRE] + noeud;
+        return morceaux[(int) (position >>> BITS_MORCEAU)].get((int) (position & MASQUE_MORCEAU));
+    }
+    
+    @Override
+    int parent(int noeud) {
+        return lireInt(zones[Z_PARENT] + 4L * noeud);
+    }
+    
+    private int premierEnfantBrut(int noeud) {
+        return lireInt(zones[Z_PREMIER_ENFANT] + 4L * noeud);
+    }
+    
+    private int frereSuivantBrut(int noeud) {
+        return lireInt(zones[Z_FRERE_SUIVANT] + 4L * noeud);
+    }
+    
+    @Override
+    int finSousArbre(int noeud) {
+        for (int n = noeud; n != AUCUN; n = parent(n)) {
+            int frere = frereSuivantBrut(n);
+            if (frere != AUCUN) {
+                return frere;
+            }
+        }
+        return nbNoeuds;
+    }
+    
+    @Override
+    int premierEnfant(int noeud, byte g) {
+        int enfant = noeud == AUCUN ? premiereRacine : premierEnfantBrut(noeud);
+        while (enfant != AUCUN && genre(enfant) != g) {
+            enfant = frereSuivantBrut(enfant);
+        }
+        return enfant;
+    }
+    
+    @Override
+    int suivant(int noeud) {
+        int g = genre(noeud);
+        int frere = frereSuivantBrut(noeud);
+        while (frere != AUCUN && genre(frere) != g) {
+            frere = frereSuivantBrut(frere);
+        }
+        return frere;
+    }
+    
+    @Override
+    String titre(int noeud) {
+        return chaineInstantane(lireInt(zones[Z_VALEUR] + 4L * noeud));
+    }
+    
+    @Override
+    String nom(int auteur) {
+        return chaineInstantane(lireInt(zones[Z_VALEUR] + 4L * auteur));
+    }
+    
+    @Override
+    String prenom(int auteur) {
+        return chaineInstantane(lireInt(zones[Z_VALEUR2] + 4L * auteur));
+    }
+    
+    private String chaineInstantane(int id) {
+        if (id == AUCUN) {
+            return "";
+        }
+        long debut = lireInt(zones[Z_DEBUT_CHAINES] + 4L * id);
+        long fin = lireInt(zones[Z_DEBUT_CHAINES] + 4L * (id + 1));
+        return lireChaine(zones[Z_CHAINES] + debut, (int) (fin - debut));
+    }
+    
+    @Override
+    String texte(int paragraphe) {
+        int rang = lireInt(zones[Z_VALEUR] + 4L * paragraphe);
+        if (rang == AUCUN) {
+            // Paragraphe imbriqué : son texte appartient au paragraphe englobant
+            return "";
+        }
+        long debut = lireLong(zones[Z_DEBUT_TEXTE] + 8L * rang);
+        long fin = lireLong(zones[Z_DEBUT_TEXTE] + 8L * (rang + 1));
+        return lireChaine(zones[Z_TEXTE] + debut, (int) (fin - debut));
+    }
+    
+    /**
+     * Taille du fichier projeté (les pages sont chargées par le système à la demande)
+     */
+    @Override
+    long tailleMemoire() {
+        return tailleFichier;
+    }
+}
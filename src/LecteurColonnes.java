@@ -0,0 +1,264 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Lecture de l'export en colonnes (fichier .colonnes écrit par ParserSAX --colonnes, voir EcrivainColonnes)
+ * Seul le pied du fichier (statistiques des groupes et dictionnaires) est lu à l'ouverture ;
+ * une colonne est lue dans le fichier projeté en mémoire, groupe par groupe, sans toucher aux autres.
+ *
+ * Usage : java LecteurColonnes fichier.colonnes [colonne...] [--csv]
+ *   sans colonne : résumé de toutes les colonnes ; --csv : recopie en CSV (même format que LivreHandler)
+ * Exemple : java LecteurColonnes output/SAX_export_20250101_120000.colonnes Nombre_Paragraphes
+ */
+public class LecteurColonnes implements Closeable {
+    
+    private final FileChannel canal;
+    private final int nbGroupes;
+    private final long nbLignes;
+    
+    // Par groupe : nombre de lignes ; par groupe et colonne : position, min et max
+    private final int[] lignesGroupe;
+    private final long[][] positions;
+    private final int[][] minimums;
+    private final int[][] maximums;
+    
+    // Dictionnaires des colonnes texte (null pour les colonnes entières)
+    private final int[][] debutsTermes;
+    private final ByteBuffer[] termes;
+    
+    LecteurColonnes(Path fichier) throws IOException {
+        canal = FileChannel.open(fichier, StandardOpenOption.READ);
+        try {
+            long taille = canal.size();
+            if (taille < EcrivainColonnes.TAILLE_ENTETE + 12) {
+                throw new IOException("Pas un export en colonnes : " + fichier);
+            }
+            ByteBuffer entete = lire(0, EcrivainColonnes.TAILLE_ENTETE);
+            ByteBuffer fin = lire(taille - 12, 12);
+            if (entete.getInt(0) != EcrivainColonnes.MAGIQUE || fin.getInt(8) != EcrivainColonnes.MAGIQUE) {
+                throw new IOException("Pas un export en colonnes : " + fichier);
+            }
+            if (entete.getInt(4) != EcrivainColonnes.VERSION
+                    || entete.getInt(8) != EcrivainColonnes.Colonne.values().length) {
+                throw new IOException("Version d'export en colonnes non supportée : " + fichier);
+            }
+            
+            // Pied : statistiques des groupes puis dictionnaires
+            long debutPied = fin.getLong(0);
+            ByteBuffer pied = canal.map(FileChannel.MapMode.READ_ONLY, debutPied, taille - 12 - debutPied);
+            nbGroupes = pied.getInt();
+            nbLignes = pied.getLong();
+            int nbColonnes = EcrivainColonnes.Colonne.values().length;
+            lignesGroupe = new int[nbGroupes];
+            positions = new long[nbGroupes][nbColonnes];
+            minimums = new int[nbGroupes][nbColonnes];
+            maximums = new int[nbGroupes][nbColonnes];
+            for (int g = 0; g < nbGroupes; g++) {
+                lignesGroupe[g] = pied.getInt();
+                for (int c = 0; c < nbColonnes; c++) {
+                    positions[g][c] = pied.getLong();
+                    minimums[g][c] = pied.getInt();
+                    maximums[g][c] = pied.getInt();
+                }
+            }
+            
+            debutsTermes = new int[nbColonnes][];
+            termes = new ByteBuffer[nbColonnes];
+            for (EcrivainColonnes.Colonne colonne : EcrivainColonnes.Colonne.values()) {
+                if (!colonne.texte) continue;
+                int n = pied.getInt();
+                int[] debuts = new int[n + 1];
+                pied.asIntBuffer().get(debuts);
+                pied.position(pied.position() + 4 * (n + 1));
+                debutsTermes[colonne.ordinal()] = debuts;
+                termes[colonne.ordinal()] = pied.slice(pied.position(), debuts[n]);
+                pied.position(pied.position() + debuts[n]);
+            }
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+    
+    private ByteBuffer lire(long position, int n) throws IOException {
+        ByteBuffer tampon = ByteBuffer.allocate(n);
+        while (tampon.hasRemaining() && canal.read(tampon, position + tampon.position()) > 0) {
+        }
+        return tampon;
+    }
+    
+    long nombreLignes() {
+        return nbLignes;
+    }
+    
+    int nombreGroupes() {
+        return nbGroupes;
+    }
+    
+    int lignes(int groupe) {
+        return lignesGroupe[groupe];
+    }
+    
+    /** Plus petite valeur de la colonne dans le groupe (identifiant pour une colonne texte) */
+    int min(int groupe, EcrivainColonnes.Colonne colonne) {
+        return minimums[groupe][colonne.ordinal()];
+    }
+    
+    int max(int groupe, EcrivainColonnes.Colonne colonne) {
+        return maximums[groupe][colonne.ordinal()];
+    }
+    
+    /**
+     * Valeurs de la colonne dans un groupe, lues sur place dans le fichier projeté
+     * Pour une colonne texte, ce sont les identifiants du dictionnaire (voir terme)
+     */
+    IntBuffer colonne(int groupe, EcrivainColonnes.Colonne colonne) throws IOException {
+        return canal.map(FileChannel.MapMode.READ_ONLY, positions[groupe][colonne.ordinal()],
+                         4L * lignesGroupe[groupe]).asIntBuffer();
+    }
+    
+    /** Nombre de valeurs distinctes d'une colonne texte */
+    int nombreTermes(EcrivainColonnes.Colonne colonne) {
+        return debutsTermes[colonne.ordinal()].length - 1;
+    }
+    
+    /**
+     * Texte d'un identifiant du dictionnaire d'une colonne texte
+     */
+    String terme(EcrivainColonnes.Colonne colonne, int id) {
+        int[] debuts = debutsTermes[colonne.ordinal()];
+        byte[] octets = new byte[debuts[id + 1] - debuts[id]];
+        termes[colonne.ordinal()].get(debuts[id], octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+    
+    public static void main(String[] args) {
+        String fichier = null;
+        boolean csv = false;
+        List<EcrivainColonnes.Colonne> colonnes = new ArrayList<>();
+        
+        for (String arg : args) {
+            if (arg.equals("--csv")) {
+                csv = true;
+            } else if (fichier == null) {
+                fichier = arg;
+            } else {
+                try {
+                    colonnes.add(EcrivainColonnes.Colonne.lire(arg));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("❌ " + e.getMessage());
+                    return;
+                }
+            }
+        }
+        if (fichier == null) {
+            System.err.println("Usage : java LecteurColonnes fichier.colonnes [colonne...] [--csv]");
+            return;
+        }
+        if (colonnes.isEmpty()) {
+            colonnes.addAll(Arrays.asList(EcrivainColonnes.Colonne.values()));
+        }
+        
+        long debut = System.nanoTime();
+        try (LecteurColonnes lecteur = new LecteurColonnes(Paths.get(fichier))) {
+            if (csv) {
+                ecrireCsv(lecteur, new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                    System.out, StandardCharsets.UTF_8), 1 << 16)));
+                return;
+            }
+            
+            System.out.println("🧱 " + fichier + " : " + lecteur.nombreLignes() + " ligne(s) en " +
+                               lecteur.nombreGroupes() + " groupe(s)");
+            for (EcrivainColonnes.Colonne colonne : colonnes) {
+                System.out.println(resumer(lecteur, colonne));
+            }
+            double ms = (System.nanoTime() - debut) / 1_000_000.0;
+            System.out.printf("⏱️  Lu en %.2f ms%n", ms);
+        
+        } catch (NoSuchFileException e) {
+            System.err.println("\n❌ ERREUR : Fichier non trouvé");
+            System.err.println("   Vérifiez que le fichier existe : " + fichier);
+        } catch (Exception e) {
+            System.err.println("❌ Erreur lors de la lecture des colonnes : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Parcours d'une seule colonne : somme et bornes (entiers) ou valeurs distinctes utilisées (texte)
+     */
+    private static String resumer(LecteurColonnes lecteur, EcrivainColonnes.Colonne colonne) throws IOException {
+        long somme = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        BitSet vus = new BitSet();
+        for (int g = 0; g < lecteur.nombreGroupes(); g++) {
+            min = Math.min(min, lecteur.min(g, colonne));
+            max = Math.max(max, lecteur.max(g, colonne));
+            IntBuffer valeurs = lecteur.colonne(g, colonne);
+            while (valeurs.hasRemaining()) {
+                int v = valeurs.get();
+                if (colonne.texte) {
+                    vus.set(v);
+                } else {
+                    somme += v;
+                }
+            }
+        }
+        if (lecteur.nombreLignes() == 0) {
+            return String.format("   %-20s (vide)", colonne.nom);
+        }
+        if (colonne.texte) {
+            return String.format("   %-20s texte  : %d valeur(s) distincte(s) sur %d (dictionnaire de %d)",
+                                 colonne.nom, vus.cardinality(), lecteur.nombreLignes(),
+                                 lecteur.nombreTermes(colonne));
+        }
+        return String.format("   %-20s entier : min %d, max %d, moyenne %.2f", colonne.nom, min, max,
+                             (double) somme / lecteur.nombreLignes());
+    }
+    
+    /**
+     * Recopie le fichier en CSV, groupe par groupe
+     */
+    static void ecrireCsv(LecteurColonnes lecteur, PrintWriter out) throws IOException {
+        EcrivainColonnes.Colonne[] colonnes = EcrivainColonnes.Colonne.values();
+        StringBuilder ligne = new StringBuilder();
+        for (EcrivainColonnes.Colonne colonne : colonnes) {
+            if (ligne.length() > 0) ligne.append(',');
+            ligne.append(colonne.nom);
+        }
+        out.println(ligne);
+        
+        IntBuffer[] valeurs = new IntBuffer[colonnes.length];
+        for (int g = 0; g < lecteur.nombreGroupes(); g++) {
+            for (int c = 0; c < colonnes.length; c++) {
+                valeurs[c] = lecteur.colonne(g, colonnes[c]);
+            }
+            for (int i = 0; i < lecteur.lignes(g); i++) {
+                ligne.setLength(0);
+                for (int c = 0; c < colonnes.length; c++) {
+                    int v = valeurs[c].get(i);
+                    ligne.append(c == 0 ? "\"" : ",\"");
+                    if (colonnes[c].texte) {
+                        ligne.append(Projection.echapperCSV(lecteur.terme(colonnes[c], v)));
+                    } else {
+                        ligne.append(v);
+                    }
+                    ligne.append('"');
+                }
+                out.print(ligne.append('\n'));
+            }
+        }
+        out.flush();
+    }
+}
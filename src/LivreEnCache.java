@@ -0,0 +1,11 @@
+/**
+ * Ce qui est gardé d'un fragment (un livre) entre deux traitements
+ */
+class LivreEnCache {
+    int numero;
+    int nombreLivres;
+    long longueur;
+    long empreinte;
+    int[] compteurs;
+    String csv;
+}
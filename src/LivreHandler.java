@@ -0,0 +1,514 @@
+import java.io.*;
+import org.xml.sax.*;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Handler personnalisé qui étend DefaultHandler
+ * Redéfinit les méthodes appelées lors des événements SAX
+ */
+class LivreHandler extends DefaultHandler {
+    
+    // Rapport texte et writer CSV
+    private SortieRapport rapport;
+    private PrintWriter csvWriter;
+    
+    // Variables pour suivre le contexte actuel
+    private String elementActuel = "";
+    private StringBuilder contenu = new StringBuilder();
+    
+    // Champs utilisés : le texte n'est accumulé que pour les éléments lus (capture)
+    private final Projection projection;
+    private boolean capture = true;
+    
+    // Variables pour la structure du document
+    private int numeroLivre = 0;
+    private int numeroSection = 0;
+    private int numeroChapitre = 0;
+    private int numeroParagraphe = 0;
+    
+    // Variables pour stocker les informations temporaires
+    private String titreLivre = "";
+    private String titreSection = "";
+    private String titreChapitre = "";
+    private String nomAuteur = "";
+    private String prenomAuteur = "";
+    private StringBuilder auteursLivre = new StringBuilder();
+    
+    // Indicateurs de contexte
+    private boolean dansLivre = false;
+    private boolean dansAuteur = false;
+    private boolean dansSection = false;
+    private boolean dansChapitre = false;
+    private boolean dansParagraphe = false;
+    private boolean dansTitre = false;
+    private boolean premierAuteur = true;
+    
+    // Statistiques
+    private int totalLivres = 0;
+    private int totalAuteurs = 0;
+    private int totalSections = 0;
+    private int totalChapitres = 0;
+    private int totalParagraphes = 0;
+    
+    // Messages de début et de fin d'analyse
+    static final String MSG_DEBUT = "\n📄 Début de l'analyse du document XML...\n\n";
+    static final String MSG_FIN = "\n✅ Fin de l'analyse du document XML.\n";
+    
+    // Mode fragment (parsing parallèle) : ni en-tête CSV, ni messages de document
+    private boolean fragment = false;
+    
+    // Mesures de l'exécution et agrégats (facultatifs)
+    private MesuresParsing mesures;
+    private AgregatsBibliotheque agregats;
+    private ExportNormalise export;
+    private EcrivainColonnes colonnes;
+    private TriChapitres tri;
+    private SortieCanal sortieCsv;
+    
+    /**
+     * Constructeur avec les writers (écriture synchrone sur la console et le TXT)
+     */
+    public LivreHandler(PrintWriter txtWriter, PrintWriter csvWriter) {
+        this(SortieRapport.synchrone(txtWriter, true), csvWriter);
+    }
+    
+    /**
+     * Constructeur avec le rapport texte et le writer CSV
+     */
+    public LivreHandler(SortieRapport rapport, PrintWriter csvWriter) {
+        this(rapport, csvWriter, Projection.TOUT);
+    }
+    
+    /**
+     * Constructeur limité aux champs de la projection (colonnes du CSV, lignes du rapport)
+     */
+    LivreHandler(SortieRapport rapport, PrintWriter csvWriter, Projection projection) {
+        this.rapport = rapport;
+        this.csvWriter = csvWriter;
+        this.projection = projection;
+        
+        // En-tête CSV
+        csvWriter.println(projection.enTeteCsv());
+    }
+    
+    /**
+     * Constructeur pour un fragment du document (voir ParserSAXParallele)
+     * La numérotation des livres reprend après premierNumeroLivre - 1
+     * et le rapport du fragment ne doit pas écrire sur la console
+     */
+    LivreHandler(SortieRapport rapport, PrintWriter csvWriter, int premierNumeroLivre) {
+        this.rapport = rapport;
+        this.csvWriter = csvWriter;
+        this.numeroLivre = premierNumeroLivre - 1;
+        this.fragment = true;
+        this.projection = Projection.TOUT;
+    }
+    
+    void setMesures(MesuresParsing mesures) {
+        this.mesures = mesures;
+    }
+    
+    void setAgregats(AgregatsBibliotheque agregats) {
+        this.agregats = agregats;
+    }
+    
+    /**
+     * Écrit aussi les tables de l'export normalisé, au fil du parsing
+     */
+    void setExportNormalise(ExportNormalise export) {
+        this.export = export;
+    }
+    
+    /**
+     * Écrit aussi chaque ligne du CSV dans l'export en colonnes
+     */
+    void setEcrivainColonnes(EcrivainColonnes colonnes) {
+        this.colonnes = colonnes;
+    }
+    
+    /**
+     * Les lignes CSV passent par le tri au lieu d'être écrites dans l'ordre du document
+     */
+    void setTri(TriChapitres tri) {
+        this.tri = tri;
+    }
+    
+    /**
+     * Canal sous-jacent de csvWriter : les lignes y sont écrites champ par champ
+     */
+    void setSortieCsv(SortieCanal sortieCsv) {
+        this.sortieCsv = sortieCsv;
+    }
+    
+    AgregatsBibliotheque getAgregats() {
+        return agregats;
+    }
+    
+    /**
+     * Appelée au début du document
+     */
+    @Override
+    public void startDocument() throws SAXException {
+        if (!fragment) {
+            afficher(MSG_DEBUT);
+        }
+    }
+    
+    /**
+     * Appelée à la fin du document
+     */
+    @Override
+    public void endDocument() throws SAXException {
+        if (!fragment) {
+            afficher(MSG_FIN);
+        }
+    }
+    
+    /**
+     * Appelée au début de chaque élément
+     */
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) 
+            throws SAXException {
+        
+        // Réinitialiser le contenu pour le nouvel élément
+        contenu.setLength(0);
+        elementActuel = qName;
+        if (mesures != null) mesures.element();
+        
+        switch (qName) {
+            case "livre":
+                numeroLivre++;
+                totalLivres++;
+                if (mesures != null) mesures.debutLivre(numeroLivre);
+                if (agregats != null) agregats.debutLivre();
+                dansLivre = true;
+                numeroSection = 0;
+                auteursLivre.setLength(0);
+                premierAuteur = true;
+                capture = false;
+                
+                if (rapport.actif()) {
+                    String livreHeader = "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n" +
+                                       "LIVRE #" + numeroLivre + "\n" +
+                                       "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n";
+                    afficher(livreHeader);
+                }
+                break;
+                
+            case "auteurs":
+                capture = false;
+                break;
+                
+            case "auteur":
+                dansAuteur = true;
+                totalAuteurs++;
+                capture = false;
+                break;
+                
+            case "nom":
+            case "prenom":
+                capture = dansAuteur && projection.contient(Projection.Champ.AUTEURS);
+                break;
+                
+            case "section":
+                numeroSection++;
+                totalSections++;
+                dansSection = true;
+                numeroChapitre = 0;
+                capture = false;
+                break;
+                
+            case "chapitre":
+                numeroChapitre++;
+                totalChapitres++;
+                dansChapitre = true;
+                numeroParagraphe = 0;
+                capture = false;
+                break;
+                
+            case "paragraphe":
+                numeroParagraphe++;
+                totalParagraphes++;
+                dansParagraphe = true;
+                // Seul l'extrait du premier paragraphe est affiché ; les agrégats mesurent tous les paragraphes
+                capture = agregats != null || (numeroParagraphe == 1 && rapport.actif()
+                                               && projection.contient(Projection.Champ.EXTRAIT));
+                break;
+                
+            case "titre":
+                dansTitre = true;
+                // Mêmes cas que dans endElement
+                Projection.Champ champ = dansChapitre ? Projection.Champ.TITRE_CHAPITRE
+                                       : dansSection ? Projection.Champ.TITRE_SECTION
+                                       : dansLivre ? Projection.Champ.TITRE_LIVRE : null;
+                capture = champ != null && projection.contient(champ);
+                break;
+        }
+    }
+    
+    /**
+     * Appelée pour lire le contenu textuel d'un élément
+     */
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        // Accumuler le contenu textuel (le trim est fait dans endElement :
+        // un trim par morceau ferait dépendre le texte du découpage du parseur)
+        if (capture) {
+            contenu.append(ch, start, length);
+        }
+    }
+    
+    /**
+     * Appelée à la fin de chaque élément
+     */
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        
+        String texte = capture ? contenu.toString().trim() : "";
+        
+        switch (qName) {
+            case "livre":
+                dansLivre = false;
+                if (export != null) export.livre(numeroLivre, titreLivre, numeroSection);
+                afficher("\n" + System.lineSeparator());
+                if (mesures != null) mesures.finLivre();
+                break;
+                
+            case "titre":
+                if (dansTitre) {
+                    if (dansLivre && !dansSection && !dansChapitre) {
+                        // Titre du livre
+                        titreLivre = texte;
+                        if (rapport.actif() && projection.contient(Projection.Champ.TITRE_LIVRE)) {
+                            String titreInfo = "\n📚 Titre : " + titreLivre + "\n";
+                            afficher(titreInfo);
+                        }
+                    } else if (dansSection && !dansChapitre) {
+                        // Titre de section
+                        titreSection = texte;
+                        if (rapport.actif() && projection.contient(Projection.Champ.TITRE_SECTION)) {
+                            String sectionInfo = "\n  ▶ Section " + numeroSection + " : " + titreSection + "\n";
+                            afficher(sectionInfo);
+                        }
+                    } else if (dansChapitre) {
+                        // Titre de chapitre
+                        titreChapitre = texte;
+                        if (rapport.actif() && projection.contient(Projection.Champ.TITRE_CHAPITRE)) {
+                            String chapitreInfo = "\n    📖 Chapitre " + numeroChapitre + " : " + titreChapitre + "\n";
+                            afficher(chapitreInfo);
+                        }
+                    }
+                    dansTitre = false;
+                }
+                break;
+                
+            case "auteurs":
+                // Afficher l'en-tête des auteurs une fois
+                if (premierAuteur && projection.contient(Projection.Champ.AUTEURS)) {
+                    String auteurHeader = "\n✍️  Auteurs :\n";
+                    afficher(auteurHeader);
+                    premierAuteur = false;
+                }
+                break;
+                
+            case "auteur":
+                if (dansAuteur) {
+                    if (rapport.actif() && projection.contient(Projection.Champ.AUTEURS)) {
+                        String auteurInfo = "   - " + prenomAuteur + " " + nomAuteur + "\n";
+                        afficher(auteurInfo);
+                    }
+                    
+                    // Ajouter à la liste des auteurs pour CSV
+                    if (auteursLivre.length() > 0) {
+                        auteursLivre.append("; ");
+                    }
+                    auteursLivre.append(prenomAuteur).append(" ").append(nomAuteur);
+                    if (agregats != null) agregats.auteur(prenomAuteur, nomAuteur);
+                    if (export != null) export.auteur(numeroLivre, prenomAuteur, nomAuteur);
+                    
+                    nomAuteur = "";
+                    prenomAuteur = "";
+                    dansAuteur = false;
+                }
+                break;
+                
+            case "nom":
+                if (dansAuteur) {
+                    nomAuteur = texte;
+                }
+                break;
+                
+            case "prenom":
+                if (dansAuteur) {
+                    prenomAuteur = texte;
+                }
+                break;
+                
+            case "section":
+                if (agregats != null) agregats.finSection(numeroChapitre);
+                if (export != null) export.section(numeroLivre, numeroSection, titreSection, numeroChapitre);
+                dansSection = false;
+                break;
+                
+            case "chapitre":
+                // Écrire la ligne CSV pour ce chapitre
+                try {
+                    if (sortieCsv != null && tri == null) {
+                        projection.ecrireCsv(sortieCsv, numeroLivre, titreLivre, auteursLivre, numeroSection,
+                                             titreSection, numeroChapitre, titreChapitre, numeroParagraphe);
+                    } else {
+                        String auteurs = auteursLivre.toString();
+                        String ligne = projection.ligneCsv(
+                            numeroLivre,
+                            titreLivre,
+                            auteurs,
+                            numeroSection,
+                            titreSection,
+                            numeroChapitre,
+                            titreChapitre,
+                            numeroParagraphe
+                        );
+                        if (tri != null) {
+                            tri.ajouter(auteurs, titreChapitre, numeroParagraphe, ligne);
+                        } else {
+                            csvWriter.print(ligne);
+                        }
+                    }
+                    if (colonnes != null) {
+                        colonnes.ligne(numeroLivre, titreLivre, auteursLivre.toString(), numeroSection, titreSection,
+                                       numeroChapitre, titreChapitre, numeroParagraphe);
+                    }
+                } catch (IOException e) {
+                    throw new SAXException("Écriture de l'export impossible", e);
+                }
+                
+                if (rapport.actif()) {
+                    String paraInfo = "       Nombre de paragraphes : " + numeroParagraphe + "\n";
+                    afficher(paraInfo);
+                }
+                if (agregats != null) agregats.finChapitre(numeroParagraphe);
+                if (export != null) export.chapitre(numeroLivre, numeroSection, numeroChapitre, titreChapitre, numeroParagraphe);
+                
+                dansChapitre = false;
+                break;
+                
+            case "paragraphe":
+                if (dansParagraphe && numeroParagraphe == 1 && rapport.actif()
+                    && projection.contient(Projection.Champ.EXTRAIT)) {
+                    // Afficher un extrait du premier paragraphe seulement
+                    String extrait = texte.length() > 100 
+                        ? texte.substring(0, 100) + "..." 
+                        : texte;
+                    String extraitInfo = "       Premier paragraphe (extrait) :\n" +
+                                       "       \"" + extrait + "\"\n";
+                    afficher(extraitInfo);
+                }
+                if (agregats != null) agregats.paragraphe(texte.length());
+                dansParagraphe = false;
+                break;
+        }
+    }
+    
+    /**
+     * Gestion des erreurs
+     */
+    @Override
+    public void error(SAXParseException e) throws SAXException {
+        String errMsg = "❌ Erreur : " + e.getMessage() + "\n" +
+                       "   Ligne : " + e.getLineNumber() + "\n" +
+                       "   Colonne : " + e.getColumnNumber() + "\n";
+        System.err.print(errMsg);
+    }
+    
+    /**
+     * Gestion des erreurs fatales
+     */
+    @Override
+    public void fatalError(SAXParseException e) throws SAXException {
+        String errMsg = "❌ Erreur fatale : " + e.getMessage() + "\n" +
+                       "   Ligne : " + e.getLineNumber() + "\n" +
+                       "   Colonne : " + e.getColumnNumber() + "\n";
+        System.err.print(errMsg);
+        throw e;
+    }
+    
+    /**
+     * Gestion des avertissements
+     */
+    @Override
+    public void warning(SAXParseException e) throws SAXException {
+        String warnMsg = "⚠️  Avertissement : " + e.getMessage() + "\n" +
+                        "   Ligne : " + e.getLineNumber() + "\n";
+        System.err.print(warnMsg);
+    }
+    
+    /**
+     * Affiche un message sur la console et dans le fichier
+     */
+    private void afficher(String message) {
+        rapport.afficher(message);
+    }
+    
+    /**
+     * Ajoute les compteurs d'un autre handler (fusion des fragments)
+     */
+    void cumulerStatistiques(LivreHandler autre) {
+        totalLivres += autre.totalLivres;
+        totalAuteurs += autre.totalAuteurs;
+        totalSections += autre.totalSections;
+        totalChapitres += autre.totalChapitres;
+        totalParagraphes += autre.totalParagraphes;
+        if (agregats != null && autre.agregats != null) {
+            agregats.fusionner(autre.agregats);
+        }
+    }
+    
+    /**
+     * Compteurs (livres, auteurs, sections, chapitres, paragraphes), gardés par livre
+     * par le traitement incrémental (voir ParserIncremental)
+     */
+    int[] getCompteurs() {
+        return new int[] {totalLivres, totalAuteurs, totalSections, totalChapitres, totalParagraphes};
+    }
+    
+    /**
+     * Ajoute des compteurs obtenus par getCompteurs()
+     */
+    void cumulerCompteurs(int[] compteurs) {
+        totalLivres += compteurs[0];
+        totalAuteurs += compteurs[1];
+        totalSections += compteurs[2];
+        totalChapitres += compteurs[3];
+        totalParagraphes += compteurs[4];
+    }
+    
+    /**
+     * Retourne les statistiques collectées
+     */
+    public String getStatistiques() {
+        StringBuilder sb = new StringBuilder();
+        
+        sb.append("\n📊 STATISTIQUES DU DOCUMENT XML\n");
+        sb.append("─────────────────────────────────────────────────\n");
+        sb.append("Total de livres      : ").append(totalLivres).append("\n");
+        sb.append("Total d'auteurs      : ").append(totalAuteurs).append("\n");
+        sb.append("Total de sections    : ").append(totalSections).append("\n");
+        sb.append("Total de chapitres   : ").append(totalChapitres).append("\n");
+        sb.append("Total de paragraphes : ").append(totalParagraphes).append("\n");
+        
+        if (totalLivres > 0) {
+            double moyenneSections = (double) totalSections / totalLivres;
+            double moyenneChapitres = (double) totalChapitres / totalLivres;
+            double moyenneParagraphes = (double) totalParagraphes / totalLivres;
+            
+            sb.append("\nMoyenne de sections par livre    : ").append(String.format("%.2f", moyenneSections)).append("\n");
+            sb.append("Moyenne de chapitres par livre   : ").append(String.format("%.2f", moyenneChapitres)).append("\n");
+            sb.append("Moyenne de paragraphes par livre : ").append(String.format("%.2f", moyenneParagraphes)).append("\n");
+        }
+        
+        sb.append("─────────────────────────────────────────────────\n");
+        
+        return sb.toString();
+    }
+}
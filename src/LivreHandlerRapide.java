@@ -0,0 +1,532 @@
+import java.io.*;
+import org.xml.sax.*;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Variante de LivreHandler sans allocation en régime établi
+ * - le contexte est une pile de codes d'éléments au lieu d'indicateurs booléens
+ * - le texte n'est accumulé que pour les éléments lus (titres, nom, prénom,
+ *   premier paragraphe si le rapport est actif), dans des tampons char[] réutilisés
+ * - les lignes CSV sont échappées et formatées directement dans un tampon de sortie
+ * - les messages du rapport sont composés dans un StringBuilder réutilisé
+ *
+ * Produit le même TXT et le même CSV que LivreHandler (option --rapide de ParserSAX)
+ */
+class LivreHandlerRapide extends DefaultHandler {
+    
+    // Codes des éléments du schéma
+    private static final int AUTRE = 0;
+    private static final int LIVRE = 1;
+    private static final int TITRE = 2;
+    private static final int AUTEURS = 3;
+    private static final int AUTEUR = 4;
+    private static final int NOM = 5;
+    private static final int PRENOM = 6;
+    private static final int SECTION = 7;
+    private static final int CHAPITRE = 8;
+    private static final int PARAGRAPHE = 9;
+    
+    private static final String SEPARATEUR = "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n";
+    
+    // Rapport texte et writer CSV
+    private final SortieRapport rapport;
+    private final boolean avecTexte;
+    private final Writer csvWriter;
+    
+    // Pile des éléments ouverts
+    private int[] pile = new int[32];
+    private int profondeur = 0;
+    
+    // Texte de l'élément courant, accumulé seulement si capture
+    private final Tampon contenu = new Tampon(256);
+    private boolean capture = false;
+    
+    // Informations du contexte courant (réutilisées, comme dans LivreHandler
+    // les titres ne sont pas remis à zéro d'un livre à l'autre)
+    private final Tampon titreLivre = new Tampon(128);
+    private final Tampon titreSection = new Tampon(128);
+    private final Tampon titreChapitre = new Tampon(128);
+    private final Tampon nomAuteur = new Tampon(32);
+    private final Tampon prenomAuteur = new Tampon(32);
+    private final Tampon auteursLivre = new Tampon(128);
+    private boolean premierAuteur = true;
+    
+    private int numeroLivre = 0;
+    private int numeroSection = 0;
+    private int numeroChapitre = 0;
+    private int numeroParagraphe = 0;
+    
+    // Message du rapport en cours de composition
+    private final StringBuilder message = new StringBuilder(256);
+    
+    // Tampon de sortie CSV
+    private final char[] csv = new char[1 << 16];
+    private int posCsv = 0;
+    
+    // Statistiques
+    private int totalLivres = 0;
+    private int totalAuteurs = 0;
+    private int totalSections = 0;
+    private int totalChapitres = 0;
+    private int totalParagraphes = 0;
+    
+    // Mesures de l'exécution (facultatives)
+    private MesuresParsing mesures;
+    
+    // Champs de la projection (voir Projection)
+    private final boolean avecTitreLivre;
+    private final boolean avecAuteurs;
+    private final boolean avecTitreSection;
+    private final boolean avecTitreChapitre;
+    private final boolean avecExtrait;
+    
+    /**
+     * Constructeur avec le rapport texte et le writer CSV
+     */
+    LivreHandlerRapide(SortieRapport rapport, Writer csvWriter) throws IOException {
+        this(rapport, csvWriter, Projection.TOUT);
+    }
+    
+    /**
+     * Constructeur limité aux champs de la projection (colonnes du CSV, lignes du rapport)
+     */
+    LivreHandlerRapide(SortieRapport rapport, Writer csvWriter, Projection projection) throws IOException {
+        this.rapport = rapport;
+        this.avecTexte = rapport.actif();
+        this.csvWriter = csvWriter;
+        this.avecTitreLivre = projection.contient(Projection.Champ.TITRE_LIVRE);
+        this.avecAuteurs = projection.contient(Projection.Champ.AUTEURS);
+        this.avecTitreSection = projection.contient(Projection.Champ.TITRE_SECTION);
+        this.avecTitreChapitre = projection.contient(Projection.Champ.TITRE_CHAPITRE);
+        this.avecExtrait = projection.contient(Projection.Champ.EXTRAIT);
+        
+        // En-tête CSV
+        csvWriter.write(projection.enTeteCsv());
+        csvWriter.write(System.lineSeparator());
+    }
+    
+    void setMesures(MesuresParsing mesures) {
+        this.mesures = mesures;
+    }
+    
+    @Override
+    public void startDocument() throws SAXException {
+        rapport.afficher(LivreHandler.MSG_DEBUT);
+    }
+    
+    @Override
+    public void endDocument() throws SAXException {
+        viderCsv();
+        rapport.afficher(LivreHandler.MSG_FIN);
+    }
+    
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes)
+            throws SAXException {
+        int code = coder(qName);
+        int parent = profondeur > 0 ? pile[profondeur - 1] : AUTRE;
+        empiler(code);
+        
+        contenu.vider();
+        capture = false;
+        if (mesures != null) mesures.element();
+        
+        switch (code) {
+            case LIVRE:
+                numeroLivre++;
+                totalLivres++;
+                if (mesures != null) mesures.debutLivre(numeroLivre);
+                numeroSection = 0;
+                auteursLivre.vider();
+                premierAuteur = true;
+                if (avecTexte) {
+                    message.setLength(0);
+                    message.append(SEPARATEUR).append("LIVRE #").append(numeroLivre)
+                           .append('\n').append(SEPARATEUR);
+                    rapport.afficher(message);
+                }
+                break;
+            
+            case AUTEUR:
+                totalAuteurs++;
+                break;
+            
+            case SECTION:
+                numeroSection++;
+                totalSections++;
+                numeroChapitre = 0;
+                break;
+            
+            case CHAPITRE:
+                numeroChapitre++;
+                totalChapitres++;
+                numeroParagraphe = 0;
+                break;
+            
+            case PARAGRAPHE:
+                numeroParagraphe++;
+                totalParagraphes++;
+                // Seul l'extrait du premier paragraphe est utilisé
+                capture = avecTexte && avecExtrait && numeroParagraphe == 1;
+                break;
+            
+            case TITRE:
+                capture = (parent == LIVRE && avecTitreLivre) || (parent == SECTION && avecTitreSection)
+                          || (parent == CHAPITRE && avecTitreChapitre);
+                break;
+            
+            case NOM:
+            case PRENOM:
+                capture = parent == AUTEUR && avecAuteurs;
+                break;
+        }
+    }
+    
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        if (capture) {
+            contenu.ajouter(ch, start, length);
+        }
+    }
+    
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        int code = depiler();
+        int parent = profondeur > 0 ? pile[profondeur - 1] : AUTRE;
+        
+        switch (code) {
+            case LIVRE:
+                if (avecTexte) {
+                    message.setLength(0);
+                    message.append('\n').append(System.lineSeparator());
+                    rapport.afficher(message);
+                }
+                if (mesures != null) mesures.finLivre();
+                break;
+            
+            case TITRE:
+                if (parent == LIVRE && avecTitreLivre) {
+                    titreLivre.copierSansBlancs(contenu);
+                    afficherLigne("\n📚 Titre : ", -1, null, titreLivre);
+                } else if (parent == SECTION && avecTitreSection) {
+                    titreSection.copierSansBlancs(contenu);
+                    afficherLigne("\n  ▶ Section ", numeroSection, " : ", titreSection);
+                } else if (parent == CHAPITRE && avecTitreChapitre) {
+                    titreChapitre.copierSansBlancs(contenu);
+                    afficherLigne("\n    📖 Chapitre ", numeroChapitre, " : ", titreChapitre);
+                }
+                break;
+            
+            case AUTEURS:
+                // Afficher l'en-tête des auteurs une fois
+                if (premierAuteur && avecAuteurs) {
+                    rapport.afficher("\n✍️  Auteurs :\n");
+                    premierAuteur = false;
+                }
+                break;
+            
+            case AUTEUR:
+                if (!avecAuteurs) break;
+                if (avecTexte) {
+                    message.setLength(0);
+                    message.append("   - ");
+                    prenomAuteur.ajouterA(message);
+                    message.append(' ');
+                    nomAuteur.ajouterA(message);
+                    message.append('\n');
+                    rapport.afficher(message);
+                }
+                
+                // Ajouter à la liste des auteurs pour CSV
+                if (auteursLivre.longueur > 0) {
+                    auteursLivre.ajouter("; ");
+                }
+                auteursLivre.ajouter(prenomAuteur);
+                auteursLivre.ajouter(" ");
+                auteursLivre.ajouter(nomAuteur);
+                
+                nomAuteur.vider();
+                prenomAuteur.vider();
+                break;
+            
+            case NOM:
+                if (parent == AUTEUR) {
+                    nomAuteur.copierSansBlancs(contenu);
+                }
+                break;
+            
+            case PRENOM:
+                if (parent == AUTEUR) {
+                    prenomAuteur.copierSansBlancs(contenu);
+                }
+                break;
+            
+            case CHAPITRE:
+                ecrireLigneCsv();
+                if (avecTexte) {
+                    message.setLength(0);
+                    message.append("       Nombre de paragraphes : ").append(numeroParagraphe).append('\n');
+                    rapport.afficher(message);
+                }
+                break;
+            
+            case PARAGRAPHE:
+                if (capture) {
+                    // Extrait des 100 premiers caractères (sans les blancs autour)
+                    int debut = contenu.debutSansBlancs();
+                    int fin = contenu.finSansBlancs();
+                    message.setLength(0);
+                    message.append("       Premier paragraphe (extrait) :\n       \"");
+                    if (fin - debut > 100) {
+                        message.append(contenu.caracteres, debut, 100).append("...");
+                    } else {
+                        message.append(contenu.caracteres, debut, fin - debut);
+                    }
+                    message.append("\"\n");
+                    rapport.afficher(message);
+                }
+                break;
+        }
+        capture = false;
+    }
+    
+    /**
+     * Compose et affiche "debut[numero][milieu]texte\n"
+     */
+    private void afficherLigne(String debut, int numero, String milieu, Tampon texte) {
+        if (!avecTexte) return;
+        message.setLength(0);
+        message.append(debut);
+        if (numero >= 0) message.append(numero);
+        if (milieu != null) message.append(milieu);
+        texte.ajouterA(message);
+        message.append('\n');
+        rapport.afficher(message);
+    }
+    
+    /**
+     * Code de l'élément (le switch sur String réutilise le hashCode mis en cache)
+     */
+    private static int coder(String qName) {
+        switch (qName) {
+            case "livre":      return LIVRE;
+            case "titre":      return TITRE;
+            case "auteurs":    return AUTEURS;
+            case "auteur":     return AUTEUR;
+            case "nom":        return NOM;
+            case "prenom":     return PRENOM;
+            case "section":    return SECTION;
+            case "chapitre":   return CHAPITRE;
+            case "paragraphe": return PARAGRAPHE;
+            default:           return AUTRE;
+        }
+    }
+    
+    private void empiler(int code) {
+        if (profondeur == pile.length) {
+            int[] plusGrande = new int[pile.length * 2];
+            System.arraycopy(pile, 0, plusGrande, 0, pile.length);
+            pile = plusGrande;
+        }
+        pile[profondeur++] = code;
+    }
+    
+    private int depiler() {
+        return profondeur > 0 ? pile[--profondeur] : AUTRE;
+    }
+    
+    // ────────────────────────────── Sortie CSV ──────────────────────────────
+    
+    /**
+     * Écrit "n","titre","auteurs","n","section","n","chapitre","n" sans String intermédiaire
+     */
+    private void ecrireLigneCsv() throws SAXException {
+        csvCar('"'); csvEntier(numeroLivre);      csvCar('"'); csvCar(',');
+        if (avecTitreLivre) {
+            csvCar('"'); csvTexte(titreLivre);    csvCar('"'); csvCar(',');
+        }
+        if (avecAuteurs) {
+            csvCar('"'); csvTexte(auteursLivre);  csvCar('"'); csvCar(',');
+        }
+        csvCar('"'); csvEntier(numeroSection);    csvCar('"'); csvCar(',');
+        if (avecTitreSection) {
+            csvCar('"'); csvTexte(titreSection);  csvCar('"'); csvCar(',');
+        }
+        csvCar('"'); csvEntier(numeroChapitre);   csvCar('"'); csvCar(',');
+        if (avecTitreChapitre) {
+            csvCar('"'); csvTexte(titreChapitre); csvCar('"'); csvCar(',');
+        }
+        csvCar('"'); csvEntier(numeroParagraphe); csvCar('"'); csvCar('\n');
+    }
+    
+    private void csvCar(char c) throws SAXException {
+        if (posCsv == csv.length) {
+            viderCsv();
+        }
+        csv[posCsv++] = c;
+    }
+    
+    /**
+     * Copie le texte en doublant les guillemets (échappement CSV)
+     */
+    private void csvTexte(Tampon texte) throws SAXException {
+        char[] c = texte.caracteres;
+        for (int i = 0; i < texte.longueur; i++) {
+            if (c[i] == '"') {
+                csvCar('"');
+            }
+            csvCar(c[i]);
+        }
+    }
+    
+    /**
+     * Écrit un entier positif chiffre par chiffre
+     */
+    private void csvEntier(int n) throws SAXException {
+        if (posCsv + 11 > csv.length) {
+            viderCsv();
+        }
+        if (n < 0) {
+            csv[posCsv++] = '-';
+            n = -n;
+        }
+        int debut = posCsv;
+        do {
+            csv[posCsv++] = (char) ('0' + n % 10);
+            n /= 10;
+        } while (n > 0);
+        // Les chiffres ont été écrits à l'envers
+        for (int i = debut, j = posCsv - 1; i < j; i++, j--) {
+            char t = csv[i];
+            csv[i] = csv[j];
+            csv[j] = t;
+        }
+    }
+    
+    private void viderCsv() throws SAXException {
+        try {
+            csvWriter.write(csv, 0, posCsv);
+            posCsv = 0;
+        } catch (IOException e) {
+            throw new SAXException("Erreur d'écriture du CSV", e);
+        }
+    }
+    
+    // ─────────────────────────────── Erreurs ───────────────────────────────
+    
+    @Override
+    public void error(SAXParseException e) throws SAXException {
+        System.err.print("❌ Erreur : " + e.getMessage() + "\n" +
+                         "   Ligne : " + e.getLineNumber() + "\n" +
+                         "   Colonne : " + e.getColumnNumber() + "\n");
+    }
+    
+    @Override
+    public void fatalError(SAXParseException e) throws SAXException {
+        System.err.print("❌ Erreur fatale : " + e.getMessage() + "\n" +
+                         "   Ligne : " + e.getLineNumber() + "\n" +
+                         "   Colonne : " + e.getColumnNumber() + "\n");
+        throw e;
+    }
+    
+    @Override
+    public void warning(SAXParseException e) throws SAXException {
+        System.err.print("⚠️  Avertissement : " + e.getMessage() + "\n" +
+                         "   Ligne : " + e.getLineNumber() + "\n");
+    }
+    
+    /**
+     * Retourne les statistiques collectées (même format que LivreHandler)
+     */
+    String getStatistiques() {
+        StringBuilder sb = new StringBuilder();
+        
+        sb.append("\n📊 STATISTIQUES DU DOCUMENT XML\n");
+        sb.append("─────────────────────────────────────────────────\n");
+        sb.append("Total de livres      : ").append(totalLivres).append("\n");
+        sb.append("Total d'auteurs      : ").append(totalAuteurs).append("\n");
+        sb.append("Total de sections    : ").append(totalSections).append("\n");
+        sb.append("Total de chapitres   : ").append(totalChapitres).append("\n");
+        sb.append("Total de paragraphes : ").append(totalParagraphes).append("\n");
+        
+        if (totalLivres > 0) {
+            double moyenneSections = (double) totalSections / totalLivres;
+            double moyenneChapitres = (double) totalChapitres / totalLivres;
+            double moyenneParagraphes = (double) totalParagraphes / totalLivres;
+            
+            sb.append("\nMoyenne de sections par livre    : ").append(String.format("%.2f", moyenneSections)).append("\n");
+            sb.append("Moyenne de chapitres par livre   : ").append(String.format("%.2f", moyenneChapitres)).append("\n");
+            sb.append("Moyenne de paragraphes par livre : ").append(String.format("%.2f", moyenneParagraphes)).append("\n");
+        }
+        
+        sb.append("─────────────────────────────────────────────────\n");
+        
+        return sb.toString();
+    }
+    
+    /**
+     * Tampon de caractères réutilisable (ne grandit qu'au besoin)
+     */
+    static final class Tampon {
+        char[] caracteres;
+        int longueur;
+        
+        Tampon(int capacite) {
+            caracteres = new char[capacite];
+        }
+        
+        void vider() {
+            longueur = 0;
+        }
+        
+        void ajouter(char[] ch, int debut, int n) {
+            assurer(longueur + n);
+            System.arraycopy(ch, debut, caracteres, longueur, n);
+            longueur += n;
+        }
+        
+        void ajouter(Tampon autre) {
+            ajouter(autre.caracteres, 0, autre.longueur);
+        }
+        
+        void ajouter(String s) {
+            assurer(longueur + s.length());
+            s.getChars(0, s.length(), caracteres, longueur);
+            longueur += s.length();
+        }
+        
+        /**
+         * Copie le texte de source sans les blancs de début et de fin (comme String.trim)
+         */
+        void copierSansBlancs(Tampon source) {
+            int debut = source.debutSansBlancs();
+            int fin = source.finSansBlancs();
+            longueur = 0;
+            ajouter(source.caracteres, debut, fin - debut);
+        }
+        
+        int debutSansBlancs() {
+            int i = 0;
+            while (i < longueur && caracteres[i] <= ' ') i++;
+            return i;
+        }
+        
+        int finSansBlancs() {
+            int i = longueur;
+            while (i > 0 && caracteres[i - 1] <= ' ') i--;
+            return Math.max(i, debutSansBlancs());
+        }
+        
+        void ajouterA(StringBuilder sb) {
+            sb.append(caracteres, 0, longueur);
+        }
+        
+        private void assurer(int capacite) {
+            if (capacite > caracteres.length) {
+                char[] plusGrand = new char[Math.max(capacite, caracteres.length * 2)];
+                System.arraycopy(caracteres, 0, plusGrand, 0, longueur);
+                caracteres = plusGrand;
+            }
+        }
+    }
+}
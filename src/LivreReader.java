@@ -0,0 +1,325 @@
+import java.io.*;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Lecteur StAX des livres
+ * Chaque niveau de la hiérarchie a sa propre méthode (lireLivre, lireSection,
+ * lireChapitre...) : le contexte courant est donc connu sans indicateurs booléens.
+ * Produit exactement le même TXT et le même CSV que LivreHandler
+ */
+class LivreReader {
+    
+    // Lecteur StAX et writers pour les fichiers de sortie
+    private XMLStreamReader reader;
+    private PrintWriter txtWriter;
+    private PrintWriter csvWriter;
+    
+    // Tampon réutilisé pour lire le contenu textuel
+    private StringBuilder contenu = new StringBuilder();
+    
+    // Compteur de livres (numérotation continue dans le document)
+    private int numeroLivre = 0;
+    
+    // Statistiques
+    private int totalLivres = 0;
+    private int totalAuteurs = 0;
+    private int totalSections = 0;
+    private int totalChapitres = 0;
+    private int totalParagraphes = 0;
+    
+    /**
+     * Constructeur avec le lecteur et les writers
+     */
+    public LivreReader(XMLStreamReader reader, PrintWriter txtWriter, PrintWriter csvWriter) {
+        this.reader = reader;
+        this.txtWriter = txtWriter;
+        this.csvWriter = csvWriter;
+        
+        // En-tête CSV
+        csvWriter.println("Numero_Livre,Titre_Livre,Auteurs,Numero_Section,Titre_Section,Numero_Chapitre,Titre_Chapitre,Nombre_Paragraphes");
+    }
+    
+    /**
+     * Lit tout le document : la racine puis chaque livre
+     */
+    public void lireDocument() throws XMLStreamException {
+        afficher("\n📄 Début de l'analyse du document XML...\n\n");
+        
+        // Avancer jusqu'à l'élément racine (<bibliotheque>)
+        while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) {
+            // prologue, commentaires, DTD : ignorés
+        }
+        
+        // Parcourir les enfants de la racine
+        while (prochainEnfant()) {
+            if (reader.getLocalName().equals("livre")) {
+                lireLivre();
+            } else {
+                sauterElement();
+            }
+        }
+        
+        afficher("\n✅ Fin de l'analyse du document XML.\n");
+    }
+    
+    /**
+     * Lit un élément <livre> (le curseur est sur sa balise ouvrante)
+     */
+    private void lireLivre() throws XMLStreamException {
+        numeroLivre++;
+        totalLivres++;
+        
+        String livreHeader = "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n" +
+                           "LIVRE #" + numeroLivre + "\n" +
+                           "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n";
+        afficher(livreHeader);
+        
+        String titreLivre = "";
+        StringBuilder auteursLivre = new StringBuilder();
+        boolean premierAuteur = true;
+        int numeroSection = 0;
+        
+        while (prochainEnfant()) {
+            switch (reader.getLocalName()) {
+                case "titre":
+                    titreLivre = lireTexte();
+                    afficher("\n📚 Titre : " + titreLivre + "\n");
+                    break;
+                    
+                case "auteurs":
+                    lireAuteurs(auteursLivre);
+                    // Afficher l'en-tête des auteurs une fois
+                    if (premierAuteur) {
+                        afficher("\n✍️  Auteurs :\n");
+                        premierAuteur = false;
+                    }
+                    break;
+                    
+                case "section":
+                    numeroSection++;
+                    lireSection(numeroSection, titreLivre, auteursLivre.toString());
+                    break;
+                    
+                default:
+                    sauterElement();
+            }
+        }
+        
+        System.out.println("\n");
+        txtWriter.println("\n");
+    }
+    
+    /**
+     * Lit la liste <auteurs> et complète la chaîne des auteurs pour le CSV
+     */
+    private void lireAuteurs(StringBuilder auteursLivre) throws XMLStreamException {
+        while (prochainEnfant()) {
+            if (!reader.getLocalName().equals("auteur")) {
+                sauterElement();
+                continue;
+            }
+            totalAuteurs++;
+            
+            String nom = "";
+            String prenom = "";
+            while (prochainEnfant()) {
+                switch (reader.getLocalName()) {
+                    case "nom":
+                        nom = lireTexte();
+                        break;
+                    case "prenom":
+                        prenom = lireTexte();
+                        break;
+                    default:
+                        sauterElement();
+                }
+            }
+            
+            afficher("   - " + prenom + " " + nom + "\n");
+            
+            // Ajouter à la liste des auteurs pour CSV
+            if (auteursLivre.length() > 0) {
+                auteursLivre.append("; ");
+            }
+            auteursLivre.append(prenom).append(" ").append(nom);
+        }
+    }
+    
+    /**
+     * Lit un élément <section>
+     */
+    private void lireSection(int numeroSection, String titreLivre, String auteurs)
+            throws XMLStreamException {
+        totalSections++;
+        
+        String titreSection = "";
+        int numeroChapitre = 0;
+        
+        while (prochainEnfant()) {
+            switch (reader.getLocalName()) {
+                case "titre":
+                    titreSection = lireTexte();
+                    afficher("\n  ▶ Section " + numeroSection + " : " + titreSection + "\n");
+                    break;
+                    
+                case "chapitre":
+                    numeroChapitre++;
+                    lireChapitre(numeroSection, numeroChapitre, titreLivre, auteurs, titreSection);
+                    break;
+                    
+                default:
+                    sauterElement();
+            }
+        }
+    }
+    
+    /**
+     * Lit un élément <chapitre> et écrit sa ligne CSV
+     */
+    private void lireChapitre(int numeroSection, int numeroChapitre, String titreLivre,
+                              String auteurs, String titreSection) throws XMLStreamException {
+        totalChapitres++;
+        
+        String titreChapitre = "";
+        int numeroParagraphe = 0;
+        
+        while (prochainEnfant()) {
+            switch (reader.getLocalName()) {
+                case "titre":
+                    titreChapitre = lireTexte();
+                    afficher("\n    📖 Chapitre " + numeroChapitre + " : " + titreChapitre + "\n");
+                    break;
+                    
+                case "paragraphe":
+                    numeroParagraphe++;
+                    totalParagraphes++;
+                    if (numeroParagraphe == 1) {
+                        // Afficher un extrait du premier paragraphe seulement
+                        String texte = lireTexte();
+                        String extrait = texte.length() > 100
+                            ? texte.substring(0, 100) + "..."
+                            : texte;
+                        afficher("       Premier paragraphe (extrait) :\n" +
+                                 "       \"" + extrait + "\"\n");
+                    } else {
+                        sauterElement();
+                    }
+                    break;
+                    
+                default:
+                    sauterElement();
+            }
+        }
+        
+        // Écrire la ligne CSV pour ce chapitre
+        csvWriter.printf("\"%d\",\"%s\",\"%s\",\"%d\",\"%s\",\"%d\",\"%s\",\"%d\"\n",
+            numeroLivre,
+            Projection.echapperCSV(titreLivre),
+            Projection.echapperCSV(auteurs),
+            numeroSection,
+            Projection.echapperCSV(titreSection),
+            numeroChapitre,
+            Projection.echapperCSV(titreChapitre),
+            numeroParagraphe
+        );
+        
+        afficher("       Nombre de paragraphes : " + numeroParagraphe + "\n");
+    }
+    
+    /**
+     * Avance jusqu'au prochain élément enfant de l'élément courant
+     * Retourne false quand la balise fermante de l'élément courant est atteinte
+     */
+    private boolean prochainEnfant() throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Lit le contenu textuel de l'élément courant (sous-éléments compris)
+     * Le curseur se retrouve sur la balise fermante de l'élément
+     */
+    private String lireTexte() throws XMLStreamException {
+        contenu.setLength(0);
+        int profondeur = 1;
+        while (profondeur > 0 && reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    contenu.append(reader.getTextCharacters(), reader.getTextStart(),
+                                   reader.getTextLength());
+                    break;
+                case XMLStreamConstants.START_ELEMENT:
+                    profondeur++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    profondeur--;
+                    break;
+            }
+        }
+        return contenu.toString().trim();
+    }
+    
+    /**
+     * Ignore l'élément courant et tout son contenu
+     */
+    private void sauterElement() throws XMLStreamException {
+        int profondeur = 1;
+        while (profondeur > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                profondeur++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                profondeur--;
+            }
+        }
+    }
+    
+    /**
+     * Affiche un message sur la console et dans le fichier
+     */
+    private void afficher(String message) {
+        System.out.print(message);
+        txtWriter.print(message);
+    }
+    
+    /**
+     * Retourne les statistiques collectées
+     */
+    public String getStatistiques() {
+        StringBuilder sb = new StringBuilder();
+        
+        sb.append("\n📊 STATISTIQUES DU DOCUMENT XML\n");
+        sb.append("─────────────────────────────────────────────────\n");
+        sb.append("Total de livres      : ").append(totalLivres).append("\n");
+        sb.append("Total d'auteurs      : ").append(totalAuteurs).append("\n");
+        sb.append("Total de sections    : ").append(totalSections).append("\n");
+        sb.append("Total de chapitres   : ").append(totalChapitres).append("\n");
+        sb.append("Total de paragraphes : ").append(totalParagraphes).append("\n");
+        
+        if (totalLivres > 0) {
+            double moyenneSections = (double) totalSections / totalLivres;
+            double moyenneChapitres = (double) totalChapitres / totalLivres;
+            double moyenneParagraphes = (double) totalParagraphes / totalLivres;
+            
+            sb.append("\nMoyenne de sections par livre    : ").append(String.format("%.2f", moyenneSections)).append("\n");
+            sb.append("Moyenne de chapitres par livre   : ").append(String.format("%.2f", moyenneChapitres)).append("\n");
+            sb.append("Moyenne de paragraphes par livre : ").append(String.format("%.2f", moyenneParagraphes)).append("\n");
+        }
+        
+        sb.append("─────────────────────────────────────────────────\n");
+        
+        return sb.toString();
+    }
+}
@@ -0,0 +1,385 @@
+import java.io.*;
+import java.lang.management.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jdk.jfr.*;
+
+/**
+ * Mesures d'une exécution d'un moteur (ParserDOM ou ParserSAX)
+ * - durée de chaque phase : fabrique (factory et parseur), parsing, parcours, sortie (fermeture des fichiers)
+ *   En SAX le traitement se fait pendant le parsing : la phase parcours reste à zéro
+ * - débit en octets et en éléments par seconde (sur la durée totale)
+ * - pic du heap (somme des pics par zone mémoire), octets alloués par tous les threads, GC
+ * - latence de traitement de chaque livre, en histogramme (puissances de 2 en nanosecondes)
+ * Actives seulement avec --mesures : affichées, écrites en JSON à côté des exports,
+ * exposées en JMX (MesuresParsingMBean) et en événements JFR (un par livre si l'enregistrement est en cours,
+ * et un résumé final). Inactives, seules les durées des phases sont relevées.
+ */
+class MesuresParsing implements MesuresParsingMBean {
+    
+    // Phases
+    static final int FABRIQUE = 0;
+    static final int PARSING = 1;
+    static final int PARCOURS = 2;
+    static final int SORTIE = 3;
+    private static final String[] NOMS_PHASES = {"fabrique", "parsing", "parcours", "sortie"};
+    
+    private final String moteur;
+    private final String fichier;
+    private final boolean actives;
+    private final long[] durees = new long[4];
+    private final long[] debutsPhases = new long[4];
+    private final long debut;
+    private long fin;
+    private boolean termine = false;
+    
+    // Compteurs (écrits par le thread de parsing seulement)
+    private long octets;
+    private long elements;
+    private long livres;
+    
+    // Latence par livre : histogramme[i] compte les durées d de [2^(i-1), 2^i) ns
+    private final long[] histogramme = new long[64];
+    private long latenceMax;
+    private long debutLivre;
+    private boolean dansLivre = false;
+    private EvenementLivre evenementLivre;
+    private static final EventType TYPE_LIVRE = EventType.getEventType(EvenementLivre.class);
+    private final EvenementExecution evenementExecution = new EvenementExecution();
+    
+    // Mémoire et GC au début de l'exécution
+    private long alloueDebut;
+    private long gcNombreDebut;
+    private long gcDureeDebut;
+    private long picHeap;
+    private long alloue;
+    private long gcNombre;
+    private long gcDuree;
+    
+    private ObjectName nomJmx;
+    
+    MesuresParsing(String moteur, File fichier, boolean actives) {
+        this.moteur = moteur;
+        this.fichier = fichier.getPath();
+        this.octets = fichier.length();
+        this.actives = actives;
+        
+        if (!actives) {
+            debut = System.nanoTime();
+            return;
+        }
+        for (MemoryPoolMXBean zone : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (zone.getType() == MemoryType.HEAP) {
+                zone.resetPeakUsage();
+            }
+        }
+        alloueDebut = octetsAlloues();
+        gcNombreDebut = gc(true);
+        gcDureeDebut = gc(false);
+        enregistrerJmx();
+        evenementExecution.begin();
+        debut = System.nanoTime();
+    }
+    
+    // ──────────────────────────────── Collecte ────────────────────────────────
+    
+    void commencer(int phase) {
+        debutsPhases[phase] = System.nanoTime();
+    }
+    
+    void terminer(int phase) {
+        durees[phase] += System.nanoTime() - debutsPhases[phase];
+    }
+    
+    /**
+     * Un élément XML lu (ou visité)
+     */
+    void element() {
+        if (actives) elements++;
+    }
+    
+    /**
+     * Éléments comptés ailleurs (nœuds du modèle compact)
+     */
+    void ajouterElements(long n) {
+        if (actives) elements += n;
+    }
+    
+    void debutLivre(int numero) {
+        if (!actives) {
+            return;
+        }
+        // Événement créé seulement si un enregistrement JFR le demande
+        if (TYPE_LIVRE.isEnabled()) {
+            evenementLivre = new EvenementLivre();
+            evenementLivre.moteur = moteur;
+            evenementLivre.numero = numero;
+            evenementLivre.begin();
+        }
+        dansLivre = true;
+        debutLivre = System.nanoTime();
+    }
+    
+    void finLivre() {
+        if (!dansLivre) {
+            return;
+        }
+        long duree = System.nanoTime() - debutLivre;
+        histogramme[64 - Long.numberOfLeadingZeros(Math.max(duree, 1)) - 1]++;
+        latenceMax = Math.max(latenceMax, duree);
+        livres++;
+        dansLivre = false;
+        if (evenementLivre != null) {
+            evenementLivre.commit();
+            evenementLivre = null;
+        }
+    }
+    
+    /**
+     * Fin de l'exécution : relevés mémoire et GC, événement JFR de résumé
+     */
+    void terminer() {
+        fin = System.nanoTime();
+        termine = true;
+        if (!actives) {
+            return;
+        }
+        for (MemoryPoolMXBean zone : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (zone.getType() == MemoryType.HEAP && zone.getPeakUsage() != null) {
+                picHeap += zone.getPeakUsage().getUsed();
+            }
+        }
+        alloue = octetsAlloues() - alloueDebut;
+        gcNombre = gc(true) - gcNombreDebut;
+        gcDuree = gc(false) - gcDureeDebut;
+        
+        EvenementExecution e = evenementExecution;
+        e.end();
+        e.moteur = moteur;
+        e.fichier = fichier;
+        e.octets = octets;
+        e.elements = elements;
+        e.livres = livres;
+        e.dureeFabrique = getDureeFabriqueMs();
+        e.dureeParsing = getDureeParsingMs();
+        e.dureeParcours = getDureeParcoursMs();
+        e.dureeSortie = getDureeSortieMs();
+        e.picHeap = picHeap;
+        e.heapAlloue = alloue;
+        e.nombreGC = gcNombre;
+        e.dureeGC = gcDuree;
+        e.latenceP99 = getLatenceLivreP99Us();
+        e.commit();
+    }
+    
+    private static long octetsAlloues() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean t && t.isThreadAllocatedMemorySupported()) {
+            return t.getTotalThreadAllocatedBytes();
+        }
+        return 0;
+    }
+    
+    private static long gc(boolean nombre) {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, nombre ? gc.getCollectionCount() : gc.getCollectionTime());
+        }
+        return total;
+    }
+    
+    /**
+     * Publie les mesures en JMX (remplace celles d'une exécution précédente du même moteur)
+     */
+    private void enregistrerJmx() {
+        try {
+            MBeanServer serveur = ManagementFactory.getPlatformMBeanServer();
+            nomJmx = new ObjectName("bibliotheque:type=MesuresParsing,moteur=" + moteur);
+            if (serveur.isRegistered(nomJmx)) {
+                serveur.unregisterMBean(nomJmx);
+            }
+            serveur.registerMBean(this, nomJmx);
+        } catch (Exception e) {
+            System.err.println("⚠️ Mesures non publiées en JMX : " + e.getMessage());
+        }
+    }
+    
+    // ──────────────────────────────── Restitution ────────────────────────────────
+    
+    /**
+     * Texte pour la console
+     */
+    String resume() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n⏱️  MESURES DE L'EXÉCUTION (").append(moteur).append(")\n");
+        sb.append("─────────────────────────────────────────────────\n");
+        for (int p = 0; p < durees.length; p++) {
+            sb.append(String.format("Phase %-9s : %8d ms%n", NOMS_PHASES[p], durees[p] / 1_000_000));
+        }
+        sb.append(String.format("Débit               : %.1f Mo/s, %.0f éléments/s%n",
+                                getOctetsParSeconde() / (1024 * 1024), getElementsParSeconde()));
+        sb.append(String.format("Heap                : pic %d Mo, %d Mo alloués%n",
+                                picHeap / (1024 * 1024), alloue / (1024 * 1024)));
+        sb.append(String.format("GC                  : %d collecte(s), %d ms%n", gcNombre, gcDuree));
+        sb.append(String.format("Latence par livre   : p50 %.0f µs, p90 %.0f µs, p99 %.0f µs, max %.0f µs%n",
+                                getLatenceLivreP50Us(), getLatenceLivreP90Us(),
+                                getLatenceLivreP99Us(), getLatenceLivreMaxUs()));
+        sb.append("─────────────────────────────────────────────────\n");
+        return sb.toString();
+    }
+    
+    /**
+     * Écrit les mesures en JSON
+     */
+    void ecrireJson(String chemin) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"moteur\": \"").append(moteur).append("\",\n");
+        sb.append("  \"fichier\": \"").append(fichier.replace("\\", "\\\\").replace("\"", "\\\"")).append("\",\n");
+        sb.append("  \"durees_ms\": {");
+        for (int p = 0; p < durees.length; p++) {
+            sb.append(p > 0 ? ", " : "").append('"').append(NOMS_PHASES[p]).append("\": ")
+              .append(durees[p] / 1_000_000);
+        }
+        sb.append(", \"totale\": ").append(getDureeTotaleMs()).append("},\n");
+        sb.append("  \"octets\": ").append(octets).append(",\n");
+        sb.append("  \"elements\": ").append(elements).append(",\n");
+        sb.append("  \"livres\": ").append(livres).append(",\n");
+        sb.append(String.format(Locale.ROOT, "  \"octets_par_seconde\": %.1f,%n", getOctetsParSeconde()));
+        sb.append(String.format(Locale.ROOT, "  \"elements_par_seconde\": %.1f,%n", getElementsParSeconde()));
+        sb.append("  \"pic_heap_octets\": ").append(picHeap).append(",\n");
+        sb.append("  \"heap_alloue_octets\": ").append(alloue).append(",\n");
+        sb.append("  \"gc\": {\"nombre\": ").append(gcNombre).append(", \"duree_ms\": ").append(gcDuree).append("},\n");
+        sb.append(String.format(Locale.ROOT,
+                  "  \"latence_livre_us\": {\"p50\": %.1f, \"p90\": %.1f, \"p99\": %.1f, \"max\": %.1f},%n",
+                  getLatenceLivreP50Us(), getLatenceLivreP90Us(), getLatenceLivreP99Us(), getLatenceLivreMaxUs()));
+        sb.append("  \"histogramme_latence_livre\": [");
+        int premier = 0;
+        int dernier = 63;
+        while (premier < dernier && histogramme[premier] == 0) premier++;
+        while (dernier > premier && histogramme[dernier] == 0) dernier--;
+        for (int i = premier; i <= dernier && livres > 0; i++) {
+            sb.append(i > premier ? ", " : "").append("{\"max_ns\": ").append(1L << Math.min(i + 1, 62))
+              .append(", \"livres\": ").append(histogramme[i]).append('}');
+        }
+        sb.append("]\n}\n");
+        Files.write(Paths.get(chemin), sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Borne haute (en µs) du seuil sous lequel se trouve la fraction q des livres
+     */
+    private double quantile(double q) {
+        if (livres == 0) {
+            return 0;
+        }
+        long rang = (long) Math.ceil(q * livres);
+        long cumul = 0;
+        for (int i = 0; i < histogramme.length; i++) {
+            cumul += histogramme[i];
+            if (cumul >= rang) {
+                return Math.min(1L << Math.min(i + 1, 62), latenceMax) / 1000.0;
+            }
+        }
+        return latenceMax / 1000.0;
+    }
+    
+    private long dureeTotale() {
+        return (termine ? fin : System.nanoTime()) - debut;
+    }
+    
+    @Override public String getMoteur() { return moteur; }
+    @Override public String getFichier() { return fichier; }
+    @Override public boolean isTermine() { return termine; }
+    @Override public long getDureeFabriqueMs() { return durees[FABRIQUE] / 1_000_000; }
+    @Override public long getDureeParsingMs() { return durees[PARSING] / 1_000_000; }
+    @Override public long getDureeParcoursMs() { return durees[PARCOURS] / 1_000_000; }
+    @Override public long getDureeSortieMs() { return durees[SORTIE] / 1_000_000; }
+    @Override public long getDureeTotaleMs() { return dureeTotale() / 1_000_000; }
+    @Override public long getOctets() { return octets; }
+    @Override public long getElements() { return elements; }
+    @Override public long getLivres() { return livres; }
+    @Override public double getOctetsParSeconde() { return octets * 1e9 / Math.max(1, dureeTotale()); }
+    @Override public double getElementsParSeconde() { return elements * 1e9 / Math.max(1, dureeTotale()); }
+    @Override public long getPicHeapOctets() { return picHeap; }
+    @Override public long getHeapAlloueOctets() { return alloue; }
+    @Override public long getNombreGC() { return gcNombre; }
+    @Override public long getDureeGCMs() { return gcDuree; }
+    @Override public double getLatenceLivreP50Us() { return quantile(0.50); }
+    @Override public double getLatenceLivreP90Us() { return quantile(0.90); }
+    @Override public double getLatenceLivreP99Us() { return quantile(0.99); }
+    @Override public double getLatenceLivreMaxUs() { return latenceMax / 1000.0; }
+    @Override public long[] getHistogrammeLatenceLivre() { return histogramme.clone(); }
+    
+    /**
+     * Événement JFR : traitement d'un livre (durée = latence du livre)
+     */
+    @Name("bibliotheque.Livre")
+    @Label("Livre traité")
+    @Category("Bibliothèque")
+    @StackTrace(false)
+    static class EvenementLivre extends Event {
+        @Label("Moteur")
+        String moteur;
+        
+        @Label("Numéro du livre")
+        int numero;
+    }
+    
+    /**
+     * Événement JFR : résumé d'une exécution (durée = exécution complète)
+     */
+    @Name("bibliotheque.Execution")
+    @Label("Exécution d'un moteur")
+    @Category("Bibliothèque")
+    @StackTrace(false)
+    static class EvenementExecution extends Event {
+        @Label("Moteur")
+        String moteur;
+        
+        @Label("Fichier")
+        String fichier;
+        
+        @Label("Octets lus")
+        @DataAmount
+        long octets;
+        
+        @Label("Éléments")
+        long elements;
+        
+        @Label("Livres")
+        long livres;
+        
+        @Label("Phase fabrique (ms)")
+        long dureeFabrique;
+        
+        @Label("Phase parsing (ms)")
+        long dureeParsing;
+        
+        @Label("Phase parcours (ms)")
+        long dureeParcours;
+        
+        @Label("Phase sortie (ms)")
+        long dureeSortie;
+        
+        @Label("Pic du heap")
+        @DataAmount
+        long picHeap;
+        
+        @Label("Heap alloué")
+        @DataAmount
+        long heapAlloue;
+        
+        @Label("Collectes GC")
+        long nombreGC;
+        
+        @Label("Durée GC (ms)")
+        long dureeGC;
+        
+        @Label("Latence p99 par livre (µs)")
+        double latenceP99;
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * Interface JMX des mesures d'une exécution (voir MesuresParsing)
+ * Publiée sous bibliotheque:type=MesuresParsing,moteur=<DOM|SAX>
+ * Pendant l'exécution, les compteurs sont lus sans synchronisation (valeurs approchées)
+ */
+public interface MesuresParsingMBean {
+    
+    String getMoteur();
+    
+    String getFichier();
+    
+    boolean isTermine();
+    
+    long getDureeFabriqueMs();
+    
+    long getDureeParsingMs();
+    
+    long getDureeParcoursMs();
+    
+    long getDureeSortieMs();
+    
+    long getDureeTotaleMs();
+    
+    long getOctets();
+    
+    long getElements();
+    
+    long getLivres();
+    
+    double getOctetsParSeconde();
+    
+    double getElementsParSeconde();
+    
+    long getPicHeapOctets();
+    
+    long getHeapAlloueOctets();
+    
+    long getNombreGC();
+    
+    long getDureeGCMs();
+    
+    double getLatenceLivreP50Us();
+    
+    double getLatenceLivreP90Us();
+    
+    double getLatenceLivreP99Us();
+    
+    double getLatenceLivreMaxUs();
+    
+    long[] getHistogrammeLatenceLivre();
+}
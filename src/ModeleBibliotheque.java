@@ -0,0 +1,563 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.*;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Modèle compact de la bibliothèque en mémoire, construit à partir du flux SAX
+ * Remplace l'arbre DOM (un objet par nœud) par des tableaux de primitifs :
+ * - un nœud par livre, auteur, section, chapitre et paragraphe, numéroté dans l'ordre du document
+ * - genre / parent / premierEnfant / frereSuivant : la structure (parent = plus proche ancêtre modélisé)
+ * - valeur / valeur2 : titre (livre, section, chapitre), nom et prénom (auteur) dans un pool de chaînes
+ *   sans doublons ; pour un paragraphe, son rang dans le texte partagé
+ * - texte des paragraphes (sans blancs autour) en UTF-8 dans des pages d'octets partagées
+ *
+ * Les éléments intermédiaires (bibliotheque, auteurs, titre, nom, prenom...) ne sont pas des nœuds
+ */
+class ModeleBibliotheque {
+    
+    // Genres de nœuds
+    static final byte LIVRE = 0;
+    static final byte AUTEUR = 1;
+    static final byte SECTION = 2;
+    static final byte CHAPITRE = 3;
+    static final byte PARAGRAPHE = 4;
+    static final int NB_GENRES = 5;
+    
+    // Absence de nœud, de chaîne ou de valeur
+    static final int AUCUN = -1;
+    
+    private static final Attributes SANS_ATTRIBUTS = new AttributesImpl();
+    
+    // Pages du texte des paragraphes (16 Mo)
+    private static final int BITS_PAGE = 24;
+    private static final int TAILLE_PAGE = 1 << BITS_PAGE;
+    
+    // Structure
+    int nbNoeuds = 0;
+    byte[] genre = new byte[1024];
+    int[] parent = new int[1024];
+    int[] premierEnfant = new int[1024];
+    int[] frereSuivant = new int[1024];
+    int[] valeur = new int[1024];
+    int[] valeur2 = new int[1024];
+    
+    // Pool de chaînes (titres, noms, prénoms)
+    String[] chaines = new String[256];
+    int nbChaines = 0;
+    
+    // Texte des paragraphes : le paragraphe i occupe [debutTexte[i], debutTexte[i + 1])
+    List<byte[]> pages = new ArrayList<>();
+    long[] debutTexte = new long[1024];
+    int nbParagraphes = 0;
+    private long tailleTexte = 0;
+    
+    // Nombre de nœuds par genre
+    final int[] compteurs = new int[NB_GENRES];
+    
+    // Premier et dernier nœud sans parent (chaînés par frereSuivant)
+    int premiereRacine = AUCUN;
+    
+    // Rang dans le document du nœud 0 (non nul après vider() en lecture par flux)
+    long decalage = 0;
+    
+    // Utilisés seulement pendant la construction
+    private int[] dernierEnfant = new int[1024];
+    private int derniereRacine = AUCUN;
+    private Map<String, Integer> index = new HashMap<>();
+    
+    /**
+     * Construit le modèle en lisant le fichier avec SAX
+     */
+    static ModeleBibliotheque charger(File fichier) throws Exception {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        SAXParser parser = factory.newSAXParser();
+        Constructeur constructeur = new Constructeur();
+        parser.parse(fichier, constructeur);
+        return constructeur.modele;
+    }
+    
+    // ───────────────────────────────── Lecture ─────────────────────────────────
+    
+    int genre(int noeud) {
+        return genre[noeud];
+    }
+    
+    int parent(int noeud) {
+        return parent[noeud];
+    }
+    
+    /**
+     * Premier nœud après le sous-arbre (les nœuds d'un sous-arbre sont contigus)
+     */
+    int finSousArbre(int noeud) {
+        for (int n = noeud; n != AUCUN; n = parent[n]) {
+            if (frereSuivant[n] != AUCUN) {
+                return frereSuivant[n];
+            }
+        }
+        return nbNoeuds;
+    }
+    
+    /**
+     * Premier enfant du genre demandé, ou AUCUN
+     */
+    int premierEnfant(int noeud, byte g) {
+        int enfant = noeud == AUCUN ? premiereRacine : premierEnfant[noeud];
+        while (enfant != AUCUN && genre[enfant] != g) {
+            enfant = frereSuivant[enfant];
+        }
+        return enfant;
+    }
+    
+    /**
+     * Frère suivant du même genre, ou AUCUN
+     */
+    int suivant(int noeud) {
+        int frere = frereSuivant[noeud];
+        while (frere != AUCUN && genre[frere] != genre[noeud]) {
+            frere = frereSuivant[frere];
+        }
+        return frere;
+    }
+    
+    /**
+     * Nombre d'enfants du genre demandé
+     */
+    int compterEnfants(int noeud, byte g) {
+        int nb = 0;
+        for (int e = premierEnfant(noeud, g); e != AUCUN; e = suivant(e)) {
+            nb++;
+        }
+        return nb;
+    }
+    
+    /**
+     * Nombre total de nœuds d'un genre dans le document
+     */
+    int compter(byte g) {
+        return compteurs[g];
+    }
+    
+    /**
+     * Titre d'un livre, d'une section ou d'un chapitre ("" s'il n'y en a pas)
+     */
+    String titre(int noeud) {
+        return chaine(valeur[noeud]);
+    }
+    
+    String nom(int auteur) {
+        return chaine(valeur[auteur]);
+    }
+    
+    String prenom(int auteur) {
+        return chaine(valeur2[auteur]);
+    }
+    
+    /**
+     * Texte complet d'un paragraphe (sans les blancs autour)
+     */
+    String texte(int paragraphe) {
+        int rang = valeur[paragraphe];
+        if (rang == AUCUN) {
+            // Paragraphe imbriqué : son texte appartient au paragraphe englobant
+            return "";
+        }
+        long debut = debutTexte[rang];
+        int longueur = (int) (debutTexte[rang + 1] - debut);
+        
+        int page = (int) (debut >>> BITS_PAGE);
+        int position = (int) (debut & (TAILLE_PAGE - 1));
+        if (position + longueur <= TAILLE_PAGE) {
+            return new String(pages.get(page), position, longueur, StandardCharsets.UTF_8);
+        }
+        
+        // Paragraphe à cheval sur deux pages (ou plus)
+        byte[] octets = new byte[longueur];
+        int copie = 0;
+        while (copie < longueur) {
+            int n = Math.min(longueur - copie, TAILLE_PAGE - position);
+            System.arraycopy(pages.get(page), position, octets, copie, n);
+            copie += n;
+            page++;
+            position = 0;
+        }
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+    
+    private String chaine(int id) {
+        return id == AUCUN ? "" : chaines[id];
+    }
+    
+    /**
+     * Estimation de la mémoire occupée par les tableaux et le texte (en octets)
+     */
+    long tailleMemoire() {
+        long taille = (long) genre.length + 20L * parent.length + 8L * debutTexte.length;
+        for (byte[] page : pages) {
+            taille += page.length;
+        }
+        for (int i = 0; i < nbChaines; i++) {
+            taille += 40 + chaines[i].length();
+        }
+        return taille;
+    }
+    
+    /**
+     * Émet les événements SAX d'un document équivalent : bibliotheque, puis chaque livre avec
+     * son titre, ses auteurs (regroupés dans auteurs), ses sections, chapitres et paragraphes
+     * Les blancs et les éléments non modélisés ne sont pas rejoués
+     */
+    void rejouer(ContentHandler handler) throws SAXException {
+        handler.startDocument();
+        ouvrirElement(handler, "bibliotheque");
+        for (int l = premierEnfant(AUCUN, LIVRE); l != AUCUN; l = suivant(l)) {
+            ouvrirElement(handler, "livre");
+            elementTexte(handler, "titre", titre(l));
+            
+            int a = premierEnfant(l, AUTEUR);
+            if (a != AUCUN) {
+                ouvrirElement(handler, "auteurs");
+                for (; a != AUCUN; a = suivant(a)) {
+                    ouvrirElement(handler, "auteur");
+                    elementTexte(handler, "nom", nom(a));
+                    elementTexte(handler, "prenom", prenom(a));
+                    handler.endElement("", "", "auteur");
+                }
+                handler.endElement("", "", "auteurs");
+            }
+            
+            for (int s = premierEnfant(l, SECTION); s != AUCUN; s = suivant(s)) {
+                ouvrirElement(handler, "section");
+                elementTexte(handler, "titre", titre(s));
+                for (int c = premierEnfant(s, CHAPITRE); c != AUCUN; c = suivant(c)) {
+                    ouvrirElement(handler, "chapitre");
+                    elementTexte(handler, "titre", titre(c));
+                    for (int p = premierEnfant(c, PARAGRAPHE); p != AUCUN; p = suivant(p)) {
+                        elementTexte(handler, "paragraphe", texte(p));
+                    }
+                    handler.endElement("", "", "chapitre");
+                }
+                handler.endElement("", "", "section");
+            }
+            handler.endElement("", "", "livre");
+        }
+        handler.endElement("", "", "bibliotheque");
+        handler.endDocument();
+    }
+    
+    private static void ouvrirElement(ContentHandler handler, String nom) throws SAXException {
+        handler.startElement("", "", nom, SANS_ATTRIBUTS);
+    }
+    
+    private static void elementTexte(ContentHandler handler, String nom, String texte) throws SAXException {
+        ouvrirElement(handler, nom);
+        if (!texte.isEmpty()) {
+            handler.characters(texte.toCharArray(), 0, texte.length());
+        }
+        handler.endElement("", "", nom);
+    }
+    
+    // ──────────────────────────────── Construction ────────────────────────────────
+    
+    /**
+     * Ajoute un nœud comme dernier enfant de parent (ou comme racine si AUCUN)
+     */
+    private int ajouter(byte g, int p) {
+        if (nbNoeuds == genre.length) {
+            int capacite = Math.max(1024, nbNoeuds * 2);
+            genre = Arrays.copyOf(genre, capacite);
+            parent = Arrays.copyOf(parent, capacite);
+            premierEnfant = Arrays.copyOf(premierEnfant, capacite);
+            frereSuivant = Arrays.copyOf(frereSuivant, capacite);
+            valeur = Arrays.copyOf(valeur, capacite);
+            valeur2 = Arrays.copyOf(valeur2, capacite);
+            dernierEnfant = Arrays.copyOf(dernierEnfant, capacite);
+        }
+        int n = nbNoeuds++;
+        genre[n] = g;
+        parent[n] = p;
+        premierEnfant[n] = AUCUN;
+        dernierEnfant[n] = AUCUN;
+        frereSuivant[n] = AUCUN;
+        valeur[n] = AUCUN;
+        valeur2[n] = AUCUN;
+        compteurs[g]++;
+        
+        if (p == AUCUN) {
+            if (derniereRacine == AUCUN) premiereRacine = n;
+            else frereSuivant[derniereRacine] = n;
+            derniereRacine = n;
+        } else {
+            if (dernierEnfant[p] == AUCUN) premierEnfant[p] = n;
+            else frereSuivant[dernierEnfant[p]] = n;
+            dernierEnfant[p] = n;
+        }
+        return n;
+    }
+    
+    /**
+     * Identifiant de la chaîne dans le pool (ajoutée si nouvelle)
+     */
+    private int interner(String s) {
+        Integer id = index.get(s);
+        if (id != null) {
+            return id;
+        }
+        if (nbChaines == chaines.length) {
+            chaines = Arrays.copyOf(chaines, nbChaines * 2);
+        }
+        chaines[nbChaines] = s;
+        index.put(s, nbChaines);
+        return nbChaines++;
+    }
+    
+    /**
+     * Ajoute le texte d'un paragraphe (encodé en UTF-8) et retourne son rang
+     */
+    private int ajouterTexte(CharSequence texte, int debut, int fin) {
+        if (nbParagraphes + 2 > debutTexte.length) {
+            debutTexte = Arrays.copyOf(debutTexte, debutTexte.length * 2);
+        }
+        int rang = nbParagraphes++;
+        debutTexte[rang] = tailleTexte;
+        for (int i = debut; i < fin; i++) {
+            int c = texte.charAt(i);
+            if (c < 0x80) {
+                ecrireOctet(c);
+            } else if (c < 0x800) {
+                ecrireOctet(0xC0 | (c >> 6));
+                ecrireOctet(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate((char) c) && i + 1 < fin
+                       && Character.isLowSurrogate(texte.charAt(i + 1))) {
+                int cp = Character.toCodePoint((char) c, texte.charAt(++i));
+                ecrireOctet(0xF0 | (cp >> 18));
+                ecrireOctet(0x80 | ((cp >> 12) & 0x3F));
+                ecrireOctet(0x80 | ((cp >> 6) & 0x3F));
+                ecrireOctet(0x80 | (cp & 0x3F));
+            } else {
+                ecrireOctet(0xE0 | (c >> 12));
+                ecrireOctet(0x80 | ((c >> 6) & 0x3F));
+                ecrireOctet(0x80 | (c & 0x3F));
+            }
+        }
+        debutTexte[rang + 1] = tailleTexte;
+        return rang;
+    }
+    
+    private void ecrireOctet(int b) {
+        int page = (int) (tailleTexte >>> BITS_PAGE);
+        if (page == pages.size()) {
+            pages.add(new byte[TAILLE_PAGE]);
+        }
+        pages.get(page)[(int) (tailleTexte & (TAILLE_PAGE - 1))] = (byte) b;
+        tailleTexte++;
+    }
+    
+    /**
+     * Oublie tous les nœuds en gardant les tableaux (lecture par flux, racine par racine)
+     * Les nœuds suivants gardent leur rang dans le document grâce à decalage
+     */
+    void vider() {
+        decalage += nbNoeuds;
+        nbNoeuds = 0;
+        nbChaines = 0;
+        index.clear();
+        nbParagraphes = 0;
+        tailleTexte = 0;
+        premiereRacine = AUCUN;
+        derniereRacine = AUCUN;
+        Arrays.fill(compteurs, 0);
+    }
+    
+    /**
+     * Fin de construction : ajuste les tableaux à leur taille et libère les index
+     */
+    private void terminer() {
+        genre = Arrays.copyOf(genre, nbNoeuds);
+        parent = Arrays.copyOf(parent, nbNoeuds);
+        premierEnfant = Arrays.copyOf(premierEnfant, nbNoeuds);
+        frereSuivant = Arrays.copyOf(frereSuivant, nbNoeuds);
+        valeur = Arrays.copyOf(valeur, nbNoeuds);
+        valeur2 = Arrays.copyOf(valeur2, nbNoeuds);
+        chaines = Arrays.copyOf(chaines, nbChaines);
+        debutTexte = Arrays.copyOf(debutTexte, nbParagraphes + 1);
+        
+        // Dernière page tronquée à la partie utilisée
+        int reste = (int) (tailleTexte & (TAILLE_PAGE - 1));
+        if (reste > 0) {
+            pages.set(pages.size() - 1, Arrays.copyOf(pages.get(pages.size() - 1), reste));
+        }
+        
+        dernierEnfant = null;
+        index = null;
+    }
+    
+    /**
+     * Handler SAX qui remplit le modèle
+     * Mêmes règles que RapportDOM : premier <titre> enfant direct, premiers <nom> et <prenom>
+     * de l'auteur, texte complet (éléments imbriqués compris) de chaque paragraphe
+     */
+    static class Constructeur extends DefaultHandler {
+        
+        // Ce qui est en cours de capture
+        private static final int RIEN = 0;
+        private static final int TITRE = 1;
+        private static final int NOM = 2;
+        private static final int PRENOM = 3;
+        private static final int TEXTE = 4;
+        
+        final ModeleBibliotheque modele = new ModeleBibliotheque();
+        
+        // Faux : les paragraphes sont des nœuds sans texte
+        private final boolean garderTexte;
+        
+        // Pour chaque profondeur : nœud de l'élément (AUCUN si non modélisé)
+        // et plus proche ancêtre modélisé (l'élément lui-même compris)
+        private int[] pileNoeud = new int[64];
+        private int[] pileAncetre = new int[64];
+        private int profondeur = 0;
+        
+        private final StringBuilder contenu = new StringBuilder();
+        private int capture = RIEN;
+        private int cibleCapture;
+        private int profondeurCapture;
+        
+        Constructeur() {
+            this(true);
+        }
+        
+        Constructeur(boolean garderTexte) {
+            this.garderTexte = garderTexte;
+        }
+        
+        /**
+         * Appelée quand un nœud sans parent (un livre en général) est complet
+         */
+        void racineTerminee(int noeud) throws SAXException {
+        }
+        
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            int parentDirect = profondeur > 0 ? pileNoeud[profondeur - 1] : AUCUN;
+            int ancetre = profondeur > 0 ? pileAncetre[profondeur - 1] : AUCUN;
+            int noeud = AUCUN;
+            ModeleBibliotheque m = modele;
+            
+            switch (qName) {
+                case "livre":
+                    noeud = m.ajouter(LIVRE, ancetre);
+                    break;
+                case "auteur":
+                    noeud = m.ajouter(AUTEUR, ancetre);
+                    break;
+                case "section":
+                    noeud = m.ajouter(SECTION, ancetre);
+                    break;
+                case "chapitre":
+                    noeud = m.ajouter(CHAPITRE, ancetre);
+                    break;
+                case "paragraphe":
+                    noeud = m.ajouter(PARAGRAPHE, ancetre);
+                    if (capture == RIEN && garderTexte) {
+                        commencer(TEXTE, noeud);
+                    }
+                    break;
+                case "titre":
+                    if (capture == RIEN && parentDirect != AUCUN && m.valeur[parentDirect] == AUCUN
+                            && (m.genre[parentDirect] == LIVRE || m.genre[parentDirect] == SECTION
+                                || m.genre[parentDirect] == CHAPITRE)) {
+                        commencer(TITRE, parentDirect);
+                    }
+                    break;
+                case "nom":
+                    if (capture == RIEN && ancetre != AUCUN && m.genre[ancetre] == AUTEUR
+                            && m.valeur[ancetre] == AUCUN) {
+                        commencer(NOM, ancetre);
+                    }
+                    break;
+                case "prenom":
+                    if (capture == RIEN && ancetre != AUCUN && m.genre[ancetre] == AUTEUR
+                            && m.valeur2[ancetre] == AUCUN) {
+                        commencer(PRENOM, ancetre);
+                    }
+                    break;
+            }
+            
+            if (profondeur == pileNoeud.length) {
+                pileNoeud = Arrays.copyOf(pileNoeud, profondeur * 2);
+                pileAncetre = Arrays.copyOf(pileAncetre, profondeur * 2);
+            }
+            pileNoeud[profondeur] = noeud;
+            pileAncetre[profondeur] = noeud != AUCUN ? noeud : ancetre;
+            profondeur++;
+        }
+        
+        private void commencer(int quoi, int cible) {
+            capture = quoi;
+            cibleCapture = cible;
+            profondeurCapture = profondeur;
+            contenu.setLength(0);
+        }
+        
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (capture != RIEN) {
+                contenu.append(ch, start, length);
+            }
+        }
+        
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            profondeur--;
+            if (capture != RIEN && profondeur == profondeurCapture) {
+                terminerCapture();
+            }
+            
+            int noeud = pileNoeud[profondeur];
+            if (noeud != AUCUN && modele.parent[noeud] == AUCUN) {
+                racineTerminee(noeud);
+            }
+        }
+        
+        private void terminerCapture() {
+            // Bornes du texte sans les blancs autour (comme String.trim)
+            int debut = 0;
+            int fin = contenu.length();
+            while (debut < fin && contenu.charAt(debut) <= ' ') debut++;
+            while (fin > debut && contenu.charAt(fin - 1) <= ' ') fin--;
+            
+            ModeleBibliotheque m = modele;
+            switch (capture) {
+                case TITRE:
+                    m.valeur[cibleCapture] = m.interner(contenu.substring(debut, fin));
+                    break;
+                case NOM:
+                    m.valeur[cibleCapture] = m.interner(contenu.substring(debut, fin));
+                    break;
+                case PRENOM:
+                    m.valeur2[cibleCapture] = m.interner(contenu.substring(debut, fin));
+                    break;
+                case TEXTE:
+                    m.valeur[cibleCapture] = m.ajouterTexte(contenu, debut, fin);
+                    break;
+            }
+            capture = RIEN;
+        }
+        
+        @Override
+        public void endDocument() {
+            modele.terminer();
+        }
+        
+        @Override
+        public void fatalError(SAXParseException e) throws SAXException {
+            System.err.println("💥 Erreur fatale : " + e.getMessage());
+            throw e;
+        }
+    }
+}
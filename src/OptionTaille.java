@@ -0,0 +1,50 @@
+import java.util.Locale;
+
+/**
+ * Options de taille en octets, avec suffixe facultatif : --option=N[K|M|G]
+ * Utilisé par --intervalle (ParserReprise), --memoire-tri (TriChapitres) et --tampon-sortie (SortieCanal).
+ * Une valeur invalide (non numérique, nulle, négative ou trop grande) donne une IllegalArgumentException.
+ */
+final class OptionTaille {
+    
+    private OptionTaille() {
+    }
+    
+    /**
+     * Lit l'option (préfixe "--nom=") ; defaut si elle est absente, au plus max
+     */
+    static long lire(String[] args, String prefixe, long defaut, long max) {
+        for (String arg : args) {
+            if (!arg.startsWith(prefixe)) continue;
+            String valeur = arg.substring(prefixe.length());
+            long taille = convertir(valeur);
+            if (taille <= 0 || taille > max) {
+                throw invalide(prefixe, valeur);
+            }
+            return taille;
+        }
+        return defaut;
+    }
+    
+    /**
+     * N[K|M|G] en octets ; -1 si la valeur ne peut pas être lue
+     */
+    private static long convertir(String valeur) {
+        String v = valeur.trim().toUpperCase(Locale.ROOT);
+        long facteur = 1;
+        if (v.endsWith("K")) facteur = 1L << 10;
+        else if (v.endsWith("M")) facteur = 1L << 20;
+        else if (v.endsWith("G")) facteur = 1L << 30;
+        if (facteur > 1) v = v.substring(0, v.length() - 1);
+        try {
+            return Math.multiplyExact(Long.parseLong(v), facteur);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return -1;
+        }
+    }
+    
+    private static IllegalArgumentException invalide(String prefixe, String valeur) {
+        return new IllegalArgumentException("Taille invalide pour " + prefixe.substring(0, prefixe.length() - 1) +
+                                            " : " + valeur + " (attendu : N, NK, NM ou NG)");
+    }
+}
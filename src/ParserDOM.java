@@ -2,9 +2,13 @@ import java.io.*;
 import java.nio.file.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import org.w3c.dom.*;
+import org.w3c.dom.bootstrap.DOMImplementationRegistry;
+import org.w3c.dom.ls.*;
 
 /**
  * Parseur DOM pour lire et afficher le contenu du fichier livres.xml
@@ -16,92 +20,159 @@ public class ParserDOM {
     private static final String OUTPUT_DIR = "output";
     private static final String DATA_FILE = "data/livres.xml";
     
+    // Livres rendus par tâche en mode parallèle
+    private static final int LIVRES_PAR_TACHE = 16;
+    
     public static void main(String[] args) {
-        PrintWriter txtWriter = null;
+        // Cible du rapport texte : --sortie=console|txt|les-deux|aucune, --quiet
+        SortieRapport.Cible cible = SortieRapport.lireCible(args);
+        SortieRapport rapport = null;
+        
+        // --compact : modèle en tableaux construit par SAX au lieu de l'arbre DOM
+        // --instantane : modèle compact lu dans l'instantané binaire s'il est à jour (implique --compact)
+        boolean instantane = Arrays.asList(args).contains("--instantane");
+        boolean compact = instantane || Arrays.asList(args).contains("--compact");
+        // --mesures : affiche les mesures de l'exécution, les écrit en JSON et les publie en JMX et JFR
+        boolean afficherMesures = Arrays.asList(args).contains("--mesures");
+        MesuresParsing mesures = new MesuresParsing("DOM", new File(DATA_FILE), afficherMesures);
+        // --parallele [--threads N] : rendu des livres réparti sur N threads, recopié dans l'ordre (arbre DOM)
+        int threads = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--parallele") && threads == 0) {
+                threads = Runtime.getRuntime().availableProcessors();
+            } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            }
+        }
+        if (compact && threads > 0) {
+            System.err.println("⚠️ --parallele est ignoré avec --compact et --instantane");
+            threads = 0;
+        }
         PrintWriter csvWriter = null;
         
         try {
+            // --champs=... : champs texte produits ; les autres textes n'entrent pas dans l'arbre
+            Projection projection = Projection.lire(args);
+            
             System.out.println("\n🚀 Démarrage du parseur DOM...\n");
             
             // Créer le dossier output s'il n'existe pas
             creerDossierOutput();
             
-            // Étape 1 : Créer une factory pour construire le parseur
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setIgnoringElementContentWhitespace(true);
-            factory.setIgnoringComments(true);
-            
-            // Étape 2 : Créer le parseur (DocumentBuilder)
-            DocumentBuilder builder = factory.newDocumentBuilder();
+            Document doc = null;
+            ModeleBibliotheque modele = null;
             
-            // Gestionnaire d'erreurs
-            builder.setErrorHandler(new org.xml.sax.ErrorHandler() {
-                public void warning(org.xml.sax.SAXParseException e) {
-                    System.err.println("⚠️  Avertissement : " + e.getMessage());
+            if (compact) {
+                System.out.println("📖 Lecture du fichier : " + DATA_FILE);
+                // Le modèle compact est construit par SAX : pas de phase fabrique distincte
+                mesures.commencer(MesuresParsing.PARSING);
+                if (instantane) {
+                    modele = InstantaneBibliotheque.ouvrir(new File(DATA_FILE));
+                    System.out.println(modele instanceof InstantaneBibliotheque
+                        ? "⚡ Instantané à jour : " + DATA_FILE + InstantaneBibliotheque.EXTENSION
+                        : "💾 Instantané écrit : " + DATA_FILE + InstantaneBibliotheque.EXTENSION);
+                } else {
+                    modele = ModeleBibliotheque.charger(new File(DATA_FILE));
                 }
-                public void error(org.xml.sax.SAXParseException e) {
-                    System.err.println("❌ Erreur : " + e.getMessage());
-                }
-                public void fatalError(org.xml.sax.SAXParseException e) {
-                    System.err.println("💥 Erreur fatale : " + e.getMessage());
-                }
-            });
-            
-            // Étape 3 : Parser le fichier XML et obtenir l'objet Document
-            System.out.println("📖 Lecture du fichier : " + DATA_FILE);
-            Document doc = builder.parse(new File(DATA_FILE));
-            
-            // Normaliser le document (optionnel mais recommandé)
-            doc.getDocumentElement().normalize();
-            System.out.println("✅ Document XML chargé et normalisé\n");
+                mesures.terminer(MesuresParsing.PARSING);
+                mesures.ajouterElements(modele.nbNoeuds);
+                System.out.println("✅ Modèle compact chargé (" + modele.nbNoeuds + " nœuds, ~" +
+                                 modele.tailleMemoire() / (1024 * 1024) + " Mo)\n");
+            } else {
+                doc = projection.complete()
+                    ? chargerDocument(mesures, threads > 0)
+                    : chargerDocument(mesures, projection, cible.console || cible.fichier);
+            }
             
             // Créer les writers pour les fichiers de sortie
             String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
             String txtFile = OUTPUT_DIR + "/DOM_output_" + timestamp + ".txt";
             String csvFile = OUTPUT_DIR + "/DOM_export_" + timestamp + ".csv";
             
-            txtWriter = new PrintWriter(new OutputStreamWriter(
-                new FileOutputStream(txtFile), "UTF-8"));
-            csvWriter = new PrintWriter(new OutputStreamWriter(
-                new FileOutputStream(csvFile), "UTF-8"));
+            // Le rapport texte est écrit par un thread dédié
+            // TXT et CSV en UTF-8 sur des FileChannel (tampon et synchronisation : --tampon-sortie, --fsync)
+            int tampon = SortieCanal.lireTampon(args);
+            SortieCanal.Synchro synchro = SortieCanal.Synchro.lire(args);
+            rapport = SortieRapport.ouvrir(cible, txtFile, tampon, synchro);
+            csvWriter = new PrintWriter(SortieCanal.ouvrir(Paths.get(csvFile), tampon, synchro));
             
             // En-tête pour la console et fichier texte
             String header = "═══════════════════════════════════════════════════════════\n" +
                           "       LECTURE DU FICHIER XML AVEC PARSEUR DOM\n" +
                           "═══════════════════════════════════════════════════════════\n";
-            afficher(header, txtWriter);
+            rapport.afficher(header);
             
-            // Étape 4 : Récupérer tous les éléments <livre>
-            NodeList livres = doc.getElementsByTagName("livre");
+            // Étape 4 : Compter les livres (enfants directs de la racine)
+            int nbLivres = compact
+                ? modele.compterEnfants(ModeleBibliotheque.AUCUN, ModeleBibliotheque.LIVRE)
+                : compterLivres(doc.getDocumentElement());
             
-            String info = "\n📚 Nombre de livres trouvés : " + livres.getLength() + "\n\n";
-            afficher(info, txtWriter);
+            if (rapport.actif()) {
+                String info = "\n📚 Nombre de livres trouvés : " + nbLivres + "\n\n";
+                rapport.afficher(info);
+            }
             
             // En-tête CSV avec BOM UTF-8 pour Excel
             csvWriter.write('\ufeff'); // BOM UTF-8
-            csvWriter.println("Numero_Livre,Titre_Livre,Auteurs,Numero_Section,Titre_Section," +
-                            "Numero_Chapitre,Titre_Chapitre,Nombre_Paragraphes");
+            csvWriter.println(projection.enTeteCsv());
             
-            // Étape 5 : Parcourir chaque livre
-            for (int i = 0; i < livres.getLength(); i++) {
-                traiterLivre((Element) livres.item(i), i + 1, txtWriter, csvWriter);
+            // Étape 5 : Un seul parcours de l'arbre (rapport, CSV et statistiques)
+            RapportDOM visiteur = null;
+            RepereurLivres reperes = null;
+            mesures.commencer(MesuresParsing.PARCOURS);
+            if (compact) {
+                traiterModele(modele, rapport, csvWriter, projection, mesures);
+            } else if (threads > 0) {
+                reperes = traiterEnParallele(doc, rapport, csvWriter, projection, mesures, threads);
+            } else {
+                visiteur = new RapportDOM(rapport, csvWriter, projection);
+                if (afficherMesures) visiteur.setMesures(mesures);
+                VisiteurDOM.parcourir(doc.getDocumentElement(), visiteur);
             }
+            mesures.terminer(MesuresParsing.PARCOURS);
             
             String footer = "\n═══════════════════════════════════════════════════════════\n" +
                           "          FIN DE LA LECTURE AVEC DOM\n" +
                           "═══════════════════════════════════════════════════════════\n";
-            afficher(footer, txtWriter);
+            rapport.afficher(footer);
             
-            // Statistiques globales
-            String stats = afficherStatistiques(doc);
-            afficher(stats, txtWriter);
+            // Statistiques globales (comptées pendant le parcours)
+            if (rapport.actif()) {
+                String stats = compact ? afficherStatistiques(modele)
+                             : reperes != null ? afficherStatistiques(reperes.nbLivres, reperes.nbAuteurs,
+                                   reperes.nbSections, reperes.nbChapitres, reperes.nbParagraphes)
+                             : afficherStatistiques(visiteur);
+                rapport.afficher(stats);
+            }
+            
+            // Attendre la fin de l'écriture du rapport
+            mesures.commencer(MesuresParsing.SORTIE);
+            rapport.close();
+            rapport = null;
+            csvWriter.close();
+            if (csvWriter.checkError()) {
+                throw new IOException("Écriture incomplète du CSV : " + csvFile);
+            }
+            mesures.terminer(MesuresParsing.SORTIE);
+            mesures.terminer();
+            
+            String jsonFile = OUTPUT_DIR + "/DOM_mesures_" + timestamp + ".json";
+            if (afficherMesures) {
+                System.out.print(mesures.resume());
+                mesures.ecrireJson(jsonFile);
+            }
             
             // Message de confirmation
             System.out.println("\n✅ FICHIERS GÉNÉRÉS AVEC SUCCÈS :");
-            System.out.println("   📄 " + txtFile);
+            if (cible.fichier) {
+                System.out.println("   📄 " + txtFile);
+            }
             System.out.println("   📊 " + csvFile);
+            if (afficherMesures) {
+                System.out.println("   ⏱️  " + jsonFile);
+            }
             System.out.println("\n💡 Ouvrez les fichiers CSV avec Excel ou LibreOffice Calc");
-            
+        
         } catch (FileNotFoundException e) {
             System.err.println("\n❌ ERREUR : Fichier non trouvé");
             System.err.println("   Vérifiez que le fichier existe : " + DATA_FILE);
@@ -116,126 +187,307 @@ public class ParserDOM {
             e.printStackTrace();
         } finally {
             // Fermer les writers
-            if (txtWriter != null) txtWriter.close();
+            if (rapport != null) {
+                try {
+                    rapport.close();
+                } catch (IOException e) {
+                    System.err.println("❌ Erreur d'écriture du rapport : " + e.getMessage());
+                }
+            }
             if (csvWriter != null) csvWriter.close();
         }
     }
     
     /**
-     * Traite un livre et l'affiche
+     * Charge et normalise l'arbre DOM de DATA_FILE
+     * Pour une lecture par plusieurs threads, l'arbre est construit entièrement (sans expansion
+     * différée) : les lectures concurrentes ne modifient alors plus aucun nœud
+     */
+    private static Document chargerDocument(MesuresParsing mesures, boolean partage) throws Exception {
+        // Étape 1 : Créer une factory pour construire le parseur
+        mesures.commencer(MesuresParsing.FABRIQUE);
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setIgnoringElementContentWhitespace(true);
+        factory.setIgnoringComments(true);
+        if (partage) {
+            factory.setFeature("http://apache.org/xml/features/dom/defer-node-expansion", false);
+        }
+        
+        // Étape 2 : Créer le parseur (DocumentBuilder)
+        DocumentBuilder builder = factory.newDocumentBuilder();
+        mesures.terminer(MesuresParsing.FABRIQUE);
+        
+        // Gestionnaire d'erreurs
+        builder.setErrorHandler(new org.xml.sax.ErrorHandler() {
+            public void warning(org.xml.sax.SAXParseException e) {
+                System.err.println("⚠️  Avertissement : " + e.getMessage());
+            }
+            public void error(org.xml.sax.SAXParseException e) {
+                System.err.println("❌ Erreur : " + e.getMessage());
+            }
+            public void fatalError(org.xml.sax.SAXParseException e) {
+                System.err.println("💥 Erreur fatale : " + e.getMessage());
+            }
+        });
+        
+        // Étape 3 : Parser le fichier XML et obtenir l'objet Document
+        System.out.println("📖 Lecture du fichier : " + DATA_FILE);
+        mesures.commencer(MesuresParsing.PARSING);
+        Document doc = builder.parse(new File(DATA_FILE));
+        
+        // Normaliser le document (optionnel mais recommandé)
+        doc.getDocumentElement().normalize();
+        mesures.terminer(MesuresParsing.PARSING);
+        System.out.println("✅ Document XML chargé et normalisé\n");
+        
+        return doc;
+    }
+    
+    /**
+     * Charge l'arbre DOM de DATA_FILE avec LSParser et un filtre de construction :
+     * les nœuds texte rejetés par le filtre ne sont jamais rattachés à l'arbre
      */
-    private static void traiterLivre(Element livre, int numeroLivre, 
-                                     PrintWriter txtWriter, PrintWriter csvWriter) {
-        String separator = "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n";
-        String livreHeader = "📖 LIVRE #" + numeroLivre + "\n";
+    private static Document chargerDocument(MesuresParsing mesures, Projection projection,
+                                            boolean extrait) throws Exception {
+        mesures.commencer(MesuresParsing.FABRIQUE);
+        DOMImplementationLS ls = (DOMImplementationLS) DOMImplementationRegistry.newInstance()
+            .getDOMImplementation("LS");
+        LSParser parser = ls.createLSParser(DOMImplementationLS.MODE_SYNCHRONOUS, null);
+        DOMConfiguration config = parser.getDomConfig();
+        config.setParameter("comments", false);
+        config.setParameter("element-content-whitespace", false);
+        config.setParameter("error-handler", (DOMErrorHandler) erreur -> {
+            System.err.println((erreur.getSeverity() == DOMError.SEVERITY_WARNING ? "⚠️  Avertissement : "
+                              : erreur.getSeverity() == DOMError.SEVERITY_ERROR ? "❌ Erreur : "
+                              : "💥 Erreur fatale : ") + erreur.getMessage());
+            return erreur.getSeverity() != DOMError.SEVERITY_FATAL_ERROR;
+        });
+        parser.setFilter(projection.filtreDom(extrait));
+        mesures.terminer(MesuresParsing.FABRIQUE);
         
-        afficher(separator + livreHeader + separator, txtWriter);
+        System.out.println("📖 Lecture du fichier : " + DATA_FILE + " (champs : " + projection + ")");
+        mesures.commencer(MesuresParsing.PARSING);
+        Document doc = parser.parseURI(new File(DATA_FILE).toURI().toString());
+        doc.getDocumentElement().normalize();
+        mesures.terminer(MesuresParsing.PARSING);
+        System.out.println("✅ Document XML chargé (textes filtrés)\n");
         
-        // Récupérer le titre du livre
-        String titreLivre = getTitreDirectEnfant(livre);
-        String titreInfo = "\n📚 Titre : " + titreLivre + "\n";
-        afficher(titreInfo, txtWriter);
+        return doc;
+    }
+    
+    /**
+     * Traite tous les livres du modèle compact, dans l'ordre du document
+     * Même numérotation que RapportDOM : les livres imbriqués comptent mais ne sont pas traités
+     */
+    private static void traiterModele(ModeleBibliotheque modele, SortieRapport rapport, PrintWriter csvWriter,
+                                      Projection projection, MesuresParsing mesures) {
+        boolean texte = rapport.actif() && projection.contient(Projection.Champ.EXTRAIT);
+        int numeroLivre = 0;
         
-        // Récupérer les auteurs
+        for (int n = 0; n < modele.nbNoeuds; n++) {
+            if (modele.genre(n) != ModeleBibliotheque.LIVRE) continue;
+            numeroLivre++;
+            if (aAncetreLivre(modele, n)) continue;
+            
+            mesures.debutLivre(numeroLivre);
+            RapportDOM.Livre livre = new RapportDOM.Livre(numeroLivre);
+            livre.titre = modele.titre(n);
+            
+            for (int a = modele.premierEnfant(n, ModeleBibliotheque.AUTEUR);
+                 a != ModeleBibliotheque.AUCUN; a = modele.suivant(a)) {
+                RapportDOM.Auteur auteur = new RapportDOM.Auteur();
+                auteur.nom = modele.nom(a);
+                auteur.prenom = modele.prenom(a);
+                livre.auteurs.add(auteur);
+            }
+            
+            for (int s = modele.premierEnfant(n, ModeleBibliotheque.SECTION);
+                 s != ModeleBibliotheque.AUCUN; s = modele.suivant(s)) {
+                RapportDOM.Section section = new RapportDOM.Section();
+                section.titre = modele.titre(s);
+                
+                for (int c = modele.premierEnfant(s, ModeleBibliotheque.CHAPITRE);
+                     c != ModeleBibliotheque.AUCUN; c = modele.suivant(c)) {
+                    RapportDOM.Chapitre chapitre = new RapportDOM.Chapitre();
+                    chapitre.titre = modele.titre(c);
+                    
+                    int p = modele.premierEnfant(c, ModeleBibliotheque.PARAGRAPHE);
+                    if (p != ModeleBibliotheque.AUCUN && texte) {
+                        chapitre.premierParagraphe = modele.texte(p);
+                    }
+                    chapitre.nbParagraphes = modele.compterEnfants(c, ModeleBibliotheque.PARAGRAPHE);
+                    section.chapitres.add(chapitre);
+                }
+                livre.sections.add(section);
+            }
+            
+            traiterLivre(livre, rapport, csvWriter, projection);
+            mesures.finLivre();
+        }
+    }
+    
+    /**
+     * Rendu parallèle : un premier parcours (séquentiel, sans texte) repère les livres et compte
+     * les éléments, puis les livres sont rendus par lots sur un ForkJoinPool, chacun dans ses tampons,
+     * et les tampons sont recopiés dans l'ordre du document : TXT et CSV identiques au parcours séquentiel
+     */
+    private static RepereurLivres traiterEnParallele(Document doc, SortieRapport rapport, PrintWriter csvWriter,
+                                                     Projection projection, MesuresParsing mesures,
+                                                     int threads) throws Exception {
+        RepereurLivres reperes = new RepereurLivres(mesures);
+        VisiteurDOM.parcourir(doc.getDocumentElement(), reperes);
+        
+        boolean texte = rapport.actif();
+        List<Element> livres = reperes.livres;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            // Au plus 2 lots par thread sont en vol, pour borner la mémoire
+            ArrayDeque<ForkJoinTask<String[]>> enVol = new ArrayDeque<>();
+            int suivant = 0;
+            while (suivant < livres.size() || !enVol.isEmpty()) {
+                while (suivant < livres.size() && enVol.size() < threads * 2) {
+                    int debut = suivant;
+                    int fin = Math.min(livres.size(), debut + LIVRES_PAR_TACHE);
+                    enVol.add(pool.submit(() -> rendreLivres(reperes, debut, fin, projection, texte)));
+                    suivant = fin;
+                }
+                String[] lot = enVol.poll().join();
+                rapport.afficher(lot[0]);
+                csvWriter.write(lot[1]);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return reperes;
+    }
+    
+    /**
+     * Rend les livres [debut, fin) du repérage ; retourne { rapport TXT, lignes CSV }
+     */
+    private static String[] rendreLivres(RepereurLivres reperes, int debut, int fin,
+                                         Projection projection, boolean texte) {
+        StringWriter txt = new StringWriter();
+        StringWriter csv = new StringWriter();
+        SortieRapport rapportLot = texte
+            ? SortieRapport.synchrone(new PrintWriter(txt), false)
+            : SortieRapport.aucune();
+        PrintWriter csvLot = new PrintWriter(csv);
+        for (int i = debut; i < fin; i++) {
+            RapportDOM visiteur = new RapportDOM(rapportLot, csvLot, projection, reperes.numeros[i]);
+            VisiteurDOM.parcourir(reperes.livres.get(i), visiteur);
+        }
+        csvLot.flush();
+        return new String[] { txt.toString(), csv.toString() };
+    }
+    
+    private static boolean aAncetreLivre(ModeleBibliotheque modele, int noeud) {
+        for (int p = modele.parent(noeud); p != ModeleBibliotheque.AUCUN; p = modele.parent(p)) {
+            if (modele.genre(p) == ModeleBibliotheque.LIVRE) return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Traite un livre et l'affiche
+     * Appelé par RapportDOM à la fin du livre, quand titres, auteurs et chapitres sont connus
+     */
+    static void traiterLivre(RapportDOM.Livre livre, SortieRapport rapport, PrintWriter csvWriter,
+                             Projection projection) {
+        boolean texte = rapport.actif();
+        boolean avecAuteurs = projection.contient(Projection.Champ.AUTEURS);
+        if (texte) {
+            String separator = "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n";
+            String livreHeader = "📖 LIVRE #" + livre.numero + "\n";
+            rapport.afficher(separator + livreHeader + separator);
+            
+            if (projection.contient(Projection.Champ.TITRE_LIVRE)) {
+                String titreInfo = "\n📚 Titre : " + livre.titre + "\n";
+                rapport.afficher(titreInfo);
+            }
+        }
+        
+        // Auteurs
         StringBuilder auteursStr = new StringBuilder();
-        afficher("\n✍️  Auteurs :\n", txtWriter);
+        if (avecAuteurs) rapport.afficher("\n✍️  Auteurs :\n");
         
-        NodeList auteursNodes = livre.getElementsByTagName("auteur");
-        for (int j = 0; j < auteursNodes.getLength(); j++) {
-            Element auteur = (Element) auteursNodes.item(j);
-            String nom = getTextContent(auteur, "nom");
-            String prenom = getTextContent(auteur, "prenom");
-            String auteurInfo = "   • " + prenom + " " + nom + "\n";
-            afficher(auteurInfo, txtWriter);
+        for (int j = 0; avecAuteurs && j < livre.auteurs.size(); j++) {
+            RapportDOM.Auteur auteur = livre.auteurs.get(j);
+            if (texte) {
+                String auteurInfo = "   • " + auteur.prenom + " " + auteur.nom + "\n";
+                rapport.afficher(auteurInfo);
+            }
             
             if (j > 0) auteursStr.append("; ");
-            auteursStr.append(prenom).append(" ").append(nom);
+            auteursStr.append(auteur.prenom).append(" ").append(auteur.nom);
         }
         
-        // Récupérer les sections
-        List<Element> sections = getEnfantsParNom(livre, "section");
-        String sectionsInfo = "\n📑 Nombre de sections : " + sections.size() + "\n";
-        afficher(sectionsInfo, txtWriter);
+        // Sections
+        if (texte) {
+            String sectionsInfo = "\n📑 Nombre de sections : " + livre.sections.size() + "\n";
+            rapport.afficher(sectionsInfo);
+        }
         
-        for (int j = 0; j < sections.size(); j++) {
-            traiterSection(sections.get(j), numeroLivre, j + 1, titreLivre, 
-                          auteursStr.toString(), txtWriter, csvWriter);
+        String auteurs = auteursStr.toString();
+        for (int j = 0; j < livre.sections.size(); j++) {
+            traiterSection(livre.sections.get(j), livre.numero, j + 1, livre.titre,
+                          auteurs, rapport, csvWriter, projection);
         }
         
-        afficher("\n", txtWriter);
+        rapport.afficher("\n");
     }
     
     /**
      * Traite une section
      */
-    private static void traiterSection(Element section, int numeroLivre, int numeroSection,
+    private static void traiterSection(RapportDOM.Section section, int numeroLivre, int numeroSection,
                                        String titreLivre, String auteurs,
-                                       PrintWriter txtWriter, PrintWriter csvWriter) {
-        String titreSection = getTitreDirectEnfant(section);
-        
-        String sectionInfo = "\n  ▶ Section " + numeroSection + " : " + titreSection + "\n";
-        afficher(sectionInfo, txtWriter);
-        
-        // Récupérer les chapitres de cette section
-        List<Element> chapitres = getEnfantsParNom(section, "chapitre");
-        String chapitresInfo = "    Nombre de chapitres : " + chapitres.size() + "\n";
-        afficher(chapitresInfo, txtWriter);
+                                       SortieRapport rapport, PrintWriter csvWriter, Projection projection) {
+        if (rapport.actif()) {
+            if (projection.contient(Projection.Champ.TITRE_SECTION)) {
+                String sectionInfo = "\n  ▶ Section " + numeroSection + " : " + section.titre + "\n";
+                rapport.afficher(sectionInfo);
+            }
+            String chapitresInfo = "    Nombre de chapitres : " + section.chapitres.size() + "\n";
+            rapport.afficher(chapitresInfo);
+        }
         
-        for (int k = 0; k < chapitres.size(); k++) {
-            traiterChapitre(chapitres.get(k), numeroLivre, numeroSection, k + 1,
-                           titreLivre, auteurs, titreSection, txtWriter, csvWriter);
+        for (int k = 0; k < section.chapitres.size(); k++) {
+            traiterChapitre(section.chapitres.get(k), numeroLivre, numeroSection, k + 1,
+                           titreLivre, auteurs, section.titre, rapport, csvWriter, projection);
         }
     }
     
     /**
      * Traite un chapitre
      */
-    private static void traiterChapitre(Element chapitre, int numeroLivre, int numeroSection,
+    private static void traiterChapitre(RapportDOM.Chapitre chapitre, int numeroLivre, int numeroSection,
                                         int numeroChapitre, String titreLivre, String auteurs,
-                                        String titreSection, PrintWriter txtWriter, 
-                                        PrintWriter csvWriter) {
-        String titreChapitre = getTitreDirectEnfant(chapitre);
-        
-        String chapitreInfo = "\n    📖 Chapitre " + numeroChapitre + " : " + titreChapitre + "\n";
-        afficher(chapitreInfo, txtWriter);
-        
-        // Récupérer les paragraphes
-        NodeList paragraphes = chapitre.getElementsByTagName("paragraphe");
-        String paraInfo = "       Nombre de paragraphes : " + paragraphes.getLength() + "\n";
-        afficher(paraInfo, txtWriter);
-        
-        // Afficher un extrait du premier paragraphe
-        if (paragraphes.getLength() > 0) {
-            String contenuParagraphe = paragraphes.item(0).getTextContent().trim();
-            String extrait = contenuParagraphe.length() > 100 
-                ? contenuParagraphe.substring(0, 100) + "..." 
-                : contenuParagraphe;
-            String extraitInfo = "       Premier paragraphe (extrait) :\n" +
-                               "       \"" + extrait + "\"\n";
-            afficher(extraitInfo, txtWriter);
+                                        String titreSection, SortieRapport rapport, 
+                                        PrintWriter csvWriter, Projection projection) {
+        if (rapport.actif()) {
+            if (projection.contient(Projection.Champ.TITRE_CHAPITRE)) {
+                String chapitreInfo = "\n    📖 Chapitre " + numeroChapitre + " : " + chapitre.titre + "\n";
+                rapport.afficher(chapitreInfo);
+            }
+            String paraInfo = "       Nombre de paragraphes : " + chapitre.nbParagraphes + "\n";
+            rapport.afficher(paraInfo);
+            
+            // Afficher un extrait du premier paragraphe
+            if (chapitre.premierParagraphe != null) {
+                String contenuParagraphe = chapitre.premierParagraphe;
+                String extrait = contenuParagraphe.length() > 100 
+                    ? contenuParagraphe.substring(0, 100) + "..." 
+                    : contenuParagraphe;
+                String extraitInfo = "       Premier paragraphe (extrait) :\n" +
+                                   "       \"" + extrait + "\"\n";
+                rapport.afficher(extraitInfo);
+            }
         }
         
         // Ajouter aux données CSV
-        csvWriter.printf("\"%d\",\"%s\",\"%s\",\"%d\",\"%s\",\"%d\",\"%s\",\"%d\"\n",
-            numeroLivre,
-            echapperCSV(titreLivre),
-            echapperCSV(auteurs),
-            numeroSection,
-            echapperCSV(titreSection),
-            numeroChapitre,
-            echapperCSV(titreChapitre),
-            paragraphes.getLength()
-        );
-    }
-    
-    /**
-     * Affiche un message sur la console et dans le fichier
-     */
-    private static void afficher(String message, PrintWriter writer) {
-        System.out.print(message);
-        if (writer != null) {
-            writer.print(message);
-        }
+        csvWriter.print(projection.ligneCsv(numeroLivre, titreLivre, auteurs, numeroSection,
+                                            titreSection, numeroChapitre, chapitre.titre,
+                                            chapitre.nbParagraphes));
     }
     
     /**
@@ -254,72 +506,44 @@ public class ParserDOM {
     }
     
     /**
-     * Récupère le titre qui est enfant direct de l'élément
+     * Compte les éléments <livre> enfants directs de la racine
      */
-    private static String getTitreDirectEnfant(Element element) {
-        NodeList enfants = element.getChildNodes();
-        for (int i = 0; i < enfants.getLength(); i++) {
-            Node node = enfants.item(i);
-            if (node.getNodeType() == Node.ELEMENT_NODE && 
-                node.getNodeName().equals("titre")) {
-                return node.getTextContent().trim();
+    private static int compterLivres(Element racine) {
+        int nb = 0;
+        for (Node node = racine.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() == Node.ELEMENT_NODE && node.getNodeName().equals("livre")) {
+                nb++;
             }
         }
-        return "";
+        return nb;
     }
     
     /**
-     * Récupère le contenu textuel d'un élément enfant
+     * Affiche des statistiques sur le document XML
      */
-    private static String getTextContent(Element parent, String childName) {
-        NodeList nodes = parent.getElementsByTagName(childName);
-        if (nodes.getLength() > 0) {
-            return nodes.item(0).getTextContent().trim();
-        }
-        return "";
+    static String afficherStatistiques(RapportDOM visiteur) {
+        return afficherStatistiques(visiteur.nbLivres, visiteur.nbAuteurs, visiteur.nbSections,
+                                    visiteur.nbChapitres, visiteur.nbParagraphes);
     }
     
     /**
-     * Récupère les éléments enfants directs avec un nom spécifique
+     * Statistiques à partir des compteurs du modèle compact
      */
-    private static List<Element> getEnfantsParNom(Element parent, String nomElement) {
-        List<Element> resultat = new ArrayList<>();
-        NodeList enfants = parent.getChildNodes();
-        
-        for (int i = 0; i < enfants.getLength(); i++) {
-            Node node = enfants.item(i);
-            if (node.getNodeType() == Node.ELEMENT_NODE && 
-                node.getNodeName().equals(nomElement)) {
-                resultat.add((Element) node);
-            }
-        }
-        return resultat;
+    private static String afficherStatistiques(ModeleBibliotheque modele) {
+        return afficherStatistiques(modele.compter(ModeleBibliotheque.LIVRE),
+                                    modele.compter(ModeleBibliotheque.AUTEUR),
+                                    modele.compter(ModeleBibliotheque.SECTION),
+                                    modele.compter(ModeleBibliotheque.CHAPITRE),
+                                    modele.compter(ModeleBibliotheque.PARAGRAPHE));
     }
     
-    /**
-     * Échappe les caractères spéciaux pour CSV
-     */
-    private static String echapperCSV(String texte) {
-        if (texte == null) return "";
-        // Remplacer les guillemets doubles par deux guillemets doubles
-        return texte.replace("\"", "\"\"");
-    }
-    
-    /**
-     * Affiche des statistiques sur le document XML
-     */
-    private static String afficherStatistiques(Document doc) {
+    private static String afficherStatistiques(int nbLivres, int nbAuteurs, int nbSections,
+                                               int nbChapitres, int nbParagraphes) {
         StringBuilder sb = new StringBuilder();
         
         sb.append("\n📊 STATISTIQUES DU DOCUMENT XML\n");
         sb.append("─────────────────────────────────────────────────────────\n");
         
-        int nbLivres = doc.getElementsByTagName("livre").getLength();
-        int nbAuteurs = doc.getElementsByTagName("auteur").getLength();
-        int nbSections = doc.getElementsByTagName("section").getLength();
-        int nbChapitres = doc.getElementsByTagName("chapitre").getLength();
-        int nbParagraphes = doc.getElementsByTagName("paragraphe").getLength();
-        
         sb.append(String.format("%-30s : %d\n", "Total de livres", nbLivres));
         sb.append(String.format("%-30s : %d\n", "Total d'auteurs", nbAuteurs));
         sb.append(String.format("%-30s : %d\n", "Total de sections", nbSections));
@@ -347,4 +571,4 @@ public class ParserDOM {
         
         return sb.toString();
     }
-}
\ No newline at end of file
+}
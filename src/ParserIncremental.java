@@ -0,0 +1,306 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+
+/**
+ * Traitement incrémental de livres.xml : seuls les livres ajoutés ou modifiés sont reparsés
+ * 1. Le découpage de ParserSAXParallele repère chaque <livre> de premier niveau (un fragment par livre)
+ * 2. Chaque fragment a une empreinte (longueur + CRC32C et CRC32 des octets) ; un fragment dont
+ *    l'empreinte est dans l'état précédent reprend ses lignes CSV et ses compteurs, renumérotés si besoin
+ * 3. Les autres sont reparsés (LivreHandler), puis le CSV est réécrit à partir des lignes gardées
+ *    et les statistiques sont recalculées à partir des compteurs par livre
+ * L'état (empreintes, lignes CSV, compteurs) est gardé dans output/ entre deux lancements.
+ * Avec --surveiller, le dossier du fichier est surveillé (WatchService) et chaque enregistrement
+ * déclenche une mise à jour. Le rapport TXT n'est pas produit dans ce mode.
+ *
+ * Usage : java ParserIncremental [fichier.xml] [--surveiller]
+ */
+public class ParserIncremental {
+    
+    private static final String OUTPUT_DIR = "output";
+    private static final String DATA_FILE = "data/livres.xml";
+    
+    // Délai sans nouvel événement avant de relire le fichier (un éditeur écrit souvent en plusieurs fois)
+    private static final long DELAI_CALME_MS = 500;
+    
+    public static void main(String[] args) {
+        String fichierXml = DATA_FILE;
+        boolean surveiller = false;
+        
+        for (String arg : args) {
+            if (arg.equals("--surveiller")) {
+                surveiller = true;
+            } else if (!arg.startsWith("--")) {
+                fichierXml = arg;
+            }
+        }
+        
+        Path source = Paths.get(fichierXml).toAbsolutePath();
+        String nom = source.getFileName().toString().replaceFirst("\\.xml$", "");
+        File csvFile = new File(OUTPUT_DIR + "/INCREMENTAL_" + nom + "_export.csv");
+        File etatFile = new File(OUTPUT_DIR + "/INCREMENTAL_" + nom + ".etat");
+        
+        try {
+            // Créer le dossier output s'il n'existe pas
+            creerDossierOutput();
+            
+            String header = "=================================================\n" +
+                          "     TRAITEMENT INCRÉMENTAL DU FICHIER XML\n" +
+                          "=================================================\n";
+            System.out.print(header);
+            
+            EtatIncremental etat = EtatIncremental.lire(etatFile);
+            etat = mettreAJour(source, etat, csvFile, etatFile);
+            
+            if (surveiller) {
+                surveiller(source, etat, csvFile, etatFile);
+            }
+        
+        } catch (NoSuchFileException e) {
+            System.err.println("\n❌ ERREUR : Fichier non trouvé");
+            System.err.println("   Vérifiez que le fichier existe : " + fichierXml);
+        } catch (InterruptedException e) {
+            System.out.println("\n👋 Surveillance arrêtée.");
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.err.println("❌ Erreur lors du traitement incrémental : " + cause.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Relit le fichier quand il est modifié, jusqu'à l'arrêt du programme
+     * Une erreur (fichier en cours d'écriture...) garde l'état précédent jusqu'à la modification suivante
+     */
+    private static void surveiller(Path source, EtatIncremental etat, File csvFile,
+                                   File etatFile) throws IOException, InterruptedException {
+        Path dossier = source.getParent();
+        Path nomFichier = source.getFileName();
+        
+        try (WatchService service = dossier.getFileSystem().newWatchService()) {
+            dossier.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                             StandardWatchEventKinds.ENTRY_MODIFY);
+            System.out.println("\n👀 Surveillance de " + dossier + " (Ctrl+C pour arrêter)");
+            
+            while (true) {
+                WatchKey cle = service.take();
+                boolean concerne = false;
+                
+                // Attendre que les écritures se calment avant de relire
+                while (cle != null) {
+                    for (WatchEvent<?> evenement : cle.pollEvents()) {
+                        if (nomFichier.equals(evenement.context())
+                                || evenement.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            concerne = true;
+                        }
+                    }
+                    if (!cle.reset()) {
+                        throw new IOException("Dossier surveillé inaccessible : " + dossier);
+                    }
+                    cle = service.poll(DELAI_CALME_MS, TimeUnit.MILLISECONDS);
+                }
+                
+                if (concerne && Files.exists(source)) {
+                    try {
+                        etat = mettreAJour(source, etat, csvFile, etatFile);
+                    } catch (Exception e) {
+                        System.err.println("⚠️ Mise à jour impossible (" + e.getMessage() +
+                                           "), nouvel essai à la prochaine modification");
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Met à jour le CSV et les statistiques ; retourne le nouvel état (déjà enregistré)
+     */
+    static EtatIncremental mettreAJour(Path source, EtatIncremental ancien, File csvFile,
+                                       File etatFile) throws Exception {
+        long debut = System.nanoTime();
+        EtatIncremental nouveau = new EtatIncremental();
+        int reutilises = 0;
+        int reparses = 0;
+        
+        try (FileChannel canal = FileChannel.open(source, StandardOpenOption.READ)) {
+            // Étape 1 : un fragment par livre
+            DecoupeurLivres decoupeur = new DecoupeurLivres(1);
+            List<FragmentLivres> fragments = decoupeur.decouper(canal);
+            byte[] prologue = decoupeur.getPrologue();
+            nouveau.empreintePrologue = empreinte(prologue);
+            
+            // Un prologue différent (encodage, entités...) peut changer la lecture de tous les livres
+            Map<Long, ArrayDeque<LivreEnCache>> connus = new HashMap<>();
+            if (ancien != null && ancien.empreintePrologue == nouveau.empreintePrologue) {
+                for (LivreEnCache l : ancien.livres) {
+                    connus.computeIfAbsent(l.empreinte ^ l.longueur, k -> new ArrayDeque<>()).add(l);
+                }
+            }
+            
+            // Étape 2 : reprise des fragments inchangés, parsing des autres
+            String systemId = source.toUri().toString();
+            ByteBuffer tampon = ByteBuffer.allocateDirect(1 << 20);
+            // Numéro du premier livre de chaque fragment : compté comme LivreHandler (livres imbriqués compris)
+            int numero = 1;
+            for (FragmentLivres f : fragments) {
+                long longueur = f.fin - f.debut;
+                long e = empreinte(canal, f.debut, f.fin, tampon);
+                
+                LivreEnCache garde = null;
+                ArrayDeque<LivreEnCache> candidats = connus.get(e ^ longueur);
+                if (candidats != null) {
+                    for (Iterator<LivreEnCache> it = candidats.iterator(); it.hasNext(); ) {
+                        LivreEnCache l = it.next();
+                        if (l.empreinte == e && l.longueur == longueur) {
+                            it.remove();
+                            garde = l;
+                            break;
+                        }
+                    }
+                }
+                
+                LivreEnCache livre = new LivreEnCache();
+                livre.numero = numero;
+                livre.nombreLivres = f.nombreLivres;
+                livre.longueur = longueur;
+                livre.empreinte = e;
+                if (garde != null) {
+                    livre.compteurs = garde.compteurs;
+                    livre.csv = garde.numero == numero
+                        ? garde.csv : renumeroter(garde.csv, garde.numero, numero);
+                    reutilises++;
+                } else {
+                    ParserSAXParallele.ResultatFragment r = ParserSAXParallele.parserFragment(
+                        canal, new FragmentLivres(f.debut, f.fin, numero, f.nombreLivres),
+                        prologue, decoupeur.getEpilogue(), systemId, false);
+                    livre.compteurs = r.handler.getCompteurs();
+                    livre.csv = r.csv;
+                    reparses++;
+                }
+                nouveau.livres.add(livre);
+                numero += livre.compteurs[0];
+            }
+        }
+        
+        int supprimes = 0;
+        if (ancien != null) {
+            supprimes = ancien.livres.size() - reutilises;
+        }
+        
+        // Étape 3 : CSV réécrit à partir des lignes gardées, statistiques à partir des compteurs
+        ecrireCsv(nouveau, csvFile);
+        nouveau.ecrire(etatFile);
+        
+        LivreHandler total = new LivreHandler(
+            SortieRapport.aucune(), new PrintWriter(Writer.nullWriter()), 1);
+        for (LivreEnCache l : nouveau.livres) {
+            total.cumulerCompteurs(l.compteurs);
+        }
+        
+        long duree = (System.nanoTime() - debut) / 1_000_000;
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n🔄 ").append(nouveau.livres.size()).append(" fragment(s) : ")
+          .append(reutilises).append(" repris, ").append(reparses).append(" reparsé(s), ")
+          .append(supprimes).append(" disparu(s) en ").append(duree).append(" ms\n");
+        sb.append(total.getStatistiques());
+        sb.append("   📊 ").append(csvFile.getPath()).append("\n");
+        System.out.print(sb);
+        return nouveau;
+    }
+    
+    /**
+     * Réécrit le CSV (fichier temporaire renommé : le CSV précédent reste lisible jusqu'au bout)
+     */
+    private static void ecrireCsv(EtatIncremental etat, File csvFile) throws IOException {
+        Path temporaire = Paths.get(csvFile.getPath() + ".tmp");
+        try (Writer csv = new BufferedWriter(new OutputStreamWriter(
+                 Files.newOutputStream(temporaire), StandardCharsets.UTF_8), 1 << 16)) {
+            // En-tête CSV (identique à LivreHandler)
+            csv.write(Projection.TOUT.enTeteCsv() + "\n");
+            for (LivreEnCache l : etat.livres) {
+                csv.write(l.csv);
+            }
+        }
+        Files.move(temporaire, csvFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Remplace le numéro de livre en tête de chaque ligne CSV ("ancien",... → "nouveau",...)
+     * Les guillemets sont suivis pour ne pas prendre un retour à la ligne d'un titre pour une fin de ligne
+     */
+    static String renumeroter(String csv, int ancien, int nouveau) {
+        String avant = "\"" + ancien + "\",";
+        String apres = "\"" + nouveau + "\",";
+        StringBuilder sb = new StringBuilder(csv.length() + 16);
+        boolean entreGuillemets = false;
+        boolean debutLigne = true;
+        
+        for (int i = 0; i < csv.length(); i++) {
+            if (debutLigne && csv.startsWith(avant, i)) {
+                sb.append(apres);
+                i += avant.length() - 1;
+                debutLigne = false;
+                continue;
+            }
+            char c = csv.charAt(i);
+            if (c == '"') {
+                entreGuillemets = !entreGuillemets;
+            }
+            debutLigne = c == '\n' && !entreGuillemets;
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Empreinte 64 bits d'une plage du fichier : CRC32C et CRC32 côte à côte
+     */
+    private static long empreinte(FileChannel canal, long debut, long fin, ByteBuffer tampon) throws IOException {
+        CRC32C crc32c = new CRC32C();
+        CRC32 crc32 = new CRC32();
+        long position = debut;
+        while (position < fin) {
+            tampon.clear();
+            tampon.limit((int) Math.min(tampon.capacity(), fin - position));
+            int lus = canal.read(tampon, position);
+            if (lus < 0) {
+                throw new EOFException("Fichier raccourci pendant la lecture");
+            }
+            position += lus;
+            tampon.flip();
+            crc32c.update(tampon.duplicate());
+            crc32.update(tampon);
+        }
+        return (crc32c.getValue() << 32) | crc32.getValue();
+    }
+    
+    private static long empreinte(byte[] octets) {
+        CRC32C crc32c = new CRC32C();
+        CRC32 crc32 = new CRC32();
+        crc32c.update(octets);
+        crc32.update(octets);
+        return (crc32c.getValue() << 32) | crc32.getValue();
+    }
+    
+    /**
+     * Crée le dossier output s'il n'existe pas
+     */
+    private static void creerDossierOutput() {
+        try {
+            Path outputPath = Paths.get(OUTPUT_DIR);
+            if (!Files.exists(outputPath)) {
+                Files.createDirectories(outputPath);
+                System.out.println("📁 Dossier '" + OUTPUT_DIR + "' créé.");
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Erreur création dossier output : " + e.getMessage());
+        }
+    }
+}
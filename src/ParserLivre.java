@@ -0,0 +1,95 @@
+import java.io.*;
+import java.util.*;
+import org.w3c.dom.*;
+
+/**
+ * Lecture directe de livres isolés dans un gros fichier livres.xml
+ * L'index des livres (voir IndexLivres) donne la position de chaque <livre> : seuls ses octets
+ * sont lus et parsés, au lieu de tout le document jusqu'à lui.
+ * L'index est construit au premier lancement (ou par ParserSAXParallele --index) puis réutilisé
+ * tant que le fichier n'a pas changé.
+ *
+ * Usage : java ParserLivre [fichier.xml] [--dom] numero...
+ * Exemple : java ParserLivre data/livres.xml 1 5000
+ */
+public class ParserLivre {
+    
+    private static final String DATA_FILE = "data/livres.xml";
+    
+    public static void main(String[] args) {
+        String fichierXml = DATA_FILE;
+        boolean dom = false;
+        List<Integer> numeros = new ArrayList<>();
+        
+        for (String arg : args) {
+            if (arg.equals("--dom")) {
+                dom = true;
+            } else if (arg.endsWith(".xml")) {
+                fichierXml = arg;
+            } else {
+                try {
+                    numeros.add(Integer.parseInt(arg));
+                } catch (NumberFormatException e) {
+                    System.err.println("❌ Numéro de livre invalide : " + arg);
+                    return;
+                }
+            }
+        }
+        
+        File source = new File(fichierXml);
+        if (!source.isFile()) {
+            System.err.println("\n❌ ERREUR : Fichier non trouvé");
+            System.err.println("   Vérifiez que le fichier existe : " + fichierXml);
+            return;
+        }
+        
+        long debut = System.nanoTime();
+        try (IndexLivres index = IndexLivres.ouvrir(source)) {
+            long duree = (System.nanoTime() - debut) / 1_000_000;
+            System.out.println("🗂️  Index de " + index.nombreLivres() + " livre(s) prêt en " + duree + " ms (" +
+                               source.getPath() + IndexLivres.EXTENSION + ")");
+            
+            for (int numero : numeros) {
+                if (numero < 1 || numero > index.nombreLivres()) {
+                    System.err.println("⚠️ Livre #" + numero + " hors de l'index (1 à " + index.nombreLivres() + ")");
+                    continue;
+                }
+                debut = System.nanoTime();
+                if (dom) {
+                    Element livre = index.element(numero);
+                    double ms = (System.nanoTime() - debut) / 1_000_000.0;
+                    System.out.printf("\n🌳 Livre #%d chargé en DOM en %.2f ms (%d octets) : %s%n", numero, ms,
+                                      index.longueur(numero), resumer(livre));
+                } else {
+                    ParserSAXParallele.ResultatFragment r = index.rapport(numero, true);
+                    double ms = (System.nanoTime() - debut) / 1_000_000.0;
+                    System.out.print(r.txt);
+                    System.out.printf("⏱️  Livre #%d lu en %.2f ms (%d octets à la position %d)%n", numero, ms,
+                                      index.longueur(numero), index.debut(numero));
+                }
+            }
+        
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.err.println("❌ Erreur lors de la lecture du livre : " + cause.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Titre et nombre de sections d'un <livre> DOM
+     */
+    private static String resumer(Element livre) {
+        String titre = "";
+        int sections = 0;
+        for (Node n = livre.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n.getNodeType() != Node.ELEMENT_NODE) continue;
+            if (n.getNodeName().equals("titre") && titre.isEmpty()) {
+                titre = n.getTextContent().trim();
+            } else if (n.getNodeName().equals("section")) {
+                sections++;
+            }
+        }
+        return "« " + titre + " », " + sections + " section(s)";
+    }
+}
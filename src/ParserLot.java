@@ -0,0 +1,283 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.xml.parsers.SAXParser;
+
+/**
+ * Traitement par lot d'un dossier (ou d'un motif glob) de fichiers bibliotheque
+ * Chaque fichier est parsé avec LivreHandler sur un thread virtuel ; le nombre de parsings
+ * en cours est borné par la réserve de parseurs, ce qui borne aussi la mémoire.
+ * Chaque fichier a son TXT et son CSV dans output/LOT_<timestamp>/ ; --fusion ajoute un CSV
+ * unique (colonne Fichier en tête) et les statistiques sont cumulées sur tout le lot.
+ * --agregats : agrégats de chaque fichier, fusionnés sur tout le lot (LOT_auteurs.csv).
+ *
+ * Usage : java ParserLot <dossier|motif> [--paralleles N] [--fusion] [--agregats]
+ *         (ou java ParserSAX --lot <dossier|motif> ...)
+ * Exemple : java ParserLot "data/partenaires/**.xml" --fusion
+ */
+public class ParserLot {
+    
+    private static final String OUTPUT_DIR = "output";
+    
+    public static void main(String[] args) {
+        String entree = null;
+        int paralleles = Runtime.getRuntime().availableProcessors() * 2;
+        boolean fusion = false;
+        boolean agregats = false;
+        
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--paralleles") && i + 1 < args.length) {
+                    paralleles = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--fusion")) {
+                    fusion = true;
+                } else if (args[i].equals("--agregats")) {
+                    agregats = true;
+                } else if (!args[i].startsWith("--")) {
+                    entree = args[i];
+                }
+            }
+            
+            if (entree == null) {
+                System.err.println("Usage : java ParserLot <dossier|motif> [--paralleles N] [--fusion] [--agregats]");
+                return;
+            }
+            if (paralleles <= 0) {
+                System.err.println("❌ Valeur invalide pour --paralleles (nombre positif attendu) : " + paralleles);
+                return;
+            }
+            
+            List<Path> fichiers = lister(entree);
+            if (fichiers.isEmpty()) {
+                System.err.println("❌ Aucun fichier XML pour : " + entree);
+                return;
+            }
+            
+            // Un dossier de sortie par lot
+            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+            Path dossierLot = Paths.get(OUTPUT_DIR, "LOT_" + timestamp);
+            Files.createDirectories(dossierLot);
+            
+            String header = "=================================================\n" +
+                          "     TRAITEMENT PAR LOT (" + fichiers.size() + " FICHIERS)\n" +
+                          "=================================================\n";
+            System.out.print(header);
+            
+            // Étape 1 : un thread virtuel par fichier, au plus "paralleles" parsings en même temps
+            long debut = System.nanoTime();
+            ReserveParseurs reserve = new ReserveParseurs(paralleles);
+            List<Future<ResultatFichier>> resultats = new ArrayList<>();
+            List<String> noms = nomsSortie(fichiers);
+            boolean avecAgregats = agregats;
+            try (ExecutorService executeur = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < fichiers.size(); i++) {
+                    Path fichier = fichiers.get(i);
+                    String nom = noms.get(i);
+                    resultats.add(executeur.submit(() -> traiterFichier(fichier, nom, dossierLot, reserve, avecAgregats)));
+                }
+            }
+            
+            // Étape 2 : statistiques cumulées (et CSV fusionné) dans l'ordre des fichiers
+            LivreHandler total = new LivreHandler(
+                SortieRapport.aucune(), new PrintWriter(Writer.nullWriter()), 1);
+            AgregatsBibliotheque agregatsLot = agregats ? new AgregatsBibliotheque() : null;
+            List<String> erreurs = new ArrayList<>();
+            List<ResultatFichier> reussis = new ArrayList<>();
+            for (int i = 0; i < fichiers.size(); i++) {
+                try {
+                    ResultatFichier r = resultats.get(i).get();
+                    total.cumulerCompteurs(r.compteurs);
+                    if (agregatsLot != null) agregatsLot.fusionner(r.agregats);
+                    reussis.add(r);
+                } catch (ExecutionException e) {
+                    erreurs.add(fichiers.get(i) + " : " + e.getCause().getMessage());
+                }
+            }
+            
+            Path csvFusion = null;
+            if (fusion) {
+                csvFusion = dossierLot.resolve("LOT_fusion.csv");
+                fusionner(reussis, csvFusion);
+            }
+            Path csvAuteurs = null;
+            if (agregatsLot != null) {
+                csvAuteurs = dossierLot.resolve("LOT_auteurs.csv");
+                agregatsLot.ecrireCsvAuteurs(csvAuteurs.toString());
+            }
+            long duree = (System.nanoTime() - debut) / 1_000_000;
+            
+            StringBuilder sb = new StringBuilder();
+            sb.append("\n📦 ").append(reussis.size()).append(" fichier(s) traité(s) en ").append(duree)
+              .append(" ms (").append(paralleles).append(" parsings en parallèle au plus)\n");
+            for (String erreur : erreurs) {
+                sb.append("   ❌ ").append(erreur).append("\n");
+            }
+            sb.append(total.getStatistiques());
+            if (agregatsLot != null) sb.append(agregatsLot.getRapport());
+            System.out.print(sb);
+            
+            String success = "\n✅ Fichiers générés avec succès :\n" +
+                           "   📁 " + dossierLot + "\n" +
+                           (csvFusion != null ? "   📊 " + csvFusion + "\n" : "") +
+                           (csvAuteurs != null ? "   👥 " + csvAuteurs + "\n" : "");
+            System.out.println(success);
+        
+        } catch (NumberFormatException e) {
+            System.err.println("❌ Valeur invalide pour --paralleles (nombre attendu) : " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("❌ Erreur lors du traitement par lot : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Fichiers .xml d'un dossier, ou fichiers correspondant à un motif glob (tri par chemin)
+     * Le motif est parcouru à partir de sa partie fixe : "data/**.xml" parcourt data/
+     */
+    static List<Path> lister(String entree) throws IOException {
+        Path chemin = Paths.get(entree);
+        if (Files.isDirectory(chemin)) {
+            try (Stream<Path> s = Files.list(chemin)) {
+                return s.filter(p -> p.toString().endsWith(".xml") && Files.isRegularFile(p))
+                        .sorted().collect(Collectors.toList());
+            }
+        }
+        
+        // Partie fixe du motif : les segments avant le premier caractère spécial
+        String[] segments = entree.replace('\\', '/').split("/");
+        StringBuilder base = new StringBuilder();
+        for (String segment : segments) {
+            if (segment.matches(".*[*?\\[{].*")) break;
+            if (base.length() > 0 || entree.startsWith("/")) base.append('/');
+            base.append(segment);
+        }
+        Path racine = Paths.get(base.length() > 0 ? base.toString() : ".");
+        if (!Files.isDirectory(racine)) {
+            return Files.isRegularFile(chemin) ? List.of(chemin) : List.of();
+        }
+        
+        PathMatcher motif = FileSystems.getDefault().getPathMatcher("glob:" + entree);
+        try (Stream<Path> s = Files.walk(racine)) {
+            return s.filter(p -> Files.isRegularFile(p) && motif.matches(p))
+                    .sorted().collect(Collectors.toList());
+        }
+    }
+    
+    /**
+     * Noms de sortie : chemin du fichier sans séparateurs, suivi de ~2, ~3... s'il est déjà pris
+     * ("a/b_c.xml" et "a_b/c.xml" donnent tous deux a_b_c ; la casse est ignorée pour les systèmes
+     * de fichiers qui l'ignorent)
+     */
+    static List<String> nomsSortie(List<Path> fichiers) {
+        Set<String> pris = new HashSet<>();
+        List<String> noms = new ArrayList<>();
+        for (Path fichier : fichiers) {
+            String base = fichier.normalize().toString().replaceAll("^[./\\\\]+", "")
+                                 .replaceAll("[/\\\\:]", "_").replaceFirst("\\.xml$", "");
+            String nom = base;
+            for (int k = 2; !pris.add(nom.toLowerCase(Locale.ROOT)); k++) {
+                nom = base + "~" + k;
+            }
+            noms.add(nom);
+        }
+        return noms;
+    }
+    
+    /**
+     * Parse un fichier : son TXT et son CSV dans le dossier du lot, sous le nom donné
+     */
+    private static ResultatFichier traiterFichier(Path fichier, String nom, Path dossierLot,
+                                                  ReserveParseurs reserve, boolean agregats) throws Exception {
+        Path txtFile = dossierLot.resolve(nom + ".txt");
+        Path csvFile = dossierLot.resolve(nom + ".csv");
+        
+        // Le parseur est pris avant d'ouvrir les sorties : un thread en attente ne garde aucun fichier ouvert
+        SAXParser parser = reserve.prendre();
+        try (PrintWriter txtWriter = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                 Files.newOutputStream(txtFile), StandardCharsets.UTF_8), 1 << 16));
+             PrintWriter csvWriter = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                 Files.newOutputStream(csvFile), StandardCharsets.UTF_8), 1 << 16))) {
+            
+            SortieRapport rapport = SortieRapport.synchrone(txtWriter, false);
+            String header = "=================================================\n" +
+                          "     LECTURE DU FICHIER XML AVEC PARSEUR SAX\n" +
+                          "     " + fichier + "\n" +
+                          "=================================================\n";
+            rapport.afficher(header);
+            
+            LivreHandler handler = new LivreHandler(rapport, csvWriter);
+            if (agregats) handler.setAgregats(new AgregatsBibliotheque());
+            parser.parse(fichier.toFile(), handler);
+            
+            String footer = "\n=================================================\n" +
+                          "        FIN DE LA LECTURE AVEC SAX\n" +
+                          "=================================================\n";
+            rapport.afficher(footer);
+            rapport.afficher(handler.getStatistiques());
+            if (agregats) rapport.afficher(handler.getAgregats().getRapport());
+            
+            return new ResultatFichier(fichier, csvFile, handler.getCompteurs(), handler.getAgregats());
+        } finally {
+            reserve.rendre(parser);
+        }
+    }
+    
+    /**
+     * CSV unique : les lignes de chaque fichier, dans l'ordre des fichiers, précédées du nom du fichier
+     */
+    private static void fusionner(List<ResultatFichier> resultats, Path csvFusion) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                 Files.newOutputStream(csvFusion), StandardCharsets.UTF_8), 1 << 16)) {
+            out.write("Fichier," + Projection.TOUT.enTeteCsv() + "\n");
+            for (ResultatFichier r : resultats) {
+                String prefixe = "\"" + Projection.echapperCSV(r.fichier.toString()) + "\",";
+                try (Reader in = new BufferedReader(new InputStreamReader(
+                         Files.newInputStream(r.csv), StandardCharsets.UTF_8), 1 << 16)) {
+                    // La première ligne est l'en-tête ; une fin de ligne entre guillemets ne termine pas la ligne
+                    boolean entete = true;
+                    boolean debutLigne = false;
+                    boolean entreGuillemets = false;
+                    int c;
+                    while ((c = in.read()) >= 0) {
+                        if (debutLigne) {
+                            out.write(prefixe);
+                            debutLigne = false;
+                        }
+                        if (c == '"') {
+                            entreGuillemets = !entreGuillemets;
+                        }
+                        if (!entete) {
+                            out.write(c);
+                        }
+                        if (c == '\n' && !entreGuillemets) {
+                            entete = false;
+                            debutLigne = true;
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Compteurs d'un fichier traité et chemin de son CSV
+     */
+    private static class ResultatFichier {
+        final Path fichier;
+        final Path csv;
+        final int[] compteurs;
+        final AgregatsBibliotheque agregats;
+        
+        ResultatFichier(Path fichier, Path csv, int[] compteurs, AgregatsBibliotheque agregats) {
+            this.fichier = fichier;
+            this.csv = csv;
+            this.compteurs = compteurs;
+            this.agregats = agregats;
+        }
+    }
+}
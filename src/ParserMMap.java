@@ -0,0 +1,122 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+/**
+ * Scanner rapide pour le schéma des livres : le fichier est projeté en mémoire
+ * (FileChannel.map) et les balises sont reconnues directement sur les octets UTF-8.
+ * Seuls les textes réellement affichés (titres, noms, premier paragraphe)
+ * sont décodés ; le reste est simplement sauté.
+ *
+ * Produit le même TXT et le même CSV que LivreHandler. Pour tout ce que le
+ * scanner ne gère pas (DTD, entités déclarées, CDATA, éléments hors schéma,
+ * encodage autre que UTF-8...), on repart de zéro avec le parseur SAX.
+ *
+ * Usage : java ParserMMap [fichier.xml]
+ */
+public class ParserMMap {
+    
+    private static final String OUTPUT_DIR = "output";
+    private static final String DATA_FILE = "data/livres.xml";
+    
+    public static void main(String[] args) {
+        String fichierXml = args.length > 0 ? args[0] : DATA_FILE;
+        
+        try {
+            // Créer le dossier output s'il n'existe pas
+            creerDossierOutput();
+            
+            // Créer les fichiers de sortie avec timestamp
+            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+            String txtFile = OUTPUT_DIR + "/MMAP_output_" + timestamp + ".txt";
+            String csvFile = OUTPUT_DIR + "/MMAP_export_" + timestamp + ".csv";
+            
+            try {
+                executer(fichierXml, txtFile, csvFile, true);
+            } catch (ScanneurLivres.FormatNonSupporte e) {
+                // Les fichiers sont réécrits depuis le début par le parseur SAX
+                System.err.println("\n⚠️  Scanner rapide abandonné : " + e.getMessage());
+                System.err.println("   Reprise avec le parseur SAX (JAXP), rapport réaffiché depuis le début...\n");
+                executer(fichierXml, txtFile, csvFile, false);
+            }
+            
+            // Message de confirmation
+            String success = "\n✅ Fichiers générés avec succès :\n" +
+                           "   📄 " + txtFile + "\n" +
+                           "   📊 " + csvFile + "\n";
+            System.out.println(success);
+        
+        } catch (NoSuchFileException | FileNotFoundException e) {
+            System.err.println("\n❌ ERREUR : Fichier non trouvé");
+            System.err.println("   Vérifiez que le fichier existe : " + fichierXml);
+        } catch (Exception e) {
+            System.err.println("❌ Erreur lors du parsing : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Une exécution complète : en-tête, parsing, pied de page et statistiques
+     * rapide = true : scanner mmap ; false : parseur SAX avec LivreHandler
+     */
+    private static void executer(String fichierXml, String txtFile, String csvFile, boolean rapide)
+            throws Exception {
+        try (PrintWriter txtWriter = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                 new FileOutputStream(txtFile), "UTF-8"), 1 << 16));
+             PrintWriter csvWriter = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                 new FileOutputStream(csvFile), "UTF-8"), 1 << 16))) {
+            
+            String header = "=================================================\n" +
+                          "     LECTURE DU FICHIER XML AVEC " + (rapide ? "SCANNER MMAP" : "PARSEUR SAX") + "\n" +
+                          "=================================================\n";
+            afficher(header, txtWriter);
+            
+            String stats;
+            if (rapide) {
+                try (FileChannel canal = FileChannel.open(Paths.get(fichierXml), StandardOpenOption.READ)) {
+                    ScanneurLivres scanneur = new ScanneurLivres(canal, txtWriter, csvWriter);
+                    scanneur.lireDocument();
+                    stats = scanneur.getStatistiques();
+                }
+            } else {
+                SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
+                LivreHandler handler = new LivreHandler(txtWriter, csvWriter);
+                parser.parse(new File(fichierXml), handler);
+                stats = handler.getStatistiques();
+            }
+            
+            String footer = "\n=================================================\n" +
+                          "        FIN DE LA LECTURE AVEC " + (rapide ? "SCANNER MMAP" : "SAX") + "\n" +
+                          "=================================================\n";
+            afficher(footer, txtWriter);
+            afficher(stats, txtWriter);
+        }
+    }
+    
+    /**
+     * Affiche un message sur la console et dans le fichier
+     */
+    private static void afficher(String message, PrintWriter writer) {
+        System.out.print(message);
+        writer.print(message);
+    }
+    
+    /**
+     * Crée le dossier output s'il n'existe pas
+     */
+    private static void creerDossierOutput() {
+        try {
+            Path outputPath = Paths.get(OUTPUT_DIR);
+            if (!Files.exists(outputPath)) {
+                Files.createDirectories(outputPath);
+                System.out.println("📁 Dossier '" + OUTPUT_DIR + "' créé.");
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Erreur création dossier output : " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import org.xml.sax.SAXException;
+
+/**
+ * Recherche plein texte dans les paragraphes de livres.xml
+ * L'index inversé (voir IndexTexte) est construit en une lecture SAX,
+ * puis chaque requête retourne les chapitres les plus pertinents (BM25).
+ * Sans requête sur la ligne de commande, les requêtes sont lues sur l'entrée standard,
+ * une par ligne (ligne vide pour terminer).
+ *
+ * Usage : java ParserRecherche [fichier.xml] [-k nombre] [requete...]
+ * Exemple : java ParserRecherche -k 5 "balise élément" "schéma XML"
+ */
+public class ParserRecherche {
+    
+    private static final String DATA_FILE = "data/livres.xml";
+    
+    // Nombre de chapitres retournés par défaut
+    private static final int K_DEFAUT = 10;
+    
+    public static void main(String[] args) {
+        String fichierXml = DATA_FILE;
+        int k = K_DEFAUT;
+        List<String> requetes = new ArrayList<>();
+        
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-k") && i + 1 < args.length) {
+                try {
+                    k = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    System.err.println("❌ Nombre de résultats invalide : " + args[i]);
+                    return;
+                }
+            } else if (args[i].endsWith(".xml")) {
+                fichierXml = args[i];
+            } else {
+                requetes.add(args[i]);
+            }
+        }
+        
+        try {
+            String header = "=================================================\n" +
+                          "     RECHERCHE PLEIN TEXTE (INDEX INVERSÉ, BM25)\n" +
+                          "=================================================\n";
+            System.out.print(header);
+            
+            // Construction de l'index
+            long debut = System.nanoTime();
+            IndexTexte index = IndexTexte.construire(new File(fichierXml));
+            long duree = (System.nanoTime() - debut) / 1_000_000;
+            
+            System.out.println("📚 Index construit en " + duree + " ms : " + index.nbChapitres + " chapitre(s), " +
+                               index.termes.taille() + " terme(s), " + index.nbPostings() + " posting(s)");
+            
+            if (!requetes.isEmpty()) {
+                for (String requete : requetes) {
+                    rechercher(index, requete, k);
+                }
+            } else {
+                BufferedReader entree = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                while (true) {
+                    System.out.print("\n🔍 Recherche > ");
+                    System.out.flush();
+                    String ligne = entree.readLine();
+                    if (ligne == null || ligne.trim().isEmpty()) {
+                        break;
+                    }
+                    rechercher(index, ligne.trim(), k);
+                }
+            }
+            
+            String footer = "\n=================================================\n";
+            System.out.print(footer);
+        
+        } catch (FileNotFoundException e) {
+            System.err.println("\n❌ ERREUR : Fichier non trouvé");
+            System.err.println("   Vérifiez que le fichier existe : " + fichierXml);
+        } catch (SAXException e) {
+            System.err.println("\n❌ ERREUR DE PARSING XML : " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("❌ Erreur lors de la recherche : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Affiche les k meilleurs chapitres pour une requête
+     */
+    private static void rechercher(IndexTexte index, String requete, int k) {
+        long debut = System.nanoTime();
+        List<IndexTexte.Resultat> resultats = index.rechercher(requete, k);
+        double duree = (System.nanoTime() - debut) / 1_000_000.0;
+        
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n🔎 ").append(requete).append("\n");
+        sb.append(String.format("   %d résultat(s) en %.2f ms\n", resultats.size(), duree));
+        int rang = 1;
+        for (IndexTexte.Resultat r : resultats) {
+            sb.append(String.format("   %2d. [%.3f] Livre %d « %s » - Section %d - Chapitre %d : %s (paragraphe %d)\n",
+                rang++, r.score, r.numeroLivre, r.titreLivre, r.numeroSection,
+                r.numeroChapitre, r.titreChapitre, r.meilleurParagraphe));
+        }
+        System.out.print(sb);
+    }
+}
@@ -0,0 +1,338 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Parsing SAX avec points de reprise, pour les fichiers trop gros pour être relancés du début
+ * 1. Le fichier est découpé aux frontières des <livre> (DecoupeurLivres), en fragments d'environ
+ *    --intervalle octets (16 Mo par défaut)
+ * 2. Les fragments sont parsés l'un après l'autre (ParserSAXParallele.parserFragment) ; leurs sorties
+ *    sont ajoutées aux fichiers .tmp du TXT et du CSV, synchronisés sur disque, puis un point de reprise
+ *    est enregistré : fin du fragment, numéro du prochain livre, compteurs et taille des deux sorties
+ * 3. Après un arrêt (kill, OutOfMemoryError, livre mal formé...), la même commande reprend : les .tmp
+ *    sont ramenés à la taille enregistrée et le parsing repart après le dernier fragment terminé
+ * À la fin, les .tmp sont renommés (rename atomique) et le point de reprise est supprimé.
+ * Le TXT et le CSV sont identiques à ceux de ParserSAX.
+ *
+ * Seule la partie déjà traitée doit être inchangée (CRC32C des octets avant le point de reprise) :
+ * un livre mal formé peut être corrigé dans le fichier avant de relancer. La reprise se fait avec
+ * la même --sortie que le premier lancement (sinon, --recommencer).
+ * Les autres options de ParserSAX (--champs, --tri, --agregats, --tampon-sortie...) sont ignorées.
+ *
+ * Usage : java ParserReprise [fichier.xml] [--sortie=...|--quiet] [--intervalle=N[K|M|G]] [--recommencer]
+ *         (ou java ParserSAX --reprise [fichier.xml] ...)
+ */
+public class ParserReprise {
+    
+    private static final String OUTPUT_DIR = "output";
+    private static final String DATA_FILE = "data/livres.xml";
+    
+    private static final long INTERVALLE_DEFAUT = 16L << 20;
+    
+    // Options de ParserSAX sans effet avec la reprise
+    private static final List<String> OPTIONS_IGNOREES = List.of(
+        "--rapide", "--instantane", "--flux", "--agregats", "--normalise", "--tri", "--memoire-tri",
+        "--colonnes", "--mesures", "--champs", "--tampon-sortie", "--fsync");
+    
+    public static void main(String[] args) {
+        String fichierXml = DATA_FILE;
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                fichierXml = arg;
+            }
+        }
+        // --recommencer : ignorer le point de reprise existant
+        boolean recommencer = Arrays.asList(args).contains("--recommencer");
+        for (String arg : args) {
+            String option = arg.split("=", 2)[0];
+            if (OPTIONS_IGNOREES.contains(option)) {
+                System.err.println("⚠️ " + option + " est ignoré avec --reprise");
+            }
+        }
+        
+        SortieRapport.Cible cible = SortieRapport.lireCible(args);
+        Path source = Paths.get(fichierXml);
+        String nom = source.getFileName().toString().replaceFirst("\\.xml$", "");
+        File etatFile = new File(OUTPUT_DIR + "/SAX_reprise_" + nom + ".etat");
+        
+        FileChannel txt = null;
+        FileChannel csv = null;
+        
+        try (FileChannel canal = FileChannel.open(source, StandardOpenOption.READ)) {
+            // Créer le dossier output s'il n'existe pas
+            creerDossierOutput();
+            
+            long taille = canal.size();
+            
+            // Un point abandonné (--recommencer, source modifiée) laisse ses sorties .tmp : elles sont supprimées
+            PointReprise ancien = PointReprise.lire(etatFile);
+            PointReprise point = recommencer ? null : ancien;
+            if (point != null && point.cible != cible) {
+                // Un TXT repris sans son début (ou ajouté en cours de route) serait incomplet
+                throw new IllegalArgumentException("Point de reprise créé avec --sortie=" + nomCible(point.cible) +
+                    " : relancez avec la même sortie, ou avec --recommencer");
+            }
+            long intervalle = point != null ? point.intervalle : lireIntervalle(args);
+            
+            // Découper le fichier aux frontières des <livre> : tant que la partie traitée ne change pas,
+            // les fragments qui la couvrent sont les mêmes à chaque lancement
+            DecoupeurLivres decoupeur = new DecoupeurLivres(intervalle);
+            List<FragmentLivres> fragments = decoupeur.decouper(canal);
+            CRC32C empreinte = new CRC32C();
+            if (point != null) {
+                // Le reste du fichier peut avoir changé (livre mal formé corrigé), pas la partie traitée
+                if (point.position > taille) {
+                    point = null;
+                } else {
+                    cumulerEmpreinte(empreinte, canal, 0, point.position);
+                    if (empreinte.getValue() != point.empreinte || !debutDeFragment(fragments, point.position)) {
+                        point = null;
+                    }
+                }
+                if (point == null) {
+                    System.err.println("⚠️ La partie déjà traitée de " + fichierXml + " a changé depuis le " +
+                                       "point de reprise : le traitement recommence du début");
+                }
+            }
+            
+            boolean texte = cible.console || cible.fichier;
+            boolean nouveau = point == null;
+            if (nouveau) {
+                if (ancien != null) supprimerSorties(ancien);
+                point = new PointReprise();
+                point.intervalle = intervalle;
+                point.horodatage = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+                point.cible = cible;
+                point.position = fragments.get(0).debut;
+                empreinte.reset();
+                cumulerEmpreinte(empreinte, canal, 0, point.position);
+                point.empreinte = empreinte.getValue();
+                point.numeroSuivant = 1;
+                point.compteurs = new int[5];
+            }
+            
+            String txtFile = OUTPUT_DIR + "/SAX_output_" + point.horodatage + ".txt";
+            String csvFile = OUTPUT_DIR + "/SAX_export_" + point.horodatage + ".csv";
+            Path txtTmp = Paths.get(txtFile + ".tmp");
+            Path csvTmp = Paths.get(csvFile + ".tmp");
+            
+            if (nouveau) {
+                // Premier lancement : en-têtes, puis point de reprise initial
+                txt = cible.fichier ? ouvrir(txtTmp, 0) : null;
+                csv = ouvrir(csvTmp, 0);
+                String header = "=================================================\n" +
+                              "     LECTURE DU FICHIER XML AVEC PARSEUR SAX\n" +
+                              "=================================================\n";
+                if (texte) {
+                    afficher(header + LivreHandler.MSG_DEBUT, cible, txt);
+                }
+                ecrire(csv, Projection.TOUT.enTeteCsv() + "\n");
+                enregistrer(point, txt, csv, etatFile);
+            } else {
+                txt = cible.fichier ? ouvrir(txtTmp, point.tailleTxt) : null;
+                csv = ouvrir(csvTmp, point.tailleCsv);
+                System.err.println("↩️  Reprise de " + fichierXml + " à l'octet " + point.position +
+                                   " (livre " + point.numeroSuivant + ", " +
+                                   (100 * point.position / Math.max(1, taille)) + " %)");
+            }
+            
+            // Parser les fragments restants ; un point de reprise après chacun
+            byte[] prologue = decoupeur.getPrologue();
+            byte[] epilogue = decoupeur.getEpilogue();
+            String systemId = source.toUri().toString();
+            LivreHandler total = new LivreHandler(
+                SortieRapport.aucune(), new PrintWriter(Writer.nullWriter()), 1);
+            total.cumulerCompteurs(point.compteurs);
+            
+            for (FragmentLivres f : fragments) {
+                if (f.fin <= point.position) continue;
+                if (f.debut != point.position) {
+                    throw new IOException("Point de reprise incohérent (octet " + point.position +
+                                          ") : relancez avec --recommencer");
+                }
+                ParserSAXParallele.ResultatFragment r;
+                try {
+                    r = ParserSAXParallele.parserFragment(canal,
+                        new FragmentLivres(f.debut, f.fin, point.numeroSuivant, f.nombreLivres),
+                        prologue, epilogue, systemId, texte);
+                } catch (Exception e) {
+                    throw new IOException("Fragment illisible (octets " + f.debut + " à " + f.fin +
+                                          ", à partir du livre " + point.numeroSuivant + ") : " +
+                                          e.getMessage(), e);
+                }
+                if (texte) afficher(r.txt, cible, txt);
+                ecrire(csv, r.csv);
+                total.cumulerStatistiques(r.handler);
+                
+                cumulerEmpreinte(empreinte, canal, f.debut, f.fin);
+                point.empreinte = empreinte.getValue();
+                point.position = f.fin;
+                point.numeroSuivant += r.handler.getCompteurs()[0];
+                point.compteurs = total.getCompteurs();
+                enregistrer(point, txt, csv, etatFile);
+            }
+            
+            if (texte) {
+                String footer = "\n=================================================\n" +
+                              "        FIN DE LA LECTURE AVEC SAX\n" +
+                              "=================================================\n";
+                afficher(LivreHandler.MSG_FIN + footer + total.getStatistiques(), cible, txt);
+            }
+            
+            // Valider les sorties : synchronisation, renommage atomique, suppression du point de reprise
+            csv.force(true);
+            csv.close();
+            csv = null;
+            Files.move(csvTmp, Paths.get(csvFile), StandardCopyOption.ATOMIC_MOVE);
+            if (txt != null) {
+                txt.force(true);
+                txt.close();
+                txt = null;
+                Files.move(txtTmp, Paths.get(txtFile), StandardCopyOption.ATOMIC_MOVE);
+            }
+            Files.deleteIfExists(etatFile.toPath());
+            
+            // Message de confirmation
+            String success = "\n✅ Fichiers générés avec succès :\n" +
+                           (cible.fichier ? "   📄 " + txtFile + "\n" : "") +
+                           "   📊 " + csvFile + "\n";
+            System.out.println(success);
+        
+        } catch (NoSuchFileException e) {
+            System.err.println("\n❌ ERREUR : Fichier non trouvé");
+            System.err.println("   Vérifiez que le fichier existe : " + fichierXml);
+        } catch (Exception | OutOfMemoryError e) {
+            System.err.println("❌ Erreur lors du parsing SAX avec reprise : " + e.getMessage());
+            if (etatFile.isFile()) {
+                System.err.println("   Point de reprise conservé : relancez la même commande pour continuer");
+            }
+            e.printStackTrace();
+        } finally {
+            fermer(txt);
+            fermer(csv);
+        }
+    }
+    
+    /**
+     * Lit l'option --intervalle=N[K|M|G] (taille des fragments entre deux points de reprise)
+     */
+    static long lireIntervalle(String[] args) {
+        return OptionTaille.lire(args, "--intervalle=", INTERVALLE_DEFAUT, Long.MAX_VALUE);
+    }
+    
+    /**
+     * Ajoute les octets [debut, fin) du fichier à l'empreinte
+     */
+    private static void cumulerEmpreinte(CRC32C empreinte, FileChannel canal, long debut, long fin)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        for (long position = debut; position < fin; ) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), fin - position));
+            int n = canal.read(buffer, position);
+            if (n < 0) {
+                throw new EOFException("Fin du fichier avant l'octet " + fin);
+            }
+            buffer.flip();
+            empreinte.update(buffer);
+            position += n;
+        }
+    }
+    
+    /**
+     * Vrai si un fragment commence à cette position (la fin d'un fragment déjà traité)
+     */
+    private static boolean debutDeFragment(List<FragmentLivres> fragments, long position) {
+        for (FragmentLivres f : fragments) {
+            if (f.debut == position) return true;
+        }
+        return false;
+    }
+    
+    private static String nomCible(SortieRapport.Cible cible) {
+        return cible.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+    
+    /**
+     * Supprime les sorties .tmp d'un point de reprise abandonné
+     */
+    private static void supprimerSorties(PointReprise ancien) throws IOException {
+        Files.deleteIfExists(Paths.get(OUTPUT_DIR + "/SAX_output_" + ancien.horodatage + ".txt.tmp"));
+        Files.deleteIfExists(Paths.get(OUTPUT_DIR + "/SAX_export_" + ancien.horodatage + ".csv.tmp"));
+    }
+    
+    /**
+     * Ouvre une sortie .tmp ramenée à la taille donnée (0 : nouveau fichier)
+     */
+    private static FileChannel ouvrir(Path fichier, long taille) throws IOException {
+        if (taille == 0) {
+            return FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        if (!Files.isRegularFile(fichier) || Files.size(fichier) < taille) {
+            throw new IOException("Sortie partielle absente ou tronquée : " + fichier +
+                                  " (relancez avec --recommencer)");
+        }
+        FileChannel canal = FileChannel.open(fichier, StandardOpenOption.WRITE);
+        // Ce qui a été écrit après le dernier point de reprise sera réécrit
+        canal.truncate(taille);
+        canal.position(taille);
+        return canal;
+    }
+    
+    private static void afficher(String message, SortieRapport.Cible cible, FileChannel txt)
+            throws IOException {
+        if (cible.console) System.out.print(message);
+        if (txt != null) ecrire(txt, message);
+    }
+    
+    private static void ecrire(FileChannel canal, String texte) throws IOException {
+        ByteBuffer octets = ByteBuffer.wrap(texte.getBytes(StandardCharsets.UTF_8));
+        while (octets.hasRemaining()) {
+            canal.write(octets);
+        }
+    }
+    
+    /**
+     * Synchronise les sorties sur disque, puis enregistre le point de reprise
+     * (dans cet ordre : le point ne désigne jamais des octets non écrits)
+     */
+    private static void enregistrer(PointReprise point, FileChannel txt, FileChannel csv,
+                                    File etatFile) throws IOException {
+        if (txt != null) {
+            txt.force(false);
+            point.tailleTxt = txt.position();
+        }
+        csv.force(false);
+        point.tailleCsv = csv.position();
+        point.ecrire(etatFile);
+    }
+    
+    private static void fermer(Closeable c) {
+        if (c == null) return;
+        try {
+            c.close();
+        } catch (IOException e) {
+            System.err.println("❌ Erreur de fermeture : " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Crée le dossier output s'il n'existe pas
+     */
+    private static void creerDossierOutput() {
+        try {
+            Path outputPath = Paths.get(OUTPUT_DIR);
+            if (!Files.exists(outputPath)) {
+                Files.createDirectories(outputPath);
+                System.out.println("📁 Dossier '" + OUTPUT_DIR + "' créé.");
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Erreur création dossier output : " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.SAXException;
+
+/**
+ * Exécute des requêtes de chemin (voir Requete) sur livres.xml
+ * Par défaut, toutes les requêtes sont évaluées en une seule lecture SAX, livre par livre ;
+ * avec --modele, le modèle compact du document entier est chargé puis interrogé.
+ * Exporte les nœuds trouvés en CSV dans le dossier output/
+ *
+ * Usage : java ParserRequetes [--modele] [fichier.xml] [-f fichier_requetes] [requete...]
+ * Exemple : java ParserRequetes "//section[count(chapitre) > 2]" "/livre[auteur/nom = 'Dupont']/section/chapitre"
+ */
+public class ParserRequetes {
+    
+    private static final String OUTPUT_DIR = "output";
+    private static final String DATA_FILE = "data/livres.xml";
+    
+    // Nombre d'exemples affichés par requête
+    private static final int NB_EXEMPLES = 5;
+    
+    public static void main(String[] args) {
+        String fichierXml = DATA_FILE;
+        boolean modeleComplet = false;
+        List<Requete> requetes = new ArrayList<>();
+        
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--modele")) {
+                    modeleComplet = true;
+                } else if (args[i].equals("-f") && i + 1 < args.length) {
+                    for (String ligne : Files.readAllLines(Paths.get(args[++i]), StandardCharsets.UTF_8)) {
+                        ligne = ligne.trim();
+                        if (!ligne.isEmpty() && !ligne.startsWith("#")) {
+                            requetes.add(Requete.compiler(ligne));
+                        }
+                    }
+                } else if (args[i].endsWith(".xml")) {
+                    fichierXml = args[i];
+                } else {
+                    requetes.add(Requete.compiler(args[i]));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ " + e.getMessage());
+            return;
+        } catch (IOException e) {
+            System.err.println("❌ Lecture des requêtes impossible : " + e.getMessage());
+            return;
+        }
+        
+        if (requetes.isEmpty()) {
+            System.err.println("Usage : java ParserRequetes [--modele] [fichier.xml] " +
+                               "[-f fichier_requetes] [requete...]");
+            return;
+        }
+        
+        try {
+            // Créer le dossier output s'il n'existe pas
+            creerDossierOutput();
+            
+            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+            String csvFile = OUTPUT_DIR + "/REQUETES_export_" + timestamp + ".csv";
+            
+            String header = "=================================================\n" +
+                          "     REQUÊTES SUR LE FICHIER XML (" + (modeleComplet ? "MODÈLE COMPACT" : "FLUX SAX") + ")\n" +
+                          "=================================================\n";
+            System.out.print(header);
+            
+            ResultatsRequetes resultats;
+            try (PrintWriter csvWriter = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                     new FileOutputStream(csvFile), "UTF-8"), 1 << 16))) {
+                csvWriter.println("Numero_Requete,Rang,Element,Libelle");
+                resultats = new ResultatsRequetes(requetes.size(), csvWriter);
+                
+                long debut = System.nanoTime();
+                if (modeleComplet) {
+                    ModeleBibliotheque modele = ModeleBibliotheque.charger(new File(fichierXml));
+                    for (int i = 0; i < requetes.size(); i++) {
+                        for (int n : requetes.get(i).evaluer(modele)) {
+                            resultats.trouve(i, modele, n);
+                        }
+                    }
+                } else {
+                    EvaluateurFlux evaluateur = new EvaluateurFlux(requetes, resultats);
+                    SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
+                    parser.parse(new File(fichierXml), evaluateur);
+                }
+                resultats.duree = (System.nanoTime() - debut) / 1_000_000;
+            }
+            
+            // Résumé par requête
+            for (int i = 0; i < requetes.size(); i++) {
+                StringBuilder sb = new StringBuilder();
+                sb.append("\n🔎 [").append(i + 1).append("] ").append(requetes.get(i).getExpression()).append("\n");
+                sb.append("   ").append(resultats.nombres[i]).append(" résultat(s)\n");
+                for (String exemple : resultats.exemples.get(i)) {
+                    sb.append("   - ").append(exemple).append("\n");
+                }
+                if (resultats.nombres[i] > NB_EXEMPLES) {
+                    sb.append("   ...\n");
+                }
+                System.out.print(sb);
+            }
+            
+            String footer = "\n=================================================\n" +
+                          "  " + requetes.size() + " requête(s) évaluée(s) en " + resultats.duree + " ms\n" +
+                          "=================================================\n";
+            System.out.print(footer);
+            System.out.println("\n✅ Fichier généré avec succès :\n   📊 " + csvFile);
+        
+        } catch (FileNotFoundException e) {
+            System.err.println("\n❌ ERREUR : Fichier non trouvé");
+            System.err.println("   Vérifiez que le fichier existe : " + fichierXml);
+        } catch (SAXException e) {
+            System.err.println("\n❌ ERREUR DE PARSING XML : " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("❌ Erreur lors de l'évaluation : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Crée le dossier output s'il n'existe pas
+     */
+    private static void creerDossierOutput() {
+        try {
+            Path outputPath = Paths.get(OUTPUT_DIR);
+            if (!Files.exists(outputPath)) {
+                Files.createDirectories(outputPath);
+                System.out.println("📁 Dossier '" + OUTPUT_DIR + "' créé.");
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Erreur création dossier output : " + e.getMessage());
+        }
+    }
+}
@@ -2,9 +2,9 @@ import java.io.*;
 import java.nio.file.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
-import org.xml.sax.*;
 import org.xml.sax.helpers.DefaultHandler;
 
 /**
@@ -16,7 +16,104 @@ public class ParserSAX {
     private static final String OUTPUT_DIR = "output";
     
     public static void main(String[] args) {
+        // Mode parallèle : découpage du fichier aux frontières des <livre>
+        if (args.length > 0 && args[0].equals("--parallele")) {
+            ParserSAXParallele.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        
+        // Mode reprise : points de reprise réguliers, relance après un arrêt
+        if (args.length > 0 && args[0].equals("--reprise")) {
+            ParserReprise.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        
+        // Mode lot : tous les fichiers d'un dossier ou d'un motif, sur des threads virtuels
+        if (args.length > 0 && args[0].equals("--lot")) {
+            ParserLot.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        
+        // Mode service : conversion HTTP avec des parseurs réutilisés
+        if (args.length > 0 && args[0].equals("--serveur")) {
+            ServeurParsing.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        
+        // Cible du rapport texte : --sortie=console|txt|les-deux|aucune, --quiet
+        SortieRapport.Cible cible = SortieRapport.lireCible(args);
+        
+        // --rapide : handler sans allocation par élément (LivreHandlerRapide)
+        boolean rapide = Arrays.asList(args).contains("--rapide");
+        
+        // --instantane : événements rejoués depuis l'instantané binaire s'il est à jour
+        boolean instantane = Arrays.asList(args).contains("--instantane");
+        
+        // --flux : enregistrements publiés (Flow), CSV et rapport écrits par deux abonnés
+        boolean flux = Arrays.asList(args).contains("--flux");
+        
+        // --agregats : auteurs, distributions et longueurs de paragraphes (handler standard seulement)
+        boolean agregats = Arrays.asList(args).contains("--agregats");
+        if (agregats && (rapide || flux)) {
+            System.err.println("⚠️ --agregats est ignoré avec --rapide et --flux");
+            agregats = false;
+        }
+        
+        // --normalise : tables livres, auteurs, livre_auteur, sections et chapitres au lieu du CSV (handler standard)
+        boolean normalise = Arrays.asList(args).contains("--normalise");
+        if (normalise && (rapide || flux)) {
+            System.err.println("⚠️ --normalise est ignoré avec --rapide et --flux");
+            normalise = false;
+        }
+        
+        // --tri=auteurs|titre_chapitre|paragraphes : lignes du CSV triées (tri externe, --memoire-tri=64M)
+        TriChapitres.Critere critereTri = null;
+        for (String arg : args) {
+            if (arg.startsWith("--tri=")) critereTri = TriChapitres.Critere.lire(arg.substring("--tri=".length()));
+        }
+        if (critereTri != null && (rapide || flux)) {
+            System.err.println("⚠️ --tri est ignoré avec --rapide et --flux");
+            critereTri = null;
+        }
+        if (critereTri != null && normalise) {
+            // Sans CSV, les lignes seraient triées (et déversées sur disque) pour rien
+            System.err.println("⚠️ --tri est ignoré avec --normalise");
+            critereTri = null;
+        }
+        
+        // --colonnes : export binaire en colonnes à côté du CSV, lu par LecteurColonnes (handler standard)
+        boolean colonnes = Arrays.asList(args).contains("--colonnes");
+        if (colonnes && (rapide || flux)) {
+            System.err.println("⚠️ --colonnes est ignoré avec --rapide et --flux");
+            colonnes = false;
+        }
+        
+        // --mesures : affiche les mesures de l'exécution, les écrit en JSON et les publie en JMX et JFR
+        boolean afficherMesures = Arrays.asList(args).contains("--mesures");
+        
+        TriChapitres tri = null;
+        SortieRapport rapport = null;
+        SortieCanal sortieCsv = null;
+        ExportNormalise export = null;
+        EcrivainColonnes ecrivainColonnes = null;
         try {
+            // --champs=... : champs texte produits (colonnes du CSV, lignes du rapport)
+            // Les agrégats (auteurs), l'export normalisé (clés des auteurs) et l'export en colonnes
+            // ont besoin de tous les champs
+            Projection projection = Projection.lire(args);
+            if (!projection.complete() && (flux || agregats || normalise || colonnes)) {
+                System.err.println("⚠️ --champs est ignoré avec --flux, --agregats, --normalise et --colonnes");
+                projection = Projection.TOUT;
+            }
+            // Sans son champ, toutes les clés de tri seraient vides et le CSV resterait dans l'ordre du document
+            if (critereTri != null && critereTri.champ != null && !projection.contient(critereTri.champ)) {
+                throw new IllegalArgumentException("--tri=" + critereTri.name().toLowerCase(Locale.ROOT) +
+                                                   " demande le champ " + critereTri.champ.name().toLowerCase(Locale.ROOT) +
+                                                   " dans --champs");
+            }
+            
+            MesuresParsing mesures = new MesuresParsing("SAX", new File("data/livres.xml"), afficherMesures);
+            
             // Créer le dossier output s'il n'existe pas
             creerDossierOutput();
             
@@ -24,52 +121,155 @@ public class ParserSAX {
             String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
             String txtFile = OUTPUT_DIR + "/SAX_output_" + timestamp + ".txt";
             String csvFile = OUTPUT_DIR + "/SAX_export_" + timestamp + ".csv";
+            String colonnesFile = OUTPUT_DIR + "/SAX_export_" + timestamp + ".colonnes";
+            
+            // TXT et CSV en UTF-8 sur des FileChannel (tampon et synchronisation : --tampon-sortie, --fsync)
+            int tampon = SortieCanal.lireTampon(args);
+            SortieCanal.Synchro synchro = SortieCanal.Synchro.lire(args);
             
-            PrintWriter txtWriter = new PrintWriter(new FileWriter(txtFile));
-            PrintWriter csvWriter = new PrintWriter(new FileWriter(csvFile));
+            // Le rapport texte est écrit par un thread dédié
+            rapport = SortieRapport.ouvrir(cible, txtFile, tampon, synchro);
+            sortieCsv = normalise ? null : SortieCanal.ouvrir(Paths.get(csvFile), tampon, synchro);
+            PrintWriter csvWriter = new PrintWriter(normalise ? Writer.nullWriter() : sortieCsv);
+            export = normalise
+                ? new ExportNormalise(Paths.get(OUTPUT_DIR, "SAX_normalise_" + timestamp))
+                : null;
+            ecrivainColonnes = colonnes ? new EcrivainColonnes(Paths.get(colonnesFile)) : null;
+            tri = critereTri != null
+                ? new TriChapitres(critereTri, TriChapitres.lireBudget(args), Paths.get(OUTPUT_DIR))
+                : null;
             
             // Étape 1 : Créer une factory pour construire le parseur SAX
+            mesures.commencer(MesuresParsing.FABRIQUE);
             SAXParserFactory factory = SAXParserFactory.newInstance();
             
             // Étape 2 : Créer le parseur SAX
             SAXParser parser = factory.newSAXParser();
+            mesures.terminer(MesuresParsing.FABRIQUE);
             
-            String header = "=================================================\n" +
-                          "     LECTURE DU FICHIER XML AVEC PARSEUR SAX\n" +
-                          "=================================================\n";
-            System.out.print(header);
-            txtWriter.print(header);
+            if (rapport.actif()) {
+                String header = "=================================================\n" +
+                              "     LECTURE DU FICHIER XML AVEC PARSEUR SAX\n" +
+                              "=================================================\n";
+                rapport.afficher(header);
+            }
             
-            // Étape 3 : Créer notre handler personnalisé avec les writers
-            LivreHandler handler = new LivreHandler(txtWriter, csvWriter);
+            // Étape 3 : Créer notre handler personnalisé avec le rapport et le writer CSV
+            LivreHandler handler = null;
+            LivreHandlerRapide handlerRapide = null;
+            if (flux) {
+                // Statistiques seulement : le parsing est fait par le publicateur
+                handler = new LivreHandler(SortieRapport.aucune(), new PrintWriter(Writer.nullWriter()), 1);
+            } else if (rapide) {
+                handlerRapide = new LivreHandlerRapide(rapport, sortieCsv, projection);
+                if (afficherMesures) handlerRapide.setMesures(mesures);
+            } else {
+                handler = new LivreHandler(rapport, csvWriter, projection);
+                if (afficherMesures) handler.setMesures(mesures);
+                if (agregats) handler.setAgregats(new AgregatsBibliotheque());
+                if (normalise) handler.setExportNormalise(export);
+                if (colonnes) handler.setEcrivainColonnes(ecrivainColonnes);
+                if (tri != null) handler.setTri(tri);
+                if (sortieCsv != null) handler.setSortieCsv(sortieCsv);
+            }
             
-            // Étape 4 : Parser le fichier XML avec notre handler
-            parser.parse(new File("data/livres.xml"), handler);
+            // Étape 4 : Parser le fichier XML avec notre handler (le traitement se fait pendant le parsing)
+            DefaultHandler h = rapide ? handlerRapide : handler;
+            mesures.commencer(MesuresParsing.PARSING);
+            if (flux) {
+                PublicateurBibliotheque publicateur = new PublicateurBibliotheque(new File("data/livres.xml"));
+                AbonneCsv abonneCsv = new AbonneCsv(csvWriter);
+                AbonneRapport abonneRapport = new AbonneRapport(rapport);
+                publicateur.subscribe(abonneCsv);
+                publicateur.subscribe(abonneRapport);
+                publicateur.publier(parser);
+                CompletableFuture.allOf(abonneCsv.fin(), abonneRapport.fin()).join();
+                handler.cumulerCompteurs(publicateur.getCompteurs());
+            } else if (instantane) {
+                InstantaneBibliotheque.ouvrir(new File("data/livres.xml")).rejouer(h);
+            } else {
+                parser.parse(new File("data/livres.xml"), h);
+            }
+            mesures.terminer(MesuresParsing.PARSING);
             
-            String footer = "\n=================================================\n" +
-                          "        FIN DE LA LECTURE AVEC SAX\n" +
-                          "=================================================\n";
-            System.out.print(footer);
-            txtWriter.print(footer);
+            if (rapport.actif()) {
+                String footer = "\n=================================================\n" +
+                              "        FIN DE LA LECTURE AVEC SAX\n" +
+                              "=================================================\n";
+                rapport.afficher(footer);
+                
+                // Afficher les statistiques collectées
+                rapport.afficher(rapide ? handlerRapide.getStatistiques() : handler.getStatistiques());
+                if (agregats) rapport.afficher(handler.getAgregats().getRapport());
+            }
+            String auteursFile = OUTPUT_DIR + "/SAX_auteurs_" + timestamp + ".csv";
+            if (agregats) {
+                handler.getAgregats().ecrireCsvAuteurs(auteursFile);
+            }
             
-            // Afficher les statistiques collectées
-            String stats = handler.getStatistiques();
-            System.out.print(stats);
-            txtWriter.print(stats);
+            // Fermer les sorties (attend la fin de l'écriture du rapport)
+            mesures.commencer(MesuresParsing.SORTIE);
+            if (tri != null) {
+                tri.terminer(csvWriter);
+                System.err.println("🔀 CSV trié par " + tri.getCritere().name().toLowerCase(Locale.ROOT) +
+                                   (tri.getNombreSequences() > 0
+                                       ? " (" + tri.getNombreSequences() + " séquence(s) fusionnée(s))"
+                                       : " (en mémoire)"));
+            }
+            rapport.close();
+            rapport = null;
+            if (csvWriter.checkError()) {
+                throw new IOException("Écriture incomplète du CSV : " + csvFile);
+            }
+            if (sortieCsv != null) sortieCsv.close();
+            sortieCsv = null;
+            String fichiersNormalises = null;
+            if (export != null) {
+                fichiersNormalises = export.getDossier() + "/ (livres, auteurs, livre_auteur, sections, chapitres ; " +
+                                     export.nombreAuteurs() + " auteurs distincts)";
+                export.close();
+                export = null;
+            }
+            if (ecrivainColonnes != null) ecrivainColonnes.close();
+            ecrivainColonnes = null;
+            mesures.terminer(MesuresParsing.SORTIE);
+            mesures.terminer();
             
-            // Fermer les writers
-            txtWriter.close();
-            csvWriter.close();
+            String jsonFile = OUTPUT_DIR + "/SAX_mesures_" + timestamp + ".json";
+            if (afficherMesures) {
+                System.out.print(mesures.resume());
+                mesures.ecrireJson(jsonFile);
+            }
             
             // Message de confirmation
             String success = "\n✅ Fichiers générés avec succès :\n" +
-                           "   📄 " + txtFile + "\n" +
-                           "   📊 " + csvFile + "\n";
+                           (cible.fichier ? "   📄 " + txtFile + "\n" : "") +
+                           (normalise ? "   🗃️  " + fichiersNormalises + "\n" : "   📊 " + csvFile + "\n") +
+                           (colonnes ? "   🧱 " + colonnesFile + "\n" : "") +
+                           (agregats ? "   👥 " + auteursFile + "\n" : "") +
+                           (afficherMesures ? "   ⏱️  " + jsonFile + "\n" : "");
             System.out.println(success);
-            
+        
         } catch (Exception e) {
             System.err.println("❌ Erreur lors du parsing SAX : " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            // Sorties laissées ouvertes par une erreur (le thread d'écriture du rapport vide son dernier lot),
+            // séquences de tri laissées par un parsing interrompu
+            fermer(rapport);
+            fermer(sortieCsv);
+            fermer(export);
+            fermer(ecrivainColonnes);
+            if (tri != null) tri.close();
+        }
+    }
+    
+    private static void fermer(Closeable c) {
+        if (c == null) return;
+        try {
+            c.close();
+        } catch (IOException e) {
+            System.err.println("❌ Erreur de fermeture : " + e.getMessage());
         }
     }
     
@@ -88,336 +288,3 @@ public class ParserSAX {
         }
     }
 }
-
-/**
- * Handler personnalisé qui étend DefaultHandler
- * Redéfinit les méthodes appelées lors des événements SAX
- */
-class LivreHandler extends DefaultHandler {
-    
-    // Writers pour les fichiers de sortie
-    private PrintWriter txtWriter;
-    private PrintWriter csvWriter;
-    
-    // Variables pour suivre le contexte actuel
-    private String elementActuel = "";
-    private StringBuilder contenu = new StringBuilder();
-    
-    // Variables pour la structure du document
-    private int numeroLivre = 0;
-    private int numeroSection = 0;
-    private int numeroChapitre = 0;
-    private int numeroParagraphe = 0;
-    
-    // Variables pour stocker les informations temporaires
-    private String titreLivre = "";
-    private String titreSection = "";
-    private String titreChapitre = "";
-    private String nomAuteur = "";
-    private String prenomAuteur = "";
-    private StringBuilder auteursLivre = new StringBuilder();
-    
-    // Indicateurs de contexte
-    private boolean dansLivre = false;
-    private boolean dansAuteur = false;
-    private boolean dansSection = false;
-    private boolean dansChapitre = false;
-    private boolean dansParagraphe = false;
-    private boolean dansTitre = false;
-    private boolean premierAuteur = true;
-    
-    // Statistiques
-    private int totalLivres = 0;
-    private int totalAuteurs = 0;
-    private int totalSections = 0;
-    private int totalChapitres = 0;
-    private int totalParagraphes = 0;
-    
-    /**
-     * Constructeur avec les writers
-     */
-    public LivreHandler(PrintWriter txtWriter, PrintWriter csvWriter) {
-        this.txtWriter = txtWriter;
-        this.csvWriter = csvWriter;
-        
-        // En-tête CSV
-        csvWriter.println("Numero_Livre,Titre_Livre,Auteurs,Numero_Section,Titre_Section,Numero_Chapitre,Titre_Chapitre,Nombre_Paragraphes");
-    }
-    
-    /**
-     * Appelée au début du document
-     */
-    @Override
-    public void startDocument() throws SAXException {
-        String msg = "\n📄 Début de l'analyse du document XML...\n\n";
-        System.out.print(msg);
-        txtWriter.print(msg);
-    }
-    
-    /**
-     * Appelée à la fin du document
-     */
-    @Override
-    public void endDocument() throws SAXException {
-        String msg = "\n✅ Fin de l'analyse du document XML.\n";
-        System.out.print(msg);
-        txtWriter.print(msg);
-    }
-    
-    /**
-     * Appelée au début de chaque élément
-     */
-    @Override
-    public void startElement(String uri, String localName, String qName, Attributes attributes) 
-            throws SAXException {
-        
-        // Réinitialiser le contenu pour le nouvel élément
-        contenu.setLength(0);
-        elementActuel = qName;
-        
-        switch (qName) {
-            case "livre":
-                numeroLivre++;
-                totalLivres++;
-                dansLivre = true;
-                numeroSection = 0;
-                auteursLivre.setLength(0);
-                premierAuteur = true;
-                
-                String livreHeader = "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n" +
-                                   "LIVRE #" + numeroLivre + "\n" +
-                                   "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n";
-                System.out.print(livreHeader);
-                txtWriter.print(livreHeader);
-                break;
-                
-            case "auteur":
-                dansAuteur = true;
-                totalAuteurs++;
-                break;
-                
-            case "section":
-                numeroSection++;
-                totalSections++;
-                dansSection = true;
-                numeroChapitre = 0;
-                break;
-                
-            case "chapitre":
-                numeroChapitre++;
-                totalChapitres++;
-                dansChapitre = true;
-                numeroParagraphe = 0;
-                break;
-                
-            case "paragraphe":
-                numeroParagraphe++;
-                totalParagraphes++;
-                dansParagraphe = true;
-                break;
-                
-            case "titre":
-                dansTitre = true;
-                break;
-        }
-    }
-    
-    /**
-     * Appelée pour lire le contenu textuel d'un élément
-     */
-    @Override
-    public void characters(char[] ch, int start, int length) throws SAXException {
-        // Accumuler le contenu textuel
-        contenu.append(new String(ch, start, length).trim());
-    }
-    
-    /**
-     * Appelée à la fin de chaque élément
-     */
-    @Override
-    public void endElement(String uri, String localName, String qName) throws SAXException {
-        
-        String texte = contenu.toString().trim();
-        
-        switch (qName) {
-            case "livre":
-                dansLivre = false;
-                System.out.println("\n");
-                txtWriter.println("\n");
-                break;
-                
-            case "titre":
-                if (dansTitre) {
-                    if (dansLivre && !dansSection && !dansChapitre) {
-                        // Titre du livre
-                        titreLivre = texte;
-                        String titreInfo = "\n📚 Titre : " + titreLivre + "\n";
-                        System.out.print(titreInfo);
-                        txtWriter.print(titreInfo);
-                    } else if (dansSection && !dansChapitre) {
-                        // Titre de section
-                        titreSection = texte;
-                        String sectionInfo = "\n  ▶ Section " + numeroSection + " : " + titreSection + "\n";
-                        System.out.print(sectionInfo);
-                        txtWriter.print(sectionInfo);
-                    } else if (dansChapitre) {
-                        // Titre de chapitre
-                        titreChapitre = texte;
-                        String chapitreInfo = "\n    📖 Chapitre " + numeroChapitre + " : " + titreChapitre + "\n";
-                        System.out.print(chapitreInfo);
-                        txtWriter.print(chapitreInfo);
-                    }
-                    dansTitre = false;
-                }
-                break;
-                
-            case "auteurs":
-                // Afficher l'en-tête des auteurs une fois
-                if (premierAuteur) {
-                    String auteurHeader = "\n✍️  Auteurs :\n";
-                    System.out.print(auteurHeader);
-                    txtWriter.print(auteurHeader);
-                    premierAuteur = false;
-                }
-                break;
-                
-            case "auteur":
-                if (dansAuteur) {
-                    String auteurInfo = "   - " + prenomAuteur + " " + nomAuteur + "\n";
-                    System.out.print(auteurInfo);
-                    txtWriter.print(auteurInfo);
-                    
-                    // Ajouter à la liste des auteurs pour CSV
-                    if (auteursLivre.length() > 0) {
-                        auteursLivre.append("; ");
-                    }
-                    auteursLivre.append(prenomAuteur).append(" ").append(nomAuteur);
-                    
-                    nomAuteur = "";
-                    prenomAuteur = "";
-                    dansAuteur = false;
-                }
-                break;
-                
-            case "nom":
-                if (dansAuteur) {
-                    nomAuteur = texte;
-                }
-                break;
-                
-            case "prenom":
-                if (dansAuteur) {
-                    prenomAuteur = texte;
-                }
-                break;
-                
-            case "section":
-                dansSection = false;
-                break;
-                
-            case "chapitre":
-                // Écrire la ligne CSV pour ce chapitre
-                csvWriter.printf("\"%d\",\"%s\",\"%s\",\"%d\",\"%s\",\"%d\",\"%s\",\"%d\"\n",
-                    numeroLivre,
-                    echapperCSV(titreLivre),
-                    echapperCSV(auteursLivre.toString()),
-                    numeroSection,
-                    echapperCSV(titreSection),
-                    numeroChapitre,
-                    echapperCSV(titreChapitre),
-                    numeroParagraphe
-                );
-                
-                String paraInfo = "       Nombre de paragraphes : " + numeroParagraphe + "\n";
-                System.out.print(paraInfo);
-                txtWriter.print(paraInfo);
-                
-                dansChapitre = false;
-                break;
-                
-            case "paragraphe":
-                if (dansParagraphe && numeroParagraphe == 1) {
-                    // Afficher un extrait du premier paragraphe seulement
-                    String extrait = texte.length() > 100 
-                        ? texte.substring(0, 100) + "..." 
-                        : texte;
-                    String extraitInfo = "       Premier paragraphe (extrait) :\n" +
-                                       "       \"" + extrait + "\"\n";
-                    System.out.print(extraitInfo);
-                    txtWriter.print(extraitInfo);
-                }
-                dansParagraphe = false;
-                break;
-        }
-    }
-    
-    /**
-     * Gestion des erreurs
-     */
-    @Override
-    public void error(SAXParseException e) throws SAXException {
-        String errMsg = "❌ Erreur : " + e.getMessage() + "\n" +
-                       "   Ligne : " + e.getLineNumber() + "\n" +
-                       "   Colonne : " + e.getColumnNumber() + "\n";
-        System.err.print(errMsg);
-    }
-    
-    /**
-     * Gestion des erreurs fatales
-     */
-    @Override
-    public void fatalError(SAXParseException e) throws SAXException {
-        String errMsg = "❌ Erreur fatale : " + e.getMessage() + "\n" +
-                       "   Ligne : " + e.getLineNumber() + "\n" +
-                       "   Colonne : " + e.getColumnNumber() + "\n";
-        System.err.print(errMsg);
-        throw e;
-    }
-    
-    /**
-     * Gestion des avertissements
-     */
-    @Override
-    public void warning(SAXParseException e) throws SAXException {
-        String warnMsg = "⚠️  Avertissement : " + e.getMessage() + "\n" +
-                        "   Ligne : " + e.getLineNumber() + "\n";
-        System.err.print(warnMsg);
-    }
-    
-    /**
-     * Échappe les caractères spéciaux pour CSV
-     */
-    private String echapperCSV(String texte) {
-        if (texte == null) return "";
-        return texte.replace("\"", "\"\"");
-    }
-    
-    /**
-     * Retourne les statistiques collectées
-     */
-    public String getStatistiques() {
-        StringBuilder sb = new StringBuilder();
-        
-        sb.append("\n📊 STATISTIQUES DU DOCUMENT XML\n");
-        sb.append("─────────────────────────────────────────────────\n");
-        sb.append("Total de livres      : ").append(totalLivres).append("\n");
-        sb.append("Total d'auteurs      : ").append(totalAuteurs).append("\n");
-        sb.append("Total de sections    : ").append(totalSections).append("\n");
-        sb.append("Total de chapitres   : ").append(totalChapitres).append("\n");
-        sb.append("Total de paragraphes : ").append(totalParagraphes).append("\n");
-        
-        if (totalLivres > 0) {
-            double moyenneSections = (double) totalSections / totalLivres;
-            double moyenneChapitres = (double) totalChapitres / totalLivres;
-            double moyenneParagraphes = (double) totalParagraphes / totalLivres;
-            
-            sb.append("\nMoyenne de sections par livre    : ").append(String.format("%.2f", moyenneSections)).append("\n");
-            sb.append("Moyenne de chapitres par livre   : ").append(String.format("%.2f", moyenneChapitres)).append("\n");
-            sb.append("Moyenne de paragraphes par livre : ").append(String.format("%.2f", moyenneParagraphes)).append("\n");
-        }
-        
-        sb.append("─────────────────────────────────────────────────\n");
-        
-        return sb.toString();
-    }
-}
\ No newline at end of file
@@ -0,0 +1,271 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.InputSource;
+
+/**
+ * Parsing SAX parallèle d'un gros fichier livres.xml
+ * 1. Un balayage rapide des octets repère les <livre> de premier niveau
+ * 2. Les livres sont regroupés en fragments, parsés en parallèle (ForkJoinPool)
+ *    par des LivreHandler qui écrivent dans des tampons
+ * 3. Les tampons sont recopiés dans l'ordre du document : le TXT et le CSV
+ *    sont identiques à ceux de ParserSAX (numérotation des livres comprise)
+ *
+ * Avec --index, le balayage écrit aussi l'index des livres à côté du fichier (voir IndexLivres).
+ *
+ * Usage : java ParserSAXParallele [fichier.xml] [--threads N] [--sortie=...|--quiet] [--agregats] [--index]
+ *         (ou java ParserSAX --parallele [fichier.xml] [--threads N] ...)
+ */
+public class ParserSAXParallele {
+    
+    private static final String OUTPUT_DIR = "output";
+    private static final String DATA_FILE = "data/livres.xml";
+    
+    // Bornes de la taille d'un fragment
+    private static final long TAILLE_FRAGMENT_MIN = 1L << 20;   // 1 Mo
+    private static final long TAILLE_FRAGMENT_MAX = 64L << 20;  // 64 Mo
+    
+    public static void main(String[] args) {
+        String fichierXml = DATA_FILE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (!args[i].startsWith("--")) {
+                fichierXml = args[i];
+            }
+        }
+        // --agregats : agrégats de chaque fragment, fusionnés dans l'ordre
+        boolean agregats = Arrays.asList(args).contains("--agregats");
+        // --index : position de chaque livre enregistrée pendant le découpage (fichier.xml.index)
+        boolean index = Arrays.asList(args).contains("--index");
+        
+        SortieRapport.Cible cible = SortieRapport.lireCible(args);
+        SortieRapport rapport = null;
+        PrintWriter csvWriter = null;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        
+        try (FileChannel canal = FileChannel.open(Paths.get(fichierXml), StandardOpenOption.READ)) {
+            // Créer le dossier output s'il n'existe pas
+            creerDossierOutput();
+            
+            // Créer les fichiers de sortie avec timestamp
+            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+            String txtFile = OUTPUT_DIR + "/SAX_output_" + timestamp + ".txt";
+            String csvFile = OUTPUT_DIR + "/SAX_export_" + timestamp + ".csv";
+            
+            rapport = SortieRapport.ouvrir(cible, txtFile);
+            csvWriter = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(csvFile), "UTF-8"), 1 << 16));
+            
+            String header = "=================================================\n" +
+                          "     LECTURE DU FICHIER XML AVEC PARSEUR SAX\n" +
+                          "=================================================\n";
+            rapport.afficher(header);
+            
+            // Étape 1 : Découper le fichier aux frontières des <livre>
+            long tailleFragment = Math.max(TAILLE_FRAGMENT_MIN,
+                Math.min(TAILLE_FRAGMENT_MAX, canal.size() / (threads * 4L)));
+            DecoupeurLivres decoupeur = new DecoupeurLivres(tailleFragment);
+            if (index) decoupeur.enregistrerLivres();
+            List<FragmentLivres> fragments = decoupeur.decouper(canal);
+            if (index) IndexLivres.enregistrer(decoupeur, new File(fichierXml));
+            
+            System.err.println("⚙️  " + decoupeur.getNombreLivres() + " livres répartis en " +
+                               fragments.size() + " fragments sur " + threads + " threads");
+            
+            // En-tête CSV (identique à LivreHandler)
+            csvWriter.println("Numero_Livre,Titre_Livre,Auteurs,Numero_Section,Titre_Section,Numero_Chapitre,Titre_Chapitre,Nombre_Paragraphes");
+            rapport.afficher(LivreHandler.MSG_DEBUT);
+            
+            // Étape 2 et 3 : parser en parallèle, recopier dans l'ordre
+            // Au plus 2 fragments par thread sont en vol, pour borner la mémoire
+            byte[] prologue = decoupeur.getPrologue();
+            String systemId = Paths.get(fichierXml).toUri().toString();
+            boolean texte = rapport.actif();
+            LivreHandler total = new LivreHandler(
+                SortieRapport.aucune(), new PrintWriter(Writer.nullWriter()), 1);
+            if (agregats) total.setAgregats(new AgregatsBibliotheque());
+            
+            ArrayDeque<ForkJoinTask<ResultatFragment>> enVol = new ArrayDeque<>();
+            Iterator<FragmentLivres> it = fragments.iterator();
+            while (it.hasNext() || !enVol.isEmpty()) {
+                while (it.hasNext() && enVol.size() < threads * 2) {
+                    FragmentLivres f = it.next();
+                    enVol.add(pool.submit(() -> parserFragment(canal, f, prologue,
+                                                               decoupeur.getEpilogue(), systemId, texte,
+                                                               agregats)));
+                }
+                ResultatFragment r = enVol.poll().join();
+                rapport.afficher(r.txt);
+                csvWriter.write(r.csv);
+                total.cumulerStatistiques(r.handler);
+            }
+            
+            rapport.afficher(LivreHandler.MSG_FIN);
+            
+            String footer = "\n=================================================\n" +
+                          "        FIN DE LA LECTURE AVEC SAX\n" +
+                          "=================================================\n";
+            rapport.afficher(footer);
+            
+            // Afficher les statistiques fusionnées
+            if (texte) {
+                rapport.afficher(total.getStatistiques());
+                if (agregats) rapport.afficher(total.getAgregats().getRapport());
+            }
+            String auteursFile = OUTPUT_DIR + "/SAX_auteurs_" + timestamp + ".csv";
+            if (agregats) {
+                total.getAgregats().ecrireCsvAuteurs(auteursFile);
+            }
+            
+            // Attendre la fin de l'écriture du rapport
+            rapport.close();
+            rapport = null;
+            
+            // Message de confirmation
+            String success = "\n✅ Fichiers générés avec succès :\n" +
+                           (cible.fichier ? "   📄 " + txtFile + "\n" : "") +
+                           "   📊 " + csvFile + "\n" +
+                           (agregats ? "   👥 " + auteursFile + "\n" : "");
+            System.out.println(success);
+        
+        } catch (NoSuchFileException e) {
+            System.err.println("\n❌ ERREUR : Fichier non trouvé");
+            System.err.println("   Vérifiez que le fichier existe : " + fichierXml);
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.err.println("❌ Erreur lors du parsing SAX parallèle : " + cause.getMessage());
+            e.printStackTrace();
+        } finally {
+            pool.shutdown();
+            if (rapport != null) {
+                try {
+                    rapport.close();
+                } catch (IOException e) {
+                    System.err.println("❌ Erreur d'écriture du rapport : " + e.getMessage());
+                }
+            }
+            if (csvWriter != null) csvWriter.close();
+        }
+    }
+    
+    // Un parseur SAX par thread du pool (un SAXParser n'est pas thread-safe)
+    private static final ThreadLocal<SAXParser> PARSEURS = ThreadLocal.withInitial(() -> {
+        try {
+            return SAXParserFactory.newInstance().newSAXParser();
+        } catch (Exception e) {
+            throw new IllegalStateException("Impossible de créer le parseur SAX", e);
+        }
+    });
+    
+    /**
+     * Parse un fragment : prologue du document + octets des livres + balise fermante
+     * Le prologue recopié (déclaration XML, DOCTYPE, racine) garde l'encodage
+     * et les entités du document d'origine
+     */
+    static ResultatFragment parserFragment(FileChannel canal, FragmentLivres f,
+                                           byte[] prologue, byte[] epilogue,
+                                           String systemId, boolean texte) throws Exception {
+        return parserFragment(canal, f, prologue, epilogue, systemId, texte, false);
+    }
+    
+    /**
+     * Idem, avec les agrégats du fragment (handler.getAgregats()) si agregats est vrai
+     */
+    static ResultatFragment parserFragment(FileChannel canal, FragmentLivres f,
+                                           byte[] prologue, byte[] epilogue,
+                                           String systemId, boolean texte,
+                                           boolean agregats) throws Exception {
+        StringWriter txt = new StringWriter();
+        StringWriter csv = new StringWriter();
+        SortieRapport rapportFragment = texte
+            ? SortieRapport.synchrone(new PrintWriter(txt), false)
+            : SortieRapport.aucune();
+        LivreHandler handler = new LivreHandler(rapportFragment, new PrintWriter(csv),
+                                                f.premierNumero);
+        if (agregats) handler.setAgregats(new AgregatsBibliotheque());
+        
+        InputStream in = new SequenceInputStream(Collections.enumeration(Arrays.asList(
+            new ByteArrayInputStream(prologue),
+            new BufferedInputStream(new PlageInputStream(canal, f.debut, f.fin), 1 << 16),
+            new ByteArrayInputStream(epilogue))));
+        InputSource source = new InputSource(in);
+        source.setSystemId(systemId);
+        
+        SAXParser parser = PARSEURS.get();
+        parser.reset();
+        parser.parse(source, handler);
+        
+        return new ResultatFragment(txt.toString(), csv.toString(), handler);
+    }
+    
+    /**
+     * Crée le dossier output s'il n'existe pas
+     */
+    private static void creerDossierOutput() {
+        try {
+            Path outputPath = Paths.get(OUTPUT_DIR);
+            if (!Files.exists(outputPath)) {
+                Files.createDirectories(outputPath);
+                System.out.println("📁 Dossier '" + OUTPUT_DIR + "' créé.");
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Erreur création dossier output : " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Sorties d'un fragment, en attente de recopie
+     */
+    static class ResultatFragment {
+        final String txt;
+        final String csv;
+        final LivreHandler handler;
+        
+        ResultatFragment(String txt, String csv, LivreHandler handler) {
+            this.txt = txt;
+            this.csv = csv;
+            this.handler = handler;
+        }
+    }
+    
+    /**
+     * Flux de lecture d'une plage [debut, fin) d'un FileChannel
+     * Lectures positionnelles : plusieurs flux peuvent partager le même canal
+     */
+    static class PlageInputStream extends InputStream {
+        private final FileChannel canal;
+        private long position;
+        private final long fin;
+        
+        PlageInputStream(FileChannel canal, long debut, long fin) {
+            this.canal = canal;
+            this.position = debut;
+            this.fin = fin;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            byte[] un = new byte[1];
+            return read(un, 0, 1) < 0 ? -1 : (un[0] & 0xFF);
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= fin) return -1;
+            int n = (int) Math.min(len, fin - position);
+            int lus = canal.read(ByteBuffer.wrap(b, off, n), position);
+            if (lus > 0) position += lus;
+            return lus;
+        }
+    }
+}
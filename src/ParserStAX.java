@@ -0,0 +1,116 @@
+import java.io.*;
+import java.nio.file.*;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Parseur StAX (pull) pour lire et afficher le contenu du fichier livres.xml
+ * Le programme "tire" les événements un par un : la mémoire reste constante
+ * et l'imbrication livre/section/chapitre est portée par les appels de méthodes
+ * Exporte les résultats en TXT et CSV dans le dossier output/
+ */
+public class ParserStAX {
+    
+    private static final String OUTPUT_DIR = "output";
+    private static final String DATA_FILE = "data/livres.xml";
+    
+    public static void main(String[] args) {
+        PrintWriter txtWriter = null;
+        PrintWriter csvWriter = null;
+        XMLStreamReader reader = null;
+        
+        try (InputStream in = new BufferedInputStream(new FileInputStream(DATA_FILE))) {
+            // Créer le dossier output s'il n'existe pas
+            creerDossierOutput();
+            
+            // Créer les fichiers de sortie avec timestamp
+            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+            String txtFile = OUTPUT_DIR + "/STAX_output_" + timestamp + ".txt";
+            String csvFile = OUTPUT_DIR + "/STAX_export_" + timestamp + ".csv";
+            
+            txtWriter = new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(txtFile), "UTF-8"));
+            csvWriter = new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(csvFile), "UTF-8"));
+            
+            // Étape 1 : Créer une factory pour construire le lecteur StAX
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            // Regrouper les morceaux de texte consécutifs en un seul événement
+            factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+            
+            // Étape 2 : Créer le lecteur (curseur) sur le fichier
+            reader = factory.createXMLStreamReader(in, "UTF-8");
+            
+            String header = "=================================================\n" +
+                          "     LECTURE DU FICHIER XML AVEC PARSEUR StAX\n" +
+                          "=================================================\n";
+            System.out.print(header);
+            txtWriter.print(header);
+            
+            // Étape 3 : Créer notre lecteur de livres avec les writers
+            LivreReader livreReader = new LivreReader(reader, txtWriter, csvWriter);
+            
+            // Étape 4 : Tirer les événements jusqu'à la fin du document
+            livreReader.lireDocument();
+            
+            String footer = "\n=================================================\n" +
+                          "        FIN DE LA LECTURE AVEC StAX\n" +
+                          "=================================================\n";
+            System.out.print(footer);
+            txtWriter.print(footer);
+            
+            // Afficher les statistiques collectées
+            String stats = livreReader.getStatistiques();
+            System.out.print(stats);
+            txtWriter.print(stats);
+            
+            // Message de confirmation
+            String success = "\n✅ Fichiers générés avec succès :\n" +
+                           "   📄 " + txtFile + "\n" +
+                           "   📊 " + csvFile + "\n";
+            System.out.println(success);
+        
+        } catch (FileNotFoundException e) {
+            System.err.println("\n❌ ERREUR : Fichier non trouvé");
+            System.err.println("   Vérifiez que le fichier existe : " + DATA_FILE);
+        } catch (XMLStreamException e) {
+            System.err.println("❌ Erreur lors du parsing StAX : " + e.getMessage());
+            if (e.getLocation() != null) {
+                System.err.println("   Ligne : " + e.getLocation().getLineNumber());
+                System.err.println("   Colonne : " + e.getLocation().getColumnNumber());
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Erreur lors du parsing StAX : " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            // Fermer le lecteur et les writers
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // rien à faire, le flux est fermé par le try-with-resources
+                }
+            }
+            if (txtWriter != null) txtWriter.close();
+            if (csvWriter != null) csvWriter.close();
+        }
+    }
+    
+    /**
+     * Crée le dossier output s'il n'existe pas
+     */
+    private static void creerDossierOutput() {
+        try {
+            Path outputPath = Paths.get(OUTPUT_DIR);
+            if (!Files.exists(outputPath)) {
+                Files.createDirectories(outputPath);
+                System.out.println("📁 Dossier '" + OUTPUT_DIR + "' créé.");
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Erreur création dossier output : " + e.getMessage());
+        }
+    }
+}
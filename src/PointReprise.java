@@ -0,0 +1,88 @@
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Point de reprise (ParserReprise) : partie traitée du fichier source, sorties en cours
+ * et dernier fragment terminé
+ */
+class PointReprise {
+    
+    private static final int MAGIQUE = 0x52455052; // "REPR"
+    private static final int VERSION = 2;
+    
+    // CRC32C des octets [0, position) du fichier source et taille des fragments
+    long empreinte;
+    long intervalle;
+    
+    // Horodatage des noms de sortie, choisi au premier lancement, et cible du rapport (--sortie)
+    String horodatage;
+    SortieRapport.Cible cible;
+    
+    // Fin du dernier fragment terminé, numéro du livre suivant, compteurs cumulés
+    long position;
+    int numeroSuivant;
+    int[] compteurs;
+    
+    // Taille des sorties .tmp à ce point
+    long tailleTxt;
+    long tailleCsv;
+    
+    /**
+     * Point enregistré, ou null s'il n'existe pas ou n'est pas lisible (le traitement recommence)
+     */
+    static PointReprise lire(File fichier) {
+        if (!fichier.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                 new FileInputStream(fichier)))) {
+            if (in.readInt() != MAGIQUE || in.readInt() != VERSION) {
+                return null;
+            }
+            PointReprise p = new PointReprise();
+            p.empreinte = in.readLong();
+            p.intervalle = in.readLong();
+            p.horodatage = in.readUTF();
+            p.cible = SortieRapport.Cible.valueOf(in.readUTF());
+            p.position = in.readLong();
+            p.numeroSuivant = in.readInt();
+            p.compteurs = new int[5];
+            for (int k = 0; k < p.compteurs.length; k++) {
+                p.compteurs[k] = in.readInt();
+            }
+            p.tailleTxt = in.readLong();
+            p.tailleCsv = in.readLong();
+            return p;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("⚠️ Point de reprise illisible, le traitement recommence : " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Écrit le point dans un fichier temporaire synchronisé, puis le renomme (rename atomique)
+     */
+    void ecrire(File fichier) throws IOException {
+        Path temporaire = Paths.get(fichier.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(temporaire.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+            out.writeInt(MAGIQUE);
+            out.writeInt(VERSION);
+            out.writeLong(empreinte);
+            out.writeLong(intervalle);
+            out.writeUTF(horodatage);
+            out.writeUTF(cible.name());
+            out.writeLong(position);
+            out.writeInt(numeroSuivant);
+            for (int c : compteurs) {
+                out.writeInt(c);
+            }
+            out.writeLong(tailleTxt);
+            out.writeLong(tailleCsv);
+            out.flush();
+            fos.getFD().sync();
+        }
+        Files.move(temporaire, fichier.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+}
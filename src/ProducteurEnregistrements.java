@@ -0,0 +1,201 @@
+import java.util.*;
+import org.xml.sax.*;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Handler SAX qui produit les enregistrements du flux
+ * Même suivi du contexte que LivreHandler (indicateurs booléens, titres conservés d'un livre à l'autre)
+ */
+class ProducteurEnregistrements extends DefaultHandler {
+    
+    /**
+     * Reçoit chaque enregistrement produit (peut bloquer : le parsing attend)
+     */
+    interface Emetteur {
+        void emettre(Enregistrement e) throws SAXException;
+    }
+    
+    private final Emetteur emetteur;
+    private final StringBuilder contenu = new StringBuilder();
+    
+    private int numeroLivre = 0;
+    private int numeroSection = 0;
+    private int numeroChapitre = 0;
+    private int numeroParagraphe = 0;
+    
+    private String titreLivre = "";
+    private String titreSection = "";
+    private String titreChapitre = "";
+    private String nomAuteur = "";
+    private String prenomAuteur = "";
+    private String premierParagraphe;
+    private final StringBuilder auteursLivre = new StringBuilder();
+    private List<Enregistrement.Auteur> auteurs = new ArrayList<>();
+    
+    private boolean dansLivre = false;
+    private boolean dansAuteur = false;
+    private boolean dansSection = false;
+    private boolean dansChapitre = false;
+    private boolean dansParagraphe = false;
+    private boolean dansTitre = false;
+    
+    // Livre et section ouverts mais pas encore émis
+    private boolean livreEnAttente = false;
+    private boolean sectionEnAttente = false;
+    
+    // Statistiques
+    private int totalLivres = 0;
+    private int totalAuteurs = 0;
+    private int totalSections = 0;
+    private int totalChapitres = 0;
+    private int totalParagraphes = 0;
+    
+    ProducteurEnregistrements(Emetteur emetteur) {
+        this.emetteur = emetteur;
+    }
+    
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes)
+            throws SAXException {
+        contenu.setLength(0);
+        
+        switch (qName) {
+            case "livre":
+                emettreLivre();
+                numeroLivre++;
+                totalLivres++;
+                dansLivre = true;
+                numeroSection = 0;
+                auteursLivre.setLength(0);
+                auteurs = new ArrayList<>();
+                livreEnAttente = true;
+                break;
+                
+            case "auteur":
+                dansAuteur = true;
+                totalAuteurs++;
+                break;
+                
+            case "section":
+                emettreLivre();
+                numeroSection++;
+                totalSections++;
+                dansSection = true;
+                numeroChapitre = 0;
+                sectionEnAttente = true;
+                break;
+                
+            case "chapitre":
+                emettreLivre();
+                emettreSection();
+                numeroChapitre++;
+                totalChapitres++;
+                dansChapitre = true;
+                numeroParagraphe = 0;
+                premierParagraphe = null;
+                break;
+                
+            case "paragraphe":
+                numeroParagraphe++;
+                totalParagraphes++;
+                dansParagraphe = true;
+                break;
+                
+            case "titre":
+                dansTitre = true;
+                break;
+        }
+    }
+    
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        contenu.append(ch, start, length);
+    }
+    
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        String texte = contenu.toString().trim();
+        
+        switch (qName) {
+            case "livre":
+                emettreLivre();
+                dansLivre = false;
+                break;
+                
+            case "titre":
+                if (dansTitre) {
+                    if (dansLivre && !dansSection && !dansChapitre) {
+                        titreLivre = texte;
+                    } else if (dansSection && !dansChapitre) {
+                        titreSection = texte;
+                    } else if (dansChapitre) {
+                        titreChapitre = texte;
+                    }
+                    dansTitre = false;
+                }
+                break;
+                
+            case "auteur":
+                if (dansAuteur) {
+                    auteurs.add(new Enregistrement.Auteur(prenomAuteur, nomAuteur));
+                    if (auteursLivre.length() > 0) {
+                        auteursLivre.append("; ");
+                    }
+                    auteursLivre.append(prenomAuteur).append(" ").append(nomAuteur);
+                    nomAuteur = "";
+                    prenomAuteur = "";
+                    dansAuteur = false;
+                }
+                break;
+                
+            case "nom":
+                if (dansAuteur) {
+                    nomAuteur = texte;
+                }
+                break;
+                
+            case "prenom":
+                if (dansAuteur) {
+                    prenomAuteur = texte;
+                }
+                break;
+                
+            case "section":
+                emettreSection();
+                dansSection = false;
+                break;
+                
+            case "chapitre":
+                emetteur.emettre(new Enregistrement.Chapitre(numeroLivre, titreLivre, auteursLivre.toString(),
+                    numeroSection, titreSection, numeroChapitre, titreChapitre, numeroParagraphe,
+                    premierParagraphe));
+                dansChapitre = false;
+                break;
+                
+            case "paragraphe":
+                if (dansParagraphe && numeroParagraphe == 1) {
+                    premierParagraphe = texte;
+                }
+                dansParagraphe = false;
+                break;
+        }
+    }
+    
+    private void emettreLivre() throws SAXException {
+        if (livreEnAttente) {
+            livreEnAttente = false;
+            emetteur.emettre(new Enregistrement.Livre(numeroLivre, titreLivre, List.copyOf(auteurs)));
+        }
+    }
+    
+    private void emettreSection() throws SAXException {
+        if (sectionEnAttente) {
+            sectionEnAttente = false;
+            emetteur.emettre(new Enregistrement.Section(numeroLivre, numeroSection, titreSection));
+        }
+    }
+    
+    int[] getCompteurs() {
+        return new int[] {totalLivres, totalAuteurs, totalSections, totalChapitres, totalParagraphes};
+    }
+}
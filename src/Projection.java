@@ -0,0 +1,247 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.ls.LSParserFilter;
+import org.w3c.dom.traversal.NodeFilter;
+
+/**
+ * Champs texte utilisés par une exécution (option --champs=...)
+ * Les numéros et les compteurs sont toujours produits ; un champ absent de la projection
+ * n'est ni accumulé, ni écrit : sa colonne disparaît du CSV et sa ligne du rapport.
+ *
+ *   --champs=csv                          colonnes du CSV, sans extrait de paragraphe
+ *   --champs=titre_livre,titre_chapitre   liste de champs
+ *   (par défaut : tous les champs)
+ */
+final class Projection {
+    
+    enum Champ {
+        TITRE_LIVRE("Titre_Livre"),
+        AUTEURS("Auteurs"),
+        TITRE_SECTION("Titre_Section"),
+        TITRE_CHAPITRE("Titre_Chapitre"),
+        EXTRAIT(null);
+        
+        final String colonne;
+        
+        Champ(String colonne) {
+            this.colonne = colonne;
+        }
+    }
+    
+    static final Projection TOUT = new Projection(EnumSet.allOf(Champ.class));
+    static final Projection CSV = new Projection(EnumSet.range(Champ.TITRE_LIVRE, Champ.TITRE_CHAPITRE));
+    
+    // Séparateurs des lignes CSV, encodés une fois (ecrireCsv)
+    private static final byte[] GUILLEMET = {'"'};
+    private static final byte[] SEPARATEUR = ",\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FIN_LIGNE = "\"\n".getBytes(StandardCharsets.US_ASCII);
+    
+    private final EnumSet<Champ> champs;
+    
+    private Projection(EnumSet<Champ> champs) {
+        this.champs = champs;
+    }
+    
+    /**
+     * Lit l'option --champs=... ; TOUT par défaut
+     */
+    static Projection lire(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--champs=")) continue;
+            String valeur = arg.substring("--champs=".length());
+            if (valeur.equals("csv")) return CSV;
+            if (valeur.equals("tout")) return TOUT;
+            EnumSet<Champ> champs = EnumSet.noneOf(Champ.class);
+            for (String nom : valeur.split(",")) {
+                if (nom.isBlank()) continue;
+                try {
+                    champs.add(Champ.valueOf(nom.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Champ inconnu : " + nom + " (attendus : " +
+                        EnumSet.allOf(Champ.class).toString().toLowerCase(Locale.ROOT) + ", csv, tout)");
+                }
+            }
+            return new Projection(champs);
+        }
+        return TOUT;
+    }
+    
+    boolean contient(Champ champ) {
+        return champs.contains(champ);
+    }
+    
+    boolean complete() {
+        return champs.size() == Champ.values().length;
+    }
+    
+    /**
+     * En-tête CSV : numéros, nombre de paragraphes et colonnes texte de la projection
+     */
+    String enTeteCsv() {
+        StringBuilder sb = new StringBuilder("Numero_Livre");
+        colonne(sb, Champ.TITRE_LIVRE);
+        colonne(sb, Champ.AUTEURS);
+        sb.append(",Numero_Section");
+        colonne(sb, Champ.TITRE_SECTION);
+        sb.append(",Numero_Chapitre");
+        colonne(sb, Champ.TITRE_CHAPITRE);
+        sb.append(",Nombre_Paragraphes");
+        return sb.toString();
+    }
+    
+    private void colonne(StringBuilder sb, Champ champ) {
+        if (champs.contains(champ)) sb.append(',').append(champ.colonne);
+    }
+    
+    /**
+     * Ligne CSV d'un chapitre (même format que LivreHandler), terminée par \n
+     * Les textes sont échappés ici ; ceux des champs absents sont ignorés
+     */
+    String ligneCsv(int numeroLivre, String titreLivre, String auteurs, int numeroSection,
+                    String titreSection, int numeroChapitre, String titreChapitre, int nbParagraphes) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append('"').append(numeroLivre).append('"');
+        texte(sb, Champ.TITRE_LIVRE, titreLivre);
+        texte(sb, Champ.AUTEURS, auteurs);
+        sb.append(",\"").append(numeroSection).append('"');
+        texte(sb, Champ.TITRE_SECTION, titreSection);
+        sb.append(",\"").append(numeroChapitre).append('"');
+        texte(sb, Champ.TITRE_CHAPITRE, titreChapitre);
+        sb.append(",\"").append(nbParagraphes).append("\"\n");
+        return sb.toString();
+    }
+    
+    /**
+     * Même ligne que ligneCsv, écrite champ par champ dans la sortie (sans String intermédiaire)
+     */
+    void ecrireCsv(SortieCanal out, int numeroLivre, CharSequence titreLivre, CharSequence auteurs,
+                   int numeroSection, CharSequence titreSection, int numeroChapitre,
+                   CharSequence titreChapitre, int nbParagraphes) throws IOException {
+        out.octets(GUILLEMET);
+        out.entier(numeroLivre);
+        out.octets(GUILLEMET);
+        texte(out, Champ.TITRE_LIVRE, titreLivre);
+        texte(out, Champ.AUTEURS, auteurs);
+        out.octets(SEPARATEUR);
+        out.entier(numeroSection);
+        out.octets(GUILLEMET);
+        texte(out, Champ.TITRE_SECTION, titreSection);
+        out.octets(SEPARATEUR);
+        out.entier(numeroChapitre);
+        out.octets(GUILLEMET);
+        texte(out, Champ.TITRE_CHAPITRE, titreChapitre);
+        out.octets(SEPARATEUR);
+        out.entier(nbParagraphes);
+        out.octets(FIN_LIGNE);
+    }
+    
+    /**
+     * Échappe les caractères spéciaux pour CSV (texte d'un champ entre guillemets)
+     */
+    static String echapperCSV(String texte) {
+        if (texte == null) return "";
+        // Remplacer les guillemets doubles par deux guillemets doubles
+        return texte.replace("\"", "\"\"");
+    }
+    
+    private void texte(SortieCanal out, Champ champ, CharSequence texte) throws IOException {
+        if (!champs.contains(champ)) return;
+        out.octets(SEPARATEUR);
+        out.texteCsv(texte);
+        out.octets(GUILLEMET);
+    }
+    
+    private void texte(StringBuilder sb, Champ champ, String texte) {
+        if (!champs.contains(champ)) return;
+        sb.append(",\"");
+        if (texte != null) {
+            for (int i = 0; i < texte.length(); i++) {
+                char c = texte.charAt(i);
+                if (c == '"') sb.append('"');
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+    
+    /**
+     * Filtre de construction DOM : seuls les textes des champs de la projection entrent dans l'arbre
+     * Les éléments sont tous gardés (les comptes restent justes) ; les textes des paragraphes,
+     * sauf le premier de chaque chapitre si l'extrait est demandé, ne sont jamais rattachés.
+     * Un texte dans un élément en ligne (<b>...) compte pour le titre ou le paragraphe qui le contient.
+     */
+    LSParserFilter filtreDom(boolean extrait) {
+        boolean avecExtrait = extrait && champs.contains(Champ.EXTRAIT);
+        return new LSParserFilter() {
+            @Override
+            public short startElement(Element element) {
+                return FILTER_ACCEPT;
+            }
+            
+            @Override
+            public short acceptNode(Node noeud) {
+                if (noeud.getParentNode() == null) return FILTER_ACCEPT;
+                Node parent = champTexte(noeud.getParentNode());
+                if (parent == null) {
+                    // Blancs entre les éléments et textes hors schéma
+                    return FILTER_REJECT;
+                }
+                switch (parent.getNodeName()) {
+                    case "titre":
+                        Node conteneur = parent.getParentNode();
+                        String nom = conteneur == null ? "" : conteneur.getNodeName();
+                        return garder(nom.equals("livre") ? Champ.TITRE_LIVRE
+                                    : nom.equals("section") ? Champ.TITRE_SECTION
+                                    : nom.equals("chapitre") ? Champ.TITRE_CHAPITRE : null);
+                    case "nom":
+                    case "prenom":
+                        return garder(Champ.AUTEURS);
+                    default:
+                        return avecExtrait && premierParagraphe(parent) ? FILTER_ACCEPT : FILTER_REJECT;
+                }
+            }
+            
+            private short garder(Champ champ) {
+                return champ != null && champs.contains(champ) ? FILTER_ACCEPT : FILTER_REJECT;
+            }
+            
+            @Override
+            public int getWhatToShow() {
+                return NodeFilter.SHOW_TEXT | NodeFilter.SHOW_CDATA_SECTION;
+            }
+        };
+    }
+    
+    /**
+     * Élément titre, nom, prenom ou paragraphe le plus proche parmi les ancêtres (null s'il n'y en a pas)
+     */
+    private static Node champTexte(Node element) {
+        for (Node n = element; n != null && n.getNodeType() == Node.ELEMENT_NODE; n = n.getParentNode()) {
+            switch (n.getNodeName()) {
+                case "titre":
+                case "nom":
+                case "prenom":
+                case "paragraphe":
+                    return n;
+            }
+        }
+        return null;
+    }
+    
+    private static boolean premierParagraphe(Node paragraphe) {
+        for (Node n = paragraphe.getPreviousSibling(); n != null; n = n.getPreviousSibling()) {
+            if (n.getNodeType() == Node.ELEMENT_NODE && n.getNodeName().equals("paragraphe")) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public String toString() {
+        return champs.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,88 @@
+import java.io.*;
+import java.util.concurrent.*;
+import javax.xml.parsers.SAXParser;
+import org.xml.sax.*;
+
+/**
+ * Flux d'enregistrements d'un document bibliotheque (java.util.concurrent.Flow)
+ * Le parsing SAX se fait sur le thread qui appelle publier() ; les abonnés reçoivent
+ * les enregistrements sur l'exécuteur, chacun avec un tampon borné.
+ * Contre-pression : quand le tampon d'un abonné est plein (il n'a pas demandé assez),
+ * submit() bloque et le parsing est suspendu jusqu'à la prochaine demande.
+ * Si tous les abonnés se désabonnent, le parsing s'arrête.
+ *
+ * Les abonnés doivent s'abonner avant publier() : ils ne reçoivent que la suite du flux.
+ *
+ * Exemple (voir ParserSAX --flux) :
+ *   PublicateurBibliotheque flux = new PublicateurBibliotheque(fichier);
+ *   flux.subscribe(new AbonneCsv(csvWriter));
+ *   flux.publier(parser);
+ */
+class PublicateurBibliotheque implements Flow.Publisher<Enregistrement> {
+    
+    private final InputSource source;
+    private final SubmissionPublisher<Enregistrement> diffuseur;
+    private int[] compteurs = new int[5];
+    
+    PublicateurBibliotheque(File fichier) {
+        this(new InputSource(fichier.toURI().toString()), ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+    }
+    
+    /**
+     * Flux d'une source quelconque, abonnés servis par l'exécuteur, tampon de "tampon" enregistrements par abonné
+     */
+    PublicateurBibliotheque(InputSource source, Executor executeur, int tampon) {
+        this.source = source;
+        this.diffuseur = new SubmissionPublisher<>(executeur, tampon);
+    }
+    
+    @Override
+    public void subscribe(Flow.Subscriber<? super Enregistrement> abonne) {
+        diffuseur.subscribe(abonne);
+    }
+    
+    /**
+     * Parse la source et publie ses enregistrements, puis termine le flux
+     * En cas d'erreur, les abonnés reçoivent onError et l'exception est relancée
+     */
+    void publier(SAXParser parser) throws Exception {
+        ProducteurEnregistrements producteur = new ProducteurEnregistrements(this::emettre);
+        try {
+            parser.parse(source, producteur);
+            diffuseur.close();
+        } catch (Abandon e) {
+            // Plus aucun abonné : rien à terminer
+        } catch (Exception e) {
+            diffuseur.closeExceptionally(e);
+            throw e;
+        } finally {
+            compteurs = producteur.getCompteurs();
+        }
+    }
+    
+    /**
+     * Compteurs du document, au format de LivreHandler.getCompteurs()
+     */
+    int[] getCompteurs() {
+        return compteurs;
+    }
+    
+    private void emettre(Enregistrement e) throws SAXException {
+        if (!diffuseur.hasSubscribers()) {
+            throw new Abandon();
+        }
+        // Bloque tant que le tampon d'un abonné est plein
+        diffuseur.submit(e);
+    }
+    
+    /**
+     * Arrêt du parsing quand il n'y a plus d'abonné
+     */
+    private static class Abandon extends SAXException {
+        private static final long serialVersionUID = 1L;
+        
+        Abandon() {
+            super("plus aucun abonné");
+        }
+    }
+}
@@ -0,0 +1,189 @@
+import java.io.*;
+import java.util.*;
+import org.w3c.dom.*;
+
+/**
+ * Visiteur qui produit le rapport, le CSV et les statistiques de ParserDOM en un seul parcours
+ * Les informations d'un livre sont collectées pendant la visite de son sous-arbre,
+ * puis ParserDOM.traiterLivre l'affiche à la fermeture de <livre>
+ *
+ * Mêmes règles que l'ancienne version à base de getElementsByTagName :
+ * - titre : premier <titre> enfant direct du livre, de la section ou du chapitre
+ * - auteurs : tous les <auteur> du livre, avec leur premier <nom> et <prenom>
+ * - sections : enfants directs du livre ; chapitres : enfants directs de la section
+ * - paragraphes : tous les <paragraphe> du chapitre
+ * - statistiques : tous les éléments du document
+ */
+class RapportDOM implements VisiteurDOM {
+    
+    static final class Auteur {
+        String nom;
+        String prenom;
+    }
+    
+    static final class Chapitre {
+        String titre;
+        int nbParagraphes;
+        String premierParagraphe;
+    }
+    
+    static final class Section {
+        String titre;
+        final List<Chapitre> chapitres = new ArrayList<>();
+    }
+    
+    static final class Livre {
+        final int numero;
+        String titre;
+        final List<Auteur> auteurs = new ArrayList<>();
+        final List<Section> sections = new ArrayList<>();
+        
+        Livre(int numero) {
+            this.numero = numero;
+        }
+    }
+    
+    private final SortieRapport rapport;
+    private final PrintWriter csvWriter;
+    private final Projection projection;
+    
+    // Contexte courant et élément DOM correspondant
+    private Livre livre;
+    private Auteur auteur;
+    private Section section;
+    private Chapitre chapitre;
+    private Element elementLivre;
+    private Element elementAuteur;
+    private Element elementSection;
+    private Element elementChapitre;
+    
+    // Statistiques
+    int nbLivres = 0;
+    int nbAuteurs = 0;
+    int nbSections = 0;
+    int nbChapitres = 0;
+    int nbParagraphes = 0;
+    
+    // Mesures de l'exécution (facultatives)
+    private MesuresParsing mesures;
+    
+    RapportDOM(SortieRapport rapport, PrintWriter csvWriter) {
+        this(rapport, csvWriter, Projection.TOUT);
+    }
+    
+    RapportDOM(SortieRapport rapport, PrintWriter csvWriter, Projection projection) {
+        this.rapport = rapport;
+        this.csvWriter = csvWriter;
+        this.projection = projection;
+    }
+    
+    /**
+     * Visiteur d'un seul livre (voir ParserDOM.traiterEnParallele) :
+     * la numérotation reprend après premierNumeroLivre - 1
+     */
+    RapportDOM(SortieRapport rapport, PrintWriter csvWriter, Projection projection, int premierNumeroLivre) {
+        this(rapport, csvWriter, projection);
+        this.nbLivres = premierNumeroLivre - 1;
+    }
+    
+    void setMesures(MesuresParsing mesures) {
+        this.mesures = mesures;
+    }
+    
+    @Override
+    public void entrer(Element element) {
+        if (mesures != null) mesures.element();
+        switch (element.getNodeName()) {
+            case "livre":
+                nbLivres++;
+                if (livre == null) {
+                    livre = new Livre(nbLivres);
+                    elementLivre = element;
+                    if (mesures != null) mesures.debutLivre(nbLivres);
+                }
+                break;
+            
+            case "auteur":
+                nbAuteurs++;
+                if (livre != null && auteur == null) {
+                    auteur = new Auteur();
+                    elementAuteur = element;
+                    livre.auteurs.add(auteur);
+                }
+                break;
+            
+            case "nom":
+                if (auteur != null && auteur.nom == null) {
+                    auteur.nom = element.getTextContent().trim();
+                }
+                break;
+            
+            case "prenom":
+                if (auteur != null && auteur.prenom == null) {
+                    auteur.prenom = element.getTextContent().trim();
+                }
+                break;
+            
+            case "section":
+                nbSections++;
+                if (livre != null && element.getParentNode() == elementLivre) {
+                    section = new Section();
+                    elementSection = element;
+                    livre.sections.add(section);
+                }
+                break;
+            
+            case "chapitre":
+                nbChapitres++;
+                if (section != null && element.getParentNode() == elementSection) {
+                    chapitre = new Chapitre();
+                    elementChapitre = element;
+                    section.chapitres.add(chapitre);
+                }
+                break;
+            
+            case "paragraphe":
+                nbParagraphes++;
+                if (chapitre != null) {
+                    chapitre.nbParagraphes++;
+                    // Seul l'extrait du premier paragraphe est affiché
+                    if (chapitre.nbParagraphes == 1 && rapport.actif()
+                        && projection.contient(Projection.Champ.EXTRAIT)) {
+                        chapitre.premierParagraphe = element.getTextContent().trim();
+                    }
+                }
+                break;
+            
+            case "titre":
+                Node parent = element.getParentNode();
+                if (chapitre != null && parent == elementChapitre) {
+                    if (chapitre.titre == null) chapitre.titre = element.getTextContent().trim();
+                } else if (section != null && parent == elementSection) {
+                    if (section.titre == null) section.titre = element.getTextContent().trim();
+                } else if (livre != null && parent == elementLivre) {
+                    if (livre.titre == null) livre.titre = element.getTextContent().trim();
+                }
+                break;
+        }
+    }
+    
+    @Override
+    public void sortir(Element element) {
+        if (chapitre != null && element == elementChapitre) {
+            if (chapitre.titre == null) chapitre.titre = "";
+            chapitre = null;
+        } else if (section != null && element == elementSection) {
+            if (section.titre == null) section.titre = "";
+            section = null;
+        } else if (auteur != null && element == elementAuteur) {
+            if (auteur.nom == null) auteur.nom = "";
+            if (auteur.prenom == null) auteur.prenom = "";
+            auteur = null;
+        } else if (livre != null && element == elementLivre) {
+            if (livre.titre == null) livre.titre = "";
+            ParserDOM.traiterLivre(livre, rapport, csvWriter, projection);
+            livre = null;
+            if (mesures != null) mesures.finLivre();
+        }
+    }
+}
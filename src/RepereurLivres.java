@@ -0,0 +1,65 @@
+import java.util.*;
+import org.w3c.dom.*;
+
+/**
+ * Premier parcours du rendu parallèle : livres à rendre (ceux sans livre ancêtre, comme RapportDOM)
+ * avec leur numéro, et statistiques de tout le document
+ */
+class RepereurLivres implements VisiteurDOM {
+    
+    final List<Element> livres = new ArrayList<>();
+    int[] numeros = new int[256];
+    
+    // Livre en cours (les livres imbriqués sont comptés, pas rendus)
+    private Element livre;
+    
+    // Statistiques
+    int nbLivres = 0;
+    int nbAuteurs = 0;
+    int nbSections = 0;
+    int nbChapitres = 0;
+    int nbParagraphes = 0;
+    
+    private final MesuresParsing mesures;
+    
+    RepereurLivres(MesuresParsing mesures) {
+        this.mesures = mesures;
+    }
+    
+    @Override
+    public void entrer(Element element) {
+        mesures.element();
+        switch (element.getNodeName()) {
+            case "livre":
+                nbLivres++;
+                if (livre == null) {
+                    livre = element;
+                    if (livres.size() == numeros.length) {
+                        numeros = Arrays.copyOf(numeros, numeros.length * 2);
+                    }
+                    numeros[livres.size()] = nbLivres;
+                    livres.add(element);
+                }
+                break;
+            case "auteur":
+                nbAuteurs++;
+                break;
+            case "section":
+                nbSections++;
+                break;
+            case "chapitre":
+                nbChapitres++;
+                break;
+            case "paragraphe":
+                nbParagraphes++;
+                break;
+        }
+    }
+    
+    @Override
+    public void sortir(Element element) {
+        if (element == livre) {
+            livre = null;
+        }
+    }
+}
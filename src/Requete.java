@@ -0,0 +1,505 @@
+import java.util.*;
+
+/**
+ * Requête de chemin compilée sur la bibliothèque (sous-ensemble de XPath)
+ * L'expression est analysée une seule fois ; evaluer() s'applique ensuite au modèle compact
+ * ensemble de nœuds par ensemble de nœuds, sans re-parcourir tout l'arbre pour chaque étape
+ *
+ * Exemples :
+ *   /livre[auteur/nom = 'Dupont']/section/chapitre
+ *   //section[count(chapitre) > 3]
+ *   //chapitre[contains(titre, 'XML')]
+ *   /bibliotheque/livre[titre != "Brouillon"]//paragraphe
+ *
+ * - étapes : livre, auteur, section, chapitre, paragraphe ; '/' enfant, '//' descendant
+ *   (les éléments intermédiaires n'existent pas dans le modèle : auteur est enfant de livre,
+ *   et un /bibliotheque initial est ignoré)
+ * - champs : titre (livre, section, chapitre), nom et prenom (auteur), texte (paragraphe)
+ * - prédicats, plusieurs [...] s'additionnent (et) :
+ *     champ = 'chaîne'  /  champ != 'chaîne'
+ *     chemin/champ = 'chaîne'       vrai si au moins un nœud du chemin relatif convient
+ *     chemin                        vrai si le chemin relatif trouve au moins un nœud
+ *     count(chemin) op nombre       op parmi = != < <= > >=
+ *     contains(champ, 'chaîne')  /  contains(chemin/champ, 'chaîne')
+ */
+class Requete {
+    
+    // Champs
+    static final int AUCUN_CHAMP = -1;
+    static final int TITRE = 0;
+    static final int NOM = 1;
+    static final int PRENOM = 2;
+    static final int TEXTE = 3;
+    
+    // Opérateurs
+    static final int EGAL = 0;
+    static final int DIFFERENT = 1;
+    static final int INFERIEUR = 2;
+    static final int INFERIEUR_EGAL = 3;
+    static final int SUPERIEUR = 4;
+    static final int SUPERIEUR_EGAL = 5;
+    static final int CONTIENT = 6;
+    
+    private static final String[] NOMS_GENRES = {"livre", "auteur", "section", "chapitre", "paragraphe"};
+    private static final String[] NOMS_CHAMPS = {"titre", "nom", "prenom", "texte"};
+    
+    /**
+     * Une étape du chemin : genre des nœuds, axe et prédicats
+     */
+    static final class Etape {
+        final boolean descendant;
+        final byte genre;
+        final List<Predicat> predicats = new ArrayList<>();
+        
+        Etape(boolean descendant, byte genre) {
+            this.descendant = descendant;
+            this.genre = genre;
+        }
+    }
+    
+    /**
+     * Un prédicat : chemin relatif (null pour le nœud lui-même), champ et comparaison
+     */
+    static final class Predicat {
+        Etape[] chemin;
+        int champ = AUCUN_CHAMP;
+        boolean compter;
+        int operateur;
+        String chaine;
+        long nombre;
+    }
+    
+    private final String expression;
+    private final Etape[] etapes;
+    private final boolean utiliseTexte;
+    
+    private Requete(String expression, Etape[] etapes, boolean utiliseTexte) {
+        this.expression = expression;
+        this.etapes = etapes;
+        this.utiliseTexte = utiliseTexte;
+    }
+    
+    /**
+     * Analyse l'expression (IllegalArgumentException si elle est invalide)
+     */
+    static Requete compiler(String expression) {
+        return new Analyseur(expression).requete();
+    }
+    
+    String getExpression() {
+        return expression;
+    }
+    
+    /**
+     * Vrai si la requête lit le texte des paragraphes
+     */
+    boolean utiliseTexte() {
+        return utiliseTexte;
+    }
+    
+    /**
+     * Genre des nœuds sélectionnés (dernière étape)
+     */
+    byte genreResultat() {
+        return etapes[etapes.length - 1].genre;
+    }
+    
+    /**
+     * Nœuds du modèle sélectionnés par la requête, dans l'ordre du document
+     */
+    int[] evaluer(ModeleBibliotheque modele) {
+        Noeuds racine = new Noeuds();
+        racine.ajouter(ModeleBibliotheque.AUCUN);
+        return appliquer(modele, etapes, racine).enTableau();
+    }
+    
+    // ─────────────────────────────── Évaluation ───────────────────────────────
+    
+    /**
+     * Applique les étapes à un ensemble de nœuds contexte (dans l'ordre du document)
+     */
+    private static Noeuds appliquer(ModeleBibliotheque m, Etape[] etapes, Noeuds contexte) {
+        Noeuds courant = contexte;
+        for (Etape etape : etapes) {
+            Noeuds suivant = new Noeuds();
+            int dejaCouvert = 0;
+            
+            for (int i = 0; i < courant.taille; i++) {
+                int c = courant.noeuds[i];
+                if (etape.descendant) {
+                    // Les descendants forment une plage contiguë ; un contexte imbriqué
+                    // dans le précédent est déjà couvert
+                    int debut = Math.max(c == ModeleBibliotheque.AUCUN ? 0 : c + 1, dejaCouvert);
+                    int fin = c == ModeleBibliotheque.AUCUN ? m.nbNoeuds : m.finSousArbre(c);
+                    for (int n = debut; n < fin; n++) {
+                        if (m.genre(n) == etape.genre && accepter(m, etape, n)) {
+                            suivant.ajouter(n);
+                        }
+                    }
+                    dejaCouvert = Math.max(dejaCouvert, fin);
+                } else {
+                    for (int n = m.premierEnfant(c, etape.genre); n != ModeleBibliotheque.AUCUN;
+                         n = m.suivant(n)) {
+                        if (accepter(m, etape, n)) {
+                            suivant.ajouter(n);
+                        }
+                    }
+                }
+            }
+            suivant.trier();
+            courant = suivant;
+        }
+        return courant;
+    }
+    
+    private static boolean accepter(ModeleBibliotheque m, Etape etape, int noeud) {
+        for (Predicat p : etape.predicats) {
+            if (!verifier(m, p, noeud)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean verifier(ModeleBibliotheque m, Predicat p, int noeud) {
+        if (p.chemin == null) {
+            return comparer(p, champ(m, noeud, p.champ));
+        }
+        
+        Noeuds depart = new Noeuds();
+        depart.ajouter(noeud);
+        Noeuds trouves = appliquer(m, p.chemin, depart);
+        
+        if (p.compter) {
+            return comparer(p.operateur, trouves.taille, p.nombre);
+        }
+        if (p.champ == AUCUN_CHAMP) {
+            return trouves.taille > 0;
+        }
+        for (int i = 0; i < trouves.taille; i++) {
+            if (comparer(p, champ(m, trouves.noeuds[i], p.champ))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String champ(ModeleBibliotheque m, int noeud, int champ) {
+        switch (champ) {
+            case TITRE:  return m.titre(noeud);
+            case NOM:    return m.nom(noeud);
+            case PRENOM: return m.prenom(noeud);
+            case TEXTE:  return m.texte(noeud);
+            default:     return "";
+        }
+    }
+    
+    private static boolean comparer(Predicat p, String valeur) {
+        switch (p.operateur) {
+            case EGAL:      return valeur.equals(p.chaine);
+            case DIFFERENT: return !valeur.equals(p.chaine);
+            case CONTIENT:  return valeur.contains(p.chaine);
+            default:        return false;
+        }
+    }
+    
+    private static boolean comparer(int operateur, long a, long b) {
+        switch (operateur) {
+            case EGAL:           return a == b;
+            case DIFFERENT:      return a != b;
+            case INFERIEUR:      return a < b;
+            case INFERIEUR_EGAL: return a <= b;
+            case SUPERIEUR:      return a > b;
+            case SUPERIEUR_EGAL: return a >= b;
+            default:             return false;
+        }
+    }
+    
+    /**
+     * Ensemble de nœuds (tableau d'int extensible)
+     */
+    private static final class Noeuds {
+        int[] noeuds = new int[16];
+        int taille = 0;
+        
+        void ajouter(int n) {
+            if (taille == noeuds.length) {
+                noeuds = Arrays.copyOf(noeuds, taille * 2);
+            }
+            noeuds[taille++] = n;
+        }
+        
+        /**
+         * Remet dans l'ordre du document et retire les doublons (contextes imbriqués)
+         */
+        void trier() {
+            for (int i = 1; i < taille; i++) {
+                if (noeuds[i] <= noeuds[i - 1]) {
+                    Arrays.sort(noeuds, 0, taille);
+                    int j = 0;
+                    for (int k = 0; k < taille; k++) {
+                        if (j == 0 || noeuds[k] != noeuds[j - 1]) {
+                            noeuds[j++] = noeuds[k];
+                        }
+                    }
+                    taille = j;
+                    return;
+                }
+            }
+        }
+        
+        int[] enTableau() {
+            return Arrays.copyOf(noeuds, taille);
+        }
+    }
+    
+    // ──────────────────────────────── Analyse ────────────────────────────────
+    
+    /**
+     * Analyseur descendant récursif de l'expression
+     */
+    private static final class Analyseur {
+        private final String texte;
+        private int position = 0;
+        private boolean utiliseTexte = false;
+        
+        Analyseur(String texte) {
+            this.texte = texte;
+        }
+        
+        Requete requete() {
+            List<Etape> etapes = new ArrayList<>();
+            espaces();
+            if (!suivantEst('/')) {
+                throw erreur("la requête doit commencer par / ou //");
+            }
+            while (consommer('/')) {
+                boolean descendant = consommer('/');
+                String nom = identifiant();
+                // La racine n'est pas un nœud du modèle
+                if (etapes.isEmpty() && !descendant && nom.equals("bibliotheque") && !suivantEst('[')) {
+                    continue;
+                }
+                etapes.add(etape(descendant, nom));
+            }
+            espaces();
+            if (position < texte.length()) {
+                throw erreur("caractère inattendu '" + texte.charAt(position) + "'");
+            }
+            if (etapes.isEmpty()) {
+                throw erreur("chemin vide");
+            }
+            return new Requete(texte, etapes.toArray(new Etape[0]), utiliseTexte);
+        }
+        
+        private Etape etape(boolean descendant, String nom) {
+            Etape etape = new Etape(descendant, genre(nom));
+            while (consommer('[')) {
+                etape.predicats.add(predicat(etape.genre));
+                attendre(']');
+            }
+            return etape;
+        }
+        
+        private Predicat predicat(byte genreContexte) {
+            int debut = position;
+            String mot = identifiant();
+            
+            if (mot.equals("count") && consommer('(')) {
+                Predicat p = relatif(genreContexte, identifiant());
+                if (p.chemin == null || p.champ != AUCUN_CHAMP) {
+                    throw erreur("count() attend un chemin d'éléments");
+                }
+                attendre(')');
+                p.compter = true;
+                p.operateur = operateur();
+                p.nombre = nombre();
+                return p;
+            }
+            
+            if (mot.equals("contains") && consommer('(')) {
+                Predicat p = relatif(genreContexte, identifiant());
+                if (p.champ == AUCUN_CHAMP) {
+                    throw erreur("contains() attend un champ (titre, nom, prenom, texte)");
+                }
+                attendre(',');
+                p.operateur = CONTIENT;
+                p.chaine = chaine();
+                attendre(')');
+                return p;
+            }
+            
+            position = debut;
+            Predicat p = relatif(genreContexte, identifiant());
+            espaces();
+            if (suivantEst(']')) {
+                if (p.champ != AUCUN_CHAMP) {
+                    // Champ seul : vrai s'il n'est pas vide
+                    p.operateur = DIFFERENT;
+                    p.chaine = "";
+                }
+                return p;
+            }
+            if (p.champ == AUCUN_CHAMP) {
+                throw erreur("comparaison sans champ (titre, nom, prenom, texte)");
+            }
+            p.operateur = operateur();
+            if (p.operateur != EGAL && p.operateur != DIFFERENT) {
+                throw erreur("seuls = et != comparent des chaînes");
+            }
+            p.chaine = chaine();
+            return p;
+        }
+        
+        /**
+         * Chemin relatif au nœud contexte, terminé éventuellement par un champ
+         */
+        private Predicat relatif(byte genreContexte, String premier) {
+            Predicat p = new Predicat();
+            List<Etape> chemin = new ArrayList<>();
+            byte genreCourant = genreContexte;
+            String nom = premier;
+            boolean descendant = false;
+            
+            while (true) {
+                int champ = champ(nom);
+                if (champ != AUCUN_CHAMP) {
+                    if (descendant) {
+                        throw erreur("un champ ne peut pas suivre //");
+                    }
+                    verifierChamp(genreCourant, champ);
+                    p.champ = champ;
+                    break;
+                }
+                Etape etape = etape(descendant, nom);
+                chemin.add(etape);
+                genreCourant = etape.genre;
+                if (!consommer('/')) {
+                    break;
+                }
+                descendant = consommer('/');
+                nom = identifiant();
+            }
+            
+            p.chemin = chemin.isEmpty() ? null : chemin.toArray(new Etape[0]);
+            return p;
+        }
+        
+        private void verifierChamp(byte genre, int champ) {
+            boolean valide;
+            switch (champ) {
+                case TITRE:
+                    valide = genre == ModeleBibliotheque.LIVRE || genre == ModeleBibliotheque.SECTION
+                          || genre == ModeleBibliotheque.CHAPITRE;
+                    break;
+                case NOM:
+                case PRENOM:
+                    valide = genre == ModeleBibliotheque.AUTEUR;
+                    break;
+                default:
+                    valide = genre == ModeleBibliotheque.PARAGRAPHE;
+                    utiliseTexte = true;
+                    break;
+            }
+            if (!valide) {
+                throw erreur("le champ " + NOMS_CHAMPS[champ] + " n'existe pas pour " + NOMS_GENRES[genre]);
+            }
+        }
+        
+        private byte genre(String nom) {
+            for (byte g = 0; g < NOMS_GENRES.length; g++) {
+                if (NOMS_GENRES[g].equals(nom)) return g;
+            }
+            throw erreur("élément inconnu '" + nom + "' (livre, auteur, section, chapitre, paragraphe)");
+        }
+        
+        private int champ(String nom) {
+            for (int c = 0; c < NOMS_CHAMPS.length; c++) {
+                if (NOMS_CHAMPS[c].equals(nom)) return c;
+            }
+            return AUCUN_CHAMP;
+        }
+        
+        private int operateur() {
+            espaces();
+            if (consommer('=')) return EGAL;
+            if (consommer('!')) {
+                attendre('=');
+                return DIFFERENT;
+            }
+            if (consommer('<')) return consommer('=') ? INFERIEUR_EGAL : INFERIEUR;
+            if (consommer('>')) return consommer('=') ? SUPERIEUR_EGAL : SUPERIEUR;
+            throw erreur("opérateur attendu (= != < <= > >=)");
+        }
+        
+        private String identifiant() {
+            espaces();
+            int debut = position;
+            while (position < texte.length() && Character.isLetter(texte.charAt(position))) {
+                position++;
+            }
+            if (position == debut) {
+                throw erreur("nom attendu");
+            }
+            return texte.substring(debut, position);
+        }
+        
+        private String chaine() {
+            espaces();
+            if (position >= texte.length() || (texte.charAt(position) != '\'' && texte.charAt(position) != '"')) {
+                throw erreur("chaîne entre guillemets attendue");
+            }
+            char guillemet = texte.charAt(position++);
+            int fin = texte.indexOf(guillemet, position);
+            if (fin < 0) {
+                throw erreur("chaîne non terminée");
+            }
+            String s = texte.substring(position, fin);
+            position = fin + 1;
+            return s;
+        }
+        
+        private long nombre() {
+            espaces();
+            int debut = position;
+            while (position < texte.length() && Character.isDigit(texte.charAt(position))) {
+                position++;
+            }
+            if (position == debut) {
+                throw erreur("nombre attendu");
+            }
+            return Long.parseLong(texte.substring(debut, position));
+        }
+        
+        private void attendre(char c) {
+            if (!consommer(c)) {
+                throw erreur("'" + c + "' attendu");
+            }
+        }
+        
+        private boolean consommer(char c) {
+            espaces();
+            if (position < texte.length() && texte.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+        
+        private boolean suivantEst(char c) {
+            espaces();
+            return position < texte.length() && texte.charAt(position) == c;
+        }
+        
+        private void espaces() {
+            while (position < texte.length() && Character.isWhitespace(texte.charAt(position))) {
+                position++;
+            }
+        }
+        
+        private IllegalArgumentException erreur(String message) {
+            return new IllegalArgumentException("Requête invalide (position " + position + ") : " +
+                                                message + "\n   " + texte);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+import java.util.concurrent.*;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+/**
+ * Réserve de parseurs SAX partagée par des threads (virtuels ou non)
+ * Un SAXParser n'est pas thread-safe : chaque parseur sert à un seul parsing à la fois.
+ * La taille de la réserve borne le nombre de parsings simultanés ; les threads en trop attendent.
+ * Les documents peuvent venir d'un client distant (ServeurParsing) : DOCTYPE refusé,
+ * donc aucune entité externe résolue (XXE).
+ */
+class ReserveParseurs {
+    
+    private final BlockingQueue<SAXParser> libres;
+    
+    ReserveParseurs(int taille) throws Exception {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        libres = new ArrayBlockingQueue<>(taille);
+        for (int i = 0; i < taille; i++) {
+            libres.add(factory.newSAXParser());
+        }
+    }
+    
+    /**
+     * Attend un parseur libre
+     */
+    SAXParser prendre() throws InterruptedException {
+        return libres.take();
+    }
+    
+    /**
+     * Remet le parseur dans la réserve, réinitialisé
+     */
+    void rendre(SAXParser parser) {
+        parser.reset();
+        libres.add(parser);
+    }
+}
@@ -0,0 +1,56 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Reçoit les nœuds trouvés : ligne CSV, compteur et premiers exemples par requête
+ * (en lecture par flux, les lignes arrivent livre par livre et non requête par requête)
+ */
+class ResultatsRequetes {
+    
+    private static final String[] NOMS_GENRES = {"livre", "auteur", "section", "chapitre", "paragraphe"};
+    private static final int NB_EXEMPLES = 5;
+    
+    final long[] nombres;
+    final List<List<String>> exemples = new ArrayList<>();
+    long duree;
+    private final PrintWriter csvWriter;
+    
+    ResultatsRequetes(int nbRequetes, PrintWriter csvWriter) {
+        this.nombres = new long[nbRequetes];
+        this.csvWriter = csvWriter;
+        for (int i = 0; i < nbRequetes; i++) {
+            exemples.add(new ArrayList<>());
+        }
+    }
+    
+    /**
+     * Nœud trouvé par la requête numéro requete (le modèle contient encore le nœud)
+     */
+    void trouve(int requete, ModeleBibliotheque modele, int noeud) {
+        String element = NOMS_GENRES[modele.genre(noeud)];
+        String libelle = libelle(modele, noeud);
+        long rang = modele.decalage + noeud;
+        
+        csvWriter.printf("\"%d\",\"%d\",\"%s\",\"%s\"\n",
+            requete + 1, rang, element, Projection.echapperCSV(libelle));
+        
+        if (nombres[requete]++ < NB_EXEMPLES) {
+            exemples.get(requete).add(element + " #" + rang + " : " + libelle);
+        }
+    }
+    
+    /**
+     * Titre, "prénom nom" ou début du paragraphe
+     */
+    private static String libelle(ModeleBibliotheque modele, int noeud) {
+        switch (modele.genre(noeud)) {
+            case ModeleBibliotheque.AUTEUR:
+                return modele.prenom(noeud) + " " + modele.nom(noeud);
+            case ModeleBibliotheque.PARAGRAPHE:
+                String texte = modele.texte(noeud);
+                return texte.length() > 60 ? texte.substring(0, 60) + "..." : texte;
+            default:
+                return modele.titre(noeud);
+        }
+    }
+}
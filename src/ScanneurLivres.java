@@ -0,0 +1,626 @@
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Scanner d'octets spécialisé pour le vocabulaire des livres
+ * Le fichier est lu par fenêtres projetées de 1 Go ; une fenêtre est re-projetée
+ * sur une frontière de balise quand on approche de sa fin.
+ * La structure (livre > section > chapitre) est portée par les méthodes, comme LivreReader
+ */
+class ScanneurLivres {
+    
+    /**
+     * Construction XML que le scanner ne gère pas : il faut passer par JAXP
+     */
+    static class FormatNonSupporte extends Exception {
+        private static final long serialVersionUID = 1L;
+        
+        FormatNonSupporte(String message) {
+            super(message);
+        }
+    }
+    
+    // Vocabulaire du schéma, en octets
+    private static final byte[] LIVRE = octets("livre");
+    private static final byte[] TITRE = octets("titre");
+    private static final byte[] AUTEURS = octets("auteurs");
+    private static final byte[] AUTEUR = octets("auteur");
+    private static final byte[] NOM = octets("nom");
+    private static final byte[] PRENOM = octets("prenom");
+    private static final byte[] SECTION = octets("section");
+    private static final byte[] CHAPITRE = octets("chapitre");
+    private static final byte[] PARAGRAPHE = octets("paragraphe");
+    
+    // Types de balises retournés par prochaineBalise()
+    private static final int DEBUT = 1;
+    private static final int FIN = 2;
+    private static final int FIN_DOCUMENT = 3;
+    
+    private static final long TAILLE_FENETRE = 1L << 30;
+    private static final int MARGE_BALISE = 1 << 16;
+    
+    // Fichier projeté
+    private final FileChannel canal;
+    private final long tailleFichier;
+    private MappedByteBuffer buf;
+    private long base;      // position absolue de buf[0]
+    private int limite;     // nombre d'octets de la fenêtre
+    private int pos;        // position courante dans la fenêtre
+    
+    // Dernière balise lue
+    private int debutNom;
+    private int finNom;
+    private boolean vide;
+    
+    // Writers pour les fichiers de sortie
+    private final PrintWriter txtWriter;
+    private final PrintWriter csvWriter;
+    
+    // Texte décodé (réutilisé)
+    private final StringBuilder contenu = new StringBuilder();
+    
+    // Contexte courant (comme dans LivreHandler, les titres ne sont pas remis à zéro)
+    private int numeroLivre = 0;
+    private String titreLivre = "";
+    private String titreSection = "";
+    private String titreChapitre = "";
+    
+    // Statistiques
+    private int totalLivres = 0;
+    private int totalAuteurs = 0;
+    private int totalSections = 0;
+    private int totalChapitres = 0;
+    private int totalParagraphes = 0;
+    
+    ScanneurLivres(FileChannel canal, PrintWriter txtWriter, PrintWriter csvWriter) throws IOException {
+        this.canal = canal;
+        this.tailleFichier = canal.size();
+        this.txtWriter = txtWriter;
+        this.csvWriter = csvWriter;
+        
+        // En-tête CSV
+        csvWriter.println("Numero_Livre,Titre_Livre,Auteurs,Numero_Section,Titre_Section,Numero_Chapitre,Titre_Chapitre,Nombre_Paragraphes");
+    }
+    
+    // ───────────────────────── Structure du document ─────────────────────────
+    
+    /**
+     * Lit tout le document : prologue, racine puis chaque livre
+     */
+    void lireDocument() throws IOException, FormatNonSupporte {
+        projeter(0);
+        
+        // BOM UTF-8 accepté, BOM UTF-16 refusé
+        if (limite >= 3 && buf.get(0) == (byte) 0xEF && buf.get(1) == (byte) 0xBB && buf.get(2) == (byte) 0xBF) {
+            pos = 3;
+        } else if (limite >= 2 && (buf.get(0) == (byte) 0xFE || buf.get(0) == (byte) 0xFF)) {
+            throw new FormatNonSupporte("encodage UTF-16");
+        }
+        
+        if (prochaineBalise(false) != DEBUT) {
+            throw new FormatNonSupporte("élément racine introuvable");
+        }
+        afficher(LivreHandler.MSG_DEBUT);
+        
+        if (!vide) {
+            byte[] racine = nomCourant();
+            int type;
+            while ((type = prochaineBalise(false)) == DEBUT) {
+                exiger(LIVRE);
+                lireLivre();
+            }
+            fermer(type, racine);
+        }
+        
+        if (prochaineBalise(false) != FIN_DOCUMENT) {
+            throw new FormatNonSupporte("contenu après l'élément racine");
+        }
+        afficher(LivreHandler.MSG_FIN);
+    }
+    
+    /**
+     * Lit un <livre> (la balise ouvrante vient d'être lue)
+     */
+    private void lireLivre() throws IOException, FormatNonSupporte {
+        numeroLivre++;
+        totalLivres++;
+        
+        String livreHeader = "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n" +
+                           "LIVRE #" + numeroLivre + "\n" +
+                           "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n";
+        afficher(livreHeader);
+        
+        StringBuilder auteursLivre = new StringBuilder();
+        boolean premierAuteur = true;
+        int numeroSection = 0;
+        
+        if (!vide) {
+            int type;
+            while ((type = prochaineBalise(false)) == DEBUT) {
+                if (nomEst(TITRE)) {
+                    titreLivre = lireTexte(TITRE);
+                    afficher("\n📚 Titre : " + titreLivre + "\n");
+                } else if (nomEst(AUTEURS)) {
+                    lireAuteurs(auteursLivre);
+                    // Afficher l'en-tête des auteurs une fois
+                    if (premierAuteur) {
+                        afficher("\n✍️  Auteurs :\n");
+                        premierAuteur = false;
+                    }
+                } else if (nomEst(SECTION)) {
+                    numeroSection++;
+                    lireSection(numeroSection, auteursLivre.toString());
+                } else {
+                    throw horsSchema();
+                }
+            }
+            fermer(type, LIVRE);
+        }
+        
+        afficher("\n" + System.lineSeparator());
+    }
+    
+    /**
+     * Lit la liste <auteurs>
+     */
+    private void lireAuteurs(StringBuilder auteursLivre) throws IOException, FormatNonSupporte {
+        if (vide) return;
+        int type;
+        while ((type = prochaineBalise(false)) == DEBUT) {
+            exiger(AUTEUR);
+            totalAuteurs++;
+            
+            String nom = "";
+            String prenom = "";
+            if (!vide) {
+                int t;
+                while ((t = prochaineBalise(false)) == DEBUT) {
+                    if (nomEst(NOM)) {
+                        nom = lireTexte(NOM);
+                    } else if (nomEst(PRENOM)) {
+                        prenom = lireTexte(PRENOM);
+                    } else {
+                        throw horsSchema();
+                    }
+                }
+                fermer(t, AUTEUR);
+            }
+            
+            afficher("   - " + prenom + " " + nom + "\n");
+            
+            // Ajouter à la liste des auteurs pour CSV
+            if (auteursLivre.length() > 0) {
+                auteursLivre.append("; ");
+            }
+            auteursLivre.append(prenom).append(" ").append(nom);
+        }
+        fermer(type, AUTEURS);
+    }
+    
+    /**
+     * Lit une <section>
+     */
+    private void lireSection(int numeroSection, String auteurs) throws IOException, FormatNonSupporte {
+        totalSections++;
+        if (vide) return;
+        
+        int numeroChapitre = 0;
+        int type;
+        while ((type = prochaineBalise(false)) == DEBUT) {
+            if (nomEst(TITRE)) {
+                titreSection = lireTexte(TITRE);
+                afficher("\n  ▶ Section " + numeroSection + " : " + titreSection + "\n");
+            } else if (nomEst(CHAPITRE)) {
+                numeroChapitre++;
+                lireChapitre(numeroSection, numeroChapitre, auteurs);
+            } else {
+                throw horsSchema();
+            }
+        }
+        fermer(type, SECTION);
+    }
+    
+    /**
+     * Lit un <chapitre> et écrit sa ligne CSV
+     */
+    private void lireChapitre(int numeroSection, int numeroChapitre, String auteurs)
+            throws IOException, FormatNonSupporte {
+        totalChapitres++;
+        int numeroParagraphe = 0;
+        
+        if (!vide) {
+            int type;
+            while ((type = prochaineBalise(false)) == DEBUT) {
+                if (nomEst(TITRE)) {
+                    titreChapitre = lireTexte(TITRE);
+                    afficher("\n    📖 Chapitre " + numeroChapitre + " : " + titreChapitre + "\n");
+                } else if (nomEst(PARAGRAPHE)) {
+                    numeroParagraphe++;
+                    totalParagraphes++;
+                    if (numeroParagraphe == 1) {
+                        // Seul le premier paragraphe est décodé (extrait)
+                        String texte = lireTexte(PARAGRAPHE);
+                        String extrait = texte.length() > 100
+                            ? texte.substring(0, 100) + "..."
+                            : texte;
+                        afficher("       Premier paragraphe (extrait) :\n" +
+                                 "       \"" + extrait + "\"\n");
+                    } else if (!vide) {
+                        // Les autres sont sautés sans décodage
+                        fermer(prochaineBalise(false), PARAGRAPHE);
+                    }
+                } else {
+                    throw horsSchema();
+                }
+            }
+            fermer(type, CHAPITRE);
+        }
+        
+        // Écrire la ligne CSV pour ce chapitre
+        csvWriter.printf("\"%d\",\"%s\",\"%s\",\"%d\",\"%s\",\"%d\",\"%s\",\"%d\"\n",
+            numeroLivre,
+            Projection.echapperCSV(titreLivre),
+            Projection.echapperCSV(auteurs),
+            numeroSection,
+            Projection.echapperCSV(titreSection),
+            numeroChapitre,
+            Projection.echapperCSV(titreChapitre),
+            numeroParagraphe
+        );
+        
+        afficher("       Nombre de paragraphes : " + numeroParagraphe + "\n");
+    }
+    
+    /**
+     * Lit le texte d'un élément sans enfant (la balise ouvrante vient d'être lue)
+     */
+    private String lireTexte(byte[] nom) throws IOException, FormatNonSupporte {
+        if (vide) return "";
+        contenu.setLength(0);
+        int type = prochaineBalise(true);
+        fermer(type, nom);
+        return contenu.toString().trim();
+    }
+    
+    // ─────────────────────────── Lecture des octets ───────────────────────────
+    
+    /**
+     * Avance jusqu'à la prochaine balise ouvrante ou fermante
+     * Les commentaires et instructions de traitement sont sautés ;
+     * si garderTexte, le texte rencontré est décodé dans contenu
+     */
+    private int prochaineBalise(boolean garderTexte) throws IOException, FormatNonSupporte {
+        while (true) {
+            // Texte jusqu'au prochain '<'
+            int debutTexte = pos;
+            int i = chercherChevron(debutTexte);
+            while (i < 0) {
+                if (base + limite >= tailleFichier) {
+                    // Fin du fichier : seuls des blancs sont permis ici
+                    for (int k = debutTexte; k < limite; k++) {
+                        if (buf.get(k) > ' ' || buf.get(k) < 0) {
+                            throw new FormatNonSupporte("texte hors de l'élément racine");
+                        }
+                    }
+                    pos = limite;
+                    return FIN_DOCUMENT;
+                }
+                if (debutTexte == 0) {
+                    throw new FormatNonSupporte("texte de plus de " + TAILLE_FENETRE + " octets");
+                }
+                projeter(base + debutTexte);
+                debutTexte = 0;
+                i = chercherChevron(0);
+            }
+            if (garderTexte) {
+                decoder(debutTexte, i);
+            }
+            
+            // Garder toute la balise dans la fenêtre
+            pos = i;
+            if (limite - pos < MARGE_BALISE && base + limite < tailleFichier) {
+                projeter(base + pos);
+            }
+            
+            byte c = octet(pos + 1);
+            if (c == '/') {
+                debutNom = pos + 2;
+                finNom = finDuNom(debutNom);
+                pos = apres(finNom, (byte) '>');
+                return FIN;
+            } else if (c == '!') {
+                if (octet(pos + 2) == '-' && octet(pos + 3) == '-') {
+                    pos = sauterJusqua(pos + 4, "-->");
+                    continue;
+                }
+                throw new FormatNonSupporte(octet(pos + 2) == '[' ? "section CDATA" : "déclaration DOCTYPE");
+            } else if (c == '?') {
+                verifierInstruction();
+                continue;
+            } else {
+                debutNom = pos + 1;
+                finNom = finDuNom(debutNom);
+                // Sauter les attributs (valeurs entre guillemets comprises)
+                int j = finNom;
+                byte precedent = 0;
+                while (true) {
+                    byte b = octet(j);
+                    if (b == '"' || b == '\'') {
+                        j++;
+                        while (octet(j) != b) j++;
+                    } else if (b == '>') {
+                        break;
+                    } else if (b == '&') {
+                        throw new FormatNonSupporte("entité dans un attribut");
+                    }
+                    if (b > ' ') precedent = b;
+                    j++;
+                }
+                vide = precedent == '/';
+                pos = j + 1;
+                return DEBUT;
+            }
+        }
+    }
+    
+    /**
+     * Vérifie une instruction de traitement ; la déclaration XML doit annoncer UTF-8
+     */
+    private void verifierInstruction() throws FormatNonSupporte {
+        int debut = pos;
+        pos = sauterJusqua(pos + 2, "?>");
+        if (base == 0 && debut <= 3) {
+            String decl = new String(octetsEntre(debut, pos), StandardCharsets.US_ASCII);
+            int e = decl.indexOf("encoding");
+            if (e >= 0) {
+                String valeur = decl.substring(e + 8).replaceAll("(?s)^\\s*=\\s*[\"']([^\"']*).*", "$1");
+                if (!valeur.equalsIgnoreCase("UTF-8") && !valeur.equalsIgnoreCase("UTF8")) {
+                    throw new FormatNonSupporte("encodage " + valeur);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Décode [debut, fin) (UTF-8 + entités prédéfinies) à la suite de contenu
+     * Les fins de ligne sont normalisées en '\n' comme le fait un parseur XML
+     */
+    private void decoder(int debut, int fin) throws FormatNonSupporte {
+        int i = debut;
+        while (i < fin) {
+            int b = buf.get(i) & 0xFF;
+            if (b < 0x80) {
+                if (b == '&') {
+                    i = decoderEntite(i, fin);
+                    continue;
+                }
+                if (b == '\r') {
+                    contenu.append('\n');
+                    i += (i + 1 < fin && buf.get(i + 1) == '\n') ? 2 : 1;
+                    continue;
+                }
+                contenu.append((char) b);
+                i++;
+            } else if (b >= 0xC2 && b < 0xE0 && i + 1 < fin) {
+                contenu.append((char) (((b & 0x1F) << 6) | suite(i + 1)));
+                i += 2;
+            } else if (b >= 0xE0 && b < 0xF0 && i + 2 < fin) {
+                contenu.append((char) (((b & 0x0F) << 12) | (suite(i + 1) << 6) | suite(i + 2)));
+                i += 3;
+            } else if (b >= 0xF0 && b < 0xF5 && i + 3 < fin) {
+                contenu.appendCodePoint(((b & 0x07) << 18) | (suite(i + 1) << 12)
+                                        | (suite(i + 2) << 6) | suite(i + 3));
+                i += 4;
+            } else {
+                throw new FormatNonSupporte("séquence UTF-8 invalide");
+            }
+        }
+    }
+    
+    private int suite(int i) throws FormatNonSupporte {
+        int b = buf.get(i) & 0xFF;
+        if ((b & 0xC0) != 0x80) {
+            throw new FormatNonSupporte("séquence UTF-8 invalide");
+        }
+        return b & 0x3F;
+    }
+    
+    /**
+     * Décode une entité prédéfinie ou une référence de caractère ; retourne la position suivante
+     */
+    private int decoderEntite(int i, int fin) throws FormatNonSupporte {
+        int pointVirgule = i + 1;
+        while (pointVirgule < fin && pointVirgule - i < 12 && buf.get(pointVirgule) != ';') {
+            pointVirgule++;
+        }
+        if (pointVirgule >= fin || buf.get(pointVirgule) != ';') {
+            throw new FormatNonSupporte("entité mal formée");
+        }
+        String nom = new String(octetsEntre(i + 1, pointVirgule), StandardCharsets.US_ASCII);
+        switch (nom) {
+            case "lt":   contenu.append('<'); break;
+            case "gt":   contenu.append('>'); break;
+            case "amp":  contenu.append('&'); break;
+            case "quot": contenu.append('"'); break;
+            case "apos": contenu.append('\''); break;
+            default:
+                try {
+                    if (nom.startsWith("#x")) {
+                        contenu.appendCodePoint(Integer.parseInt(nom.substring(2), 16));
+                    } else if (nom.startsWith("#")) {
+                        contenu.appendCodePoint(Integer.parseInt(nom.substring(1)));
+                    } else {
+                        throw new FormatNonSupporte("entité &" + nom + ";");
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new FormatNonSupporte("référence de caractère &" + nom + ";");
+                }
+        }
+        return pointVirgule + 1;
+    }
+    
+    /**
+     * Position du prochain '<' à partir de depuis, ou -1 en fin de fenêtre
+     */
+    private int chercherChevron(int depuis) {
+        for (int i = depuis; i < limite; i++) {
+            if (buf.get(i) == '<') return i;
+        }
+        return -1;
+    }
+    
+    /**
+     * Fin du nom de balise commençant en debut
+     */
+    private int finDuNom(int debut) throws FormatNonSupporte {
+        int i = debut;
+        while (true) {
+            byte b = octet(i);
+            if (b == '>' || b == '/' || b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+                return i;
+            }
+            i++;
+        }
+    }
+    
+    /**
+     * Position qui suit le prochain octet attendu (seuls des blancs peuvent précéder)
+     */
+    private int apres(int depuis, byte attendu) throws FormatNonSupporte {
+        int i = depuis;
+        while (octet(i) != attendu) {
+            if (octet(i) > ' ') {
+                throw new FormatNonSupporte("balise fermante mal formée");
+            }
+            i++;
+        }
+        return i + 1;
+    }
+    
+    /**
+     * Position qui suit la prochaine occurrence de fin (commentaires, instructions)
+     * La fenêtre est re-projetée une fois si besoin
+     */
+    private int sauterJusqua(int depuis, String fin) throws FormatNonSupporte {
+        byte[] motif = octets(fin);
+        for (int essai = 0; essai < 2; essai++) {
+            for (int i = depuis; i + motif.length <= limite; i++) {
+                int k = 0;
+                while (k < motif.length && buf.get(i + k) == motif[k]) k++;
+                if (k == motif.length) return i + motif.length;
+            }
+            if (base + limite >= tailleFichier || pos == 0) break;
+            try {
+                int decalage = pos;
+                projeter(base + pos);
+                depuis -= decalage;
+            } catch (IOException e) {
+                throw new FormatNonSupporte("projection impossible : " + e.getMessage());
+            }
+        }
+        throw new FormatNonSupporte("commentaire ou instruction non terminé");
+    }
+    
+    private byte octet(int i) throws FormatNonSupporte {
+        if (i >= limite) {
+            throw new FormatNonSupporte("balise tronquée ou trop longue");
+        }
+        return buf.get(i);
+    }
+    
+    /**
+     * Projette la fenêtre qui commence à la position absolue debut
+     */
+    private void projeter(long debut) throws IOException {
+        base = debut;
+        limite = (int) Math.min(TAILLE_FENETRE, tailleFichier - debut);
+        buf = canal.map(FileChannel.MapMode.READ_ONLY, debut, limite);
+        pos = 0;
+    }
+    
+    // ─────────────────────────── Noms de balises ───────────────────────────
+    
+    private boolean nomEst(byte[] nom) {
+        if (finNom - debutNom != nom.length) return false;
+        for (int k = 0; k < nom.length; k++) {
+            if (buf.get(debutNom + k) != nom[k]) return false;
+        }
+        return true;
+    }
+    
+    private byte[] nomCourant() {
+        return octetsEntre(debutNom, finNom);
+    }
+    
+    private byte[] octetsEntre(int debut, int fin) {
+        byte[] resultat = new byte[fin - debut];
+        buf.get(debut, resultat);
+        return resultat;
+    }
+    
+    private void exiger(byte[] nom) throws FormatNonSupporte {
+        if (!nomEst(nom)) {
+            throw horsSchema();
+        }
+    }
+    
+    /**
+     * Vérifie que la dernière balise lue ferme bien l'élément attendu
+     */
+    private void fermer(int type, byte[] nom) throws FormatNonSupporte {
+        if (type != FIN || !nomEst(nom)) {
+            throw new FormatNonSupporte("balise fermante </" +
+                new String(nom, StandardCharsets.UTF_8) + "> attendue");
+        }
+    }
+    
+    private FormatNonSupporte horsSchema() {
+        return new FormatNonSupporte("élément <" +
+            new String(nomCourant(), StandardCharsets.UTF_8) + "> hors schéma");
+    }
+    
+    private static byte[] octets(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    // ─────────────────────────────── Sorties ───────────────────────────────
+    
+    /**
+     * Affiche un message sur la console et dans le fichier
+     */
+    private void afficher(String message) {
+        System.out.print(message);
+        txtWriter.print(message);
+    }
+    
+    /**
+     * Retourne les statistiques collectées (même format que LivreHandler)
+     */
+    String getStatistiques() {
+        StringBuilder sb = new StringBuilder();
+        
+        sb.append("\n📊 STATISTIQUES DU DOCUMENT XML\n");
+        sb.append("─────────────────────────────────────────────────\n");
+        sb.append("Total de livres      : ").append(totalLivres).append("\n");
+        sb.append("Total d'auteurs      : ").append(totalAuteurs).append("\n");
+        sb.append("Total de sections    : ").append(totalSections).append("\n");
+        sb.append("Total de chapitres   : ").append(totalChapitres).append("\n");
+        sb.append("Total de paragraphes : ").append(totalParagraphes).append("\n");
+        
+        if (totalLivres > 0) {
+            double moyenneSections = (double) totalSections / totalLivres;
+            double moyenneChapitres = (double) totalChapitres / totalLivres;
+            double moyenneParagraphes = (double) totalParagraphes / totalLivres;
+            
+            sb.append("\nMoyenne de sections par livre    : ").append(String.format("%.2f", moyenneSections)).append("\n");
+            sb.append("Moyenne de chapitres par livre   : ").append(String.format("%.2f", moyenneChapitres)).append("\n");
+            sb.append("Moyenne de paragraphes par livre : ").append(String.format("%.2f", moyenneParagraphes)).append("\n");
+        }
+        
+        sb.append("─────────────────────────────────────────────────\n");
+        
+        return sb.toString();
+    }
+}
@@ -0,0 +1,330 @@
+import com.sun.net.httpserver.*;
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.SAXParser;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Service HTTP local de conversion XML → CSV, lancé une fois pour de nombreuses requêtes
+ * Les factories sont créées au démarrage ; les parseurs SAX et DOM sont gardés en réserve
+ * et réinitialisés entre deux requêtes (ni recherche de service, ni construction par requête).
+ *
+ * POST /csv             corps = document bibliotheque, réponse = CSV envoyé par morceaux pendant le parsing
+ * POST /csv?moteur=rapide   même chose avec LivreHandlerRapide
+ * POST /csv?moteur=dom      arbre DOM puis parcours (le CSV part après le parsing)
+ * GET  /etat            compteurs du service en JSON
+ *
+ * Limites : au plus N parsings en même temps (--paralleles) ; au plus M requêtes en attente
+ * d'un parseur (--file), pendant au plus --attente ms. Au-delà : 503 avec Retry-After.
+ * Le CSV est écrit directement dans la connexion : un client lent ralentit son parsing.
+ * Documents avec DOCTYPE refusés (400) : pas d'entité externe lue sur le serveur.
+ *
+ * Usage : java ServeurParsing [--port 8080] [--paralleles N] [--file M] [--attente ms]
+ *         (ou java ParserSAX --serveur ...)
+ * Exemple : curl --data-binary @data/livres.xml http://localhost:8080/csv
+ */
+public class ServeurParsing {
+    
+    private final int paralleles;
+    private final int fileMax;
+    private final long attenteMs;
+    
+    // Parsings en cours (une place par parseur de chaque réserve)
+    private final Semaphore places;
+    private final ReserveParseurs reserveSax;
+    private final BlockingQueue<DocumentBuilder> reserveDom;
+    
+    // Compteurs
+    private final AtomicLong enAttente = new AtomicLong();
+    private final AtomicLong enCours = new AtomicLong();
+    private final AtomicLong traitees = new AtomicLong();
+    private final AtomicLong refusees = new AtomicLong();
+    private final AtomicLong erreurs = new AtomicLong();
+    
+    ServeurParsing(int paralleles, int fileMax, long attenteMs) throws Exception {
+        this.paralleles = paralleles;
+        this.fileMax = fileMax;
+        this.attenteMs = attenteMs;
+        this.places = new Semaphore(paralleles, true);
+        this.reserveSax = new ReserveParseurs(paralleles);
+        
+        // Mêmes réglages que ParserDOM.chargerDocument, sans DOCTYPE (comme ReserveParseurs)
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setIgnoringElementContentWhitespace(true);
+        factory.setIgnoringComments(true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        factory.setExpandEntityReferences(false);
+        this.reserveDom = new ArrayBlockingQueue<>(paralleles);
+        for (int i = 0; i < paralleles; i++) {
+            reserveDom.add(factory.newDocumentBuilder());
+        }
+    }
+    
+    public static void main(String[] args) {
+        int port = 8080;
+        int paralleles = Runtime.getRuntime().availableProcessors();
+        int fileMax = 64;
+        long attenteMs = 2000;
+        
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--paralleles") && i + 1 < args.length) {
+                paralleles = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--file") && i + 1 < args.length) {
+                fileMax = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--attente") && i + 1 < args.length) {
+                attenteMs = Long.parseLong(args[++i]);
+            }
+        }
+        
+        try {
+            HttpServer serveur = new ServeurParsing(paralleles, fileMax, attenteMs).demarrer(port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> serveur.stop(1)));
+            
+            System.out.println("🌐 Service de parsing démarré sur http://127.0.0.1:" +
+                             serveur.getAddress().getPort() + "/csv");
+            System.out.println("   " + paralleles + " parsings en parallèle au plus, " +
+                             fileMax + " requêtes en attente au plus (" + attenteMs + " ms)");
+        
+        } catch (Exception e) {
+            System.err.println("❌ Erreur au démarrage du service : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Démarre le serveur HTTP sur le port donné (0 : port libre choisi par le système)
+     */
+    HttpServer demarrer(int port) throws IOException {
+        // Local uniquement. Threads de plateforme : un parsing occupe le processeur sans bloquer,
+        // des threads virtuels ne seraient pas préemptés et les attentes bornées ne finiraient pas.
+        // Un thread par parsing, un par requête en attente, un pour /etat.
+        HttpServer serveur = HttpServer.create(new InetSocketAddress("127.0.0.1", port), fileMax);
+        serveur.createContext("/csv", this::convertir);
+        serveur.createContext("/etat", this::etat);
+        serveur.setExecutor(Executors.newFixedThreadPool(paralleles + fileMax + 1));
+        serveur.start();
+        return serveur;
+    }
+    
+    /**
+     * POST /csv : convertit le corps de la requête en CSV
+     */
+    private void convertir(HttpExchange echange) throws IOException {
+        boolean couper = false;
+        try {
+            if (!echange.getRequestMethod().equals("POST")) {
+                repondre(echange, 405, "Méthode non acceptée : POST attendu\n");
+                return;
+            }
+            String moteur = parametre(echange.getRequestURI(), "moteur", "sax");
+            if (!moteur.equals("sax") && !moteur.equals("rapide") && !moteur.equals("dom")) {
+                repondre(echange, 400, "Moteur inconnu : " + moteur + " (sax, rapide ou dom)\n");
+                return;
+            }
+            
+            // Contre-pression : file d'attente bornée, attente bornée
+            if (enAttente.incrementAndGet() > fileMax) {
+                enAttente.decrementAndGet();
+                refuser(echange);
+                return;
+            }
+            boolean obtenue;
+            try {
+                obtenue = places.tryAcquire(attenteMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                obtenue = false;
+            } finally {
+                enAttente.decrementAndGet();
+            }
+            if (!obtenue) {
+                refuser(echange);
+                return;
+            }
+            
+            enCours.incrementAndGet();
+            SortieDifferee sortie = new SortieDifferee(echange);
+            try {
+                if (moteur.equals("dom")) {
+                    convertirDom(echange.getRequestBody(), sortie);
+                } else {
+                    convertirSax(echange.getRequestBody(), sortie, moteur.equals("rapide"));
+                }
+                traitees.incrementAndGet();
+            } catch (Exception e) {
+                erreurs.incrementAndGet();
+                if (!sortie.envoyee) {
+                    repondre(echange, 400, "Document invalide : " + e.getMessage() + "\n");
+                } else {
+                    // Le statut 200 est déjà parti : la connexion est coupée sans fin de réponse
+                    // (l'exception remonte au serveur HTTP, qui ferme la connexion)
+                    System.err.println("❌ Erreur pendant l'envoi du CSV : " + e.getMessage());
+                    couper = true;
+                    throw new IOException(e);
+                }
+            } finally {
+                enCours.decrementAndGet();
+                places.release();
+            }
+        } finally {
+            if (!couper) {
+                echange.close();
+            }
+        }
+    }
+    
+    /**
+     * SAX : chaque ligne part dès que le tampon de 64 Ko est plein
+     */
+    private void convertirSax(InputStream corps, SortieDifferee sortie, boolean rapide) throws Exception {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(sortie, StandardCharsets.UTF_8), 1 << 16);
+        SAXParser parser = reserveSax.prendre();
+        try {
+            if (rapide) {
+                LivreHandlerRapide handler = new LivreHandlerRapide(SortieRapport.aucune(), writer);
+                parser.parse(new InputSource(corps), handler);
+            } else {
+                PrintWriter csvWriter = new PrintWriter(writer);
+                LivreHandler handler = new LivreHandler(SortieRapport.aucune(), csvWriter);
+                parser.parse(new InputSource(corps), handler);
+                if (csvWriter.checkError()) {
+                    throw new IOException("connexion fermée par le client");
+                }
+            }
+        } finally {
+            reserveSax.rendre(parser);
+        }
+        writer.close();
+    }
+    
+    /**
+     * DOM : même parcours que ParserDOM (RapportDOM), sans rapport texte
+     */
+    private void convertirDom(InputStream corps, SortieDifferee sortie) throws Exception {
+        DocumentBuilder builder = reserveDom.take();
+        Document doc;
+        try {
+            // Erreurs rendues au client, rien sur la console (reset() remet le gestionnaire d'origine)
+            builder.setErrorHandler(new DefaultHandler());
+            doc = builder.parse(new InputSource(corps));
+        } finally {
+            builder.reset();
+            reserveDom.add(builder);
+        }
+        doc.getDocumentElement().normalize();
+        
+        PrintWriter csvWriter = new PrintWriter(new BufferedWriter(
+            new OutputStreamWriter(sortie, StandardCharsets.UTF_8), 1 << 16));
+        csvWriter.println(Projection.TOUT.enTeteCsv());
+        VisiteurDOM.parcourir(doc.getDocumentElement(), new RapportDOM(SortieRapport.aucune(), csvWriter));
+        csvWriter.close();
+        if (csvWriter.checkError()) {
+            throw new IOException("connexion fermée par le client");
+        }
+    }
+    
+    /**
+     * GET /etat : compteurs du service
+     */
+    private void etat(HttpExchange echange) throws IOException {
+        try (echange) {
+            String json = "{\"paralleles\": " + paralleles +
+                          ", \"en_cours\": " + enCours.get() +
+                          ", \"en_attente\": " + enAttente.get() +
+                          ", \"traitees\": " + traitees.get() +
+                          ", \"refusees\": " + refusees.get() +
+                          ", \"erreurs\": " + erreurs.get() + "}\n";
+            echange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            byte[] octets = json.getBytes(StandardCharsets.UTF_8);
+            echange.sendResponseHeaders(200, octets.length);
+            echange.getResponseBody().write(octets);
+        }
+    }
+    
+    private void refuser(HttpExchange echange) throws IOException {
+        refusees.incrementAndGet();
+        echange.getResponseHeaders().set("Retry-After", "1");
+        repondre(echange, 503, "Service saturé, réessayez plus tard\n");
+    }
+    
+    private static void repondre(HttpExchange echange, int statut, String message) throws IOException {
+        byte[] octets = message.getBytes(StandardCharsets.UTF_8);
+        echange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        echange.sendResponseHeaders(statut, octets.length);
+        echange.getResponseBody().write(octets);
+    }
+    
+    /**
+     * Valeur d'un paramètre de la chaîne de requête (sans décodage : valeurs simples)
+     */
+    private static String parametre(URI uri, String nom, String defaut) {
+        String requete = uri.getRawQuery();
+        if (requete == null) return defaut;
+        for (String paire : requete.split("&")) {
+            int egal = paire.indexOf('=');
+            if (egal > 0 && paire.substring(0, egal).equals(nom)) {
+                return paire.substring(egal + 1);
+            }
+        }
+        return defaut;
+    }
+    
+    /**
+     * Corps de réponse dont l'en-tête 200 (envoi par morceaux) part au premier octet écrit :
+     * une erreur de parsing avant toute ligne CSV peut encore donner un 400
+     */
+    private static class SortieDifferee extends OutputStream {
+        private final HttpExchange echange;
+        private OutputStream corps;
+        boolean envoyee = false;
+        
+        SortieDifferee(HttpExchange echange) {
+            this.echange = echange;
+        }
+        
+        private OutputStream corps() throws IOException {
+            if (corps == null) {
+                echange.getResponseHeaders().set("Content-Type", "text/csv; charset=utf-8");
+                echange.sendResponseHeaders(200, 0);
+                corps = echange.getResponseBody();
+                envoyee = true;
+            }
+            return corps;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            corps().write(b);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0) corps().write(b, off, len);
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            if (corps != null) corps.flush();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            // Document sans livre : seulement l'en-tête, déjà écrit ; la fin de réponse est faite par l'échange
+            corps();
+            corps.flush();
+        }
+    }
+}
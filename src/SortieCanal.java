@@ -0,0 +1,255 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Sortie fichier en UTF-8 sur un FileChannel, à travers un ByteBuffer direct
+ * Les caractères sont encodés à la main dans le tampon (ni Charset, ni encodeur intermédiaire) ;
+ * les lignes CSV peuvent y être écrites champ par champ (voir Projection.ecrireCsv) :
+ * textes échappés directement dans le tampon, entiers sans passer par String,
+ * séparateurs et guillemets pré-encodés (octets()).
+ *
+ *   --tampon-sortie=N[K|M]        taille du tampon (64 Ko par défaut)
+ *   --fsync=jamais|fin|tampon     synchronisation sur disque : jamais (par défaut), à la fermeture,
+ *                                 ou après chaque vidage du tampon
+ */
+final class SortieCanal extends Writer {
+    
+    enum Synchro {
+        JAMAIS, FIN, TAMPON;
+        
+        static Synchro lire(String[] args) {
+            for (String arg : args) {
+                if (!arg.startsWith("--fsync=")) continue;
+                String valeur = arg.substring("--fsync=".length());
+                try {
+                    return valueOf(valeur.trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Synchronisation inconnue : " + valeur +
+                                                       " (jamais, fin ou tampon)");
+                }
+            }
+            return JAMAIS;
+        }
+    }
+    
+    static final int TAMPON_DEFAUT = 1 << 16;
+    
+    // Place minimale pour un caractère encodé (4 octets) ou un entier (11 octets)
+    private static final int RESERVE = 16;
+    
+    private final FileChannel canal;
+    private final ByteBuffer tampon;
+    private final Synchro synchro;
+    private final byte[] chiffres = new byte[11];
+    
+    // Moitié haute d'une paire de substitution coupée entre deux write()
+    private char hautEnAttente = 0;
+    private boolean ferme = false;
+    
+    private SortieCanal(FileChannel canal, int taille, Synchro synchro) {
+        this.canal = canal;
+        this.tampon = ByteBuffer.allocateDirect(Math.max(taille, RESERVE * 4));
+        this.synchro = synchro;
+    }
+    
+    /**
+     * Crée (ou écrase) le fichier
+     */
+    static SortieCanal ouvrir(Path fichier, int taille, Synchro synchro) throws IOException {
+        return new SortieCanal(FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING), taille, synchro);
+    }
+    
+    static SortieCanal ouvrir(Path fichier) throws IOException {
+        return ouvrir(fichier, TAMPON_DEFAUT, Synchro.JAMAIS);
+    }
+    
+    /**
+     * Lit l'option --tampon-sortie=N[K|M] ; TAMPON_DEFAUT par défaut (au plus 2 Go)
+     */
+    static int lireTampon(String[] args) {
+        return (int) OptionTaille.lire(args, "--tampon-sortie=", TAMPON_DEFAUT, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Octets déjà encodés (constantes)
+     */
+    void octets(byte[] octets) throws IOException {
+        if (tampon.remaining() < octets.length) {
+            vider();
+            if (octets.length > tampon.capacity()) {
+                ecrireCanal(ByteBuffer.wrap(octets));
+                return;
+            }
+        }
+        tampon.put(octets);
+    }
+    
+    /**
+     * Entier en décimal, sans conversion en String
+     */
+    void entier(int n) throws IOException {
+        if (tampon.remaining() < RESERVE) vider();
+        if (n == Integer.MIN_VALUE) {
+            tampon.put("-2147483648".getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        if (n < 0) {
+            tampon.put((byte) '-');
+            n = -n;
+        }
+        int k = chiffres.length;
+        do {
+            chiffres[--k] = (byte) ('0' + n % 10);
+            n /= 10;
+        } while (n != 0);
+        tampon.put(chiffres, k, chiffres.length - k);
+    }
+    
+    /**
+     * Texte d'un champ CSV : les guillemets sont doublés pendant l'encodage
+     */
+    void texteCsv(CharSequence texte) throws IOException {
+        if (texte == null) return;
+        for (int i = 0, n = texte.length(); i < n; i++) {
+            char c = texte.charAt(i);
+            if (c < 0x80 && hautEnAttente == 0) {
+                if (tampon.remaining() < 2) vider();
+                if (c == '"') tampon.put((byte) '"');
+                tampon.put((byte) c);
+            } else {
+                caractere(c);
+            }
+        }
+    }
+    
+    @Override
+    public void write(int c) throws IOException {
+        caractere((char) c);
+    }
+    
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int i = off, fin = off + len; i < fin; i++) {
+            char c = cbuf[i];
+            if (c < 0x80 && hautEnAttente == 0) {
+                if (!tampon.hasRemaining()) vider();
+                tampon.put((byte) c);
+            } else {
+                caractere(c);
+            }
+        }
+    }
+    
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        for (int i = off, fin = off + len; i < fin; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80 && hautEnAttente == 0) {
+                if (!tampon.hasRemaining()) vider();
+                tampon.put((byte) c);
+            } else {
+                caractere(c);
+            }
+        }
+    }
+    
+    /**
+     * Sans copie du texte (Writer.append passe par toString())
+     */
+    @Override
+    public Writer append(CharSequence csq, int start, int end) throws IOException {
+        if (csq == null) csq = "null";
+        for (int i = start; i < end; i++) {
+            char c = csq.charAt(i);
+            if (c < 0x80 && hautEnAttente == 0) {
+                if (!tampon.hasRemaining()) vider();
+                tampon.put((byte) c);
+            } else {
+                caractere(c);
+            }
+        }
+        return this;
+    }
+    
+    @Override
+    public Writer append(CharSequence csq) throws IOException {
+        return csq == null ? append("null", 0, 4) : append(csq, 0, csq.length());
+    }
+    
+    /**
+     * Encode un caractère en UTF-8 ; une moitié de paire isolée devient '?' (comme l'encodeur du JDK)
+     */
+    private void caractere(char c) throws IOException {
+        if (tampon.remaining() < 4) vider();
+        if (hautEnAttente != 0) {
+            char haut = hautEnAttente;
+            hautEnAttente = 0;
+            if (Character.isLowSurrogate(c)) {
+                int cp = Character.toCodePoint(haut, c);
+                tampon.put((byte) (0xF0 | (cp >> 18)));
+                tampon.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                tampon.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                tampon.put((byte) (0x80 | (cp & 0x3F)));
+                return;
+            }
+            tampon.put((byte) '?');
+        }
+        if (c < 0x80) {
+            tampon.put((byte) c);
+        } else if (c < 0x800) {
+            tampon.put((byte) (0xC0 | (c >> 6)));
+            tampon.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c)) {
+            hautEnAttente = c;
+        } else if (Character.isLowSurrogate(c)) {
+            tampon.put((byte) '?');
+        } else {
+            tampon.put((byte) (0xE0 | (c >> 12)));
+            tampon.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            tampon.put((byte) (0x80 | (c & 0x3F)));
+        }
+    }
+    
+    /**
+     * Écrit le contenu du tampon dans le canal (synchronisé si Synchro.TAMPON)
+     */
+    private void vider() throws IOException {
+        if (ferme) throw new IOException("Sortie fermée");
+        tampon.flip();
+        ecrireCanal(tampon);
+        tampon.clear();
+        if (synchro == Synchro.TAMPON) canal.force(false);
+    }
+    
+    private void ecrireCanal(ByteBuffer octets) throws IOException {
+        while (octets.hasRemaining()) {
+            canal.write(octets);
+        }
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        if (!ferme) vider();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (ferme) return;
+        try {
+            if (hautEnAttente != 0) {
+                hautEnAttente = 0;
+                caractere('?');
+            }
+            vider();
+            if (synchro != Synchro.JAMAIS) canal.force(true);
+        } finally {
+            ferme = true;
+            canal.close();
+        }
+    }
+}
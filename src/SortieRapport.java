@@ -0,0 +1,235 @@
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Sortie du rapport texte (console et/ou fichier TXT)
+ * Le texte est accumulé par lots de TAILLE_LOT caractères ; un thread d'écriture
+ * dédié vide les lots vers les cibles et ne fait un flush que lorsque la file est vide.
+ * Le parseur n'attend donc jamais le terminal, sauf si NB_LOTS lots sont en retard.
+ *
+ * Avec la cible AUCUNE (option --quiet), actif() est faux : les appelants
+ * ne construisent même pas les messages.
+ */
+class SortieRapport implements Closeable {
+    
+    /**
+     * Cibles possibles du rapport (option --sortie=...)
+     */
+    enum Cible {
+        CONSOLE(true, false),
+        TXT(false, true),
+        LES_DEUX(true, true),
+        AUCUNE(false, false);
+        
+        final boolean console;
+        final boolean fichier;
+        
+        Cible(boolean console, boolean fichier) {
+            this.console = console;
+            this.fichier = fichier;
+        }
+    }
+    
+    private static final int TAILLE_LOT = 1 << 15;
+    private static final int NB_LOTS = 64;
+    
+    // Marqueur de fin pour le thread d'écriture
+    private static final StringBuilder FIN = new StringBuilder(0);
+    
+    private final boolean console;
+    private final Writer fichier;
+    
+    // Mode asynchrone : lots pleins en attente d'écriture, lots vides à réutiliser
+    private final BlockingQueue<StringBuilder> pleins;
+    private final BlockingQueue<StringBuilder> libres;
+    private final Thread ecrivain;
+    private StringBuilder lot;
+    private volatile IOException erreur;
+    
+    private SortieRapport(boolean console, Writer fichier, boolean asynchrone) {
+        this.console = console;
+        this.fichier = fichier;
+        
+        if (asynchrone && (console || fichier != null)) {
+            pleins = new ArrayBlockingQueue<>(NB_LOTS);
+            libres = new ArrayBlockingQueue<>(NB_LOTS + 2);
+            lot = new StringBuilder(TAILLE_LOT + 1024);
+            ecrivain = new Thread(this::ecrire, "sortie-rapport");
+            ecrivain.setDaemon(true);
+            ecrivain.start();
+        } else {
+            pleins = null;
+            libres = null;
+            ecrivain = null;
+        }
+    }
+    
+    /**
+     * Ouvre une sortie asynchrone vers la cible demandée
+     * txtFile n'est créé que si la cible contient le fichier TXT
+     */
+    static SortieRapport ouvrir(Cible cible, String txtFile) throws IOException {
+        return ouvrir(cible, txtFile, SortieCanal.TAMPON_DEFAUT, SortieCanal.Synchro.JAMAIS);
+    }
+    
+    /**
+     * Idem, avec la taille du tampon et la synchronisation du fichier TXT (voir SortieCanal)
+     */
+    static SortieRapport ouvrir(Cible cible, String txtFile, int tampon, SortieCanal.Synchro synchro)
+            throws IOException {
+        Writer fichier = null;
+        if (cible.fichier) {
+            fichier = SortieCanal.ouvrir(Paths.get(txtFile), tampon, synchro);
+        }
+        return new SortieRapport(cible.console, fichier, true);
+    }
+    
+    /**
+     * Sortie synchrone vers un writer déjà ouvert (fragments, tampons en mémoire)
+     */
+    static SortieRapport synchrone(PrintWriter txtWriter, boolean console) {
+        return new SortieRapport(console, txtWriter, false);
+    }
+    
+    /**
+     * Sortie qui ne produit rien (--quiet)
+     */
+    static SortieRapport aucune() {
+        return new SortieRapport(false, null, false);
+    }
+    
+    /**
+     * Lit l'option --sortie=console|txt|les-deux|aucune (ou --quiet) ; LES_DEUX par défaut
+     */
+    static Cible lireCible(String[] args) {
+        Cible cible = Cible.LES_DEUX;
+        for (String arg : args) {
+            if (arg.equals("--quiet")) {
+                cible = Cible.AUCUNE;
+            } else if (arg.startsWith("--sortie=")) {
+                String valeur = arg.substring("--sortie=".length());
+                switch (valeur) {
+                    case "console":  cible = Cible.CONSOLE; break;
+                    case "txt":      cible = Cible.TXT; break;
+                    case "les-deux": cible = Cible.LES_DEUX; break;
+                    case "aucune":   cible = Cible.AUCUNE; break;
+                    default:
+                        throw new IllegalArgumentException("Sortie inconnue : " + valeur +
+                            " (console, txt, les-deux ou aucune)");
+                }
+            }
+        }
+        return cible;
+    }
+    
+    /**
+     * Faux si le rapport n'a aucune cible : inutile de construire le texte
+     */
+    boolean actif() {
+        return console || fichier != null;
+    }
+    
+    /**
+     * Ajoute un message au rapport
+     * Le message est copié dans le lot : l'appelant peut réutiliser son StringBuilder
+     */
+    void afficher(CharSequence message) {
+        if (ecrivain == null) {
+            // Mode synchrone
+            if (console) System.out.append(message);
+            if (fichier != null) {
+                try {
+                    fichier.append(message);
+                } catch (IOException e) {
+                    erreur = e;
+                }
+            }
+            return;
+        }
+        if (lot == null) return;
+        lot.append(message);
+        if (lot.length() >= TAILLE_LOT) {
+            envoyer();
+        }
+    }
+    
+    /**
+     * Passe le lot courant au thread d'écriture et en prend un vide
+     */
+    private void envoyer() {
+        try {
+            pleins.put(lot);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        lot = libres.poll();
+        if (lot == null) {
+            lot = new StringBuilder(TAILLE_LOT + 1024);
+        }
+    }
+    
+    /**
+     * Boucle du thread d'écriture
+     * Après une erreur d'écriture, les lots sont encore consommés (mais jetés)
+     * pour ne jamais bloquer le parseur ; l'erreur est relancée par close()
+     */
+    private void ecrire() {
+        try {
+            while (true) {
+                StringBuilder l = pleins.take();
+                if (l != FIN) {
+                    if (erreur == null) {
+                        try {
+                            if (console) System.out.append(l);
+                            if (fichier != null) fichier.append(l);
+                        } catch (IOException e) {
+                            erreur = e;
+                        }
+                    }
+                    l.setLength(0);
+                    libres.offer(l);
+                }
+                // Vidage groupé : seulement quand il n'y a plus rien en attente
+                if (erreur == null && (l == FIN || pleins.isEmpty())) {
+                    try {
+                        if (console) System.out.flush();
+                        if (fichier != null) fichier.flush();
+                    } catch (IOException e) {
+                        erreur = e;
+                    }
+                }
+                if (l == FIN) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Envoie le dernier lot, attend le thread d'écriture et ferme le fichier
+     */
+    @Override
+    public void close() throws IOException {
+        if (ecrivain != null && lot != null) {
+            if (lot.length() > 0) {
+                envoyer();
+            }
+            lot = null;
+            try {
+                pleins.put(FIN);
+                ecrivain.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (fichier != null) {
+            fichier.close();
+        }
+        if (erreur != null) {
+            throw erreur;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Découpage du texte français en termes : suites de lettres et de chiffres,
+ * mises en minuscules et sans accents (é → e, ç → c, œ → oe, æ → ae, ß → ss)
+ * Les termes d'une seule lettre (l', d', c'...) sont ignorés ; les termes trop longs sont tronqués
+ */
+class Tokeniseur {
+    
+    /**
+     * Reçoit chaque terme ; le tableau est réutilisé pour le terme suivant
+     */
+    interface Receveur {
+        void terme(char[] caracteres, int longueur);
+    }
+    
+    static final int LONGUEUR_MAX = 64;
+    
+    // Pliage des caractères U+0000..U+024F (0 = séparateur) et second caractère des ligatures
+    private static final char[] PLI = new char[0x250];
+    private static final char[] SECOND = new char[0x250];
+    
+    static {
+        for (char c = 0; c < PLI.length; c++) {
+            if (Character.isLetterOrDigit(c)) {
+                String decompose = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+                PLI[c] = Character.toLowerCase(decompose.charAt(0));
+            }
+        }
+        ligature('Œ', 'o', 'e');
+        ligature('œ', 'o', 'e');
+        ligature('Æ', 'a', 'e');
+        ligature('æ', 'a', 'e');
+        ligature('ß', 's', 's');
+    }
+    
+    private static void ligature(char c, char premier, char second) {
+        PLI[c] = premier;
+        SECOND[c] = second;
+    }
+    
+    private final Receveur receveur;
+    private final char[] terme = new char[LONGUEUR_MAX];
+    private int longueur = 0;
+    
+    Tokeniseur(Receveur receveur) {
+        this.receveur = receveur;
+    }
+    
+    /**
+     * Ajoute du texte ; un terme peut continuer d'un appel à l'autre
+     */
+    void ajouter(char[] ch, int debut, int n) {
+        for (int i = debut; i < debut + n; i++) {
+            char c = ch[i];
+            char plie;
+            char second = 0;
+            if (c < PLI.length) {
+                plie = PLI[c];
+                second = SECOND[c];
+            } else {
+                plie = Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : 0;
+            }
+            
+            if (plie == 0) {
+                terminer();
+            } else {
+                if (longueur < LONGUEUR_MAX) terme[longueur++] = plie;
+                if (second != 0 && longueur < LONGUEUR_MAX) terme[longueur++] = second;
+            }
+        }
+    }
+    
+    /**
+     * Fin du texte : émet le terme en cours
+     */
+    void terminer() {
+        if (longueur > 1) {
+            receveur.terme(terme, longueur);
+        }
+        longueur = 0;
+    }
+    
+    /**
+     * Termes d'une chaîne (pour les requêtes)
+     */
+    static List<String> termes(String texte) {
+        List<String> resultat = new ArrayList<>();
+        Tokeniseur t = new Tokeniseur((caracteres, longueur) -> resultat.add(new String(caracteres, 0, longueur)));
+        t.ajouter(texte.toCharArray(), 0, texte.length());
+        t.terminer();
+        return resultat;
+    }
+}
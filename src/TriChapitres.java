@@ -0,0 +1,309 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Tri externe des lignes CSV des chapitres (option --tri=auteurs|titre_chapitre|paragraphes)
+ * Les lignes sont gardées en mémoire jusqu'au budget (--memoire-tri=64M par défaut), puis triées
+ * et écrites dans une séquence temporaire ; à la fin, les séquences sont fusionnées (k voies,
+ * lectures NIO tamponnées) dans le CSV. Au-delà de FUSION_MAX séquences, la fusion se fait en plusieurs passes.
+ * Le tri est stable : à clé égale, les lignes gardent l'ordre du document.
+ * close() supprime les séquences restantes si le traitement s'arrête avant terminer().
+ */
+class TriChapitres implements AutoCloseable {
+    
+    enum Critere {
+        AUTEURS(Projection.Champ.AUTEURS),
+        TITRE_CHAPITRE(Projection.Champ.TITRE_CHAPITRE),
+        PARAGRAPHES(null);
+        
+        // Champ texte dont la clé a besoin (null : le nombre de paragraphes est toujours produit)
+        final Projection.Champ champ;
+        
+        Critere(Projection.Champ champ) {
+            this.champ = champ;
+        }
+        
+        static Critere lire(String nom) {
+            try {
+                return valueOf(nom.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Critère de tri inconnu : " + nom +
+                                                   " (attendus : auteurs, titre_chapitre, paragraphes)");
+            }
+        }
+    }
+    
+    static final long BUDGET_DEFAUT = 64L << 20;
+    
+    // Séquences fusionnées en une passe, et tampon de lecture de chacune
+    private static final int FUSION_MAX = 128;
+    private static final int TAMPON_LECTURE = 1 << 16;
+    
+    // Coût estimé d'une ligne en mémoire, en plus des caractères (objets, références)
+    private static final int SURCOUT_LIGNE = 96;
+    
+    private final Critere critere;
+    private final long budget;
+    private final Path dossier;
+    
+    private final List<Ligne> lignes = new ArrayList<>();
+    private long memoire = 0;
+    private long rang = 0;
+    private final List<Path> sequences = new ArrayList<>();
+    private int nbSequencesEcrites = 0;
+    
+    /**
+     * Une ligne et sa clé ; rang = position dans le document (stabilité du tri)
+     */
+    private record Ligne(String cle, int entier, long rang, String csv) {
+    }
+    
+    private final Comparator<Ligne> ordre;
+    
+    TriChapitres(Critere critere, long budget, Path dossier) {
+        this.critere = critere;
+        // Le budget ne peut pas dépasser la moitié du tas (le reste sert au parsing et au tri)
+        this.budget = Math.min(budget, Runtime.getRuntime().maxMemory() / 2);
+        this.dossier = dossier;
+        Comparator<Ligne> parCle = critere == Critere.PARAGRAPHES
+            ? Comparator.comparingInt(Ligne::entier)
+            : Comparator.comparing(Ligne::cle);
+        this.ordre = parCle.thenComparingLong(Ligne::rang);
+    }
+    
+    /**
+     * Lit l'option --memoire-tri=N[K|M|G] ; BUDGET_DEFAUT par défaut
+     */
+    static long lireBudget(String[] args) {
+        return OptionTaille.lire(args, "--memoire-tri=", BUDGET_DEFAUT, Long.MAX_VALUE);
+    }
+    
+    /**
+     * Ajoute la ligne CSV d'un chapitre
+     */
+    void ajouter(String auteurs, String titreChapitre, int nbParagraphes, String csv) throws IOException {
+        String cle = critere == Critere.AUTEURS ? auteurs
+                   : critere == Critere.TITRE_CHAPITRE ? titreChapitre : null;
+        lignes.add(new Ligne(cle, nbParagraphes, rang++, csv));
+        memoire += SURCOUT_LIGNE + 2L * csv.length() + (cle == null ? 0 : 2L * cle.length());
+        if (memoire >= budget) {
+            deverser();
+        }
+    }
+    
+    /**
+     * Trie les lignes en mémoire et les écrit dans une nouvelle séquence
+     */
+    private void deverser() throws IOException {
+        lignes.sort(ordre);
+        Path sequence = Files.createTempFile(dossier, "tri_", ".seq");
+        sequences.add(sequence);
+        nbSequencesEcrites++;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                 Files.newOutputStream(sequence), 1 << 16))) {
+            for (Ligne l : lignes) {
+                ecrire(out, l);
+            }
+        }
+        lignes.clear();
+        memoire = 0;
+    }
+    
+    private void ecrire(DataOutputStream out, Ligne l) throws IOException {
+        if (l.cle() != null) {
+            byte[] cle = l.cle().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(cle.length);
+            out.write(cle);
+        } else {
+            out.writeInt(l.entier());
+        }
+        out.writeLong(l.rang());
+        byte[] csv = l.csv().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(csv.length);
+        out.write(csv);
+    }
+    
+    /**
+     * Écrit toutes les lignes triées dans le CSV et supprime les séquences temporaires
+     */
+    void terminer(Writer csvWriter) throws IOException {
+        try {
+            if (sequences.isEmpty()) {
+                // Tout a tenu dans le budget : tri en mémoire
+                lignes.sort(ordre);
+                for (Ligne l : lignes) {
+                    csvWriter.write(l.csv());
+                }
+                lignes.clear();
+                return;
+            }
+            if (!lignes.isEmpty()) {
+                deverser();
+            }
+            
+            // Passes intermédiaires tant qu'il y a trop de séquences pour une seule fusion
+            while (sequences.size() > FUSION_MAX) {
+                List<Path> lot = new ArrayList<>(sequences.subList(0, FUSION_MAX));
+                sequences.subList(0, FUSION_MAX).clear();
+                Path fusion = Files.createTempFile(dossier, "tri_", ".seq");
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                         Files.newOutputStream(fusion), 1 << 16))) {
+                    fusionner(lot, l -> ecrire(out, l));
+                }
+                sequences.add(fusion);
+                nbSequencesEcrites++;
+            }
+            fusionner(sequences, l -> csvWriter.write(l.csv()));
+        } finally {
+            close();
+        }
+    }
+    
+    /**
+     * Supprime les séquences temporaires encore sur disque (sans effet après terminer())
+     */
+    @Override
+    public void close() {
+        for (Path sequence : sequences) {
+            try {
+                Files.deleteIfExists(sequence);
+            } catch (IOException e) {
+                System.err.println("⚠️ Séquence de tri non supprimée : " + sequence + " (" + e.getMessage() + ")");
+            }
+        }
+        sequences.clear();
+        lignes.clear();
+    }
+    
+    private interface Destination {
+        void ecrire(Ligne l) throws IOException;
+    }
+    
+    /**
+     * Fusion k voies : la plus petite tête de séquence est écrite, puis remplacée par la suivante
+     * Les séquences fusionnées sont supprimées à la fin
+     */
+    private void fusionner(List<Path> lot, Destination destination) throws IOException {
+        PriorityQueue<LecteurSequence> tas = new PriorityQueue<>(lot.size(),
+            (a, b) -> ordre.compare(a.tete, b.tete));
+        List<LecteurSequence> lecteurs = new ArrayList<>();
+        try {
+            for (Path sequence : lot) {
+                LecteurSequence lecteur = new LecteurSequence(sequence, critere != Critere.PARAGRAPHES);
+                lecteurs.add(lecteur);
+                if (lecteur.avancer()) {
+                    tas.add(lecteur);
+                }
+            }
+            while (!tas.isEmpty()) {
+                LecteurSequence lecteur = tas.poll();
+                destination.ecrire(lecteur.tete);
+                if (lecteur.avancer()) {
+                    tas.add(lecteur);
+                }
+            }
+        } finally {
+            for (LecteurSequence lecteur : lecteurs) {
+                lecteur.canal.close();
+            }
+            for (Path sequence : lot) {
+                Files.deleteIfExists(sequence);
+            }
+        }
+    }
+    
+    /**
+     * Nombre de séquences écrites sur disque (0 si le tri s'est fait en mémoire)
+     */
+    int getNombreSequences() {
+        return nbSequencesEcrites;
+    }
+    
+    Critere getCritere() {
+        return critere;
+    }
+    
+    /**
+     * Lecture séquentielle d'une séquence à travers un tampon (FileChannel)
+     */
+    private static final class LecteurSequence {
+        final FileChannel canal;
+        final ByteBuffer tampon = ByteBuffer.allocate(TAMPON_LECTURE);
+        final boolean cleTexte;
+        Ligne tete;
+        
+        LecteurSequence(Path sequence, boolean cleTexte) throws IOException {
+            this.canal = FileChannel.open(sequence, StandardOpenOption.READ);
+            this.cleTexte = cleTexte;
+            tampon.flip();
+        }
+        
+        /**
+         * Lit la ligne suivante dans tete ; faux à la fin de la séquence
+         */
+        boolean avancer() throws IOException {
+            if (!disponible(4)) {
+                tete = null;
+                return false;
+            }
+            String cle = null;
+            int entier = 0;
+            if (cleTexte) {
+                cle = lireTexte();
+            } else {
+                entier = tampon.getInt();
+            }
+            exiger(8);
+            long rang = tampon.getLong();
+            exiger(4);
+            tete = new Ligne(cle, entier, rang, lireTexte());
+            return true;
+        }
+        
+        private String lireTexte() throws IOException {
+            exiger(4);
+            int n = tampon.getInt();
+            if (n <= tampon.capacity()) {
+                exiger(n);
+                String s = new String(tampon.array(), tampon.position(), n, StandardCharsets.UTF_8);
+                tampon.position(tampon.position() + n);
+                return s;
+            }
+            // Texte plus long que le tampon
+            byte[] octets = new byte[n];
+            int lus = 0;
+            while (lus < n) {
+                exiger(1);
+                int k = Math.min(n - lus, tampon.remaining());
+                tampon.get(octets, lus, k);
+                lus += k;
+            }
+            return new String(octets, StandardCharsets.UTF_8);
+        }
+        
+        private void exiger(int n) throws IOException {
+            if (!disponible(n)) {
+                throw new EOFException("Séquence de tri tronquée");
+            }
+        }
+        
+        /**
+         * Recharge le tampon si moins de n octets y restent ; faux si le fichier n'en contient plus assez
+         */
+        private boolean disponible(int n) throws IOException {
+            while (tampon.remaining() < n) {
+                tampon.compact();
+                int lus = canal.read(tampon);
+                tampon.flip();
+                if (lus < 0) {
+                    return tampon.remaining() >= n;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+import org.w3c.dom.*;
+
+/**
+ * Visiteur d'un arbre DOM : entrer() à l'ouverture de chaque élément, sortir() à sa fermeture
+ */
+interface VisiteurDOM {
+    
+    void entrer(Element element);
+    
+    void sortir(Element element);
+    
+    /**
+     * Parcours en profondeur itératif (firstChild/nextSibling) : chaque nœud
+     * est visité une seule fois, sans NodeList ni récursion
+     */
+    static void parcourir(Element racine, VisiteurDOM visiteur) {
+        Node node = racine;
+        while (true) {
+            if (node.getNodeType() == Node.ELEMENT_NODE) {
+                visiteur.entrer((Element) node);
+                Node enfant = node.getFirstChild();
+                if (enfant != null) {
+                    node = enfant;
+                    continue;
+                }
+                visiteur.sortir((Element) node);
+            }
+            
+            // Remonter jusqu'au premier ancêtre qui a un frère suivant
+            while (node != racine && node.getNextSibling() == null) {
+                node = node.getParentNode();
+                visiteur.sortir((Element) node);
+            }
+            if (node == racine) {
+                return;
+            }
+            node = node.getNextSibling();
+        }
+    }
+}